@@ -0,0 +1,50 @@
+package com.inditex.technicaltest.prices.benchmarks;
+
+import com.inditex.technicaltest.prices.PricesApplication;
+import com.inditex.technicaltest.prices.services.PriceService;
+import com.inditex.technicaltest.prices.support.SyntheticCatalogue;
+import org.springframework.beans.factory.annotation.BeanFactoryAnnotationUtils;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Application context without web server on its own H2 database, with no seed data.
+ */
+public final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    // given as command line arguments, over application.yml
+    public static ConfigurableApplicationContext start(String database, String... properties) {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:h2:mem:" + database + ";DB_CLOSE_ON_EXIT=FALSE",
+                "--spring.flyway.locations=classpath:db/migration,classpath:db/vendor/{vendor}",
+                "--prices.cache.enabled=false",
+                "--logging.level.com.inditex.technicaltest.prices=WARN")); // otherwise the log lines of every call are measured too
+        Arrays.stream(properties).map(p -> "--" + p).forEach(args::add);
+        return new SpringApplicationBuilder(PricesApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args.toArray(String[]::new));
+    }
+
+    public static ConfigurableApplicationContext start(String database, SyntheticCatalogue catalogue, String... properties) throws SQLException {
+        ConfigurableApplicationContext context = start(database, properties);
+        try (Connection connection = context.getBean(DataSource.class).getConnection()) {
+            catalogue.load(connection);
+        }
+        return context;
+    }
+
+    public static PriceService engine(ConfigurableApplicationContext context) {
+        return BeanFactoryAnnotationUtils.qualifiedBeanOfType(context.getBeanFactory(), PriceService.class, PriceService.ENGINE);
+    }
+}
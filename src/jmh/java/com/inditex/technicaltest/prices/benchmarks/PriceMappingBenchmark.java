@@ -0,0 +1,36 @@
+package com.inditex.technicaltest.prices.benchmarks;
+
+import com.inditex.technicaltest.prices.dtos.PriceDTO;
+import com.inditex.technicaltest.prices.dtos.PriceRequest;
+import com.inditex.technicaltest.prices.dtos.PriceResponse;
+import com.inditex.technicaltest.prices.models.PriceView;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builder mappings done by PriceController on every lookup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PriceMappingBenchmark {
+    private final PriceRequest request = new PriceRequest(35455L, 1L, LocalDateTime.parse("2020-06-14T16:00:00"));
+    private final PriceView price = new PriceView(2L, 1L, 35455L, LocalDateTime.parse("2020-06-14T15:00:00"),
+            LocalDateTime.parse("2020-06-14T18:30:00"), 1, new BigDecimal("25.45"), "EUR");
+
+    @Benchmark
+    public PriceDTO requestToDTO() {
+        return PriceDTO.from(request).build();
+    }
+
+    @Benchmark
+    public PriceResponse viewToResponse() {
+        return PriceResponse.from(price).build();
+    }
+}
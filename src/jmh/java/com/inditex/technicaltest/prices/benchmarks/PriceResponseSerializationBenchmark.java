@@ -0,0 +1,45 @@
+package com.inditex.technicaltest.prices.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.inditex.technicaltest.prices.dtos.PriceResponse;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the lookup response, with the same ObjectMapper defaults Spring Boot applies.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PriceResponseSerializationBenchmark {
+    private final PriceResponse response = new PriceResponse(2L, 35455L, 1L, LocalDateTime.parse("2020-06-14T15:00:00"),
+            LocalDateTime.parse("2020-06-14T18:30:00"), new BigDecimal("25.45"));
+
+    private ObjectMapper objectMapper;
+    private ObjectWriter writer;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        writer = objectMapper.writerFor(PriceResponse.class);
+    }
+
+    @Benchmark
+    public byte[] objectMapper() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] typedWriter() throws JsonProcessingException {
+        return writer.writeValueAsBytes(response);
+    }
+}
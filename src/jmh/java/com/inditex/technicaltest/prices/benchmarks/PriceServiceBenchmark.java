@@ -0,0 +1,64 @@
+package com.inditex.technicaltest.prices.benchmarks;
+
+import com.inditex.technicaltest.prices.dtos.PriceDTO;
+import com.inditex.technicaltest.prices.models.PriceView;
+import com.inditex.technicaltest.prices.services.PriceService;
+import com.inditex.technicaltest.prices.services.timeline.PriceResolution;
+import com.inditex.technicaltest.prices.support.SyntheticCatalogue;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.sql.SQLException;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PriceServiceImpl against H2, cache disabled, over catalogues of growing size: resolve, what GET /api/prices asks
+ * the engine on a cache miss, and getProductPriceOfBrandOnDate, the single-row lookup.
+ * 10^7 rows need a bigger heap: -jvmArgsAppend -Xmx8g -p rows=10000000
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 5) // the query path needs a while to get compiled
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PriceServiceBenchmark {
+    private static final int LOOKUPS = 1024;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private PriceService priceService;
+    private PriceDTO[] lookups;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        SyntheticCatalogue catalogue = SyntheticCatalogue.ofRows(rows);
+        context = BenchmarkContext.start("benchmark" + rows, catalogue);
+        priceService = BenchmarkContext.engine(context);
+        Random random = new Random(42);
+        lookups = new PriceDTO[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            lookups[i] = catalogue.randomLookup(random);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public PriceResolution resolve() {
+        return priceService.resolve(lookups[next++ & (LOOKUPS - 1)]);
+    }
+
+    @Benchmark
+    public Optional<PriceView> getProductPriceOfBrandOnDate() {
+        return priceService.getProductPriceOfBrandOnDate(lookups[next++ & (LOOKUPS - 1)]);
+    }
+}
@@ -0,0 +1,61 @@
+package com.inditex.technicaltest.prices.benchmarks;
+
+import com.inditex.technicaltest.prices.models.domain.Price;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import static com.inditex.technicaltest.prices.repositories.PriceSpecifications.brandIs;
+import static com.inditex.technicaltest.prices.repositories.PriceSpecifications.onDate;
+import static com.inditex.technicaltest.prices.repositories.PriceSpecifications.productIs;
+
+/**
+ * Building the PriceSpecifications used by the diagnostics timeline, and turning them into a criteria query
+ * as Spring Data does before every execution. Nothing is sent to the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PriceSpecificationsBenchmark {
+    private final LocalDateTime date = LocalDateTime.parse("2020-06-14T16:00:00");
+    private final Long brandId = 1L;
+    private final Long productId = 35455L;
+
+    private ConfigurableApplicationContext context;
+    private CriteriaBuilder criteriaBuilder;
+    private Specification<Price> specification;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("benchmarkspecifications");
+        criteriaBuilder = context.getBean(EntityManagerFactory.class).getCriteriaBuilder();
+        specification = compose();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Specification<Price> compose() {
+        return brandIs(brandId).and(productIs(productId)).and(onDate(date));
+    }
+
+    @Benchmark
+    public CriteriaQuery<Price> toCriteriaQuery() {
+        CriteriaQuery<Price> query = criteriaBuilder.createQuery(Price.class);
+        Root<Price> root = query.from(Price.class);
+        return query.where(specification.toPredicate(root, query, criteriaBuilder));
+    }
+}
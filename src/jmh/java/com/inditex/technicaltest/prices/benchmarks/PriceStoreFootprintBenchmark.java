@@ -0,0 +1,183 @@
+package com.inditex.technicaltest.prices.benchmarks;
+
+import com.inditex.technicaltest.prices.models.PriceKey;
+import com.inditex.technicaltest.prices.models.PriceView;
+import com.inditex.technicaltest.prices.models.domain.Audit;
+import com.inditex.technicaltest.prices.models.domain.Brand;
+import com.inditex.technicaltest.prices.models.domain.Price;
+import com.inditex.technicaltest.prices.models.domain.Product;
+import com.inditex.technicaltest.prices.services.memory.PriceIndex;
+import com.inditex.technicaltest.prices.services.offheap.OffHeapPriceStore;
+import com.inditex.technicaltest.prices.services.timeline.PriceTimelineCompiler;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Memory and garbage collection cost of holding the catalogue: Price entities with their Audit and shared Brand and
+ * Product, the PriceIndex of the memory engine, and the OffHeapPriceStore. The setup prints the heap and direct bytes
+ * per row and the pause of a full collection with the catalogue alive; the benchmark runs lookups on it, with the gc
+ * profiler counting the collections they cause. Rows follow SyntheticCatalogue: 10 brands, 2 overlapping rows per
+ * brand/product.
+ * <pre>
+ *     mvn -Pjmh test-compile exec:exec -Djmh.include=PriceStoreFootprint -Djmh.args="-p rows=10000000 -p store=offheap -jvmArgsAppend -XX:MaxDirectMemorySize=4g -prof gc"
+ * </pre>
+ * Measured on a single core (serial collector) with -Xmx3g, entities and PriceIndex at 4 * 10^6 rows, the off-heap
+ * store at 10^7 and 2 * 10^7:
+ * <pre>
+ *                       heap B/row  direct B/row  full GC             lookup   lookup alloc
+ *     entities          366         0             1.2 s (3.1 s/10^7)  520 ns   32 B
+ *     PriceIndex        384         0             1.6 s (4.1 s/10^7)  550 ns   48 B
+ *     OffHeapPriceStore 0           102           3-4 ms              150 ns   0 B
+ * </pre>
+ * At 10^7 rows that is 3.7 GB of heap as entities, 3.8 GB as PriceIndex and 1 GB off the heap; at 5 * 10^7, 18 and
+ * 19 GB of heap, with full collections of 15 and 20 s growing with the rows, against 5.1 GB off the heap and a full
+ * collection that stays at a few milliseconds. The heap figures beyond 4 * 10^6 rows are extrapolated, they do not
+ * fit in the 5 GB of the machine measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class PriceStoreFootprintBenchmark {
+    private static final LocalDateTime FIRST_DATE = LocalDateTime.parse("2020-01-01T00:00:00");
+    private static final int BRANDS = 10;
+    private static final int LOOKUPS = 1 << 16;
+
+    @Param({"1000000"})
+    private int rows;
+
+    @Param({"entities", "heap", "offheap"})
+    private String store;
+
+    private int products;
+    private Map<PriceKey, List<Price>> entities;
+    private PriceIndex priceIndex;
+    private OffHeapPriceStore offHeapStore;
+    // lookups drawn beforehand, so that the benchmark allocates only what the stores do
+    private final long[] brandIds = new long[LOOKUPS];
+    private final long[] productIds = new long[LOOKUPS];
+    private final LocalDateTime[] dates = new LocalDateTime[LOOKUPS];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        products = Math.max(1, rows / (2 * BRANDS));
+        long heapBefore = usedHeap();
+        long directBefore = usedDirect();
+        switch (store) {
+            case "entities" -> {
+                entities = new HashMap<>();
+                Map<Long, Brand> brands = new HashMap<>();
+                Map<Long, Product> productEntities = new HashMap<>();
+                forEachKey(keyRows -> keyRows.forEach(row -> {
+                    Price price = new Price(row.priceList(), row.startDate(), row.endDate(), row.curr(), row.priority(),
+                            brands.computeIfAbsent(row.brandId(), id -> new Brand(id, "BRAND " + id, new HashSet<>(), new Audit())),
+                            productEntities.computeIfAbsent(row.productId(), id -> new Product(id, "PRODUCT " + id, new HashSet<>(), new Audit())),
+                            row.value(), audit());
+                    entities.computeIfAbsent(PriceKey.of(row), key -> new ArrayList<>(2)).add(price);
+                }));
+            }
+            case "heap" -> {
+                List<PriceView> all = new ArrayList<>(rows);
+                forEachKey(all::addAll);
+                priceIndex = PriceIndex.of(all);
+            }
+            case "offheap" -> {
+                OffHeapPriceStore.Builder builder = OffHeapPriceStore.builder(rows);
+                forEachKey(keyRows -> builder.add(keyRows.get(0).brandId(), keyRows.get(0).productId(), PriceTimelineCompiler.compile(keyRows)));
+                offHeapStore = builder.build();
+            }
+            default -> throw new IllegalArgumentException("unknown store " + store);
+        }
+        long heap = usedHeap() - heapBefore;
+        long direct = usedDirect() - directBefore;
+        long fullGc = fullGcMillis();
+        System.out.printf("%n[footprint] store=%s rows=%d: heap %d bytes/row, direct %d bytes/row, full GC %d ms%n",
+                store, rows, heap / rows, direct / rows, fullGc);
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < LOOKUPS; i++) {
+            brandIds[i] = 1 + random.nextInt(BRANDS);
+            productIds[i] = 1 + random.nextInt(products);
+            dates[i] = FIRST_DATE.plusSeconds(random.nextLong(28L * 86_400));
+        }
+    }
+
+    @Benchmark
+    public void lookup(Blackhole blackhole) {
+        int i = next++ & (LOOKUPS - 1);
+        long brandId = brandIds[i];
+        long productId = productIds[i];
+        LocalDateTime date = dates[i];
+        switch (store) {
+            case "entities" -> { // the highest priority of the prices holding the date, as the database query does
+                Price winner = null;
+                for (Price price : entities.getOrDefault(new PriceKey(brandId, productId), List.of())) {
+                    if (!date.isBefore(price.getStartDate()) && !date.isAfter(price.getEndDate())
+                            && (winner == null || price.getPriority() > winner.getPriority())) {
+                        winner = price;
+                    }
+                }
+                blackhole.consume(winner);
+            }
+            case "heap" -> blackhole.consume(priceIndex.find(brandId, productId, date));
+            default -> blackhole.consume(offHeapStore.segmentAt(brandId, productId, date));
+        }
+    }
+
+    // rows of SyntheticCatalogue, handed over brand/product by brand/product
+    private void forEachKey(Consumer<List<PriceView>> consumer) {
+        long priceList = 1;
+        for (long brandId = 1; brandId <= BRANDS; brandId++) {
+            for (long productId = 1; productId <= products; productId++) {
+                List<PriceView> keyRows = new ArrayList<>(2);
+                for (int month = 0; month < 2; month++) {
+                    long id = priceList++;
+                    keyRows.add(new PriceView(id, brandId, productId, FIRST_DATE.plusMonths(month),
+                            FIRST_DATE.plusMonths(month + 1 + id % 3), (int) (id % 3), BigDecimal.valueOf(1000 + id % 9000, 2), "EUR"));
+                }
+                consumer.accept(keyRows);
+            }
+        }
+    }
+
+    private static Audit audit() {
+        Audit audit = new Audit();
+        audit.prePersist();
+        return audit;
+    }
+
+    private static long usedHeap() {
+        System.gc();
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static long usedDirect() {
+        return ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class).stream()
+                .filter(pool -> pool.getName().equals("direct"))
+                .mapToLong(BufferPoolMXBean::getMemoryUsed)
+                .sum();
+    }
+
+    private static long fullGcMillis() {
+        long before = ManagementFactory.getGarbageCollectorMXBeans().stream().mapToLong(GarbageCollectorMXBean::getCollectionTime).sum();
+        System.gc();
+        return ManagementFactory.getGarbageCollectorMXBeans().stream().mapToLong(GarbageCollectorMXBean::getCollectionTime).sum() - before;
+    }
+}
@@ -0,0 +1,210 @@
+package com.inditex.technicaltest.prices.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inditex.technicaltest.prices.PricesApplication;
+import com.inditex.technicaltest.prices.actuator.VirtualThreadsEndpoint;
+import com.inditex.technicaltest.prices.dtos.VirtualThreadsResponse;
+import com.inditex.technicaltest.prices.support.SyntheticCatalogue;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.boot.web.reactive.context.ReactiveWebApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load test of GET /api/prices.
+ * <p>
+ * Starts the application on a random port over an H2 database loaded with a {@link SyntheticCatalogue}, and sends
+ * requests at a fixed rate whatever the response times are, with at most as many requests in flight as clients. The
+ * brand/product of each request is drawn with a Zipf skew, and the date anywhere in the catalogue. After a warm-up
+ * that is not reported, the latencies are recorded in an HdrHistogram and the report is written as JSON, next to the
+ * full percentile distribution. The process exits with 1 when a threshold is breached.
+ * <pre>
+ * mvn -Ploadtest test-compile exec:exec -Dloadtest.args="rate=1000 clients=64 skew=1.2 max-p99=PT0.02S"
+ * mvn -Pjava21,loadtest test-compile exec:exec -Dloadtest.args="rate=1000 clients=1000 app=spring.profiles.active=vthreads"
+ * mvn -Ploadtest test-compile exec:exec -Dloadtest.args="rate=1000 clients=10000 app=spring.profiles.active=reactive"
+ * </pre>
+ */
+public class LoadTest {
+    private static final DateTimeFormatter PRICE_DATE = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+    private final LoadTestOptions options;
+    private final SyntheticCatalogue catalogue;
+    private final URI endpoint;
+    private final ZipfSampler keys;
+    private final SplittableRandom random;
+    private final HttpClient client;
+    private final String stack;
+    private final VirtualThreadsEndpoint virtualThreads;
+
+    LoadTest(LoadTestOptions options, SyntheticCatalogue catalogue, URI endpoint, String stack, VirtualThreadsEndpoint virtualThreads) {
+        this.options = options;
+        this.catalogue = catalogue;
+        this.endpoint = endpoint;
+        this.stack = stack;
+        this.virtualThreads = virtualThreads;
+        this.keys = new ZipfSampler(catalogue.brands() * catalogue.products(), options.skew());
+        this.random = new SplittableRandom(options.seed());
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(options.timeout())
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options;
+        try {
+            options = LoadTestOptions.parse(args);
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+            return;
+        }
+
+        SyntheticCatalogue catalogue = new SyntheticCatalogue(options.rows(), options.brands(), options.products());
+        LoadTestReport report;
+        try (ConfigurableApplicationContext context = start(options, catalogue)) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            LoadTest loadTest = new LoadTest(options, catalogue, URI.create("http://localhost:" + port + "/api/prices"),
+                    context instanceof ReactiveWebApplicationContext ? "reactive" : "servlet", context.getBean(VirtualThreadsEndpoint.class));
+            loadTest.drive(options.warmup(), new ConcurrentHistogram(3));
+
+            Histogram latencies = new ConcurrentHistogram(3);
+            report = loadTest.drive(options.duration(), latencies).checked(options);
+            write(report, latencies, Path.of(options.report()));
+        }
+
+        System.out.printf("%d requests on the %s stack, %s threads, in %.1f s, %.1f req/s, %d errors%n", report.requests(),
+                report.stack(), report.threads(), report.durationSeconds(), report.throughput(), report.errors());
+        System.out.printf("latency ms: p50 %.3f, p90 %.3f, p99 %.3f, p99.9 %.3f, max %.3f%n", report.latency().p50(),
+                report.latency().p90(), report.latency().p99(), report.latency().p999(), report.latency().max());
+        report.breaches().forEach(breach -> System.out.println("threshold breached: " + breach));
+        System.out.println("report written to " + options.report());
+        System.exit(report.passed() ? 0 : 1);
+    }
+
+    // the result cache stays as configured, so the run measures what would be deployed
+    private static ConfigurableApplicationContext start(LoadTestOptions options, SyntheticCatalogue catalogue) throws SQLException {
+        System.setProperty("spring.devtools.restart.enabled", "false"); // the restarter would run this main again
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:inditexdbloadtest;DB_CLOSE_ON_EXIT=FALSE",
+                "--spring.flyway.locations=classpath:db/migration,classpath:db/vendor/{vendor}"));
+        Arrays.stream(options.applicationArgs()).map(p -> "--" + p).forEach(args::add);
+        // a default property, app=logging.level.com.inditex.technicaltest.prices=INFO measures the cost of logging
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(PricesApplication.class)
+                .properties("logging.level.com.inditex.technicaltest.prices=WARN")
+                .run(args.toArray(String[]::new));
+        try (Connection connection = context.getBean(DataSource.class).getConnection()) {
+            catalogue.load(connection);
+        }
+        return context;
+    }
+
+    LoadTestReport drive(Duration duration, Histogram latencies) throws InterruptedException {
+        LongAdder found = new LongAdder();
+        LongAdder notFound = new LongAdder();
+        LongAdder errors = new LongAdder();
+        Semaphore clients = new Semaphore(options.clients());
+        long pinnedBefore = virtualThreads.virtualThreads().getPinnedEvents();
+        long interval = TimeUnit.SECONDS.toNanos(1) / options.rate();
+        long requests = duration.toNanos() / interval;
+        Instant startedAt = Instant.now();
+        long start = System.nanoTime();
+
+        for (long i = 0; i < requests; i++) {
+            long due = start + i * interval;
+            for (long wait = due - System.nanoTime(); wait > 0; wait = due - System.nanoTime()) {
+                LockSupport.parkNanos(wait);
+            }
+            HttpRequest request = nextRequest();
+            clients.acquire();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, failure) -> {
+                latencies.recordValue(Math.max(0, (System.nanoTime() - due) / 1000));
+                if (failure != null) {
+                    errors.increment();
+                } else if (response.statusCode() == 200) {
+                    found.increment();
+                } else if (response.statusCode() == 404) {
+                    notFound.increment();
+                } else {
+                    errors.increment();
+                }
+                clients.release();
+            });
+        }
+        clients.acquire(options.clients()); // the requests still in flight
+        clients.release(options.clients());
+        double seconds = (System.nanoTime() - start) / 1e9;
+        VirtualThreadsResponse threads = virtualThreads.virtualThreads();
+
+        return new LoadTestReport(
+                startedAt.toString(),
+                catalogue.rows(),
+                catalogue.brands(),
+                catalogue.products(),
+                options.skew(),
+                keys.share(Math.max(1, catalogue.brands() * catalogue.products() / 100)),
+                options.clients(),
+                options.rate(),
+                stack,
+                threads.getThreads(),
+                threads.getJavaVersion(),
+                threads.isPinningMonitored() ? threads.getPinnedEvents() - pinnedBefore : null,
+                seconds,
+                requests,
+                found.sum(),
+                notFound.sum(),
+                errors.sum(),
+                requests == 0 ? 0 : (double) errors.sum() / requests,
+                (found.sum() + notFound.sum()) / seconds,
+                LoadTestReport.Latency.of(latencies),
+                List.of());
+    }
+
+    // key k is brand k % brands + 1 and product k / brands + 1, so the hottest keys spread over every brand
+    private HttpRequest nextRequest() {
+        int key = keys.next(random);
+        String query = "?brandId=" + (key % catalogue.brands() + 1)
+                + "&productId=" + (key / catalogue.brands() + 1)
+                + "&priceDate=" + PRICE_DATE.format(catalogue.randomDate(random));
+        return HttpRequest.newBuilder(endpoint.resolve(endpoint.getPath() + query))
+                .timeout(options.timeout())
+                .GET()
+                .build();
+    }
+
+    private static void write(LoadTestReport report, Histogram latencies, Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(path.toFile(), report);
+        // the whole distribution, in milliseconds, in the format read by the HdrHistogram plotter
+        try (PrintStream out = new PrintStream(Files.newOutputStream(Path.of(path.toString().replaceFirst("\\.json$", "") + ".hgrm")))) {
+            latencies.outputPercentileDistribution(out, 1000.0);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.inditex.technicaltest.prices.loadtest;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Options of a load test run, given as key=value arguments. Thresholds not given are not checked.
+ */
+public record LoadTestOptions(
+        int rows,
+        int brands,
+        int products,
+        int rate,
+        Duration duration,
+        Duration warmup,
+        int clients,
+        double skew,
+        long seed,
+        Duration timeout,
+        Duration maxP99,
+        Duration maxP999,
+        Double maxErrorRate,
+        Double minThroughput,
+        String report,
+        String[] applicationArgs) {
+
+    private static final Set<String> KEYS = Set.of("rows", "brands", "products", "rate", "duration", "warmup", "clients",
+            "skew", "seed", "timeout", "max-p99", "max-p999", "max-error-rate", "min-throughput", "report", "app");
+
+    public static LoadTestOptions parse(String... args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 1 || !KEYS.contains(arg.substring(0, separator))) {
+                throw new IllegalArgumentException("unknown option " + arg + ", expected one of " + KEYS);
+            }
+            values.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        int rows = Integer.parseInt(values.getOrDefault("rows", "200000"));
+        int brands = Integer.parseInt(values.getOrDefault("brands", "10"));
+        LoadTestOptions options = new LoadTestOptions(
+                rows,
+                brands,
+                Integer.parseInt(values.getOrDefault("products", String.valueOf(Math.max(1, rows / (brands * 2))))),
+                Integer.parseInt(values.getOrDefault("rate", "500")),
+                Duration.parse(values.getOrDefault("duration", "PT30S")),
+                Duration.parse(values.getOrDefault("warmup", "PT10S")),
+                Integer.parseInt(values.getOrDefault("clients", "32")),
+                Double.parseDouble(values.getOrDefault("skew", "1.0")),
+                Long.parseLong(values.getOrDefault("seed", "42")),
+                Duration.parse(values.getOrDefault("timeout", "PT5S")),
+                values.containsKey("max-p99") ? Duration.parse(values.get("max-p99")) : null,
+                values.containsKey("max-p999") ? Duration.parse(values.get("max-p999")) : null,
+                values.containsKey("max-error-rate") ? Double.valueOf(values.get("max-error-rate")) : null,
+                values.containsKey("min-throughput") ? Double.valueOf(values.get("min-throughput")) : null,
+                values.getOrDefault("report", "target/loadtest-report.json"),
+                // application properties separated by commas, e.g. app=prices.engine=memory,prices.cache.enabled=false
+                values.containsKey("app") ? values.get("app").split(",") : new String[0]);
+        if (options.rate() < 1 || options.clients() < 1 || options.skew() < 0 || options.duration().isNegative()) {
+            throw new IllegalArgumentException("rate and clients must be positive, skew and duration cannot be negative");
+        }
+        return options;
+    }
+}
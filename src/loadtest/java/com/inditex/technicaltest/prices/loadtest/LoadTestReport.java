@@ -0,0 +1,83 @@
+package com.inditex.technicaltest.prices.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a load test run as written to the JSON report. Latencies are in milliseconds and measured from the
+ * moment each request was due, so the time a request waited for a free client counts too. The hot keys share is the
+ * share of the requests drawn for the hottest 1% of brand/products. Stack is servlet or reactive, and threads tells
+ * whether the application served the requests on virtual or platform threads, pinned events are only counted on
+ * virtual ones.
+ */
+public record LoadTestReport(
+        String startedAt,
+        int rows,
+        int brands,
+        int products,
+        double skew,
+        double hotKeysShare,
+        int clients,
+        int targetRate,
+        String stack,
+        String threads,
+        int javaVersion,
+        Long pinnedEvents,
+        double durationSeconds,
+        long requests,
+        long found,
+        long notFound,
+        long errors,
+        double errorRate,
+        double throughput,
+        Latency latency,
+        List<String> breaches) {
+
+    public record Latency(double p50, double p90, double p99, double p999, double max, double mean) {
+
+        static Latency of(Histogram micros) {
+            return new Latency(
+                    millis(micros.getValueAtPercentile(50)),
+                    millis(micros.getValueAtPercentile(90)),
+                    millis(micros.getValueAtPercentile(99)),
+                    millis(micros.getValueAtPercentile(99.9)),
+                    millis(micros.getMaxValue()),
+                    micros.getMean() / 1000);
+        }
+
+        private static double millis(long micros) {
+            return micros / 1000.0;
+        }
+    }
+
+    public boolean passed() {
+        return breaches.isEmpty();
+    }
+
+    // checks the thresholds given in the options, returning a copy of the report with the ones breached
+    public LoadTestReport checked(LoadTestOptions options) {
+        List<String> breached = new ArrayList<>();
+        if (options.maxP99() != null && latency.p99() > toMillis(options.maxP99())) {
+            breached.add("p99 " + latency.p99() + " ms > " + toMillis(options.maxP99()) + " ms");
+        }
+        if (options.maxP999() != null && latency.p999() > toMillis(options.maxP999())) {
+            breached.add("p99.9 " + latency.p999() + " ms > " + toMillis(options.maxP999()) + " ms");
+        }
+        if (options.maxErrorRate() != null && errorRate > options.maxErrorRate()) {
+            breached.add("error rate " + errorRate + " > " + options.maxErrorRate());
+        }
+        if (options.minThroughput() != null && throughput < options.minThroughput()) {
+            breached.add("throughput " + throughput + " req/s < " + options.minThroughput() + " req/s");
+        }
+        return new LoadTestReport(startedAt, rows, brands, products, skew, hotKeysShare, clients, targetRate, stack,
+                threads, javaVersion, pinnedEvents, durationSeconds, requests, found, notFound, errors, errorRate, throughput,
+                latency, List.copyOf(breached));
+    }
+
+    private static double toMillis(Duration duration) {
+        return duration.toNanos() / 1_000_000.0;
+    }
+}
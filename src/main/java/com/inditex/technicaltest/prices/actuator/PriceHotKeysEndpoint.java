@@ -0,0 +1,62 @@
+package com.inditex.technicaltest.prices.actuator;
+
+import com.inditex.technicaltest.prices.dtos.PriceHotKeyResponse;
+import com.inditex.technicaltest.prices.dtos.PriceHotKeysResponse;
+import com.inditex.technicaltest.prices.metrics.PriceHotKeys;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * GET /actuator/pricehotkeys lists the brand/products asked most over the last few half-lives, with their share of
+ * the lookups, their rate and how often they missed the cache; ?top=n lists n of them.
+ */
+@Component
+@Endpoint(id = "pricehotkeys")
+public class PriceHotKeysEndpoint {
+    private final PriceHotKeys priceHotKeys;
+    private final boolean cacheEnabled;
+    private final int defaultTop;
+
+    @Autowired
+    public PriceHotKeysEndpoint(PriceHotKeys priceHotKeys,
+                                @Value("${prices.cache.enabled:true}") boolean cacheEnabled,
+                                @Value("${prices.hot-keys.top:20}") int defaultTop) {
+        this.priceHotKeys = priceHotKeys;
+        this.cacheEnabled = cacheEnabled;
+        this.defaultTop = defaultTop;
+    }
+
+    @ReadOperation
+    public PriceHotKeysResponse hotKeys(@Nullable Integer top) {
+        long lookups = priceHotKeys.totalLookups();
+        List<PriceHotKeyResponse> keys = priceHotKeys.top(top == null ? defaultTop : top).stream()
+                .map(hotKey -> PriceHotKeyResponse.builder()
+                        .brandId(hotKey.key().brandId())
+                        .productId(hotKey.key().productId())
+                        .lookups(hotKey.lookups())
+                        .rate(priceHotKeys.rate(hotKey.lookups()))
+                        .share(ratio(hotKey.lookups(), lookups))
+                        .missRatio(cacheEnabled ? ratio(hotKey.misses(), hotKey.lookups()) : null)
+                        .build())
+                .toList();
+        return PriceHotKeysResponse.builder()
+                .halfLifeSeconds(priceHotKeys.halfLife().toSeconds())
+                .lookups(lookups)
+                .rate(priceHotKeys.rate(lookups))
+                .missRatio(cacheEnabled ? ratio(priceHotKeys.totalMisses(), lookups) : null)
+                .topShare(ratio(keys.stream().mapToLong(PriceHotKeyResponse::getLookups).sum(), lookups))
+                .keys(keys)
+                .build();
+    }
+
+    // estimates can overcount the part, so the ratio is capped
+    private static double ratio(long part, long total) {
+        return total == 0 ? 0 : Math.min(1.0, (double) part / total);
+    }
+}
@@ -0,0 +1,89 @@
+package com.inditex.technicaltest.prices.actuator;
+
+import com.inditex.technicaltest.prices.dtos.PricePartitionResponse;
+import com.inditex.technicaltest.prices.partition.PricePartition;
+import com.inditex.technicaltest.prices.services.PriceSnapshotService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * GET /actuator/pricepartition describes the share of the brands of this node, POST with
+ * {"action": "prepare", "nodes": "http://host1:8080,http://host2:8080"}, then {"action": "commit"} and {"action": "release"}, each sent to every node
+ * and the router before the next one, moves to another set of nodes without dropping a lookup; {"action": "rebalance"}
+ * runs the three steps at once.
+ * <p>
+ * The memory engine rebuilds its snapshot with the brands of the partition, the jpa engine reads them from the
+ * database as they are asked for; the offheap and mmap engines load their brands once, so they change by a restart.
+ */
+@Component
+@Endpoint(id = "pricepartition")
+public class PricePartitionEndpoint {
+    private static final Logger logger = LoggerFactory.getLogger(PricePartitionEndpoint.class);
+    private final PricePartition pricePartition;
+    private final PriceSnapshotService priceSnapshotService;
+    private final String engine;
+
+    @Autowired
+    public PricePartitionEndpoint(PricePartition pricePartition, ObjectProvider<PriceSnapshotService> priceSnapshotService,
+                                  @Value("${prices.engine:jpa}") String engine) {
+        this.pricePartition = pricePartition;
+        this.priceSnapshotService = priceSnapshotService.getIfAvailable();
+        this.engine = engine;
+    }
+
+    @ReadOperation
+    public PricePartitionResponse partition() {
+        return PricePartitionResponse.builder()
+                .self(pricePartition.self())
+                .engine(engine)
+                .nodes(pricePartition.nodes())
+                .preparedNodes(pricePartition.preparedNodes().orElse(null))
+                .releasing(pricePartition.isReleasing())
+                .virtualNodes(pricePartition.virtualNodes())
+                .build();
+    }
+
+    // the actuator binds the body as a map of strings, so the nodes come as one comma-separated list
+    @WriteOperation
+    public PricePartitionResponse apply(Action action, @Nullable String nodes) {
+        logger.info("apply. partition action: {}, nodes: {}", action, nodes);
+        if ((action == Action.PREPARE || action == Action.REBALANCE) && nodes == null) {
+            throw new IllegalArgumentException("nodes are required to " + action.name().toLowerCase(Locale.ROOT));
+        }
+        switch (action) {
+            case PREPARE -> pricePartition.prepare(split(nodes), this::reload);
+            case COMMIT -> pricePartition.commit();
+            case RELEASE -> pricePartition.release(this::reload);
+            case REBALANCE -> pricePartition.rebalance(split(nodes), this::reload);
+        }
+        return partition();
+    }
+
+    private static List<String> split(String nodes) {
+        return Arrays.stream(nodes.split(",")).map(String::trim).filter(node -> !node.isEmpty()).toList();
+    }
+
+    private void reload() {
+        if (priceSnapshotService != null) {
+            priceSnapshotService.rebuild();
+        } else if (!"jpa".equals(engine) && !pricePartition.self().isEmpty()) {
+            throw new IllegalStateException("the " + engine + " engine loads the brands of its node at startup only, restart it with prices.partition.nodes");
+        }
+    }
+
+    public enum Action {
+        PREPARE, COMMIT, RELEASE, REBALANCE
+    }
+}
@@ -0,0 +1,52 @@
+package com.inditex.technicaltest.prices.actuator;
+
+import com.inditex.technicaltest.prices.dtos.PriceSnapshotResponse;
+import com.inditex.technicaltest.prices.services.PriceSnapshotService;
+import com.inditex.technicaltest.prices.services.memory.PriceSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * GET /actuator/pricesnapshot describes the served snapshot, POST with {"action": "refresh|rebuild|rollback"} swaps another one in.
+ */
+@Component
+@Endpoint(id = "pricesnapshot")
+@ConditionalOnProperty(name = "prices.engine", havingValue = "memory")
+public class PriceSnapshotEndpoint {
+    private static final Logger logger = LoggerFactory.getLogger(PriceSnapshotEndpoint.class);
+    private final PriceSnapshotService priceSnapshotService;
+
+    @Autowired
+    public PriceSnapshotEndpoint(PriceSnapshotService priceSnapshotService) {
+        this.priceSnapshotService = priceSnapshotService;
+    }
+
+    @ReadOperation
+    public PriceSnapshotResponse snapshot() {
+        return PriceSnapshotResponse.from(priceSnapshotService.current())
+                .previousVersion(priceSnapshotService.previous().map(PriceSnapshot::version).orElse(null))
+                .pinned(priceSnapshotService.isPinned())
+                .build();
+    }
+
+    @WriteOperation
+    public PriceSnapshotResponse apply(Action action) {
+        logger.info("apply. snapshot action: {}", action);
+        switch (action) {
+            case REFRESH -> priceSnapshotService.refresh();
+            case REBUILD -> priceSnapshotService.rebuild();
+            case ROLLBACK -> priceSnapshotService.rollback();
+        }
+        return snapshot();
+    }
+
+    public enum Action {
+        REFRESH, REBUILD, ROLLBACK
+    }
+}
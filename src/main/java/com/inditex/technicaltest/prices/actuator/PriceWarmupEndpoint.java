@@ -0,0 +1,34 @@
+package com.inditex.technicaltest.prices.actuator;
+
+import com.inditex.technicaltest.prices.dtos.PriceWarmupResponse;
+import com.inditex.technicaltest.prices.services.PriceWarmupRunner;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * GET /actuator/pricewarmup tells how the warm-up run before accepting traffic went, round by round, or that it is
+ * disabled.
+ */
+@Component
+@Endpoint(id = "pricewarmup")
+public class PriceWarmupEndpoint {
+    private final PriceWarmupRunner priceWarmupRunner;
+
+    @Autowired
+    public PriceWarmupEndpoint(ObjectProvider<PriceWarmupRunner> priceWarmupRunner) {
+        this.priceWarmupRunner = priceWarmupRunner.getIfAvailable();
+    }
+
+    @ReadOperation
+    public PriceWarmupResponse warmup() {
+        if (priceWarmupRunner == null) {
+            return PriceWarmupResponse.builder().rounds(List.of()).build();
+        }
+        return priceWarmupRunner.stats();
+    }
+}
@@ -0,0 +1,46 @@
+package com.inditex.technicaltest.prices.actuator;
+
+import com.inditex.technicaltest.prices.dtos.PinnedStackResponse;
+import com.inditex.technicaltest.prices.dtos.VirtualThreadsResponse;
+import com.inditex.technicaltest.prices.metrics.VirtualThreadPinningMonitor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * GET /actuator/virtualthreads tells whether requests are served on virtual threads and, when they are, how often and
+ * where they got pinned to their carrier thread.
+ */
+@Component
+@Endpoint(id = "virtualthreads")
+public class VirtualThreadsEndpoint {
+    private final VirtualThreadPinningMonitor pinningMonitor;
+
+    @Autowired
+    public VirtualThreadsEndpoint(ObjectProvider<VirtualThreadPinningMonitor> pinningMonitor) {
+        this.pinningMonitor = pinningMonitor.getIfAvailable();
+    }
+
+    @ReadOperation
+    public VirtualThreadsResponse virtualThreads() {
+        VirtualThreadsResponse.VirtualThreadsResponseBuilder response = VirtualThreadsResponse.builder()
+                .threads(pinningMonitor == null ? "platform" : "virtual")
+                .javaVersion(Runtime.version().feature())
+                .pinningMonitored(pinningMonitor != null)
+                .stacks(List.of());
+        if (pinningMonitor == null) {
+            return response.build();
+        }
+        return response
+                .pinningThresholdMillis(pinningMonitor.threshold().toMillis())
+                .pinnedEvents(pinningMonitor.events())
+                .pinnedMillis(pinningMonitor.pinnedTime().toMillis())
+                .maxPinnedMillis(pinningMonitor.maxPinnedTime().toMillis())
+                .stacks(pinningMonitor.stacks().stream().map(s -> PinnedStackResponse.from(s).build()).toList())
+                .build();
+    }
+}
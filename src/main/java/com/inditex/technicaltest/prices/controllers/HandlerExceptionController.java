@@ -1,14 +1,17 @@
 package com.inditex.technicaltest.prices.controllers;
 
 
+import com.inditex.technicaltest.prices.metrics.PriceLookupMetrics;
 import com.inditex.technicaltest.prices.models.AppError;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.resource.NoResourceFoundException;
 
 import java.time.Instant;
 import java.time.LocalDateTime;
@@ -16,9 +19,31 @@ import java.time.LocalDateTime;
 @RestControllerAdvice
 public class HandlerExceptionController {
     private static final Logger logger = LoggerFactory.getLogger(HandlerExceptionController.class);
+    private final PriceLookupMetrics priceLookupMetrics;
+
+    @Autowired
+    public HandlerExceptionController(PriceLookupMetrics priceLookupMetrics) {
+        this.priceLookupMetrics = priceLookupMetrics;
+    }
+
+    // paths without a route, e.g. the actuator endpoints only exposed on the management port, are not errors of the app;
+    // the servlet and the reactive stack each throw their own exception
+    @ExceptionHandler({NoResourceFoundException.class, org.springframework.web.reactive.resource.NoResourceFoundException.class})
+    @ResponseStatus(HttpStatus.NOT_FOUND)
+    public ResponseEntity<AppError> notFound(Exception ex) {
+        AppError error = new AppError();
+        error.setDate(LocalDateTime.now());
+        error.setError("Not Found");
+        error.setMessage("Not Found");
+        error.setStatus(HttpStatus.NOT_FOUND.value());
+        logger.info("notFound. no route. error: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+    }
+
     @ExceptionHandler()
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ResponseEntity<AppError> internalException(Exception ex) {
+        priceLookupMetrics.error(ex);
         AppError error = new AppError();
         error.setDate(LocalDateTime.now());
         error.setError("Internal Error"); // hide internal errors TODO [pablo.alonso 20241007] show in non-production environments
@@ -1,44 +1,194 @@
 package com.inditex.technicaltest.prices.controllers;
 
+import com.inditex.technicaltest.prices.converters.PriceProtobufHttpMessageConverter;
+import com.inditex.technicaltest.prices.dtos.PriceBatchItemResponse;
+import com.inditex.technicaltest.prices.dtos.PriceBatchRequest;
+import com.inditex.technicaltest.prices.dtos.PriceBatchResponse;
 import com.inditex.technicaltest.prices.dtos.PriceDTO;
 import com.inditex.technicaltest.prices.dtos.PriceRequest;
+import com.inditex.technicaltest.prices.metrics.PriceHotKeys;
+import com.inditex.technicaltest.prices.metrics.PriceLookupMetrics;
+import com.inditex.technicaltest.prices.models.AppError;
+import com.inditex.technicaltest.prices.models.PriceView;
+import com.inditex.technicaltest.prices.partition.PricePartition;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import com.inditex.technicaltest.prices.dtos.PriceResponse;
 import com.inditex.technicaltest.prices.services.PriceService;
+import com.inditex.technicaltest.prices.services.PriceWarmupRunner;
+import com.inditex.technicaltest.prices.services.timeline.PriceResolution;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
 @RestController
 @RequestMapping("/api/prices")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class PriceController {
     private static final Logger logger = LoggerFactory.getLogger(PriceController.class);
     private final PriceService priceService;
+    private final Validator validator;
+    private final PriceLookupMetrics priceLookupMetrics;
+    private final PriceHotKeys priceHotKeys;
+    private final PricePartition pricePartition;
+    @Value("${prices.batch.max-items:5000}")
+    private int batchMaxItems = 5000;
+    @Value("${prices.http.max-age:10m}")
+    private Duration httpMaxAge = Duration.ofMinutes(10);
 
     @Autowired
-    public PriceController(PriceService priceService) {
+    public PriceController(PriceService priceService, Validator validator, PriceLookupMetrics priceLookupMetrics,
+                           PriceHotKeys priceHotKeys, PricePartition pricePartition) {
         this.priceService = priceService;
+        this.validator = validator;
+        this.priceLookupMetrics = priceLookupMetrics;
+        this.priceHotKeys = priceHotKeys;
+        this.pricePartition = pricePartition;
     }
 
     @GetMapping
-    public ResponseEntity<PriceResponse> getProductPriceOfBrandOnDated(@Valid @ModelAttribute PriceRequest priceRequest) {
+    public ResponseEntity<PriceResponse> getProductPriceOfBrandOnDated(@Valid @ModelAttribute PriceRequest priceRequest,
+                                                                       @RequestAttribute(name = PriceLookupMetrics.HANDLING_STARTED, required = false) Long handlingStarted,
+                                                                       @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept,
+                                                                       @RequestHeader(name = PriceWarmupRunner.WARMUP_HEADER, required = false) String warmupHeader) {
+        Long brandId = priceRequest.getBrandId();
+        if (handlingStarted != null) {
+            priceLookupMetrics.record(PriceLookupMetrics.Stage.BINDING, brandId, handlingStarted);
+        }
         logger.info("getProductPriceOfBrandOnDate. new get request.");
         logger.debug("getProductPriceOfBrandOnDate. priceRequest: {}", priceRequest);
-        PriceResponse response = this.priceService.getProductPriceOfBrandOnDate(
-                        PriceDTO.from(priceRequest).build() // Pojo
-                )
+        long start = System.nanoTime();
+        PriceDTO priceDTO = PriceDTO.from(priceRequest).build(); // Pojo
+        long mapping = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        // the answers of the warm-up are not kept, it may be cut short while the lookups still run, nor are its
+        // lookups counted as traffic of the brand/product
+        boolean warmup = PriceWarmupRunner.isWarmup(warmupHeader);
+        PriceResolution resolution = warmup ? this.priceService.resolveUncached(priceDTO) : this.priceService.resolve(priceDTO);
+        priceLookupMetrics.record(PriceLookupMetrics.Stage.SERVICE, brandId, start);
+        if (!warmup) {
+            priceHotKeys.lookup(brandId, priceDTO.getProductId());
+        }
+
+        start = System.nanoTime();
+        PriceResponse response = resolution.find()
                 .map(p -> PriceResponse.from(p).build()) // mapping to PriceBuilder
                 .orElse(null);
+        priceLookupMetrics.record(PriceLookupMetrics.Stage.MAPPING, brandId, start - mapping); // request and response mapping as one sample
+        priceLookupMetrics.result(brandId, response != null);
 
+        // the answer is kept by clients and edge caches for as long as it holds
+        ZonedDateTime now = ZonedDateTime.now();
+        Duration maxAge = resolution.lifetime(now.toLocalDateTime(), httpMaxAge);
+        // and kept per Accept header, the same price is answered as JSON or protobuf
+        CacheControl cacheControl = CacheControl.maxAge(maxAge).cachePublic();
         if (response == null) {
             logger.warn("getProductPriceOfBrandOnDate. No price found for the given request. Returning 404.");
-            return ResponseEntity.notFound().build(); // 404 Not Found
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).cacheControl(cacheControl).varyBy(HttpHeaders.ACCEPT)
+                    .headers(headers -> headers.setExpires(now.plus(maxAge)))
+                    .build(); // 404 Not Found
         }
 
         logger.debug("getProductPriceOfBrandOnDate. priceResponse: {}", response);
         logger.info("getProductPriceOfBrandOnDate. response OK");
-        return ResponseEntity.ok(response);
+        // a request whose If-None-Match holds this ETag is answered 304 with these headers and no body
+        return ResponseEntity.ok().eTag(eTag(resolution.price(), accept)).cacheControl(cacheControl).varyBy(HttpHeaders.ACCEPT)
+                .headers(headers -> headers.setExpires(now.plus(maxAge)))
+                .body(response);
+    }
+
+    // the price list and its value, with a hash of the rest of the fields of the response, and -pb for the protobuf
+    // representation, as a strong ETag tells byte-identical bodies
+    static String eTag(PriceView price, String accept) {
+        String eTag = price.priceList() + "-" + price.value().toPlainString() + "-"
+                + Integer.toHexString(Objects.hash(price.startDate(), price.endDate()));
+        return isProtobuf(accept) ? eTag + "-pb" : eTag;
+    }
+
+    // the representation negotiated as the converters do: JSON unless the preferred type only matches protobuf
+    private static boolean isProtobuf(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return false;
+        }
+        List<MediaType> accepted = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        MimeTypeUtils.sortBySpecificity(accepted);
+        for (MediaType mediaType : accepted) {
+            if (mediaType.includes(MediaType.APPLICATION_JSON)) {
+                return false;
+            }
+            if (mediaType.includes(PriceProtobufHttpMessageConverter.APPLICATION_PROTOBUF)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<?> getProductPricesOfBrandOnDates(@RequestBody PriceBatchRequest batchRequest) {
+        logger.info("getProductPricesOfBrandOnDates. new batch request.");
+        List<PriceRequest> items = batchRequest.getItems() == null ? List.of() : batchRequest.getItems();
+        if (items.size() > batchMaxItems) {
+            logger.warn("getProductPricesOfBrandOnDates. batch of {} items exceeds the limit. Returning 400.", items.size());
+            return ResponseEntity.badRequest().body(new AppError(
+                    "batch cannot have more than " + batchMaxItems + " items", "Bad Request",
+                    HttpStatus.BAD_REQUEST.value(), LocalDateTime.now()));
+        }
+
+        // invalid items are answered on their own, the valid ones are resolved together
+        PriceBatchItemResponse[] responses = new PriceBatchItemResponse[items.size()];
+        List<Integer> validIndexes = new ArrayList<>();
+        List<PriceDTO> lookups = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            List<String> errors = validate(items.get(i));
+            if (!errors.isEmpty()) {
+                responses[i] = PriceBatchItemResponse.builder().index(i).status(PriceBatchItemResponse.Status.INVALID).errors(errors).build();
+            } else if (!pricePartition.answers(items.get(i).getBrandId())) { // not loaded here, rather than a wrong NOT_FOUND
+                responses[i] = PriceBatchItemResponse.builder().index(i).status(PriceBatchItemResponse.Status.MISDIRECTED)
+                        .owner(pricePartition.owner(items.get(i).getBrandId()).orElse(null)).build();
+            } else {
+                validIndexes.add(i);
+                lookups.add(PriceDTO.from(items.get(i)).build());
+            }
+        }
+
+        List<Optional<PriceView>> prices = lookups.isEmpty() ? List.of() : this.priceService.getProductPricesOfBrandOnDates(lookups);
+        for (int i = 0; i < validIndexes.size(); i++) {
+            int index = validIndexes.get(i);
+            responses[index] = prices.get(i)
+                    .map(p -> PriceBatchItemResponse.builder().index(index).status(PriceBatchItemResponse.Status.FOUND).price(PriceResponse.from(p).build()).build())
+                    .orElseGet(() -> PriceBatchItemResponse.builder().index(index).status(PriceBatchItemResponse.Status.NOT_FOUND).build());
+        }
+
+        logger.info("getProductPricesOfBrandOnDates. response OK. items: {}, invalid: {}", items.size(), items.size() - validIndexes.size());
+        return ResponseEntity.ok(PriceBatchResponse.builder().items(List.of(responses)).build());
+    }
+
+    private List<String> validate(PriceRequest item) {
+        if (item == null) {
+            return List.of("item cannot be void");
+        }
+        return validator.validate(item).stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .toList();
     }
 }
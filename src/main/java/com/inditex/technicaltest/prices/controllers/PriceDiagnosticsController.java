@@ -0,0 +1,37 @@
+package com.inditex.technicaltest.prices.controllers;
+
+import com.inditex.technicaltest.prices.dtos.PriceTimelineRequest;
+import com.inditex.technicaltest.prices.dtos.PriceTimelineResponse;
+import com.inditex.technicaltest.prices.services.PriceTimelineService;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/prices/diagnostics")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class PriceDiagnosticsController {
+    private static final Logger logger = LoggerFactory.getLogger(PriceDiagnosticsController.class);
+    private final PriceTimelineService priceTimelineService;
+
+    @Autowired
+    public PriceDiagnosticsController(PriceTimelineService priceTimelineService) {
+        this.priceTimelineService = priceTimelineService;
+    }
+
+    @GetMapping("/timeline")
+    public ResponseEntity<PriceTimelineResponse> getProductTimelineOfBrand(@Valid @ModelAttribute PriceTimelineRequest timelineRequest) {
+        logger.info("getProductTimelineOfBrand. new get request.");
+        logger.debug("getProductTimelineOfBrand. timelineRequest: {}", timelineRequest);
+        return this.priceTimelineService.getProductTimelineOfBrand(timelineRequest)
+                .map(t -> ResponseEntity.ok(PriceTimelineResponse.from(t).build()))
+                .orElseGet(() -> {
+                    logger.warn("getProductTimelineOfBrand. No prices found for the given request. Returning 404.");
+                    return ResponseEntity.notFound().build(); // 404 Not Found
+                });
+    }
+}
@@ -0,0 +1,99 @@
+package com.inditex.technicaltest.prices.controllers;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.inditex.technicaltest.prices.dtos.PriceExportLine;
+import com.inditex.technicaltest.prices.dtos.PriceExportProgress;
+import com.inditex.technicaltest.prices.dtos.PriceExportRequest;
+import com.inditex.technicaltest.prices.dtos.PriceResponse;
+import com.inditex.technicaltest.prices.services.PriceExportService;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * NDJSON export of the prices of a whole brand on a date, one line per product.
+ * <p>
+ * Every prices.export.progress-interval products, and once at the end, a progress line tells how many prices were
+ * written and the last product id. An export cut short has no complete progress line, and is resumed by asking again
+ * with afterProductId set to the last product id received.
+ */
+@RestController
+@RequestMapping("/api/prices/export")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class PriceExportController {
+    private static final Logger logger = LoggerFactory.getLogger(PriceExportController.class);
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private final PriceExportService priceExportService;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter lineWriter;
+    @Value("${prices.export.progress-interval:10000}")
+    private int progressInterval = 10000;
+
+    @Autowired
+    public PriceExportController(PriceExportService priceExportService, ObjectMapper objectMapper) {
+        this.priceExportService = priceExportService;
+        this.objectMapper = objectMapper;
+        // the lines are buffered by the generator, the response is only flushed with the progress lines. Each line
+        // ends with its own newline, instead of the space the generator puts between root values
+        this.lineWriter = objectMapper.writerFor(PriceExportLine.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("");
+    }
+
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> exportBrandPricesOnDate(@Valid @ModelAttribute PriceExportRequest exportRequest) {
+        logger.info("exportBrandPricesOnDate. new get request.");
+        logger.debug("exportBrandPricesOnDate. exportRequest: {}", exportRequest);
+        StreamingResponseBody body = outputStream -> {
+            long start = System.nanoTime();
+            PriceExportProgress progress = new PriceExportProgress();
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                priceExportService.exportBrandPricesOnDate(exportRequest, price -> {
+                    write(generator, PriceExportLine.builder().price(PriceResponse.from(price).build()).build());
+                    progress.setExported(progress.getExported() + 1);
+                    progress.setLastProductId(price.productId());
+                    if (progress.getExported() % progressInterval == 0) {
+                        writeProgress(generator, progress, start);
+                    }
+                });
+                progress.setComplete(true);
+                writeProgress(generator, progress, start);
+            }
+            logger.info("exportBrandPricesOnDate. response OK. exported: {}", progress.getExported());
+        };
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+
+    // flushed down to the client, so it sees the progress while the export goes on
+    private void writeProgress(JsonGenerator generator, PriceExportProgress progress, long start) {
+        progress.setElapsedMillis((System.nanoTime() - start) / 1_000_000);
+        write(generator, PriceExportLine.builder().progress(progress).build());
+        try {
+            generator.flush();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private void write(JsonGenerator generator, PriceExportLine line) {
+        try {
+            lineWriter.writeValue(generator, line);
+            generator.writeRaw('\n');
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.inditex.technicaltest.prices.controllers;
+
+import com.inditex.technicaltest.prices.dtos.PriceIngestionResponse;
+import com.inditex.technicaltest.prices.models.AppError;
+import com.inditex.technicaltest.prices.services.PriceIngestionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/api/prices/ingestion")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class PriceIngestionController {
+    private static final Logger logger = LoggerFactory.getLogger(PriceIngestionController.class);
+    public static final String TEXT_CSV = "text/csv";
+    public static final String APPLICATION_NDJSON = "application/x-ndjson";
+    private final PriceIngestionService priceIngestionService;
+
+    @Autowired
+    public PriceIngestionController(PriceIngestionService priceIngestionService) {
+        this.priceIngestionService = priceIngestionService;
+    }
+
+    // the body is read as it arrives, never held as a whole
+    @PostMapping(consumes = {TEXT_CSV, APPLICATION_NDJSON})
+    public ResponseEntity<?> ingestPrices(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                          @RequestParam(defaultValue = "UPSERT") PriceIngestionService.Mode mode,
+                                          InputStream body) throws IOException {
+        logger.info("ingestPrices. new ingestion request. contentType: {}, mode: {}", contentType, mode);
+        MediaType mediaType = MediaType.parseMediaType(contentType);
+        PriceIngestionService.Format format = mediaType.isCompatibleWith(MediaType.parseMediaType(TEXT_CSV))
+                ? PriceIngestionService.Format.CSV
+                : PriceIngestionService.Format.NDJSON;
+        Charset charset = mediaType.getCharset() == null ? StandardCharsets.UTF_8 : mediaType.getCharset();
+
+        try (Reader reader = new InputStreamReader(body, charset)) {
+            PriceIngestionResponse response = PriceIngestionResponse.from(priceIngestionService.ingest(reader, format, mode)).build();
+            logger.info("ingestPrices. response OK. rows: {}, rejected: {}", response.getRows(), response.getRejected());
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException ex) {
+            logger.warn("ingestPrices. {}. Returning 400.", ex.getMessage());
+            return ResponseEntity.badRequest().body(new AppError(ex.getMessage(), "Bad Request",
+                    HttpStatus.BAD_REQUEST.value(), LocalDateTime.now()));
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.inditex.technicaltest.prices.controllers;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.inditex.technicaltest.prices.dtos.PriceRangeRequest;
+import com.inditex.technicaltest.prices.dtos.PriceSegmentResponse;
+import com.inditex.technicaltest.prices.services.PriceTimelineService;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+@RestController
+@RequestMapping("/api/prices/timeline")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class PriceTimelineController {
+    private static final Logger logger = LoggerFactory.getLogger(PriceTimelineController.class);
+    private final PriceTimelineService priceTimelineService;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter segmentWriter;
+
+    @Autowired
+    public PriceTimelineController(PriceTimelineService priceTimelineService, ObjectMapper objectMapper) {
+        this.priceTimelineService = priceTimelineService;
+        this.objectMapper = objectMapper;
+        // the generator buffers the segments, instead of flushing the response after each of them
+        this.segmentWriter = objectMapper.writerFor(PriceSegmentResponse.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    // the array is written while the segments are resolved, so an empty range is an empty array rather than a 404
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> getProductTimelineOfBrandBetween(@Valid @ModelAttribute PriceRangeRequest rangeRequest) {
+        logger.info("getProductTimelineOfBrandBetween. new get request.");
+        logger.debug("getProductTimelineOfBrandBetween. rangeRequest: {}", rangeRequest);
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                long segments = priceTimelineService.streamProductTimelineOfBrandBetween(rangeRequest, segment -> {
+                    try {
+                        segmentWriter.writeValue(generator, PriceSegmentResponse.from(segment).build());
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+                generator.writeEndArray();
+                logger.info("getProductTimelineOfBrandBetween. response OK. segments: {}", segments);
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+}
@@ -0,0 +1,82 @@
+package com.inditex.technicaltest.prices.controllers;
+
+import com.inditex.technicaltest.prices.dtos.PriceDTO;
+import com.inditex.technicaltest.prices.dtos.PriceRequest;
+import com.inditex.technicaltest.prices.dtos.PriceResponse;
+import com.inditex.technicaltest.prices.metrics.PriceHotKeys;
+import com.inditex.technicaltest.prices.metrics.PriceLookupMetrics;
+import com.inditex.technicaltest.prices.services.PriceWarmupRunner;
+import com.inditex.technicaltest.prices.services.ReactivePriceService;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+
+/**
+ * GET /api/prices on the reactive stack (spring profile reactive), answering as PriceController does.
+ */
+@RestController
+@RequestMapping("/api/prices")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactivePriceController {
+    private static final Logger logger = LoggerFactory.getLogger(ReactivePriceController.class);
+    private final ReactivePriceService reactivePriceService;
+    private final PriceLookupMetrics priceLookupMetrics;
+    private final PriceHotKeys priceHotKeys;
+    @Value("${prices.http.max-age:10m}")
+    private Duration httpMaxAge = Duration.ofMinutes(10);
+
+    @Autowired
+    public ReactivePriceController(ReactivePriceService reactivePriceService, PriceLookupMetrics priceLookupMetrics,
+                                   PriceHotKeys priceHotKeys) {
+        this.reactivePriceService = reactivePriceService;
+        this.priceLookupMetrics = priceLookupMetrics;
+        this.priceHotKeys = priceHotKeys;
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<PriceResponse>> getProductPriceOfBrandOnDated(@Valid @ModelAttribute PriceRequest priceRequest,
+                                                                             @RequestHeader(name = PriceWarmupRunner.WARMUP_HEADER, required = false) String warmupHeader) {
+        logger.info("getProductPriceOfBrandOnDate. new get request.");
+        logger.debug("getProductPriceOfBrandOnDate. priceRequest: {}", priceRequest);
+        return this.reactivePriceService.resolve(PriceDTO.from(priceRequest).build())
+                .map(resolution -> {
+                    // the same caching headers as PriceController, a matching If-None-Match is answered 304
+                    ZonedDateTime now = ZonedDateTime.now();
+                    Duration maxAge = resolution.lifetime(now.toLocalDateTime(), httpMaxAge);
+                    CacheControl cacheControl = CacheControl.maxAge(maxAge).cachePublic();
+                    if (resolution.price() == null) {
+                        logger.warn("getProductPriceOfBrandOnDate. No price found for the given request. Returning 404.");
+                        return ResponseEntity.status(HttpStatus.NOT_FOUND).cacheControl(cacheControl).varyBy(HttpHeaders.ACCEPT)
+                                .headers(headers -> headers.setExpires(now.plus(maxAge)))
+                                .<PriceResponse>build(); // 404 Not Found
+                    }
+                    // answered in JSON only, there is no protobuf codec on this stack
+                    return ResponseEntity.ok().eTag(PriceController.eTag(resolution.price(), null)).cacheControl(cacheControl)
+                            .varyBy(HttpHeaders.ACCEPT)
+                            .headers(headers -> headers.setExpires(now.plus(maxAge)))
+                            .body(PriceResponse.from(resolution.price()).build());
+                })
+                .doOnNext(response -> {
+                    priceLookupMetrics.result(priceRequest.getBrandId(), response.hasBody());
+                    if (!PriceWarmupRunner.isWarmup(warmupHeader)) { // the lookups of the warm-up are not traffic
+                        priceHotKeys.lookup(priceRequest.getBrandId(), priceRequest.getProductId());
+                    }
+                });
+    }
+}
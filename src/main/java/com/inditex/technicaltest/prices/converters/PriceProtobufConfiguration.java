@@ -0,0 +1,27 @@
+package com.inditex.technicaltest.prices.converters;
+
+import com.inditex.technicaltest.prices.metrics.PriceLookupMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class PriceProtobufConfiguration implements WebMvcConfigurer {
+    private final PriceLookupMetrics priceLookupMetrics;
+
+    @Autowired
+    public PriceProtobufConfiguration(PriceLookupMetrics priceLookupMetrics) {
+        this.priceLookupMetrics = priceLookupMetrics;
+    }
+
+    // appended after Jackson instead of declared as a bean, which would put it first and make it the answer to */*
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new PriceProtobufHttpMessageConverter(priceLookupMetrics));
+    }
+}
@@ -0,0 +1,208 @@
+package com.inditex.technicaltest.prices.converters;
+
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+import com.inditex.technicaltest.prices.dtos.PriceBatchItemResponse;
+import com.inditex.technicaltest.prices.dtos.PriceBatchResponse;
+import com.inditex.technicaltest.prices.dtos.PriceResponse;
+import com.inditex.technicaltest.prices.metrics.PriceLookupMetrics;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Writes the answers of GET /api/prices and POST /api/prices/batch as the Price and PriceBatch messages of
+ * static/prices.proto, for the clients asking for application/x-protobuf.
+ * <p>
+ * The messages are encoded field by field with CodedOutputStream, as the classes generated from the schema would,
+ * so there is no copy of the responses into generated messages. Fields holding their default value are left out.
+ */
+public class PriceProtobufHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+    public static final MediaType APPLICATION_PROTOBUF = new MediaType("application", "x-protobuf");
+    // Price
+    private static final int PRICE_LIST = 1;
+    private static final int PRODUCT_ID = 2;
+    private static final int BRAND_ID = 3;
+    private static final int START_DATE = 4;
+    private static final int END_DATE = 5;
+    private static final int VALUE_UNSCALED = 6;
+    private static final int VALUE_SCALE = 7;
+    // PriceBatchItem
+    private static final int ITEM_INDEX = 1;
+    private static final int ITEM_STATUS = 2;
+    private static final int ITEM_PRICE = 3;
+    private static final int ITEM_ERRORS = 4;
+    private static final int ITEM_OWNER = 5;
+    // PriceBatch
+    private static final int BATCH_ITEMS = 1;
+
+    private final PriceLookupMetrics priceLookupMetrics;
+
+    public PriceProtobufHttpMessageConverter(PriceLookupMetrics priceLookupMetrics) {
+        super(APPLICATION_PROTOBUF);
+        this.priceLookupMetrics = priceLookupMetrics;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz == PriceResponse.class || clazz == PriceBatchResponse.class;
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws HttpMessageNotReadableException {
+        throw new HttpMessageNotReadableException("protobuf request bodies are not supported", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Object object, HttpOutputMessage outputMessage) throws IOException, HttpMessageNotWritableException {
+        long start = System.nanoTime();
+        byte[] body;
+        try {
+            body = object instanceof PriceResponse response ? encode(response) : encode((PriceBatchResponse) object);
+        } catch (ArithmeticException e) {
+            throw new HttpMessageNotWritableException("price value does not fit in value_unscaled", e);
+        }
+        outputMessage.getHeaders().setContentLength(body.length);
+        outputMessage.getBody().write(body);
+        if (object instanceof PriceResponse response) {
+            priceLookupMetrics.record(PriceLookupMetrics.Stage.SERIALIZATION, response.getBrandId(), start);
+        }
+    }
+
+    public static byte[] encode(PriceResponse price) throws IOException {
+        byte[] bytes = new byte[priceSize(price)];
+        CodedOutputStream output = CodedOutputStream.newInstance(bytes);
+        writePrice(output, price);
+        output.checkNoSpaceLeft();
+        return bytes;
+    }
+
+    public static byte[] encode(PriceBatchResponse batch) throws IOException {
+        List<PriceBatchItemResponse> items = batch.getItems() == null ? List.of() : batch.getItems();
+        int[] itemSizes = new int[items.size()];
+        int size = 0;
+        for (int i = 0; i < itemSizes.length; i++) {
+            itemSizes[i] = itemSize(items.get(i));
+            size += CodedOutputStream.computeTagSize(BATCH_ITEMS) + CodedOutputStream.computeUInt32SizeNoTag(itemSizes[i]) + itemSizes[i];
+        }
+        byte[] bytes = new byte[size];
+        CodedOutputStream output = CodedOutputStream.newInstance(bytes);
+        for (int i = 0; i < itemSizes.length; i++) {
+            output.writeTag(BATCH_ITEMS, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+            output.writeUInt32NoTag(itemSizes[i]);
+            writeItem(output, items.get(i));
+        }
+        output.checkNoSpaceLeft();
+        return bytes;
+    }
+
+    private static int itemSize(PriceBatchItemResponse item) {
+        int size = 0;
+        if (item.getIndex() != 0) {
+            size += CodedOutputStream.computeInt32Size(ITEM_INDEX, item.getIndex());
+        }
+        if (item.getStatus() != null) {
+            size += CodedOutputStream.computeEnumSize(ITEM_STATUS, status(item.getStatus()));
+        }
+        if (item.getPrice() != null) {
+            int priceSize = priceSize(item.getPrice());
+            size += CodedOutputStream.computeTagSize(ITEM_PRICE) + CodedOutputStream.computeUInt32SizeNoTag(priceSize) + priceSize;
+        }
+        if (item.getErrors() != null) {
+            for (String error : item.getErrors()) {
+                size += CodedOutputStream.computeStringSize(ITEM_ERRORS, error);
+            }
+        }
+        if (item.getOwner() != null && !item.getOwner().isEmpty()) {
+            size += CodedOutputStream.computeStringSize(ITEM_OWNER, item.getOwner());
+        }
+        return size;
+    }
+
+    private static void writeItem(CodedOutputStream output, PriceBatchItemResponse item) throws IOException {
+        if (item.getIndex() != 0) {
+            output.writeInt32(ITEM_INDEX, item.getIndex());
+        }
+        if (item.getStatus() != null) {
+            output.writeEnum(ITEM_STATUS, status(item.getStatus()));
+        }
+        if (item.getPrice() != null) {
+            output.writeTag(ITEM_PRICE, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+            output.writeUInt32NoTag(priceSize(item.getPrice()));
+            writePrice(output, item.getPrice());
+        }
+        if (item.getErrors() != null) {
+            for (String error : item.getErrors()) {
+                output.writeString(ITEM_ERRORS, error);
+            }
+        }
+        if (item.getOwner() != null && !item.getOwner().isEmpty()) {
+            output.writeString(ITEM_OWNER, item.getOwner());
+        }
+    }
+
+    // numbers of PriceBatchItem.Status in the schema, where 0 is STATUS_UNSPECIFIED
+    private static int status(PriceBatchItemResponse.Status status) {
+        return switch (status) {
+            case FOUND -> 1;
+            case NOT_FOUND -> 2;
+            case INVALID -> 3;
+            case MISDIRECTED -> 4;
+        };
+    }
+
+    private static int priceSize(PriceResponse price) {
+        BigDecimal value = price.getValue();
+        return int64Size(PRICE_LIST, price.getPriceList())
+                + int64Size(PRODUCT_ID, price.getProductId())
+                + int64Size(BRAND_ID, price.getBrandId())
+                + int64Size(START_DATE, epochSecond(price.getStartDate()))
+                + int64Size(END_DATE, epochSecond(price.getEndDate()))
+                + (value == null ? 0 : int64Size(VALUE_UNSCALED, value.unscaledValue().longValueExact())
+                + (value.scale() == 0 ? 0 : CodedOutputStream.computeInt32Size(VALUE_SCALE, value.scale())));
+    }
+
+    private static void writePrice(CodedOutputStream output, PriceResponse price) throws IOException {
+        writeInt64(output, PRICE_LIST, price.getPriceList());
+        writeInt64(output, PRODUCT_ID, price.getProductId());
+        writeInt64(output, BRAND_ID, price.getBrandId());
+        writeInt64(output, START_DATE, epochSecond(price.getStartDate()));
+        writeInt64(output, END_DATE, epochSecond(price.getEndDate()));
+        BigDecimal value = price.getValue();
+        if (value != null) {
+            writeInt64(output, VALUE_UNSCALED, value.unscaledValue().longValueExact());
+            if (value.scale() != 0) {
+                output.writeInt32(VALUE_SCALE, value.scale());
+            }
+        }
+    }
+
+    // the dates of the catalogue have no zone, they are counted as UTC so that they read the same on both ends
+    private static Long epochSecond(LocalDateTime date) {
+        return date == null ? null : date.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static int int64Size(int field, Long value) {
+        return value == null || value == 0 ? 0 : CodedOutputStream.computeInt64Size(field, value);
+    }
+
+    private static void writeInt64(CodedOutputStream output, int field, Long value) throws IOException {
+        if (value != null && value != 0) {
+            output.writeInt64(field, value);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.inditex.technicaltest.prices.dtos;
+
+import com.inditex.technicaltest.prices.metrics.VirtualThreadPinningMonitor;
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@ToString
+public class PinnedStackResponse {
+    private List<String> frames; // top frames, where the monitor is held
+    private long count;
+    private long pinnedMillis;
+
+    public static PinnedStackResponseBuilder from(VirtualThreadPinningMonitor.PinnedStack stack) {
+        return PinnedStackResponse.builder()
+                .frames(stack.frames())
+                .count(stack.count())
+                .pinnedMillis(stack.pinnedTime().toMillis());
+    }
+}
@@ -0,0 +1,24 @@
+package com.inditex.technicaltest.prices.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@ToString
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PriceBatchItemResponse {
+    private int index; // position of the item in the request
+    private Status status;
+    private PriceResponse price;
+    private List<String> errors;
+    private String owner; // node serving the brand of a MISDIRECTED item
+
+    public enum Status {
+        FOUND, NOT_FOUND, INVALID, MISDIRECTED
+    }
+}
@@ -0,0 +1,17 @@
+package com.inditex.technicaltest.prices.dtos;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+public class PriceBatchRequest {
+    private List<PriceRequest> items; // validated one by one, see PriceController.getProductPricesOfBrandOnDates
+}
@@ -0,0 +1,14 @@
+package com.inditex.technicaltest.prices.dtos;
+
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@ToString
+public class PriceBatchResponse {
+    private List<PriceBatchItemResponse> items; // same order as the request items
+}
@@ -0,0 +1,18 @@
+package com.inditex.technicaltest.prices.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+/**
+ * Line of the NDJSON export, holding either the price of a product or the progress of the export.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@ToString
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PriceExportLine {
+    private PriceResponse price;
+    private PriceExportProgress progress;
+}
@@ -0,0 +1,15 @@
+package com.inditex.technicaltest.prices.dtos;
+
+import lombok.*;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@ToString
+public class PriceExportProgress {
+    private long exported; // prices written so far by this export
+    private Long lastProductId; // to resume after, null until a price is written
+    private long elapsedMillis;
+    private boolean complete;
+}
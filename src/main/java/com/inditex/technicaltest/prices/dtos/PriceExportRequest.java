@@ -0,0 +1,28 @@
+package com.inditex.technicaltest.prices.dtos;
+
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+public class PriceExportRequest {
+    @NotNull(message = "brand id cannot be void")
+    @Positive(message = "brand id must be positive")
+    private Long brandId;
+
+    @NotNull(message = "the application date cannot be void")
+    private LocalDateTime priceDate; // ISO-8601
+
+    @PositiveOrZero(message = "the product id to resume after cannot be negative")
+    private Long afterProductId; // only products with a greater id are exported, to resume an interrupted export
+}
@@ -0,0 +1,17 @@
+package com.inditex.technicaltest.prices.dtos;
+
+import lombok.*;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@ToString
+public class PriceHotKeyResponse {
+    private long brandId;
+    private long productId;
+    private long lookups; // decayed count estimate, never below the true one
+    private double rate; // lookups per second
+    private double share; // of all the lookups
+    private Double missRatio; // lookups that missed the cache, null when the cache is disabled
+}
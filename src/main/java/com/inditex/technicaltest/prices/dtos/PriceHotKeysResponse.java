@@ -0,0 +1,19 @@
+package com.inditex.technicaltest.prices.dtos;
+
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@ToString
+public class PriceHotKeysResponse {
+    private long halfLifeSeconds; // counts are halved every half-life
+    private long lookups; // decayed count of all the lookups
+    private double rate; // lookups per second
+    private Double missRatio; // null when the cache is disabled
+    private double topShare; // of all the lookups, asked for the keys listed
+    private List<PriceHotKeyResponse> keys; // most asked first
+}
@@ -0,0 +1,19 @@
+package com.inditex.technicaltest.prices.dtos;
+
+import lombok.*;
+
+import java.time.Duration;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@ToString
+public class PriceIngestionDTO {
+    private long rows; // non blank lines read, the csv header aside
+    private long written;
+    private long rejected;
+    private List<PriceIngestionRejection> rejections; // the first ones, up to prices.ingestion.max-reported-rejections
+    private Duration elapsed;
+}
@@ -0,0 +1,13 @@
+package com.inditex.technicaltest.prices.dtos;
+
+import lombok.*;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@ToString
+public class PriceIngestionRejection {
+    private long line; // line of the body, the csv header being line 1
+    private String reason;
+}
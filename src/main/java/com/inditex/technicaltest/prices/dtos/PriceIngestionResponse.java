@@ -0,0 +1,30 @@
+package com.inditex.technicaltest.prices.dtos;
+
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@ToString
+public class PriceIngestionResponse {
+    private long rows;
+    private long written;
+    private long rejected;
+    private List<PriceIngestionRejection> rejections;
+    private long elapsedMillis;
+    private long rowsPerSecond;
+
+    public static PriceIngestionResponseBuilder from(PriceIngestionDTO ingestion) {
+        long elapsedNanos = Math.max(1, ingestion.getElapsed().toNanos());
+        return PriceIngestionResponse.builder()
+                .rows(ingestion.getRows())
+                .written(ingestion.getWritten())
+                .rejected(ingestion.getRejected())
+                .rejections(ingestion.getRejections())
+                .elapsedMillis(ingestion.getElapsed().toMillis())
+                .rowsPerSecond(ingestion.getRows() * 1_000_000_000L / elapsedNanos);
+    }
+}
@@ -0,0 +1,53 @@
+package com.inditex.technicaltest.prices.dtos;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@ToString
+public class PriceIngestionRow {
+    @NotNull(message = "brand id cannot be void")
+    @Positive(message = "brand id must be positive")
+    private Long brandId;
+
+    @NotNull(message = "product id cannot be void")
+    @Positive(message = "product id must be positive")
+    private Long productId;
+
+    @NotNull(message = "start date cannot be void")
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime startDate;
+
+    @NotNull(message = "end date cannot be void")
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime endDate;
+
+    @NotNull(message = "priority cannot be void")
+    private Integer priority;
+
+    @NotNull(message = "price cannot be void")
+    @Digits(integer = 13, fraction = 2, message = "price must fit a precision of 15 with 2 decimals") // Price.value
+    private BigDecimal price;
+
+    @NotNull(message = "currency cannot be void")
+    @Size(min = 3, max = 3, message = "currency must have 3 characters")
+    private String curr;
+
+    @JsonIgnore
+    @AssertTrue(message = "start date cannot be after end date")
+    public boolean isPeriodValid() {
+        return startDate == null || endDate == null || !startDate.isAfter(endDate);
+    }
+}
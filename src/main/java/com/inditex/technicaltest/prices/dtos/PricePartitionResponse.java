@@ -0,0 +1,19 @@
+package com.inditex.technicaltest.prices.dtos;
+
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@ToString
+public class PricePartitionResponse {
+    private String self; // empty on the router and when not partitioned
+    private String engine;
+    private List<String> nodes; // the ring the brands are answered by
+    private List<String> preparedNodes; // the ring loaded alongside until it is committed
+    private boolean releasing; // brands given away by the last commit are still answered until released
+    private int virtualNodes;
+}
@@ -0,0 +1,37 @@
+package com.inditex.technicaltest.prices.dtos;
+
+
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+public class PriceRangeRequest {
+    @NotNull(message = "product id cannot be void")
+    @Positive(message = "product id must be positive")
+    private Long productId;
+
+    @NotNull(message = "brand id cannot be void")
+    @Positive(message = "brand id must be positive")
+    private Long brandId;
+
+    @NotNull(message = "the start of the range cannot be void")
+    private LocalDateTime from; // ISO-8601, inclusive
+
+    @NotNull(message = "the end of the range cannot be void")
+    private LocalDateTime to; // ISO-8601, inclusive
+
+    @AssertTrue(message = "the start of the range cannot be after its end")
+    public boolean isOrdered() {
+        return from == null || to == null || !from.isAfter(to);
+    }
+}
@@ -1,7 +1,7 @@
 package com.inditex.technicaltest.prices.dtos;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
-import com.inditex.technicaltest.prices.models.domain.Price;
+import com.inditex.technicaltest.prices.models.PriceView;
 import lombok.*;
 
 import java.math.BigDecimal;
@@ -22,14 +22,14 @@ public class PriceResponse {
     private LocalDateTime endDate;
     private BigDecimal value;
 
-    public static PriceResponseBuilder from (Price price) {
+    public static PriceResponseBuilder from (PriceView price) {
         return PriceResponse.builder()
-                .priceList(price.getId())
-                .productId(price.getProduct().getId())
-                .brandId(price.getBrand().getId())
-                .startDate(price.getStartDate())
-                .endDate(price.getEndDate())
-                .value(price.getValue());
+                .priceList(price.priceList())
+                .productId(price.productId())
+                .brandId(price.brandId())
+                .startDate(price.startDate())
+                .endDate(price.endDate())
+                .value(price.value());
 
     }
 }
@@ -0,0 +1,34 @@
+package com.inditex.technicaltest.prices.dtos;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.inditex.technicaltest.prices.models.domain.Price;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@ToString
+public class PriceRowResponse {
+    private Long priceList;
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime startDate;
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime endDate;
+    private int priority;
+    private BigDecimal value;
+    private String curr;
+
+    public static PriceRowResponseBuilder from(Price price) {
+        return PriceRowResponse.builder()
+                .priceList(price.getId())
+                .startDate(price.getStartDate())
+                .endDate(price.getEndDate())
+                .priority(price.getPriority())
+                .value(price.getValue())
+                .curr(price.getCurr());
+    }
+}
@@ -0,0 +1,41 @@
+package com.inditex.technicaltest.prices.dtos;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.inditex.technicaltest.prices.services.timeline.PriceSegment;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@ToString
+public class PriceSegmentResponse {
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime from;
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime to; // exclusive, the from of the next segment when they follow each other
+    private Long priceList;
+    private int priority;
+    private BigDecimal value;
+    private String curr;
+
+    public static PriceSegmentResponseBuilder from(PriceSegment segment) {
+        return PriceSegmentResponse.builder()
+                .from(ceilSecond(segment.from()))
+                .to(segment.to().truncatedTo(ChronoUnit.SECONDS).plusSeconds(1))
+                .priceList(segment.price().priceList())
+                .priority(segment.price().priority())
+                .value(segment.price().value())
+                .curr(segment.price().curr());
+    }
+
+    // prices are dated to the second, so the first whole second of a segment starting right after another one's end
+    private static LocalDateTime ceilSecond(LocalDateTime date) {
+        LocalDateTime second = date.truncatedTo(ChronoUnit.SECONDS);
+        return second.equals(date) ? date : second.plusSeconds(1);
+    }
+}
@@ -0,0 +1,37 @@
+package com.inditex.technicaltest.prices.dtos;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.inditex.technicaltest.prices.services.memory.PriceSnapshot;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@ToString
+public class PriceSnapshotResponse {
+    private long version;
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS")
+    private LocalDateTime builtAt;
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS")
+    private LocalDateTime watermark;
+    private int keys;
+    private int rows;
+    private int segments;
+    private long estimatedBytes; // estimate from per row, segment and key sizes, not a heap measurement
+    private Long previousVersion; // the snapshot a rollback would swap back in
+    private boolean pinned; // rolled back, scheduled refreshes are skipped
+
+    public static PriceSnapshotResponseBuilder from(PriceSnapshot snapshot) {
+        return PriceSnapshotResponse.builder()
+                .version(snapshot.version())
+                .builtAt(snapshot.builtAt())
+                .watermark(snapshot.watermark())
+                .keys(snapshot.index().keyCount())
+                .rows(snapshot.index().rowCount())
+                .segments(snapshot.index().segmentCount())
+                .estimatedBytes(snapshot.estimatedBytes());
+    }
+}
@@ -0,0 +1,20 @@
+package com.inditex.technicaltest.prices.dtos;
+
+
+import com.inditex.technicaltest.prices.models.domain.Price;
+import com.inditex.technicaltest.prices.services.timeline.PriceTimeline;
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@ToString
+public class PriceTimelineDTO {
+    private Long productId;
+    private Long brandId;
+    private List<Price> rows; // raw PRICES rows sorted by start date
+    private PriceTimeline timeline; // rows compiled into non-overlapping segments
+}
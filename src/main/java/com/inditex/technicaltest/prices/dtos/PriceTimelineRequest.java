@@ -0,0 +1,23 @@
+package com.inditex.technicaltest.prices.dtos;
+
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+public class PriceTimelineRequest {
+    @NotNull(message = "product id cannot be void")
+    @Positive(message = "product id must be positive")
+    private Long productId;
+
+    @NotNull(message = "brand id cannot be void")
+    @Positive(message = "brand id must be positive")
+    private Long brandId;
+}
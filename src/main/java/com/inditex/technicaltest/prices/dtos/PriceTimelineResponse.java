@@ -0,0 +1,25 @@
+package com.inditex.technicaltest.prices.dtos;
+
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@ToString
+public class PriceTimelineResponse {
+    private Long productId;
+    private Long brandId;
+    private List<PriceRowResponse> rows;
+    private List<PriceSegmentResponse> segments;
+
+    public static PriceTimelineResponseBuilder from(PriceTimelineDTO timeline) {
+        return PriceTimelineResponse.builder()
+                .productId(timeline.getProductId())
+                .brandId(timeline.getBrandId())
+                .rows(timeline.getRows().stream().map(r -> PriceRowResponse.from(r).build()).toList())
+                .segments(timeline.getTimeline().segments().stream().map(s -> PriceSegmentResponse.from(s).build()).toList());
+    }
+}
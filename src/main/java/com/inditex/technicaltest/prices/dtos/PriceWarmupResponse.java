@@ -0,0 +1,21 @@
+package com.inditex.technicaltest.prices.dtos;
+
+import com.inditex.technicaltest.prices.services.PriceWarmupRunner;
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@ToString
+public class PriceWarmupResponse {
+    private PriceWarmupRunner.Outcome outcome;
+    private String lookups; // recorded | synthetic
+    private int distinctLookups;
+    private long requests;
+    private long errors;
+    private long durationMillis;
+    private List<PriceWarmupRoundResponse> rounds;
+}
@@ -0,0 +1,16 @@
+package com.inditex.technicaltest.prices.dtos;
+
+import lombok.*;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@ToString
+public class PriceWarmupRoundResponse {
+    private int requests;
+    private int errors; // unanswered or answered with a 5xx
+    private long p50Micros;
+    private long p90Micros; // compared with the previous round to tell whether the latency is stable
+    private long p99Micros;
+}
@@ -0,0 +1,21 @@
+package com.inditex.technicaltest.prices.dtos;
+
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@ToString
+public class VirtualThreadsResponse {
+    private String threads; // virtual | platform, what requests are served on
+    private int javaVersion;
+    private boolean pinningMonitored; // jdk.VirtualThreadPinned events are only streamed when serving on virtual threads
+    private Long pinningThresholdMillis; // shorter pinnings are not reported
+    private long pinnedEvents;
+    private long pinnedMillis;
+    private long maxPinnedMillis;
+    private List<PinnedStackResponse> stacks; // most pinned first
+}
@@ -0,0 +1,15 @@
+package com.inditex.technicaltest.prices.events;
+
+import com.inditex.technicaltest.prices.models.PriceKey;
+
+import java.util.Set;
+
+/**
+ * Published when prices of the given brand/products are inserted, updated or deleted.
+ */
+public record PriceChangedEvent(Set<PriceKey> keys) {
+
+    public static PriceChangedEvent of(long brandId, long productId) {
+        return new PriceChangedEvent(Set.of(new PriceKey(brandId, productId)));
+    }
+}
@@ -0,0 +1,29 @@
+package com.inditex.technicaltest.prices.events;
+
+import com.inditex.technicaltest.prices.models.domain.Price;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes a {@link PriceChangedEvent} for every Price written through JPA. Hibernate gets it from the Spring context.
+ */
+@Component
+public class PriceEntityListener {
+    private final ApplicationEventPublisher publisher;
+
+    @Autowired
+    public PriceEntityListener(ApplicationEventPublisher publisher) {
+        this.publisher = publisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void priceChanged(Price price) {
+        publisher.publishEvent(PriceChangedEvent.of(price.getBrand().getId(), price.getProduct().getId()));
+    }
+}
@@ -0,0 +1,84 @@
+package com.inditex.technicaltest.prices.metrics;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Count-min sketch of long keys: rows of counters, each key counted once per row at a position of its own hash, and
+ * estimated by the smallest of its counters. Estimates are never below the true count, and above it by at most
+ * e / width of the total with probability 1 - e^-depth.
+ * <p>
+ * Counters are updated with atomic increments, never under a lock; halving them while keys are counted can lose a
+ * few of those increments, which the estimates tolerate. The counters are kept in several stripes, each increment
+ * going to one of them at random, so the threads counting a hot key do not all retry on the same counter; a key is
+ * estimated from the sum of its counters across the stripes.
+ */
+final class CountMinSketch {
+    // odd constants, one per row, so that the rows hash every key differently
+    private static final long[] SEEDS = {
+            0x9e3779b97f4a7c15L, 0xc2b2ae3d27d4eb4fL, 0x165667b19e3779f9L, 0xd6e8feb86659fd93L,
+            0xa0761d6478bd642fL, 0xe7037ed1a0b428dbL, 0x8ebc6af09c88c6e3L, 0x589965cc75374cc3L
+    };
+    private final int depth;
+    private final int width;
+    private final AtomicLongArray[] stripes;
+
+    CountMinSketch(int depth, int width, int stripes) {
+        if (depth < 1 || depth > SEEDS.length) {
+            throw new IllegalArgumentException("depth must be between 1 and " + SEEDS.length + ", got " + depth);
+        }
+        if (width < 1 || Integer.bitCount(width) != 1) {
+            throw new IllegalArgumentException("width must be a power of two, got " + width);
+        }
+        if (stripes < 1 || Integer.bitCount(stripes) != 1) {
+            throw new IllegalArgumentException("stripes must be a power of two, got " + stripes);
+        }
+        this.depth = depth;
+        this.width = width;
+        this.stripes = new AtomicLongArray[stripes];
+        for (int stripe = 0; stripe < stripes; stripe++) {
+            this.stripes[stripe] = new AtomicLongArray(depth * width);
+        }
+    }
+
+    void increment(long key) {
+        // the seed of ThreadLocalRandom lives in the thread itself, so virtual threads pick a stripe as cheaply
+        AtomicLongArray counters = stripes[ThreadLocalRandom.current().nextInt() & (stripes.length - 1)];
+        for (int row = 0; row < depth; row++) {
+            counters.getAndIncrement(index(row, key));
+        }
+    }
+
+    long estimate(long key) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int index = index(row, key);
+            long count = 0;
+            for (AtomicLongArray counters : stripes) {
+                count += counters.get(index);
+            }
+            estimate = Math.min(estimate, count);
+        }
+        return estimate;
+    }
+
+    // ages every count at once, so that older keys weigh half as much as the ones counted from now on
+    void halve() {
+        for (AtomicLongArray counters : stripes) {
+            for (int i = 0; i < counters.length(); i++) {
+                counters.getAndUpdate(i, count -> count >>> 1);
+            }
+        }
+    }
+
+    private int index(int row, long key) {
+        return row * width + (int) (mix(key * SEEDS[row]) & (width - 1));
+    }
+
+    // finalizer of SplittableRandom
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+}
@@ -0,0 +1,135 @@
+package com.inditex.technicaltest.prices.metrics;
+
+import com.inditex.technicaltest.prices.models.PriceKey;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Brand/products asked most, in constant memory: every lookup, and every miss of the cache, is counted in a
+ * {@link CountMinSketch}, and the keys whose estimate is above the smallest of the ones kept become candidates of the
+ * top keys.
+ * <p>
+ * Counting a lookup takes a few atomic increments on the stripe of the thread, a striped adder for the total and, for
+ * the keys already among the top ones, a map lookup; the candidates are only sorted and trimmed back to size in the
+ * background. Every half-life all counts are halved, so
+ * the figures weigh the last few half-lives and forget older traffic.
+ */
+@Component
+public class PriceHotKeys {
+    private final int capacity;
+    private final Duration halfLife;
+    private final CountMinSketch lookups;
+    private final CountMinSketch misses;
+    private final LongAdder totalLookups = new LongAdder();
+    private final LongAdder totalMisses = new LongAdder();
+    // candidates of the top keys, trimmed back to capacity by trim()
+    private final Map<PriceKey, Boolean> candidates = new ConcurrentHashMap<>();
+    private volatile long threshold; // smallest estimate kept by the last trim, 0 while there is room
+
+    public record HotKey(PriceKey key, long lookups, long misses) {
+    }
+
+    @Autowired
+    public PriceHotKeys(@Value("${prices.hot-keys.depth:4}") int depth,
+                        @Value("${prices.hot-keys.width:4096}") int width,
+                        @Value("${prices.hot-keys.capacity:100}") int capacity,
+                        @Value("${prices.hot-keys.half-life:PT1M}") Duration halfLife) {
+        this.capacity = capacity;
+        this.halfLife = halfLife;
+        // up to a stripe per core, as many as 8
+        int stripes = Integer.highestOneBit(Math.min(8, Runtime.getRuntime().availableProcessors()));
+        this.lookups = new CountMinSketch(depth, width, stripes);
+        this.misses = new CountMinSketch(depth, width, stripes);
+    }
+
+    public void lookup(Long brandId, Long productId) {
+        if (brandId == null || productId == null) {
+            return;
+        }
+        long key = key(brandId, productId);
+        lookups.increment(key);
+        totalLookups.increment();
+        // a few times the capacity between two trims, new keys only get in once they beat the ones kept
+        if (candidates.size() < 4 * capacity && (threshold == 0 || lookups.estimate(key) > threshold)) {
+            candidates.putIfAbsent(new PriceKey(brandId, productId), Boolean.TRUE);
+        }
+    }
+
+    public void miss(Long brandId, Long productId) {
+        if (brandId == null || productId == null) {
+            return;
+        }
+        misses.increment(key(brandId, productId));
+        totalMisses.increment();
+    }
+
+    // the keys asked most, most asked first, with their decayed counts
+    public List<HotKey> top(int limit) {
+        return candidates.keySet().stream()
+                .map(this::hotKey)
+                .sorted(Comparator.comparingLong(HotKey::lookups).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    public long totalLookups() {
+        return totalLookups.sum();
+    }
+
+    public long totalMisses() {
+        return totalMisses.sum();
+    }
+
+    // per second, from a count decayed by halving every half-life: on average it holds rate * half-life / ln 2
+    public double rate(long count) {
+        return count * Math.log(2) / Math.max(1e-3, halfLife.toMillis() / 1000.0);
+    }
+
+    public Duration halfLife() {
+        return halfLife;
+    }
+
+    @Scheduled(initialDelayString = "${prices.hot-keys.trim-interval:PT1S}", fixedDelayString = "${prices.hot-keys.trim-interval:PT1S}")
+    public void trim() {
+        List<HotKey> kept = top(Integer.MAX_VALUE);
+        if (kept.size() <= capacity) {
+            threshold = 0;
+            return;
+        }
+        kept.subList(capacity, kept.size()).forEach(hotKey -> candidates.remove(hotKey.key()));
+        threshold = kept.get(capacity - 1).lookups();
+    }
+
+    @Scheduled(initialDelayString = "${prices.hot-keys.half-life:PT1M}", fixedRateString = "${prices.hot-keys.half-life:PT1M}")
+    public void decay() {
+        lookups.halve();
+        misses.halve();
+        halve(totalLookups);
+        halve(totalMisses);
+        threshold = threshold >>> 1;
+    }
+
+    // takes away half of the sum, so the increments made meanwhile are kept whole
+    private static void halve(LongAdder total) {
+        long sum = total.sum();
+        total.add((sum >>> 1) - sum);
+    }
+
+    private HotKey hotKey(PriceKey key) {
+        long packed = key(key.brandId(), key.productId());
+        return new HotKey(key, lookups.estimate(packed), misses.estimate(packed));
+    }
+
+    private static long key(long brandId, long productId) {
+        return brandId * 0x9e3779b97f4a7c15L + productId;
+    }
+}
@@ -0,0 +1,94 @@
+package com.inditex.technicaltest.prices.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timers of the stages of GET /api/prices and counters of its outcomes.
+ * <p>
+ * Meters are tagged with the brand only, never with the product, and once the configured number of brands have
+ * their own meters the rest share the ones tagged brand=other. The meters of a brand are registered once and kept,
+ * so recording a stage is a map lookup and a histogram update.
+ */
+@Component
+public class PriceLookupMetrics {
+    // request attribute holding the System.nanoTime() at which the request reached the handler, before its binding
+    public static final String HANDLING_STARTED = "com.inditex.technicaltest.prices.metrics.handlingStarted";
+    static final String OTHER_BRAND = "other";
+
+    public enum Stage {
+        BINDING, SERVICE, REPOSITORY, MAPPING, SERIALIZATION;
+
+        private final String tag = name().toLowerCase(Locale.ROOT);
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final int maxBrands;
+    private final Map<Long, BrandMeters> brands = new ConcurrentHashMap<>();
+    private final BrandMeters otherBrand;
+
+    @Autowired
+    public PriceLookupMetrics(MeterRegistry meterRegistry, @Value("${prices.metrics.max-brands:100}") int maxBrands) {
+        this.meterRegistry = meterRegistry;
+        this.maxBrands = maxBrands;
+        this.otherBrand = new BrandMeters(OTHER_BRAND);
+    }
+
+    public void record(Stage stage, Long brandId, long startNanos) {
+        meters(brandId).stages[stage.ordinal()].record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void result(Long brandId, boolean found) {
+        BrandMeters meters = meters(brandId);
+        (found ? meters.found : meters.notFound).increment();
+    }
+
+    // exception class names are a closed set, unlike their messages
+    public void error(Throwable exception) {
+        meterRegistry.counter("prices.lookup.errors", "exception", exception.getClass().getSimpleName()).increment();
+    }
+
+    private BrandMeters meters(Long brandId) {
+        if (brandId == null) {
+            return otherBrand;
+        }
+        BrandMeters meters = brands.get(brandId);
+        if (meters != null) {
+            return meters;
+        }
+        if (brands.size() >= maxBrands) {
+            return otherBrand;
+        }
+        return brands.computeIfAbsent(brandId, id -> new BrandMeters(String.valueOf(id)));
+    }
+
+    private class BrandMeters {
+        private final Timer[] stages = new Timer[Stage.values().length];
+        private final Counter found;
+        private final Counter notFound;
+
+        private BrandMeters(String brand) {
+            for (Stage stage : Stage.values()) {
+                stages[stage.ordinal()] = Timer.builder("prices.lookup.stage")
+                        .description("time spent in each stage of a price lookup")
+                        .tags("stage", stage.tag, "brand", brand)
+                        .publishPercentileHistogram()
+                        .minimumExpectedValue(Duration.ofNanos(1_000))
+                        .maximumExpectedValue(Duration.ofSeconds(10))
+                        .register(meterRegistry);
+            }
+            found = Counter.builder("prices.lookup.results").tags("result", "found", "brand", brand).register(meterRegistry);
+            notFound = Counter.builder("prices.lookup.results").tags("result", "not_found", "brand", brand).register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.inditex.technicaltest.prices.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class PriceLookupMetricsConfiguration implements WebMvcConfigurer {
+
+    // marks when the lookup reaches its handler, the controller records the binding stage from there
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                request.setAttribute(PriceLookupMetrics.HANDLING_STARTED, System.nanoTime());
+                return true;
+            }
+        }).addPathPatterns("/api/prices");
+    }
+
+    // replaces the converter of JacksonHttpMessageConvertersConfiguration, with the same ObjectMapper
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper,
+                                                                                   PriceLookupMetrics priceLookupMetrics) {
+        return new TimedMappingJackson2HttpMessageConverter(objectMapper, priceLookupMetrics);
+    }
+}
@@ -0,0 +1,33 @@
+package com.inditex.technicaltest.prices.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inditex.technicaltest.prices.dtos.PriceResponse;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * Jackson converter recording the serialization stage of the price lookups, any other body is written as usual.
+ */
+public class TimedMappingJackson2HttpMessageConverter extends MappingJackson2HttpMessageConverter {
+    private final PriceLookupMetrics priceLookupMetrics;
+
+    public TimedMappingJackson2HttpMessageConverter(ObjectMapper objectMapper, PriceLookupMetrics priceLookupMetrics) {
+        super(objectMapper);
+        this.priceLookupMetrics = priceLookupMetrics;
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException, HttpMessageNotWritableException {
+        if (!(object instanceof PriceResponse response)) {
+            super.writeInternal(object, type, outputMessage);
+            return;
+        }
+        long start = System.nanoTime();
+        super.writeInternal(object, type, outputMessage);
+        priceLookupMetrics.record(PriceLookupMetrics.Stage.SERIALIZATION, response.getBrandId(), start);
+    }
+}
@@ -0,0 +1,130 @@
+package com.inditex.technicaltest.prices.metrics;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams the jdk.VirtualThreadPinned JFR events of this JVM while requests are served on virtual threads.
+ * <p>
+ * A virtual thread is pinned when it blocks inside a synchronized block or a native frame, and then holds its
+ * carrier thread until it resumes. Events are aggregated by the top frames of their stack, which is where the
+ * monitor is held, e.g. a synchronized method of the H2 session.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadPinningMonitor implements SmartLifecycle {
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    static final String OTHER_STACKS = "other";
+    private final Duration threshold;
+    private final int maxStacks;
+    private final int stackDepth;
+    private final Map<String, PinnedStack> stacks = new HashMap<>();
+    private long events;
+    private Duration pinnedTime = Duration.ZERO;
+    private Duration maxPinnedTime = Duration.ZERO;
+    private volatile RecordingStream recordingStream;
+
+    @Autowired
+    public VirtualThreadPinningMonitor(@Value("${prices.virtual-threads.pinning-threshold:20ms}") Duration threshold,
+                                       @Value("${prices.virtual-threads.max-stacks:20}") int maxStacks,
+                                       @Value("${prices.virtual-threads.stack-depth:8}") int stackDepth) {
+        this.threshold = threshold;
+        this.maxStacks = maxStacks;
+        this.stackDepth = stackDepth;
+    }
+
+    @Override
+    public void start() {
+        RecordingStream stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+        recordingStream = stream;
+        logger.info("start. monitoring virtual threads pinned longer than {}", threshold);
+    }
+
+    @Override
+    public void stop() {
+        RecordingStream stream = recordingStream;
+        recordingStream = null;
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return recordingStream != null;
+    }
+
+    private void onPinned(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        List<String> frames = stackTrace == null ? List.of() : stackTrace.getFrames().stream()
+                .filter(RecordedFrame::isJavaFrame)
+                .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber())
+                .filter(frame -> !frame.startsWith("java.lang.VirtualThread") && !frame.startsWith("jdk.internal."))
+                .limit(stackDepth)
+                .toList();
+        record(event.getDuration(), frames);
+    }
+
+    // once maxStacks distinct stacks are kept, the events of new ones are added up under "other"
+    synchronized void record(Duration duration, List<String> frames) {
+        events++;
+        pinnedTime = pinnedTime.plus(duration);
+        maxPinnedTime = duration.compareTo(maxPinnedTime) > 0 ? duration : maxPinnedTime;
+        String key = String.join("\n", frames);
+        if (!stacks.containsKey(key) && stacks.size() >= maxStacks) {
+            key = OTHER_STACKS;
+            frames = List.of(OTHER_STACKS);
+        }
+        stacks.merge(key, new PinnedStack(frames, 1, duration), PinnedStack::plus);
+    }
+
+    public synchronized long events() {
+        return events;
+    }
+
+    public synchronized Duration pinnedTime() {
+        return pinnedTime;
+    }
+
+    public synchronized Duration maxPinnedTime() {
+        return maxPinnedTime;
+    }
+
+    // most pinned first
+    public synchronized List<PinnedStack> stacks() {
+        return stacks.values().stream()
+                .sorted(Comparator.comparingLong(PinnedStack::count).reversed())
+                .toList();
+    }
+
+    public Duration threshold() {
+        return threshold;
+    }
+
+    public record PinnedStack(List<String> frames, long count, Duration pinnedTime) {
+
+        private PinnedStack plus(PinnedStack other) {
+            return new PinnedStack(frames, count + other.count, pinnedTime.plus(other.pinnedTime));
+        }
+    }
+}
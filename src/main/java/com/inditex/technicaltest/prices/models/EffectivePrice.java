@@ -0,0 +1,18 @@
+package com.inditex.technicaltest.prices.models;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Winner of a lookup together with the dates bounding the run in which it keeps winning, read in the same statement:
+ * the last end before the date of a price ranked above it and the first start after the date of a price able to
+ * outrank it, each null when there is none.
+ */
+public record EffectivePrice(PriceView price, LocalDateTime lastEndRankedAbove, LocalDateTime nextStart) {
+
+    // the flat row of the constructor expression
+    public EffectivePrice(Long priceList, Long brandId, Long productId, LocalDateTime startDate, LocalDateTime endDate,
+                          int priority, BigDecimal value, String curr, LocalDateTime lastEndRankedAbove, LocalDateTime nextStart) {
+        this(new PriceView(priceList, brandId, productId, startDate, endDate, priority, value, curr), lastEndRankedAbove, nextStart);
+    }
+}
@@ -0,0 +1,8 @@
+package com.inditex.technicaltest.prices.models;
+
+public record PriceKey(long brandId, long productId) {
+
+    public static PriceKey of(PriceView price) {
+        return new PriceKey(price.brandId(), price.productId());
+    }
+}
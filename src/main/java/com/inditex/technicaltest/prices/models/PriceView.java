@@ -0,0 +1,27 @@
+package com.inditex.technicaltest.prices.models;
+
+import com.inditex.technicaltest.prices.models.domain.Price;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Flat read-only projection of a PRICES row, built straight from the query without loading
+ * the Price entity nor its Brand and Product.
+ */
+public record PriceView(
+        Long priceList,
+        Long brandId,
+        Long productId,
+        LocalDateTime startDate,
+        LocalDateTime endDate,
+        int priority,
+        BigDecimal value,
+        String curr
+) {
+
+    public static PriceView from(Price price) {
+        return new PriceView(price.getId(), price.getBrand().getId(), price.getProduct().getId(),
+                price.getStartDate(), price.getEndDate(), price.getPriority(), price.getValue(), price.getCurr());
+    }
+}
@@ -1,5 +1,6 @@
 package com.inditex.technicaltest.prices.models.domain;
 
+import com.inditex.technicaltest.prices.events.PriceEntityListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -10,6 +11,7 @@ import java.time.LocalDateTime;
 
 @Table(name = "PRICES")
 @Entity
+@EntityListeners(PriceEntityListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,117 @@
+package com.inditex.technicaltest.prices.partition;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Brands placed on a ring of 64 bit hashes, each owned by the node of the first virtual node found clockwise from
+ * the hash of the brand id.
+ * <p>
+ * Every node is placed as many virtual nodes, which evens out the shares of the nodes. Adding a node only moves to
+ * it the brands falling just before its virtual nodes, about 1 / nodes of them, and no brand moves between the nodes
+ * already there; removing a node hands its brands to the next ones clockwise, which are its {@link #successors}.
+ * The owners depend on the set of nodes only, not on the order they are listed in.
+ */
+public final class ConsistentHashRing {
+    private final List<String> nodes;
+    private final long[] positions; // sorted
+    private final int[] owners; // index in nodes of the virtual node at each position
+
+    private ConsistentHashRing(List<String> nodes, long[] positions, int[] owners) {
+        this.nodes = nodes;
+        this.positions = positions;
+        this.owners = owners;
+    }
+
+    public static ConsistentHashRing of(Collection<String> nodes, int virtualNodes) {
+        if (virtualNodes < 1) {
+            throw new IllegalArgumentException("virtual nodes must be at least 1, got " + virtualNodes);
+        }
+        List<String> sorted = List.copyOf(new TreeSet<>(nodes));
+        long[][] points = new long[sorted.size() * virtualNodes][];
+        for (int node = 0; node < sorted.size(); node++) {
+            for (int v = 0; v < virtualNodes; v++) {
+                points[node * virtualNodes + v] = new long[]{hash(sorted.get(node) + "#" + v), node};
+            }
+        }
+        // unsigned, as the lookups search; a collision goes to the first node by name
+        Arrays.sort(points, Comparator.<long[]>comparingLong(point -> point[0] ^ Long.MIN_VALUE).thenComparingLong(point -> point[1]));
+        long[] positions = new long[points.length];
+        int[] owners = new int[points.length];
+        for (int i = 0; i < points.length; i++) {
+            positions[i] = points[i][0];
+            owners[i] = (int) points[i][1];
+        }
+        return new ConsistentHashRing(sorted, positions, owners);
+    }
+
+    public List<String> nodes() {
+        return nodes;
+    }
+
+    public boolean isEmpty() {
+        return nodes.isEmpty();
+    }
+
+    public String owner(long brandId) {
+        if (isEmpty()) {
+            throw new IllegalStateException("the ring has no nodes");
+        }
+        return nodes.get(owners[first(mix(brandId))]);
+    }
+
+    /**
+     * Every node in the order met clockwise from the brand, its owner first. When the owner leaves the ring the brand
+     * goes to the second one, so that is where to ask while a node is down or not started yet.
+     */
+    public List<String> successors(long brandId) {
+        List<String> successors = new ArrayList<>(nodes.size());
+        boolean[] seen = new boolean[nodes.size()];
+        int start = isEmpty() ? 0 : first(mix(brandId));
+        for (int i = 0; i < positions.length && successors.size() < nodes.size(); i++) {
+            int owner = owners[(start + i) % positions.length];
+            if (!seen[owner]) {
+                seen[owner] = true;
+                successors.add(nodes.get(owner));
+            }
+        }
+        return successors;
+    }
+
+    // first position at or after the hash, wrapping around to the first one
+    private int first(long hash) {
+        int low = 0;
+        int high = positions.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (Long.compareUnsigned(positions[mid], hash) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low == positions.length ? 0 : low;
+    }
+
+    // FNV-1a of the UTF-8 bytes, mixed so that names differing in their last characters land far apart
+    static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    // finalizer of SplittableRandom, consecutive brand ids are spread over the whole ring
+    static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+}
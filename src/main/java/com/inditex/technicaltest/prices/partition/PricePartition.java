@@ -0,0 +1,150 @@
+package com.inditex.technicaltest.prices.partition;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Share of the brands of this instance when the catalogue is split between several nodes, by a
+ * {@link ConsistentHashRing} of their base urls. Without nodes, or on the router, which has no self, every brand is
+ * owned.
+ * <p>
+ * A rebalance goes through three steps, each run on every node before the next one starts: {@link #prepare} loads
+ * the brands of the new ring alongside the held ones, {@link #commit} answers by the new ring while still holding the
+ * old one, and {@link #release} drops the brands given away. Every brand is held by its owner in the ring of any node
+ * at every step, so no lookup reaches an engine missing its brand.
+ */
+@Component
+public class PricePartition {
+    private static final Logger logger = LoggerFactory.getLogger(PricePartition.class);
+    private final String self;
+    private final int virtualNodes;
+    private volatile ConsistentHashRing serving;
+    private volatile ConsistentHashRing preparing; // the next ring, from prepare to commit
+    private volatile ConsistentHashRing releasing; // the previous ring, from commit to release
+
+    @Autowired
+    public PricePartition(@Value("${prices.partition.nodes:}") List<String> nodes,
+                          @Value("${prices.partition.self:}") String self,
+                          @Value("${prices.partition.virtual-nodes:128}") int virtualNodes) {
+        this.self = normalize(self);
+        this.virtualNodes = virtualNodes;
+        this.serving = ring(nodes);
+        if (!serving.isEmpty() && !this.self.isEmpty() && !serving.nodes().contains(this.self)) {
+            throw new IllegalArgumentException("prices.partition.self " + self + " is not one of prices.partition.nodes " + serving.nodes());
+        }
+    }
+
+    public static PricePartition unpartitioned() {
+        return new PricePartition(List.of(), "", 1);
+    }
+
+    // the brands this instance answers: the owned ones and, until released, the ones it owned before
+    public boolean answers(long brandId) {
+        ConsistentHashRing previous = releasing;
+        return owns(serving, brandId) || previous != null && owns(previous, brandId);
+    }
+
+    // the brands this instance holds: the answered ones and, once prepared, the ones it is about to own
+    public boolean loads(long brandId) {
+        ConsistentHashRing next = preparing;
+        return answers(brandId) || next != null && owns(next, brandId);
+    }
+
+    public Optional<String> owner(long brandId) {
+        ConsistentHashRing ring = serving;
+        return ring.isEmpty() ? Optional.empty() : Optional.of(ring.owner(brandId));
+    }
+
+    public List<String> successors(long brandId) {
+        return serving.successors(brandId);
+    }
+
+    public String self() {
+        return self;
+    }
+
+    public List<String> nodes() {
+        return serving.nodes();
+    }
+
+    public Optional<List<String>> preparedNodes() {
+        ConsistentHashRing next = preparing;
+        return next == null ? Optional.empty() : Optional.of(next.nodes());
+    }
+
+    // brands given away by the last commit are still answered
+    public boolean isReleasing() {
+        return releasing != null;
+    }
+
+    public int virtualNodes() {
+        return virtualNodes;
+    }
+
+    /**
+     * Loads the brands of the ring of the nodes too. The reload is the rebuild of the engine holding the prices, if
+     * any; should it fail the partition is left as it was.
+     */
+    public synchronized void prepare(Collection<String> nodes, Runnable reload) {
+        ConsistentHashRing next = ring(nodes); // without self when the node is leaving, it owns none of its brands
+        logger.info("prepare. nodes: {} -> {}", serving.nodes(), next.nodes());
+        ConsistentHashRing previous = preparing;
+        preparing = next;
+        try {
+            reload.run();
+        } catch (RuntimeException ex) {
+            preparing = previous;
+            throw ex;
+        }
+    }
+
+    // answers by the prepared ring, still answering the brands given away until they are released
+    public synchronized void commit() {
+        ConsistentHashRing next = preparing;
+        if (next == null) {
+            throw new IllegalStateException("there is no prepared ring to commit");
+        }
+        logger.info("commit. nodes: {} -> {}", serving.nodes(), next.nodes());
+        releasing = serving;
+        serving = next;
+        preparing = null;
+    }
+
+    // drops the brands given away by the last commit, which are answered by their new owners from then on
+    public synchronized void release(Runnable reload) {
+        if (releasing == null) {
+            return;
+        }
+        logger.info("release. nodes: {}", serving.nodes());
+        releasing = null;
+        reload.run();
+    }
+
+    // the three steps at once, enough for a single node or one whose brands are only moved to others by restarts
+    public synchronized void rebalance(Collection<String> nodes, Runnable reload) {
+        prepare(nodes, reload);
+        commit();
+        release(reload);
+    }
+
+    private boolean owns(ConsistentHashRing ring, long brandId) {
+        return ring.isEmpty() || self.isEmpty() || ring.owner(brandId).equals(self);
+    }
+
+    private ConsistentHashRing ring(Collection<String> nodes) {
+        return ConsistentHashRing.of(nodes.stream().map(PricePartition::normalize).filter(node -> !node.isEmpty()).toList(), virtualNodes);
+    }
+
+    // http://host:8081/ and http://host:8081 are the same node
+    static String normalize(String node) {
+        String trimmed = node == null ? "" : node.trim();
+        return trimmed.endsWith("/") ? trimmed.substring(0, trimmed.length() - 1) : trimmed;
+    }
+}
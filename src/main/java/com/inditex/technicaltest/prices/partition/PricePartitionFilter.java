@@ -0,0 +1,88 @@
+package com.inditex.technicaltest.prices.partition;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inditex.technicaltest.prices.models.AppError;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * Answers 421 Misdirected Request to the GET requests of a single brand, the lookup, its timelines and the export,
+ * for a brand this node does not answer, naming its owner in the X-Prices-Owner header, rather than the 404 or empty
+ * answer it would give for a brand it did not load. The items of a batch are answered MISDIRECTED one by one.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class PricePartitionFilter extends OncePerRequestFilter {
+    public static final String OWNER_HEADER = "X-Prices-Owner";
+    public static final int MISDIRECTED_REQUEST = 421;
+    static final String PRICES_PATH = "/api/prices";
+    static final String BATCH_PATH = PRICES_PATH + "/batch";
+    // the GET requests taking the brand in the brandId parameter
+    private static final Set<String> BRAND_PATHS = Set.of(PRICES_PATH, PRICES_PATH + "/timeline", PRICES_PATH + "/export",
+            PRICES_PATH + "/diagnostics/timeline");
+    private static final Logger logger = LoggerFactory.getLogger(PricePartitionFilter.class);
+    private final PricePartition pricePartition;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public PricePartitionFilter(PricePartition pricePartition, ObjectMapper objectMapper) {
+        this.pricePartition = pricePartition;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !isBrandRequest(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Long brandId = brandId(request);
+        if (brandId == null || pricePartition.answers(brandId)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        String owner = pricePartition.owner(brandId).orElse("");
+        logger.info("doFilterInternal. brand {} is owned by {}", brandId, owner);
+        response.setHeader(OWNER_HEADER, owner);
+        writeError(response, MISDIRECTED_REQUEST, "Misdirected Request", "brand " + brandId + " is served by " + owner);
+    }
+
+    void writeError(HttpServletResponse response, int status, String reason, String message) throws IOException {
+        response.setStatus(status);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new AppError(message, reason, status, LocalDateTime.now()));
+    }
+
+    static boolean isBrandRequest(HttpServletRequest request) {
+        return "GET".equals(request.getMethod()) && BRAND_PATHS.contains(request.getRequestURI());
+    }
+
+    static boolean isBatch(HttpServletRequest request) {
+        return "POST".equals(request.getMethod()) && BATCH_PATH.equals(request.getRequestURI());
+    }
+
+    // left to the controller to reject when missing or malformed
+    static Long brandId(HttpServletRequest request) {
+        try {
+            String brandId = request.getParameter("brandId");
+            return brandId == null ? null : Long.valueOf(brandId);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package com.inditex.technicaltest.prices.partition;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inditex.technicaltest.prices.dtos.PriceBatchItemResponse;
+import com.inditex.technicaltest.prices.dtos.PriceBatchRequest;
+import com.inditex.technicaltest.prices.dtos.PriceBatchResponse;
+import com.inditex.technicaltest.prices.dtos.PriceRequest;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Forwards the requests of a brand, GET /api/prices, its timelines and the export, to the node owning it when the
+ * application runs as the router of a partitioned catalogue, with prices.partition.router. The items of
+ * POST /api/prices/batch are split by owner, sent to each of them as a batch of their own and put back in order, then
+ * answered in the representation the client accepts.
+ * <p>
+ * A node answering 421 during a rebalance, or MISDIRECTED for an item of a batch, is followed to the owner it names,
+ * and a node that cannot be reached, or answers a batch with an error, is skipped for the next one clockwise on the
+ * ring, so that a lookup is only lost when no node holding its brand is left. Lookups are idempotent, so sending one
+ * again is safe.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "prices.partition.router", havingValue = "true")
+public class PriceRouterFilter extends OncePerRequestFilter {
+    private static final Logger logger = LoggerFactory.getLogger(PriceRouterFilter.class);
+    // conditional requests and content negotiation are answered by the node
+    private static final List<String> REQUEST_HEADERS = List.of(HttpHeaders.ACCEPT, HttpHeaders.IF_NONE_MATCH, HttpHeaders.IF_MODIFIED_SINCE);
+    private static final List<String> RESPONSE_HEADERS = List.of(HttpHeaders.CONTENT_TYPE, HttpHeaders.ETAG, HttpHeaders.CACHE_CONTROL,
+            HttpHeaders.EXPIRES, HttpHeaders.LAST_MODIFIED, HttpHeaders.VARY);
+    private final PricePartition pricePartition;
+    private final PricePartitionFilter pricePartitionFilter;
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+    private final Duration timeout;
+    private final int batchMaxItems;
+    private final List<HttpMessageConverter<?>> messageConverters;
+
+    // the converters of the controllers, protobuf included, to answer a batch as a node would
+    @Autowired
+    public PriceRouterFilter(PricePartition pricePartition, PricePartitionFilter pricePartitionFilter, ObjectMapper objectMapper,
+                             @Value("${prices.partition.router-connect-timeout:PT1S}") Duration connectTimeout,
+                             @Value("${prices.partition.router-timeout:PT5S}") Duration timeout,
+                             @Value("${prices.batch.max-items:5000}") int batchMaxItems,
+                             RequestMappingHandlerAdapter requestMappingHandlerAdapter) {
+        this(pricePartition, pricePartitionFilter, objectMapper, connectTimeout, timeout, batchMaxItems,
+                requestMappingHandlerAdapter.getMessageConverters());
+    }
+
+    PriceRouterFilter(PricePartition pricePartition, PricePartitionFilter pricePartitionFilter, ObjectMapper objectMapper,
+                      Duration connectTimeout, Duration timeout, int batchMaxItems, List<HttpMessageConverter<?>> messageConverters) {
+        if (!pricePartition.self().isEmpty()) {
+            throw new IllegalStateException("the router is not a node, prices.partition.self must be left empty");
+        }
+        this.pricePartition = pricePartition;
+        this.pricePartitionFilter = pricePartitionFilter;
+        this.objectMapper = objectMapper;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(connectTimeout)
+                .build();
+        this.timeout = timeout;
+        this.batchMaxItems = batchMaxItems;
+        this.messageConverters = messageConverters;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !PricePartitionFilter.isBrandRequest(request) && !PricePartitionFilter.isBatch(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (pricePartition.nodes().isEmpty()) { // not partitioned: answered here
+            chain.doFilter(request, response);
+        } else if (PricePartitionFilter.isBatch(request)) {
+            routeBatch(request, response);
+        } else {
+            route(request, response, chain);
+        }
+    }
+
+    private void route(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Long brandId = PricePartitionFilter.brandId(request);
+        if (brandId == null) { // malformed: rejected here
+            chain.doFilter(request, response);
+            return;
+        }
+        Deque<String> nodes = new ArrayDeque<>(pricePartition.successors(brandId));
+        Set<String> tried = new HashSet<>();
+        while (!nodes.isEmpty()) {
+            String node = nodes.poll();
+            if (!tried.add(node)) {
+                continue;
+            }
+            HttpResponse<InputStream> forwarded;
+            try {
+                forwarded = send(forwardGet(node, request), HttpResponse.BodyHandlers.ofInputStream());
+            } catch (IOException ex) {
+                logger.warn("route. {} unreachable for brand {}: {}", node, brandId, ex.toString());
+                continue;
+            }
+            if (forwarded.statusCode() == PricePartitionFilter.MISDIRECTED_REQUEST) {
+                forwarded.body().close();
+                String owner = owner(forwarded);
+                logger.info("route. {} sent brand {} to {}", node, brandId, owner);
+                if (!owner.isEmpty()) {
+                    nodes.push(owner);
+                }
+                continue;
+            }
+            stream(forwarded, response);
+            return;
+        }
+        pricePartitionFilter.writeError(response, HttpStatus.BAD_GATEWAY.value(), HttpStatus.BAD_GATEWAY.getReasonPhrase(), "no node answered for brand " + brandId + ", tried " + tried);
+    }
+
+    // the items are sent to the owner of their brand, then to the owner a node names or to the next node on the ring
+    private void routeBatch(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        List<PriceRequest> items;
+        try {
+            PriceBatchRequest batchRequest = objectMapper.readValue(request.getInputStream(), PriceBatchRequest.class);
+            items = batchRequest.getItems() == null ? List.of() : batchRequest.getItems();
+        } catch (JsonProcessingException ex) {
+            pricePartitionFilter.writeError(response, HttpStatus.BAD_REQUEST.value(), HttpStatus.BAD_REQUEST.getReasonPhrase(), "malformed batch: " + ex.getOriginalMessage());
+            return;
+        }
+        if (items.size() > batchMaxItems) {
+            pricePartitionFilter.writeError(response, HttpStatus.BAD_REQUEST.value(), HttpStatus.BAD_REQUEST.getReasonPhrase(), "batch cannot have more than " + batchMaxItems + " items");
+            return;
+        }
+        PriceBatchItemResponse[] responses = new PriceBatchItemResponse[items.size()];
+        List<Deque<String>> candidates = new ArrayList<>(items.size());
+        List<Set<String>> tried = new ArrayList<>(items.size());
+        Map<String, List<Integer>> pending = new LinkedHashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            PriceRequest item = items.get(i);
+            // items without a brand are answered INVALID by any node
+            candidates.add(new ArrayDeque<>(item == null || item.getBrandId() == null ? pricePartition.nodes() : pricePartition.successors(item.getBrandId())));
+            tried.add(new HashSet<>());
+            next(i, candidates, tried, pending);
+        }
+        while (!pending.isEmpty()) {
+            String node = pending.keySet().iterator().next();
+            List<Integer> indexes = pending.remove(node);
+            HttpResponse<byte[]> forwarded;
+            try {
+                forwarded = send(forwardBatch(node, indexes.stream().map(items::get).toList()), HttpResponse.BodyHandlers.ofByteArray());
+            } catch (IOException ex) {
+                logger.warn("routeBatch. {} unreachable for {} items: {}", node, indexes.size(), ex.toString());
+                indexes.forEach(index -> next(index, candidates, tried, pending));
+                continue;
+            }
+            if (forwarded.statusCode() != HttpStatus.OK.value()) {
+                // a node warming up or shutting down answers 503: its items go to the next node like when unreachable
+                logger.warn("routeBatch. {} answered {} for {} items", node, forwarded.statusCode(), indexes.size());
+                indexes.forEach(index -> next(index, candidates, tried, pending));
+                continue;
+            }
+            for (PriceBatchItemResponse item : objectMapper.readValue(forwarded.body(), PriceBatchResponse.class).getItems()) {
+                int index = indexes.get(item.getIndex());
+                item.setIndex(index);
+                responses[index] = item;
+                if (item.getStatus() == PriceBatchItemResponse.Status.MISDIRECTED && item.getOwner() != null) {
+                    candidates.get(index).push(PricePartition.normalize(item.getOwner()));
+                    next(index, candidates, tried, pending);
+                }
+            }
+        }
+        List<Integer> unanswered = new ArrayList<>();
+        for (int i = 0; i < responses.length; i++) {
+            if (responses[i] == null) {
+                unanswered.add(i);
+            }
+        }
+        if (!unanswered.isEmpty()) {
+            pricePartitionFilter.writeError(response, HttpStatus.BAD_GATEWAY.value(), HttpStatus.BAD_GATEWAY.getReasonPhrase(), "no node answered for the items " + unanswered);
+            return;
+        }
+        write(request, response, PriceBatchResponse.builder().items(Arrays.asList(responses)).build());
+    }
+
+    // negotiated on the Accept of the client with the converters of the controllers, the nodes always answer JSON
+    @SuppressWarnings("unchecked")
+    private void write(HttpServletRequest request, HttpServletResponse response, PriceBatchResponse batch) throws IOException {
+        List<MediaType> accepted;
+        try {
+            String accept = request.getHeader(HttpHeaders.ACCEPT);
+            accepted = new ArrayList<>(accept == null || accept.isBlank() ? List.of(MediaType.ALL) : MediaType.parseMediaTypes(accept));
+        } catch (InvalidMediaTypeException ex) {
+            pricePartitionFilter.writeError(response, HttpStatus.BAD_REQUEST.value(), HttpStatus.BAD_REQUEST.getReasonPhrase(), "malformed Accept: " + ex.getMessage());
+            return;
+        }
+        MimeTypeUtils.sortBySpecificity(accepted);
+        for (MediaType mediaType : accepted) {
+            for (HttpMessageConverter<?> converter : messageConverters) {
+                if (converter.canWrite(PriceBatchResponse.class, mediaType)) {
+                    response.setStatus(HttpStatus.OK.value());
+                    // a wildcard leaves the converter to write its default type
+                    MediaType contentType = mediaType.isConcrete() ? mediaType.removeQualityValue() : null;
+                    ((HttpMessageConverter<Object>) converter).write(batch, contentType, new ServletServerHttpResponse(response));
+                    return;
+                }
+            }
+        }
+        pricePartitionFilter.writeError(response, HttpStatus.NOT_ACCEPTABLE.value(), HttpStatus.NOT_ACCEPTABLE.getReasonPhrase(), "the batch cannot be answered as " + accepted);
+    }
+
+    // queues the item on its next node not tried yet, if any is left
+    private static void next(int index, List<Deque<String>> candidates, List<Set<String>> tried, Map<String, List<Integer>> pending) {
+        Deque<String> nodes = candidates.get(index);
+        while (!nodes.isEmpty()) {
+            String node = nodes.poll();
+            if (tried.get(index).add(node)) {
+                pending.computeIfAbsent(node, n -> new ArrayList<>()).add(index);
+                return;
+            }
+        }
+    }
+
+    private HttpRequest forwardGet(String node, HttpServletRequest request) {
+        String query = request.getQueryString();
+        HttpRequest.Builder forwarded = HttpRequest.newBuilder(URI.create(node + request.getRequestURI() + (query == null ? "" : "?" + query)))
+                .timeout(timeout)
+                .GET();
+        REQUEST_HEADERS.forEach(name -> {
+            String value = request.getHeader(name);
+            if (value != null) {
+                forwarded.header(name, value);
+            }
+        });
+        return forwarded.build();
+    }
+
+    private HttpRequest forwardBatch(String node, List<PriceRequest> items) throws JsonProcessingException {
+        return HttpRequest.newBuilder(URI.create(node + PricePartitionFilter.BATCH_PATH))
+                .timeout(timeout)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE) // read back here
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(new PriceBatchRequest(items))))
+                .build();
+    }
+
+    private <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler) throws IOException {
+        try {
+            return httpClient.send(request, bodyHandler);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while forwarding to " + request.uri(), ex);
+        }
+    }
+
+    private static String owner(HttpResponse<?> forwarded) {
+        return forwarded.headers().firstValue(PricePartitionFilter.OWNER_HEADER).map(PricePartition::normalize).orElse("");
+    }
+
+    private static void copyHeaders(HttpResponse<?> forwarded, HttpServletResponse response) {
+        response.setStatus(forwarded.statusCode());
+        RESPONSE_HEADERS.forEach(name -> forwarded.headers().allValues(name).forEach(value -> response.addHeader(name, value)));
+    }
+
+    // streamed as it comes, flushed after every read so the progress lines of an export reach the client on time
+    private static void stream(HttpResponse<InputStream> forwarded, HttpServletResponse response) throws IOException {
+        copyHeaders(forwarded, response);
+        ServletOutputStream output = response.getOutputStream();
+        try (InputStream body = forwarded.body()) {
+            byte[] buffer = new byte[8192];
+            for (int read = body.read(buffer); read != -1; read = body.read(buffer)) {
+                output.write(buffer, 0, read);
+                output.flush();
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.inditex.technicaltest.prices.repositories;
+
+import com.inditex.technicaltest.prices.models.PriceView;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+/**
+ * Reads the prices of a whole brand, or of the whole catalogue, straight through JDBC, so no entity nor persistence
+ * context is involved.
+ */
+@Repository
+public class PriceExportRepository {
+    // the rows of each product come together in the order of idx_prices_lookup, so the index is read without a sort
+    private static final String FIND_PRICES_OF_BRAND_ON_DATE = "SELECT price_list, brand_id, product_id, start_date, end_date, priority, price, curr "
+            + "FROM PRICES WHERE brand_id = ? AND product_id > ? AND ? BETWEEN start_date AND end_date "
+            + "ORDER BY product_id";
+    // the rows of each brand/product come together
+    private static final String FIND_ALL_PRICES = "SELECT price_list, brand_id, product_id, start_date, end_date, priority, price, curr "
+            + "FROM PRICES ORDER BY brand_id, product_id";
+    private final JdbcTemplate jdbcTemplate;
+    @Value("${prices.export.fetch-size:1000}")
+    private int fetchSize = 1000;
+
+    @Autowired
+    public PriceExportRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // a forward-only cursor read as the caller consumes it, which must close the stream within its transaction
+    public Stream<PriceView> streamPricesOfBrandOnDate(Long brandId, LocalDateTime date, long afterProductId) {
+        return jdbcTemplate.queryForStream(connection -> {
+            PreparedStatement statement = connection.prepareStatement(FIND_PRICES_OF_BRAND_ON_DATE,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            statement.setLong(1, brandId);
+            statement.setLong(2, afterProductId);
+            statement.setObject(3, date);
+            return statement;
+        }, (resultSet, rowNum) -> toPriceView(resultSet));
+    }
+
+    // every price through a forward-only cursor, closing the stream releases its connection
+    public Stream<PriceView> streamAllPrices() {
+        return jdbcTemplate.queryForStream(connection -> {
+            PreparedStatement statement = connection.prepareStatement(FIND_ALL_PRICES,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            return statement;
+        }, (resultSet, rowNum) -> toPriceView(resultSet));
+    }
+
+    public int countPrices() {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM PRICES", Integer.class);
+        return count == null ? 0 : count;
+    }
+
+    private static PriceView toPriceView(ResultSet resultSet) throws SQLException {
+        return new PriceView(
+                resultSet.getLong("price_list"),
+                resultSet.getLong("brand_id"),
+                resultSet.getLong("product_id"),
+                resultSet.getObject("start_date", LocalDateTime.class),
+                resultSet.getObject("end_date", LocalDateTime.class),
+                resultSet.getInt("priority"),
+                resultSet.getBigDecimal("price"),
+                resultSet.getString("curr"));
+    }
+}
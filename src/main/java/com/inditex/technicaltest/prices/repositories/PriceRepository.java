@@ -1,8 +1,100 @@
 package com.inditex.technicaltest.prices.repositories;
 
+import com.inditex.technicaltest.prices.models.EffectivePrice;
+import com.inditex.technicaltest.prices.models.PriceKey;
+import com.inditex.technicaltest.prices.models.PriceView;
 import com.inditex.technicaltest.prices.models.domain.Price;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface PriceRepository extends JpaRepository<Price, Long>, JpaSpecificationExecutor<Price> {
+
+    // brand.id and product.id are read from the foreign keys, so no join is generated
+    String PRICE_VIEW = "select new com.inditex.technicaltest.prices.models.PriceView("
+            + "p.id, p.brand.id, p.product.id, p.startDate, p.endDate, p.priority, p.value, p.curr) from Price p ";
+
+    // same ranking as PriceTimelineCompiler
+    @Transactional(readOnly = true)
+    @Query(PRICE_VIEW
+            + "where p.brand.id = :brandId and p.product.id = :productId and :date between p.startDate and p.endDate "
+            + "order by p.priority desc, p.startDate desc, p.id desc")
+    List<PriceView> findEffectivePrices(@Param("brandId") Long brandId, @Param("productId") Long productId,
+                                        @Param("date") LocalDateTime date, Limit limit);
+
+    // findEffectivePrices with the bounds of the run of the winner, each subquery bounded by the lookup index: where
+    // the last price ranked above it ended before the date, and where one of at least its priority starts after it
+    @Transactional(readOnly = true)
+    @Query("select new com.inditex.technicaltest.prices.models.EffectivePrice("
+            + "p.id, p.brand.id, p.product.id, p.startDate, p.endDate, p.priority, p.value, p.curr, "
+            + "(select max(a.endDate) from Price a where a.brand.id = :brandId and a.product.id = :productId "
+            + "and a.startDate < :date and a.endDate < :date and (a.priority > p.priority or (a.priority = p.priority "
+            + "and (a.startDate > p.startDate or (a.startDate = p.startDate and a.id > p.id))))), "
+            + "(select min(n.startDate) from Price n where n.brand.id = :brandId and n.product.id = :productId "
+            + "and n.startDate > :date and n.priority >= p.priority)) from Price p "
+            + "where p.brand.id = :brandId and p.product.id = :productId and :date between p.startDate and p.endDate "
+            + "order by p.priority desc, p.startDate desc, p.id desc")
+    List<EffectivePrice> findEffectivePriceRuns(@Param("brandId") Long brandId, @Param("productId") Long productId,
+                                                @Param("date") LocalDateTime date, Limit limit);
+
+    // where a price starts after the date, the first date a lookup without a price can get one
+    @Transactional(readOnly = true)
+    @Query("select min(p.startDate) from Price p where p.brand.id = :brandId and p.product.id = :productId "
+            + "and p.startDate > :date")
+    Optional<LocalDateTime> findNextStart(@Param("brandId") Long brandId, @Param("productId") Long productId,
+                                          @Param("date") LocalDateTime date);
+
+    @Transactional(readOnly = true)
+    @Query("select max(p.endDate) from Price p where p.brand.id = :brandId and p.product.id = :productId "
+            + "and p.startDate < :date and p.endDate < :date")
+    Optional<LocalDateTime> findLastEnd(@Param("brandId") Long brandId, @Param("productId") Long productId,
+                                        @Param("date") LocalDateTime date);
+
+    @Transactional(readOnly = true)
+    @Query(PRICE_VIEW
+            + "where p.brand.id = :brandId and p.product.id in :productIds and p.startDate <= :to and p.endDate >= :from")
+    List<PriceView> findProductPricesOfBrandBetween(@Param("brandId") Long brandId, @Param("productIds") Collection<Long> productIds,
+                                                    @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // read as the caller consumes it, within its transaction, in the order of the lookup index
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(PRICE_VIEW
+            + "where p.brand.id = :brandId and p.product.id = :productId and p.startDate <= :to and p.endDate >= :from "
+            + "order by p.startDate")
+    Stream<PriceView> streamProductPricesOfBrandBetween(@Param("brandId") Long brandId, @Param("productId") Long productId,
+                                                        @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Transactional(readOnly = true)
+    @Query(PRICE_VIEW + "where p.brand.id = :brandId and p.product.id in :productIds")
+    List<PriceView> findProductPricesOfBrandIn(@Param("brandId") Long brandId, @Param("productIds") Collection<Long> productIds);
+
+    @Transactional(readOnly = true)
+    @Query(PRICE_VIEW)
+    List<PriceView> findAllViews();
+
+    @Transactional(readOnly = true)
+    @Query(PRICE_VIEW + "order by p.id")
+    List<PriceView> findViews(Limit limit);
+
+    // updatedAt is only set on updates, otherwise the row was last written when it was created
+    @Transactional(readOnly = true)
+    @Query("select max(coalesce(p.audit.updatedAt, p.audit.createdAt)) from Price p")
+    Optional<LocalDateTime> findLastChange();
+
+    @Transactional(readOnly = true)
+    @Query("select distinct new com.inditex.technicaltest.prices.models.PriceKey(p.brand.id, p.product.id) from Price p "
+            + "where coalesce(p.audit.updatedAt, p.audit.createdAt) > :since")
+    List<PriceKey> findKeysChangedSince(@Param("since") LocalDateTime since);
 }
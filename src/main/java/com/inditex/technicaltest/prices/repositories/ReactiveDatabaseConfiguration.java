@@ -0,0 +1,72 @@
+package com.inditex.technicaltest.prices.repositories;
+
+import io.r2dbc.h2.H2ConnectionConfiguration;
+import io.r2dbc.h2.H2ConnectionFactory;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+
+/**
+ * R2DBC access of the reactive stack to the same H2 database the JDBC DataSource points to.
+ * <p>
+ * The connection pool is not registered as a ConnectionFactory bean, since DataSourceAutoConfiguration backs off when
+ * there is one, and Flyway, JPA and the ingestion keep running on JDBC.
+ * <p>
+ * r2dbc-h2 wraps the embedded JDBC driver, so its queries block the thread that subscribes to them. They are run on a
+ * bounded scheduler of as many threads as connections, never on the Netty event loops; what the reactive stack saves
+ * is the threads of the lookups waiting for a connection, not those running a query.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveDatabaseConfiguration implements DisposableBean {
+    private static final String H2_URL_PREFIX = "jdbc:h2:";
+    private ConnectionPool connectionPool;
+
+    @Bean
+    public DatabaseClient databaseClient(@Value("${spring.datasource.url}") String url,
+                                         @Value("${spring.datasource.username:sa}") String username,
+                                         @Value("${spring.datasource.password:}") String password,
+                                         @Value("${prices.reactive.pool.max-size:20}") int maxSize,
+                                         @Value("${prices.reactive.pool.max-acquire-time:2s}") Duration maxAcquireTime,
+                                         @Value("${prices.reactive.pool.max-pending-acquire:10000}") int maxPendingAcquire) {
+        if (!url.startsWith(H2_URL_PREFIX)) {
+            throw new IllegalStateException("the reactive stack reads H2 only, spring.datasource.url is " + url);
+        }
+        H2ConnectionFactory connectionFactory = new H2ConnectionFactory(H2ConnectionConfiguration.builder()
+                .url(url.substring(H2_URL_PREFIX.length()))
+                .username(username)
+                .password(password)
+                .build());
+        connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(connectionFactory)
+                .name("prices-reactive")
+                .maxSize(maxSize)
+                .maxAcquireTime(maxAcquireTime)
+                // lookups beyond this fail at once instead of queueing without bound for a connection
+                .customizer(pool -> pool.maxPendingAcquire(maxPendingAcquire))
+                .build());
+        return DatabaseClient.create(connectionPool);
+    }
+
+    // a thread per connection, and as many queries queued as lookups may wait for a connection
+    @Bean(destroyMethod = "dispose")
+    public Scheduler priceQueryScheduler(@Value("${prices.reactive.pool.max-size:20}") int maxSize,
+                                         @Value("${prices.reactive.pool.max-pending-acquire:10000}") int maxPendingAcquire) {
+        return Schedulers.newBoundedElastic(maxSize, maxPendingAcquire, "prices-r2dbc");
+    }
+
+    @Override
+    public void destroy() {
+        if (connectionPool != null) {
+            connectionPool.dispose();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.inditex.technicaltest.prices.repositories;
+
+import com.inditex.technicaltest.prices.models.EffectivePrice;
+import com.inditex.technicaltest.prices.models.PriceView;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactivePriceRepository {
+    // same filter and ranking as PriceRepository.findEffectivePrices, planned on idx_prices_lookup
+    private static final String FIND_EFFECTIVE_PRICE = "SELECT price_list, brand_id, product_id, start_date, end_date, priority, price, curr "
+            + "FROM PRICES WHERE brand_id = :brandId AND product_id = :productId AND :date BETWEEN start_date AND end_date "
+            + "ORDER BY priority DESC, start_date DESC, price_list DESC FETCH FIRST 1 ROWS ONLY";
+    // same statement as PriceRepository.findEffectivePriceRuns, the winner and the bounds of its run
+    private static final String FIND_EFFECTIVE_PRICE_RUN = "SELECT p.price_list, p.brand_id, p.product_id, p.start_date, p.end_date, p.priority, p.price, p.curr, "
+            + "(SELECT MAX(a.end_date) FROM PRICES a WHERE a.brand_id = :brandId AND a.product_id = :productId "
+            + "AND a.start_date < :date AND a.end_date < :date AND (a.priority > p.priority OR (a.priority = p.priority "
+            + "AND (a.start_date > p.start_date OR (a.start_date = p.start_date AND a.price_list > p.price_list))))) AS last_end_ranked_above, "
+            + "(SELECT MIN(n.start_date) FROM PRICES n WHERE n.brand_id = :brandId AND n.product_id = :productId "
+            + "AND n.start_date > :date AND n.priority >= p.priority) AS next_start "
+            + "FROM PRICES p WHERE p.brand_id = :brandId AND p.product_id = :productId AND :date BETWEEN p.start_date AND p.end_date "
+            + "ORDER BY p.priority DESC, p.start_date DESC, p.price_list DESC FETCH FIRST 1 ROWS ONLY";
+    // same bounds as PriceRepository.findNextStart and findLastEnd, of a date without a price
+    private static final String FIND_NEXT_START = "SELECT MIN(start_date) FROM PRICES "
+            + "WHERE brand_id = :brandId AND product_id = :productId AND start_date > :date";
+    private static final String FIND_LAST_END = "SELECT MAX(end_date) FROM PRICES "
+            + "WHERE brand_id = :brandId AND product_id = :productId AND start_date < :date AND end_date < :date";
+    private final DatabaseClient databaseClient;
+    private final Scheduler queryScheduler;
+
+    // r2dbc-h2 runs every query on the thread subscribing to it, so the queries are subscribed on the bounded
+    // scheduler of the pool instead of a Netty event loop
+    @Autowired
+    public ReactivePriceRepository(DatabaseClient databaseClient, Scheduler priceQueryScheduler) {
+        this.databaseClient = databaseClient;
+        this.queryScheduler = priceQueryScheduler;
+    }
+
+    public Mono<PriceView> findEffectivePrice(Long brandId, Long productId, LocalDateTime date) {
+        return databaseClient.sql(FIND_EFFECTIVE_PRICE)
+                .bind("brandId", brandId)
+                .bind("productId", productId)
+                .bind("date", date)
+                .map(ReactivePriceRepository::toPriceView)
+                .first()
+                .subscribeOn(queryScheduler);
+    }
+
+    public Mono<EffectivePrice> findEffectivePriceRun(Long brandId, Long productId, LocalDateTime date) {
+        return databaseClient.sql(FIND_EFFECTIVE_PRICE_RUN)
+                .bind("brandId", brandId)
+                .bind("productId", productId)
+                .bind("date", date)
+                .map(row -> new EffectivePrice(toPriceView(row),
+                        row.get("last_end_ranked_above", LocalDateTime.class),
+                        row.get("next_start", LocalDateTime.class)))
+                .first()
+                .subscribeOn(queryScheduler);
+    }
+
+    public Mono<LocalDateTime> findNextStart(Long brandId, Long productId, LocalDateTime date) {
+        return date(databaseClient.sql(FIND_NEXT_START)
+                .bind("brandId", brandId)
+                .bind("productId", productId)
+                .bind("date", date));
+    }
+
+    public Mono<LocalDateTime> findLastEnd(Long brandId, Long productId, LocalDateTime date) {
+        return date(databaseClient.sql(FIND_LAST_END)
+                .bind("brandId", brandId)
+                .bind("productId", productId)
+                .bind("date", date));
+    }
+
+    // empty when the aggregate found no row
+    private Mono<LocalDateTime> date(DatabaseClient.GenericExecuteSpec spec) {
+        return spec.map(row -> Optional.ofNullable(row.get(0, LocalDateTime.class)))
+                .one()
+                .flatMap(Mono::justOrEmpty)
+                .subscribeOn(queryScheduler);
+    }
+
+    private static PriceView toPriceView(Readable row) {
+        return new PriceView(
+                row.get("price_list", Long.class),
+                row.get("brand_id", Long.class),
+                row.get("product_id", Long.class),
+                row.get("start_date", LocalDateTime.class),
+                row.get("end_date", LocalDateTime.class),
+                row.get("priority", Integer.class),
+                row.get("price", BigDecimal.class),
+                row.get("curr", String.class));
+    }
+}
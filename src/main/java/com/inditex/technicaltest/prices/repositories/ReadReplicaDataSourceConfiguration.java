@@ -0,0 +1,95 @@
+package com.inditex.technicaltest.prices.repositories;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DataSource of the application when prices.datasource.replicas lists read replicas of the database: read-only
+ * transactions, as the lookups of the jpa engine, are served by the replicas, and the rest by the primary from
+ * spring.datasource.
+ * <p>
+ * Every pool is a Hikari one of its own, named primary, replica-1, replica-2... in the hikaricp.* meters. The replicas
+ * take the credentials and the pool sizes of the primary.
+ */
+@Configuration
+@ConditionalOnExpression("!'${prices.datasource.replicas:}'.isEmpty()")
+public class ReadReplicaDataSourceConfiguration {
+
+    @Bean
+    @FlywayDataSource
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("primary");
+        return primary;
+    }
+
+    @Bean
+    public ReadReplicaRoutingDataSource readReplicaRoutingDataSource(HikariDataSource primaryDataSource,
+                                                                     DataSourceProperties dataSourceProperties,
+                                                                     MeterRegistry meterRegistry,
+                                                                     @Value("${prices.datasource.replicas}") List<String> urls,
+                                                                     @Value("${prices.datasource.max-lag:PT30S}") Duration maxLag,
+                                                                     @Value("${prices.datasource.ejection:PT30S}") Duration ejection) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String url : urls) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + (replicas.size() + 1));
+            replica.setJdbcUrl(url.trim());
+            replica.setDriverClassName(dataSourceProperties.determineDriverClassName());
+            replica.setUsername(dataSourceProperties.determineUsername());
+            replica.setPassword(dataSourceProperties.determinePassword());
+            // sizes left unset on the primary are still -1 until its pool starts, and get Hikari's defaults here too
+            if (primaryDataSource.getMaximumPoolSize() > 0) {
+                replica.setMaximumPoolSize(primaryDataSource.getMaximumPoolSize());
+            }
+            if (primaryDataSource.getMinimumIdle() >= 0) {
+                replica.setMinimumIdle(primaryDataSource.getMinimumIdle());
+            }
+            replica.setConnectionTimeout(primaryDataSource.getConnectionTimeout());
+            // not beans, so not bound by the actuator as the primary is
+            replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.add(replica);
+        }
+        return new ReadReplicaRoutingDataSource(primaryDataSource, replicas, maxLag, ejection, meterRegistry);
+    }
+
+    // the connection is taken on the first statement, once the transaction is known to be read-only or not
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadReplicaRoutingDataSource readReplicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(readReplicaRoutingDataSource);
+    }
+
+    // replicas that are databases of their own, as the local H2 ones, get the migrations of the primary
+    @Bean
+    @ConditionalOnProperty(name = "prices.datasource.migrate-replicas", havingValue = "true")
+    public FlywayMigrationStrategy replicaMigrationStrategy(ReadReplicaRoutingDataSource readReplicaRoutingDataSource) {
+        return flyway -> {
+            flyway.migrate();
+            readReplicaRoutingDataSource.replicaPools().forEach(replica -> Flyway.configure()
+                    .configuration(flyway.getConfiguration())
+                    .dataSource(replica)
+                    .load()
+                    .migrate());
+        };
+    }
+}
@@ -0,0 +1,208 @@
+package com.inditex.technicaltest.prices.repositories;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Connections of read-only transactions from a pool of replicas, taken in turn, and every other connection from the
+ * primary. It must sit behind a LazyConnectionDataSourceProxy, so that the connection is taken once the transaction
+ * is known to be read-only.
+ * <p>
+ * A replica that fails to give a connection, or to answer a health check, is ejected for a while. One whose last
+ * change of the prices is behind the one of the primary by more than the allowed lag is left out until it catches
+ * up, so reads never see older prices than that. Without a replica left, reads go to the primary.
+ */
+public class ReadReplicaRoutingDataSource extends AbstractDataSource {
+    private static final Logger logger = LoggerFactory.getLogger(ReadReplicaRoutingDataSource.class);
+    // same watermark as PriceRepository.findLastChange
+    private static final String LAST_CHANGE = "SELECT MAX(COALESCE(updated_at, created_at)) FROM PRICES";
+    // lag of a replica still without prices while the primary has some
+    private static final Duration UNKNOWN_LAG = ChronoUnit.FOREVER.getDuration();
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final Duration maxLag;
+    private final Duration ejection;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter primaryReads;
+    private final Counter writes;
+
+    public ReadReplicaRoutingDataSource(DataSource primary, List<HikariDataSource> replicas, Duration maxLag,
+                                        Duration ejection, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(pool -> new Replica(pool, meterRegistry)).toList();
+        this.maxLag = maxLag;
+        this.ejection = ejection;
+        this.primaryReads = counter(meterRegistry, "read", "primary");
+        this.writes = counter(meterRegistry, "write", "primary");
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return getConnection(DataSource::getConnection);
+    }
+
+    // the same routing, with the credentials given instead of those of each pool
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return getConnection(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    private Connection getConnection(ConnectionSource source) throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            writes.increment();
+            return source.get(primary);
+        }
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get(Math.floorMod(next.getAndIncrement(), replicas.size()));
+            if (!replica.isServing()) {
+                continue;
+            }
+            try {
+                Connection connection = source.get(replica.pool);
+                replica.reads.increment();
+                return connection;
+            } catch (SQLFeatureNotSupportedException ex) {
+                // as a Hikari pool asked for other credentials, the replica is fine but cannot serve this read
+                logger.debug("getConnection. replica {} cannot serve the connection: {}", replica.name(), ex.toString());
+            } catch (SQLException ex) {
+                replica.eject(ejection, ex.toString());
+            }
+        }
+        primaryReads.increment();
+        return source.get(primary);
+    }
+
+    // replicas that answer are let back in once their ejection ends, and those lagging are left out until they catch up
+    @Scheduled(initialDelayString = "${prices.datasource.health-interval:PT5S}", fixedDelayString = "${prices.datasource.health-interval:PT5S}")
+    public void checkReplicas() {
+        LocalDateTime primaryChange;
+        try {
+            primaryChange = lastChange(primary);
+        } catch (SQLException ex) {
+            logger.warn("checkReplicas. primary unavailable, replica lag unknown: {}", ex.toString());
+            return;
+        }
+        for (Replica replica : replicas) {
+            try {
+                LocalDateTime replicaChange = lastChange(replica.pool);
+                Duration lag = primaryChange == null || (replicaChange != null && !replicaChange.isBefore(primaryChange))
+                        ? Duration.ZERO
+                        : replicaChange == null ? UNKNOWN_LAG : Duration.between(replicaChange, primaryChange);
+                replica.check(lag, maxLag);
+            } catch (SQLException ex) {
+                replica.eject(ejection, ex.toString());
+            }
+        }
+    }
+
+    public List<Replica> replicas() {
+        return replicas;
+    }
+
+    List<HikariDataSource> replicaPools() {
+        return replicas.stream().map(replica -> replica.pool).toList();
+    }
+
+    // the primary is a bean of its own, closed by the context
+    public void close() {
+        replicas.forEach(replica -> replica.pool.close());
+    }
+
+    private static LocalDateTime lastChange(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(LAST_CHANGE)) {
+            Timestamp lastChange = resultSet.next() ? resultSet.getTimestamp(1) : null;
+            return lastChange == null ? null : lastChange.toLocalDateTime();
+        }
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String access, String pool) {
+        return Counter.builder("prices.datasource.connections")
+                .description("connections handed out, by access and pool")
+                .tags("access", access, "pool", pool)
+                .register(meterRegistry);
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSource {
+        Connection get(DataSource dataSource) throws SQLException;
+    }
+
+    public static final class Replica {
+        private final HikariDataSource pool;
+        private final Counter reads;
+        private volatile long ejectedUntil; // System.nanoTime(), 0 when not ejected
+        private volatile boolean lagging;
+        private volatile Duration lag = Duration.ZERO;
+
+        private Replica(HikariDataSource pool, MeterRegistry meterRegistry) {
+            this.pool = pool;
+            this.reads = counter(meterRegistry, "read", pool.getPoolName());
+            Gauge.builder("prices.datasource.replica.lag", this,
+                            replica -> replica.lag.equals(UNKNOWN_LAG) ? Double.POSITIVE_INFINITY : replica.lag.toMillis() / 1000.0)
+                    .description("seconds the last change of the prices on the replica is behind the primary")
+                    .baseUnit("seconds")
+                    .tag("pool", pool.getPoolName())
+                    .register(meterRegistry);
+            Gauge.builder("prices.datasource.replica.serving", this, replica -> replica.isServing() ? 1 : 0)
+                    .description("1 when the replica takes reads, 0 when ejected or lagging")
+                    .tag("pool", pool.getPoolName())
+                    .register(meterRegistry);
+        }
+
+        public String name() {
+            return pool.getPoolName();
+        }
+
+        public boolean isServing() {
+            long until = ejectedUntil;
+            return !lagging && (until == 0 || System.nanoTime() - until >= 0);
+        }
+
+        public Duration lag() {
+            return lag;
+        }
+
+        private void eject(Duration ejection, String reason) {
+            if (isServing()) {
+                logger.warn("eject. replica {} ejected for {}: {}", name(), ejection, reason);
+            }
+            ejectedUntil = System.nanoTime() + ejection.toNanos();
+        }
+
+        private void check(Duration lag, Duration maxLag) {
+            boolean wasServing = isServing();
+            this.lag = lag;
+            this.lagging = lag.compareTo(maxLag) > 0;
+            // an ejection runs its whole course, a replica answering one check may still fail to give connections
+            long until = ejectedUntil;
+            if (until != 0 && System.nanoTime() - until >= 0) {
+                this.ejectedUntil = 0;
+            }
+            if (wasServing != isServing()) {
+                logger.info("check. replica {} {}, lag: {}", name(), isServing() ? "back in" : "left out", lag);
+            }
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.inditex.technicaltest.prices.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.inditex.technicaltest.prices.dtos.PriceDTO;
+import com.inditex.technicaltest.prices.events.PriceChangedEvent;
+import com.inditex.technicaltest.prices.metrics.PriceHotKeys;
+import com.inditex.technicaltest.prices.models.PriceKey;
+import com.inditex.technicaltest.prices.models.PriceView;
+import com.inditex.technicaltest.prices.services.timeline.PriceResolution;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of lookups in front of the configured engine.
+ * <p>
+ * Lookups are keyed by brand, product and a bucket of the date, and each entry keeps the period in which its answer
+ * holds, so a cached answer is only returned for dates inside that period. A bucket holding a change of price keeps
+ * the periods on either side of its entry under keys of their own. Entries of a brand/product are no longer found once
+ * a write to its prices is committed.
+ * <p>
+ * With read replicas, the first lookups after a write may be served by a replica that has not applied it yet, up to
+ * prices.datasource.max-lag behind. The entries they load expire once the write is that old, so a stale answer is
+ * never kept longer than a replica may lag.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "prices.cache.enabled", havingValue = "true", matchIfMissing = true)
+public class CachingPriceService implements PriceService {
+    private static final Logger logger = LoggerFactory.getLogger(CachingPriceService.class);
+    private final PriceService engine;
+    private final PriceLookupCoalescer coalescer;
+    private final PriceHotKeys priceHotKeys;
+    private final long bucketSeconds;
+    private final Cache<CacheKey, PriceResolution> cache;
+    // bumped on every write, so the entries of a brand/product stop being found without scanning the cache, and a lookup
+    // that read the prices before the write cannot store its answer where later lookups find it
+    private final Cache<PriceKey, Generation> generations;
+    // brand/products without a generation of their own take the floor, moved past every generation when they are
+    // too many, which drops them all at once as a full invalidation
+    private final AtomicLong lastGeneration = new AtomicLong();
+    private volatile Generation floor;
+    private final long maximumGenerations;
+    private final long replicaMaxLagNanos;
+
+    @Autowired
+    public CachingPriceService(@Qualifier(PriceService.ENGINE) PriceService engine,
+                               @Value("${prices.cache.maximum-size:100000}") long maximumSize,
+                               @Value("${prices.cache.bucket:1m}") Duration bucket,
+                               @Value("${prices.cache.max-ttl:10m}") Duration maxTtl,
+                               @Value("#{'${prices.datasource.replicas:}'.isEmpty() ? 'PT0S' : '${prices.datasource.max-lag:PT30S}'}") Duration replicaMaxLag,
+                               MeterRegistry meterRegistry,
+                               PriceLookupCoalescer coalescer,
+                               PriceHotKeys priceHotKeys) {
+        this.engine = engine;
+        this.coalescer = coalescer;
+        this.priceHotKeys = priceHotKeys;
+        this.bucketSeconds = Math.max(1, bucket.toSeconds());
+        this.replicaMaxLagNanos = replicaMaxLag.toNanos();
+        this.floor = new Generation(0, System.nanoTime() - replicaMaxLagNanos);
+        this.maximumGenerations = maximumSize;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<CacheKey, PriceResolution>() {
+                    @Override
+                    public long expireAfterCreate(CacheKey key, PriceResolution resolution, long currentTime) {
+                        return Math.min(resolution.lifetime(LocalDateTime.now(), maxTtl).toNanos(), replicaLagLeft(key, currentTime));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(CacheKey key, PriceResolution resolution, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, resolution, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(CacheKey key, PriceResolution resolution, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "prices");
+        // kept until every entry of an older generation, and any lookup that read the prices before the write, is gone
+        this.generations = Caffeine.newBuilder()
+                .expireAfterWrite(maxTtl.multipliedBy(2))
+                .build();
+    }
+
+    @Override
+    public Optional<PriceView> getProductPriceOfBrandOnDate(PriceDTO priceDTO) {
+        if (priceDTO.getBrandId() == null || priceDTO.getProductId() == null || priceDTO.getPriceDate() == null) {
+            return engine.getProductPriceOfBrandOnDate(priceDTO);
+        }
+        return resolve(priceDTO).find();
+    }
+
+    @Override
+    public PriceResolution resolve(PriceDTO priceDTO) {
+        PriceKey priceKey = new PriceKey(priceDTO.getBrandId(), priceDTO.getProductId());
+        LocalDateTime date = priceDTO.getPriceDate();
+        CacheKey key = new CacheKey(priceKey,
+                Math.floorDiv(date.toEpochSecond(ZoneOffset.UTC), bucketSeconds),
+                generation(priceKey).number(),
+                null);
+
+        // concurrent misses of an entry already share its load, identical lookups share the run of the engine
+        PriceResolution resolution = cache.get(key, k -> load(priceDTO));
+        if (resolution.contains(date)) {
+            return resolution;
+        }
+        // a change of price inside the bucket, the period before or after the entry's is kept next to it, so dates on
+        // both sides of the change are answered from the cache instead of replacing each other's entry
+        LocalDateTime edge = date.isBefore(resolution.validFrom()) ? resolution.validFrom() : resolution.validTo();
+        CacheKey side = new CacheKey(key.priceKey(), key.bucket(), key.generation(), edge);
+        resolution = cache.get(side, k -> load(priceDTO));
+        // a third period in the same bucket is rare enough to be left to the engine
+        return resolution.contains(date) ? resolution : load(priceDTO);
+    }
+
+    // neither read nor stored, nor counted as a miss
+    @Override
+    public PriceResolution resolveUncached(PriceDTO priceDTO) {
+        return engine.resolve(priceDTO);
+    }
+
+    private PriceResolution load(PriceDTO priceDTO) {
+        priceHotKeys.miss(priceDTO.getBrandId(), priceDTO.getProductId());
+        return coalescer.resolve(priceDTO, engine::resolve);
+    }
+
+    // batches are already resolved by the engine in a few queries
+    @Override
+    public List<Optional<PriceView>> getProductPricesOfBrandOnDates(List<PriceDTO> priceDTOs) {
+        return engine.getProductPricesOfBrandOnDates(priceDTOs);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPriceChanged(PriceChangedEvent event) {
+        // the entries of older generations are never asked for again, and are left to expire or be evicted
+        long writtenAt = System.nanoTime();
+        if (generations.estimatedSize() + event.keys().size() > maximumGenerations) {
+            // the floor is moved before the generations are dropped, so no lookup falls back to the old one
+            floor = new Generation(lastGeneration.incrementAndGet(), writtenAt);
+            generations.invalidateAll();
+            logger.info("onPriceChanged. cache entries invalidated. brand/products: all");
+            return;
+        }
+        event.keys().forEach(key -> generations.put(key, new Generation(lastGeneration.incrementAndGet(), writtenAt)));
+        logger.info("onPriceChanged. cache entries invalidated. brand/products: {}", event.keys().size());
+    }
+
+    // drops every entry, e.g. those of the warm-up lookups sent before the application accepts traffic
+    void clear() {
+        cache.invalidateAll();
+    }
+
+    long estimatedSize() {
+        return cache.estimatedSize();
+    }
+
+    long generationCount() {
+        return generations.estimatedSize();
+    }
+
+    private Generation generation(PriceKey priceKey) {
+        Generation generation = generations.getIfPresent(priceKey);
+        return generation == null ? floor : generation;
+    }
+
+    // until the last write of the brand/product is as old as a replica may lag, no limit once it is
+    private long replicaLagLeft(CacheKey key, long now) {
+        Generation generation = generation(key.priceKey());
+        if (replicaMaxLagNanos == 0 || generation.number() != key.generation()) {
+            return Long.MAX_VALUE;
+        }
+        long left = generation.writtenAt() + replicaMaxLagNanos - now;
+        return left > 0 ? left : Long.MAX_VALUE;
+    }
+
+    // edge is null for the entry of the bucket, and the bound of its period for the periods kept on either side
+    private record CacheKey(PriceKey priceKey, long bucket, long generation, LocalDateTime edge) {
+    }
+
+    // writtenAt as System.nanoTime(), the clock of the cache
+    private record Generation(long number, long writtenAt) {
+    }
+}
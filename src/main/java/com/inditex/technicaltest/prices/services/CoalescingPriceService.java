@@ -0,0 +1,46 @@
+package com.inditex.technicaltest.prices.services;
+
+import com.inditex.technicaltest.prices.dtos.PriceDTO;
+import com.inditex.technicaltest.prices.models.PriceView;
+import com.inditex.technicaltest.prices.services.timeline.PriceResolution;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Identical lookups in flight at once share one run of the engine, when the cache that otherwise does it is disabled.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "prices.cache.enabled", havingValue = "false")
+public class CoalescingPriceService implements PriceService {
+    private final PriceService engine;
+    private final PriceLookupCoalescer coalescer;
+
+    @Autowired
+    public CoalescingPriceService(@Qualifier(PriceService.ENGINE) PriceService engine, PriceLookupCoalescer coalescer) {
+        this.engine = engine;
+        this.coalescer = coalescer;
+    }
+
+    @Override
+    public Optional<PriceView> getProductPriceOfBrandOnDate(PriceDTO priceDTO) {
+        return coalescer.find(priceDTO, engine::getProductPriceOfBrandOnDate);
+    }
+
+    @Override
+    public PriceResolution resolve(PriceDTO priceDTO) {
+        return coalescer.resolve(priceDTO, engine::resolve);
+    }
+
+    // batches are already resolved by the engine in a few queries
+    @Override
+    public List<Optional<PriceView>> getProductPricesOfBrandOnDates(List<PriceDTO> priceDTOs) {
+        return engine.getProductPricesOfBrandOnDates(priceDTOs);
+    }
+}
@@ -0,0 +1,36 @@
+package com.inditex.technicaltest.prices.services;
+
+import com.inditex.technicaltest.prices.dtos.PriceDTO;
+import com.inditex.technicaltest.prices.models.PriceView;
+import com.inditex.technicaltest.prices.services.timeline.PriceResolution;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+
+@Service
+@Qualifier(PriceService.ENGINE)
+@ConditionalOnProperty(name = "prices.engine", havingValue = "memory")
+public class InMemoryPriceServiceImpl implements PriceService {
+    private final PriceSnapshotService priceSnapshotService;
+
+    @Autowired
+    public InMemoryPriceServiceImpl(PriceSnapshotService priceSnapshotService) {
+        this.priceSnapshotService = priceSnapshotService;
+    }
+
+    @Override
+    public Optional<PriceView> getProductPriceOfBrandOnDate(PriceDTO priceDTO) {
+        if (priceDTO.getBrandId() == null || priceDTO.getProductId() == null || priceDTO.getPriceDate() == null) {
+            return Optional.empty();
+        }
+        return priceSnapshotService.current().index().find(priceDTO.getBrandId(), priceDTO.getProductId(), priceDTO.getPriceDate());
+    }
+
+    @Override
+    public PriceResolution resolve(PriceDTO priceDTO) {
+        return priceSnapshotService.current().index().resolve(priceDTO.getBrandId(), priceDTO.getProductId(), priceDTO.getPriceDate());
+    }
+}
@@ -0,0 +1,79 @@
+package com.inditex.technicaltest.prices.services;
+
+import com.inditex.technicaltest.prices.dtos.PriceDTO;
+import com.inditex.technicaltest.prices.models.PriceView;
+import com.inditex.technicaltest.prices.services.mmap.MappedPriceIndex;
+import com.inditex.technicaltest.prices.services.timeline.PriceResolution;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Lookups answered from a price index file built beforehand with PriceIndexFileBuilder, mapped read-only at startup.
+ * The file is served as it was built, writes to the database reach it with the next build.
+ * <p>
+ * Mapping the file takes the same few milliseconds whatever its size, but its checksum reads all of it. The checksum
+ * is verified as a runner instead, called before the readiness state moves to ACCEPTING_TRAFFIC, so a large index does
+ * not hold the context back while a corrupt one still fails the startup before any traffic is routed to it.
+ */
+@Service
+@Qualifier(PriceService.ENGINE)
+@ConditionalOnProperty(name = "prices.engine", havingValue = "mmap")
+@Order(Ordered.HIGHEST_PRECEDENCE) // before the warm-up, which would otherwise send its lookups to an unchecked file
+public class MappedPriceServiceImpl implements PriceService, ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(MappedPriceServiceImpl.class);
+    private final MappedPriceIndex index;
+    private final boolean verifyChecksum;
+
+    @Autowired
+    public MappedPriceServiceImpl(@Value("${prices.mmap.path}") Path path,
+                                  @Value("${prices.mmap.verify-checksum:true}") boolean verifyChecksum) {
+        long start = System.nanoTime();
+        try {
+            this.index = MappedPriceIndex.open(path, false);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        logger.info("MappedPriceServiceImpl. {} mapped in {} ms. keys: {}, segments: {}, built at: {}, last change: {}",
+                path, (System.nanoTime() - start) / 1_000_000, index.keyCount(), index.segmentCount(), index.builtAt(),
+                index.watermark().orElse(null));
+        this.verifyChecksum = verifyChecksum;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!verifyChecksum) {
+            logger.info("run. checksum not verified, prices.mmap.verify-checksum is false");
+            return;
+        }
+        long start = System.nanoTime();
+        index.verifyChecksum();
+        logger.info("run. checksum verified in {} ms", (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Override
+    public Optional<PriceView> getProductPriceOfBrandOnDate(PriceDTO priceDTO) {
+        if (priceDTO.getBrandId() == null || priceDTO.getProductId() == null || priceDTO.getPriceDate() == null) {
+            return Optional.empty();
+        }
+        return index.find(priceDTO.getBrandId(), priceDTO.getProductId(), priceDTO.getPriceDate());
+    }
+
+    @Override
+    public PriceResolution resolve(PriceDTO priceDTO) {
+        return index.resolve(priceDTO.getBrandId(), priceDTO.getProductId(), priceDTO.getPriceDate());
+    }
+}
@@ -0,0 +1,77 @@
+package com.inditex.technicaltest.prices.services;
+
+import com.inditex.technicaltest.prices.dtos.PriceDTO;
+import com.inditex.technicaltest.prices.models.PriceKey;
+import com.inditex.technicaltest.prices.models.PriceView;
+import com.inditex.technicaltest.prices.partition.PricePartition;
+import com.inditex.technicaltest.prices.repositories.PriceExportRepository;
+import com.inditex.technicaltest.prices.services.offheap.OffHeapPriceStore;
+import com.inditex.technicaltest.prices.services.timeline.PriceResolution;
+import com.inditex.technicaltest.prices.services.timeline.PriceTimelineCompiler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Lookups answered from an {@link OffHeapPriceStore} loaded from the database at startup, for catalogues whose
+ * timelines do not fit in the heap. The store is served as loaded, writes to the database reach it on a restart.
+ */
+@Service
+@Qualifier(PriceService.ENGINE)
+@ConditionalOnProperty(name = "prices.engine", havingValue = "offheap")
+public class OffHeapPriceServiceImpl implements PriceService {
+    private static final Logger logger = LoggerFactory.getLogger(OffHeapPriceServiceImpl.class);
+    private final OffHeapPriceStore store;
+
+    @Autowired
+    public OffHeapPriceServiceImpl(PriceExportRepository priceExportRepository, PricePartition pricePartition) {
+        long start = System.nanoTime();
+        OffHeapPriceStore.Builder builder = OffHeapPriceStore.builder(priceExportRepository.countPrices());
+        // the rows of a brand/product come together, only theirs are held while its timeline is compiled
+        try (Stream<PriceView> prices = priceExportRepository.streamAllPrices()) {
+            // the brands of the other nodes are skipped when the catalogue is partitioned, fixed until a restart
+            Iterator<PriceView> iterator = prices.filter(price -> pricePartition.loads(price.brandId())).iterator();
+            List<PriceView> keyRows = new ArrayList<>();
+            while (iterator.hasNext()) {
+                PriceView price = iterator.next();
+                if (!keyRows.isEmpty() && !PriceKey.of(price).equals(PriceKey.of(keyRows.get(0)))) {
+                    add(builder, keyRows);
+                }
+                keyRows.add(price);
+            }
+            if (!keyRows.isEmpty()) {
+                add(builder, keyRows);
+            }
+        }
+        this.store = builder.build();
+        logger.info("OffHeapPriceServiceImpl. store loaded in {} ms. keys: {}, rows: {}, off-heap bytes: {}",
+                (System.nanoTime() - start) / 1_000_000, store.keyCount(), store.rowCount(), store.offHeapBytes());
+    }
+
+    private static void add(OffHeapPriceStore.Builder builder, List<PriceView> keyRows) {
+        builder.add(keyRows.get(0).brandId(), keyRows.get(0).productId(), PriceTimelineCompiler.compile(keyRows));
+        keyRows.clear();
+    }
+
+    @Override
+    public Optional<PriceView> getProductPriceOfBrandOnDate(PriceDTO priceDTO) {
+        if (priceDTO.getBrandId() == null || priceDTO.getProductId() == null || priceDTO.getPriceDate() == null) {
+            return Optional.empty();
+        }
+        return store.find(priceDTO.getBrandId(), priceDTO.getProductId(), priceDTO.getPriceDate());
+    }
+
+    @Override
+    public PriceResolution resolve(PriceDTO priceDTO) {
+        return store.resolve(priceDTO.getBrandId(), priceDTO.getProductId(), priceDTO.getPriceDate());
+    }
+}
@@ -0,0 +1,14 @@
+package com.inditex.technicaltest.prices.services;
+
+import com.inditex.technicaltest.prices.dtos.PriceExportRequest;
+import com.inditex.technicaltest.prices.models.PriceView;
+import org.springframework.stereotype.Service;
+
+import java.util.function.Consumer;
+
+@Service
+public interface PriceExportService {
+
+    // the effective price of every product of the brand, handed to the consumer in product id order, returns how many there were
+    long exportBrandPricesOnDate(PriceExportRequest exportRequest, Consumer<PriceView> consumer);
+}
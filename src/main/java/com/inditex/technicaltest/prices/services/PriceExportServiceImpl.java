@@ -0,0 +1,57 @@
+package com.inditex.technicaltest.prices.services;
+
+import com.inditex.technicaltest.prices.dtos.PriceExportRequest;
+import com.inditex.technicaltest.prices.models.PriceView;
+import com.inditex.technicaltest.prices.repositories.PriceExportRepository;
+import com.inditex.technicaltest.prices.services.timeline.PriceTimelineCompiler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+@Service
+public class PriceExportServiceImpl implements PriceExportService {
+    private static final Logger logger = LoggerFactory.getLogger(PriceExportServiceImpl.class);
+    private final PriceExportRepository priceExportRepository;
+
+    @Autowired
+    public PriceExportServiceImpl(PriceExportRepository priceExportRepository) {
+        this.priceExportRepository = priceExportRepository;
+    }
+
+    // the cursor is read while the prices are written, so the transaction lasts as long as the response
+    @Override
+    @Transactional(readOnly = true)
+    public long exportBrandPricesOnDate(PriceExportRequest exportRequest, Consumer<PriceView> consumer) {
+        logger.info("exportBrandPricesOnDate. called");
+        long afterProductId = Objects.requireNonNullElse(exportRequest.getAfterProductId(), 0L);
+        long exported = 0;
+        try (Stream<PriceView> rows = priceExportRepository.streamPricesOfBrandOnDate(
+                exportRequest.getBrandId(), exportRequest.getPriceDate(), afterProductId)) {
+            // the effective price of each product is the winner of its group by the ranking of the timelines
+            PriceView winner = null;
+            for (Iterator<PriceView> iterator = rows.iterator(); iterator.hasNext(); ) {
+                PriceView row = iterator.next();
+                if (winner != null && !row.productId().equals(winner.productId())) {
+                    consumer.accept(winner);
+                    exported++;
+                    winner = null;
+                }
+                if (winner == null || PriceTimelineCompiler.RANKING.compare(row, winner) > 0) {
+                    winner = row;
+                }
+            }
+            if (winner != null) {
+                consumer.accept(winner);
+                exported++;
+            }
+        }
+        return exported;
+    }
+}
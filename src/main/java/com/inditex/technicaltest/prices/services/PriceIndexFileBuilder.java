@@ -0,0 +1,52 @@
+package com.inditex.technicaltest.prices.services;
+
+import com.inditex.technicaltest.prices.models.PriceView;
+import com.inditex.technicaltest.prices.partition.PricePartition;
+import com.inditex.technicaltest.prices.repositories.PriceRepository;
+import com.inditex.technicaltest.prices.services.mmap.PriceIndexFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Writes the price index file of the mmap engine from the database when the application starts with
+ * prices.mmap.build.output, e.g. with spring.main.web-application-type=none to run it as a one-off command.
+ */
+@Component
+@ConditionalOnProperty(name = "prices.mmap.build.output")
+public class PriceIndexFileBuilder implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(PriceIndexFileBuilder.class);
+    private final PriceRepository priceRepository;
+    private final PricePartition pricePartition;
+    private final Path output;
+
+    @Autowired
+    public PriceIndexFileBuilder(PriceRepository priceRepository, PricePartition pricePartition,
+                                 @Value("${prices.mmap.build.output}") Path output) {
+        this.priceRepository = priceRepository;
+        this.pricePartition = pricePartition;
+        this.output = output;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        long start = System.nanoTime();
+        // read before the prices, so that a change committed meanwhile is not taken as included
+        LocalDateTime watermark = priceRepository.findLastChange().orElse(null);
+        // with prices.partition.self, the file of that node only
+        List<PriceView> prices = priceRepository.findAllViews().stream()
+                .filter(price -> pricePartition.loads(price.brandId()))
+                .toList();
+        PriceIndexFile.write(output, prices, watermark);
+        logger.info("run. {} written in {} ms. rows: {}", output, (System.nanoTime() - start) / 1_000_000, prices.size());
+    }
+}
@@ -0,0 +1,22 @@
+package com.inditex.technicaltest.prices.services;
+
+import com.inditex.technicaltest.prices.dtos.PriceIngestionDTO;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.Reader;
+
+@Service
+public interface PriceIngestionService {
+    PriceIngestionDTO ingest(Reader body, Format format, Mode mode) throws IOException;
+
+    enum Format {
+        CSV, // header line with the column names, then one price per line
+        NDJSON // one json price per line
+    }
+
+    enum Mode {
+        INSERT, // every row is a new price, a chunk holding the key of an existing one is rolled back
+        UPSERT // rows with the brand, product, dates and priority of an existing price replace its price and currency
+    }
+}
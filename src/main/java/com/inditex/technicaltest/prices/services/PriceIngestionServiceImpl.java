@@ -0,0 +1,244 @@
+package com.inditex.technicaltest.prices.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inditex.technicaltest.prices.dtos.PriceIngestionDTO;
+import com.inditex.technicaltest.prices.dtos.PriceIngestionRejection;
+import com.inditex.technicaltest.prices.dtos.PriceIngestionRow;
+import com.inditex.technicaltest.prices.events.PriceChangedEvent;
+import com.inditex.technicaltest.prices.models.PriceKey;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Reads the body line by line and writes it in chunks, each one in its own transaction and sent in JDBC batches.
+ * Only one chunk is held in memory. Rows are inserted with plain JDBC, so the IDENTITY ids are generated by the
+ * database without reading them back.
+ */
+@Service
+public class PriceIngestionServiceImpl implements PriceIngestionService {
+    private static final Logger logger = LoggerFactory.getLogger(PriceIngestionServiceImpl.class);
+    private static final List<String> CSV_COLUMNS = List.of("brandid", "productid", "startdate", "enddate", "priority", "price", "curr");
+    private static final String INSERT = "INSERT INTO PRICES (brand_id, product_id, start_date, end_date, priority, price, curr, created_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, LOCALTIMESTAMP)";
+    // standard MERGE on the natural key, unique by idx_prices_lookup, so a line matches one row at most
+    private static final String UPSERT = "MERGE INTO PRICES p USING (SELECT CAST(? AS BIGINT) brand_id, CAST(? AS BIGINT) product_id, "
+            + "CAST(? AS TIMESTAMP) start_date, CAST(? AS TIMESTAMP) end_date, CAST(? AS INT) priority, "
+            + "CAST(? AS DECIMAL(15, 2)) price, CAST(? AS VARCHAR(3)) curr) s "
+            + "ON p.brand_id = s.brand_id AND p.product_id = s.product_id AND p.start_date = s.start_date "
+            + "AND p.end_date = s.end_date AND p.priority = s.priority "
+            + "WHEN MATCHED THEN UPDATE SET price = s.price, curr = s.curr, updated_at = LOCALTIMESTAMP "
+            + "WHEN NOT MATCHED THEN INSERT (brand_id, product_id, start_date, end_date, priority, price, curr, created_at) "
+            + "VALUES (s.brand_id, s.product_id, s.start_date, s.end_date, s.priority, s.price, s.curr, LOCALTIMESTAMP)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher publisher;
+    @Value("${prices.ingestion.batch-size:1000}")
+    private int batchSize = 1000;
+    @Value("${prices.ingestion.chunk-size:10000}")
+    private int chunkSize = 10000;
+    @Value("${prices.ingestion.max-reported-rejections:1000}")
+    private int maxReportedRejections = 1000;
+
+    @Autowired
+    public PriceIngestionServiceImpl(NamedParameterJdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                     Validator validator, ObjectMapper objectMapper, ApplicationEventPublisher publisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.publisher = publisher;
+    }
+
+    @Override
+    public PriceIngestionDTO ingest(Reader body, Format format, Mode mode) throws IOException {
+        logger.info("ingest. called. format: {}, mode: {}", format, mode);
+        long start = System.nanoTime();
+        Ingestion ingestion = new Ingestion();
+        BufferedReader lines = new BufferedReader(body);
+        long lineNumber = 0;
+        Function<String, PriceIngestionRow> parser;
+        if (format == Format.CSV) {
+            parser = csvParser(lines.readLine());
+            lineNumber++;
+        } else {
+            parser = this::parseJson;
+        }
+
+        List<NumberedRow> chunk = new ArrayList<>();
+        for (String line = lines.readLine(); line != null; line = lines.readLine()) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            ingestion.rows++;
+            PriceIngestionRow row;
+            try {
+                row = parser.apply(line);
+            } catch (RuntimeException ex) {
+                ingestion.reject(lineNumber, "unreadable row: " + ex.getMessage());
+                continue;
+            }
+            String errors = validator.validate(row).stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining(", "));
+            if (!errors.isEmpty()) {
+                ingestion.reject(lineNumber, errors);
+                continue;
+            }
+            chunk.add(new NumberedRow(lineNumber, row));
+            if (chunk.size() == chunkSize) {
+                write(chunk, mode, ingestion);
+                chunk.clear();
+            }
+        }
+        write(chunk, mode, ingestion);
+        ingestion.rejections.sort(Comparator.comparingLong(PriceIngestionRejection::getLine)); // foreign keys are checked per chunk
+
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        logger.info("ingest. done. rows: {}, written: {}, rejected: {}, elapsed: {} ms", ingestion.rows, ingestion.written, ingestion.rejected, elapsed.toMillis());
+        return PriceIngestionDTO.builder()
+                .rows(ingestion.rows)
+                .written(ingestion.written)
+                .rejected(ingestion.rejected)
+                .rejections(ingestion.rejections)
+                .elapsed(elapsed)
+                .build();
+    }
+
+    private void write(List<NumberedRow> chunk, Mode mode, Ingestion ingestion) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        // unknown brands or products would fail the whole batch, so they are rejected beforehand with one query each
+        Set<Long> brands = existing("SELECT brand_id FROM BRANDS WHERE brand_id IN (:ids)", chunk, PriceIngestionRow::getBrandId);
+        Set<Long> products = existing("SELECT product_id FROM PRODUCTS WHERE product_id IN (:ids)", chunk, PriceIngestionRow::getProductId);
+        List<PriceIngestionRow> rows = new ArrayList<>(chunk.size());
+        List<NumberedRow> accepted = new ArrayList<>(chunk.size());
+        for (NumberedRow numbered : chunk) {
+            PriceIngestionRow row = numbered.row();
+            if (!brands.contains(row.getBrandId())) {
+                ingestion.reject(numbered.line(), "brand " + row.getBrandId() + " does not exist");
+            } else if (!products.contains(row.getProductId())) {
+                ingestion.reject(numbered.line(), "product " + row.getProductId() + " does not exist");
+            } else {
+                rows.add(row);
+                accepted.add(numbered);
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.getJdbcOperations().batchUpdate(mode == Mode.UPSERT ? UPSERT : INSERT, rows, batchSize, (ps, row) -> {
+                    ps.setLong(1, row.getBrandId());
+                    ps.setLong(2, row.getProductId());
+                    ps.setObject(3, row.getStartDate());
+                    ps.setObject(4, row.getEndDate());
+                    ps.setInt(5, row.getPriority());
+                    ps.setBigDecimal(6, row.getPrice());
+                    ps.setString(7, row.getCurr());
+                });
+                // listeners act once the chunk is committed
+                publisher.publishEvent(new PriceChangedEvent(rows.stream()
+                        .map(r -> new PriceKey(r.getBrandId(), r.getProductId()))
+                        .collect(Collectors.toSet())));
+            });
+            ingestion.written += rows.size();
+        } catch (DataAccessException ex) {
+            logger.warn("write. chunk of {} rows rolled back. error: {}", rows.size(), ex.getMostSpecificCause().getMessage());
+            accepted.forEach(r -> ingestion.reject(r.line(), "chunk rolled back: " + ex.getMostSpecificCause().getMessage()));
+        }
+    }
+
+    private Set<Long> existing(String sql, List<NumberedRow> chunk, Function<PriceIngestionRow, Long> id) {
+        Set<Long> ids = chunk.stream().map(r -> id.apply(r.row())).collect(Collectors.toSet());
+        return new HashSet<>(jdbcTemplate.queryForList(sql, Map.of("ids", ids), Long.class));
+    }
+
+    private PriceIngestionRow parseJson(String line) {
+        try {
+            return objectMapper.readValue(line, PriceIngestionRow.class);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException(ex.getOriginalMessage());
+        }
+    }
+
+    // columns are matched by name ignoring case and underscores, so both brandId and BRAND_ID are accepted
+    private static Function<String, PriceIngestionRow> csvParser(String header) {
+        if (header == null) {
+            throw new IllegalArgumentException("csv body has no header");
+        }
+        List<String> columns = Arrays.stream(header.split(",", -1))
+                .map(c -> c.trim().replace("_", "").toLowerCase(Locale.ROOT))
+                .toList();
+        List<String> missing = CSV_COLUMNS.stream().filter(c -> !columns.contains(c)).toList();
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("csv header lacks the columns " + missing);
+        }
+        int[] index = CSV_COLUMNS.stream().mapToInt(columns::indexOf).toArray();
+        return line -> {
+            String[] values = line.split(",", -1);
+            if (values.length != columns.size()) {
+                throw new IllegalArgumentException(values.length + " values for " + columns.size() + " columns");
+            }
+            return PriceIngestionRow.builder()
+                    .brandId(value(values[index[0]], Long::valueOf))
+                    .productId(value(values[index[1]], Long::valueOf))
+                    .startDate(value(values[index[2]], PriceIngestionServiceImpl::dateTime))
+                    .endDate(value(values[index[3]], PriceIngestionServiceImpl::dateTime))
+                    .priority(value(values[index[4]], Integer::valueOf))
+                    .price(value(values[index[5]], BigDecimal::new))
+                    .curr(value(values[index[6]], Function.identity()))
+                    .build();
+        };
+    }
+
+    private static <T> T value(String value, Function<String, T> parser) {
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : parser.apply(trimmed);
+    }
+
+    private static LocalDateTime dateTime(String value) {
+        return LocalDateTime.parse(value.replace(' ', 'T')); // ISO-8601, with a space also accepted as in the sql seed
+    }
+
+    private record NumberedRow(long line, PriceIngestionRow row) {
+    }
+
+    private class Ingestion {
+        private long rows;
+        private long written;
+        private long rejected;
+        private final List<PriceIngestionRejection> rejections = new ArrayList<>();
+
+        private void reject(long line, String reason) {
+            rejected++;
+            if (rejections.size() < maxReportedRejections) {
+                rejections.add(new PriceIngestionRejection(line, reason));
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.inditex.technicaltest.prices.services;
+
+import com.inditex.technicaltest.prices.dtos.PriceDTO;
+import com.inditex.technicaltest.prices.models.PriceView;
+import com.inditex.technicaltest.prices.services.timeline.PriceResolution;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Single flight of identical lookups: the first caller for a brand, product and date runs the lookup, and the callers
+ * asking for the same one meanwhile wait for its answer instead of running their own.
+ * <p>
+ * Lookups in flight are kept in a concurrent map, so callers of different lookups never wait on each other. Every
+ * waiter gets the answer of the lookup or the exception it failed with, and the lookup leaves the map once it is done
+ * either way.
+ */
+@Component
+public class PriceLookupCoalescer {
+    private final boolean enabled;
+    private final Map<LookupKey, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Counter coalesced;
+
+    @Autowired
+    public PriceLookupCoalescer(@Value("${prices.coalescing.enabled:true}") boolean enabled, MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.coalesced = Counter.builder("prices.lookup.coalesced")
+                .description("lookups answered by an identical lookup already in flight")
+                .register(meterRegistry);
+        Gauge.builder("prices.lookup.in_flight", inFlight, Map::size)
+                .description("distinct lookups in flight")
+                .register(meterRegistry);
+    }
+
+    public PriceResolution resolve(PriceDTO priceDTO, Function<PriceDTO, PriceResolution> lookup) {
+        return coalesce(Kind.RESOLVE, priceDTO, lookup);
+    }
+
+    // single-row lookups are coalesced apart, so they never wait for the longer resolve of the same key
+    public Optional<PriceView> find(PriceDTO priceDTO, Function<PriceDTO, Optional<PriceView>> lookup) {
+        return coalesce(Kind.FIND, priceDTO, lookup);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T coalesce(Kind kind, PriceDTO priceDTO, Function<PriceDTO, T> lookup) {
+        if (!enabled || priceDTO.getBrandId() == null || priceDTO.getProductId() == null || priceDTO.getPriceDate() == null) {
+            return lookup.apply(priceDTO);
+        }
+        LookupKey key = new LookupKey(kind, priceDTO.getBrandId(), priceDTO.getProductId(), priceDTO.getPriceDate());
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, flight);
+        if (running != null) {
+            coalesced.increment();
+            return (T) await(running);
+        }
+        try {
+            T answer = lookup.apply(priceDTO);
+            flight.complete(answer);
+            return answer;
+        } catch (RuntimeException | Error ex) {
+            flight.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    int inFlight() {
+        return inFlight.size();
+    }
+
+    // the exception of the lookup as it was thrown to the caller that ran it
+    private static Object await(CompletableFuture<Object> running) {
+        try {
+            return running.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (ex.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private enum Kind {
+        RESOLVE, FIND
+    }
+
+    private record LookupKey(Kind kind, long brandId, long productId, LocalDateTime date) {
+    }
+}
@@ -1,12 +1,30 @@
 package com.inditex.technicaltest.prices.services;
 
 import com.inditex.technicaltest.prices.dtos.PriceDTO;
-import com.inditex.technicaltest.prices.models.domain.Price;
+import com.inditex.technicaltest.prices.models.PriceView;
+import com.inditex.technicaltest.prices.services.timeline.PriceResolution;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.Optional;
 
 @Service
 public interface PriceService {
-    Optional<Price> getProductPriceOfBrandOnDate(PriceDTO priceDTO);
+    // qualifier of the engine answering the lookups, behind the cache when it is enabled
+    String ENGINE = "priceEngine";
+
+    Optional<PriceView> getProductPriceOfBrandOnDate(PriceDTO priceDTO);
+
+    // the price together with the period in which every other date gets the same answer
+    PriceResolution resolve(PriceDTO priceDTO);
+
+    // the same lookup without keeping its answer, as those of the warm-up, which must not be served afterwards
+    default PriceResolution resolveUncached(PriceDTO priceDTO) {
+        return resolve(priceDTO);
+    }
+
+    // results keep the order of the given lookups
+    default List<Optional<PriceView>> getProductPricesOfBrandOnDates(List<PriceDTO> priceDTOs) {
+        return priceDTOs.stream().map(this::getProductPriceOfBrandOnDate).toList();
+    }
 }
@@ -1,43 +1,131 @@
 package com.inditex.technicaltest.prices.services;
 
-import com.inditex.technicaltest.prices.controllers.PriceController;
 import com.inditex.technicaltest.prices.dtos.PriceDTO;
-import com.inditex.technicaltest.prices.models.domain.Price;
+import com.inditex.technicaltest.prices.metrics.PriceLookupMetrics;
+import com.inditex.technicaltest.prices.models.EffectivePrice;
+import com.inditex.technicaltest.prices.models.PriceKey;
+import com.inditex.technicaltest.prices.models.PriceView;
 import com.inditex.technicaltest.prices.repositories.PriceRepository;
-import com.inditex.technicaltest.prices.repositories.PriceSpecifications;
+import com.inditex.technicaltest.prices.services.timeline.PriceResolution;
+import com.inditex.technicaltest.prices.services.timeline.PriceTimeline;
+import com.inditex.technicaltest.prices.services.timeline.PriceTimelineCompiler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
-import org.springframework.data.jpa.domain.Specification;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
-import java.util.Optional;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
 
 @Service
+@Qualifier(PriceService.ENGINE)
+@ConditionalOnProperty(name = "prices.engine", havingValue = "jpa", matchIfMissing = true)
 public class PriceServiceImpl implements PriceService {
-    private static final Logger logger = LoggerFactory.getLogger(PriceController.class);
+    private static final Logger logger = LoggerFactory.getLogger(PriceServiceImpl.class);
     private final PriceRepository priceRepository;
+    private final PriceLookupMetrics priceLookupMetrics;
+    @Value("${prices.batch.keys-per-query:500}")
+    private int keysPerQuery = 500;
 
     @Autowired
-    public PriceServiceImpl(PriceRepository priceRepository) {
+    public PriceServiceImpl(PriceRepository priceRepository, PriceLookupMetrics priceLookupMetrics) {
         this.priceRepository = priceRepository;
+        this.priceLookupMetrics = priceLookupMetrics;
     }
 
     @Override
-    public Optional<Price> getProductPriceOfBrandOnDate(PriceDTO priceDTO) {
+    public Optional<PriceView> getProductPriceOfBrandOnDate(PriceDTO priceDTO) {
         logger.info("getProductPriceOfBrandOnDate. called");
-        return priceRepository.findAll(
-                Specification
-                        .where(PriceSpecifications.brandIs(priceDTO.getBrandId()))
-                        .and(PriceSpecifications.productIs(priceDTO.getProductId()))
-                        .and(PriceSpecifications.onDate(priceDTO.getPriceDate())),
-                PageRequest.of(
-                        0,
-                        1,
-                        Sort.by(Sort.Direction.DESC, "priority")
-                )
-        ).stream().findFirst();
+        long start = System.nanoTime();
+        List<PriceView> prices = priceRepository.findEffectivePrices(
+                priceDTO.getBrandId(),
+                priceDTO.getProductId(),
+                priceDTO.getPriceDate(),
+                Limit.of(1)
+        );
+        priceLookupMetrics.record(PriceLookupMetrics.Stage.REPOSITORY, priceDTO.getBrandId(), start);
+        return prices.stream().findFirst();
     }
-}
\ No newline at end of file
+
+    /**
+     * The winner at the date and the bounds of the run of dates it keeps winning, in one statement: the nearest start
+     * after the date of a price able to outrank it, and the nearest end before it of one that did. Only a date without
+     * a price takes two more queries for the bounds of its gap. None of them reads the history of the product.
+     */
+    @Override
+    public PriceResolution resolve(PriceDTO priceDTO) {
+        logger.info("resolve. called");
+        long start = System.nanoTime();
+        Long brandId = priceDTO.getBrandId();
+        Long productId = priceDTO.getProductId();
+        LocalDateTime date = priceDTO.getPriceDate();
+        EffectivePrice effective = priceRepository.findEffectivePriceRuns(brandId, productId, date, Limit.of(1)).stream().findFirst().orElse(null);
+        PriceResolution resolution;
+        if (effective == null) {
+            resolution = new PriceResolution(
+                    priceRepository.findLastEnd(brandId, productId, date).map(end -> end.plusNanos(1)).orElse(LocalDateTime.MIN),
+                    priceRepository.findNextStart(brandId, productId, date).map(next -> next.minusNanos(1)).orElse(LocalDateTime.MAX),
+                    null);
+        } else {
+            // a later start of the same priority outranks the winner too
+            PriceView winner = effective.price();
+            LocalDateTime validFrom = Optional.ofNullable(effective.lastEndRankedAbove())
+                    .map(end -> end.plusNanos(1))
+                    .filter(end -> end.isAfter(winner.startDate()))
+                    .orElse(winner.startDate());
+            LocalDateTime validTo = Optional.ofNullable(effective.nextStart())
+                    .map(next -> next.minusNanos(1))
+                    .filter(next -> next.isBefore(winner.endDate()))
+                    .orElse(winner.endDate());
+            resolution = new PriceResolution(validFrom, validTo, winner);
+        }
+        priceLookupMetrics.record(PriceLookupMetrics.Stage.REPOSITORY, brandId, start);
+        return resolution;
+    }
+
+    @Override
+    public List<Optional<PriceView>> getProductPricesOfBrandOnDates(List<PriceDTO> priceDTOs) {
+        logger.info("getProductPricesOfBrandOnDates. called. lookups: {}", priceDTOs.size());
+        Map<PriceKey, List<PriceDTO>> lookupsByKey = priceDTOs.stream()
+                .collect(Collectors.groupingBy(p -> new PriceKey(p.getBrandId(), p.getProductId()), LinkedHashMap::new, Collectors.toList()));
+
+        // one query per brand in each chunk of brand/product keys, resolved in memory with the compiled timelines
+        Map<PriceKey, PriceTimeline> timelines = new HashMap<>();
+        List<PriceKey> keys = new ArrayList<>(lookupsByKey.keySet());
+        for (int from = 0; from < keys.size(); from += keysPerQuery) {
+            List<PriceKey> chunk = keys.subList(from, Math.min(from + keysPerQuery, keys.size()));
+            timelines.putAll(findTimelines(chunk, lookupsByKey));
+        }
+
+        return priceDTOs.stream()
+                .map(p -> Optional.ofNullable(timelines.get(new PriceKey(p.getBrandId(), p.getProductId())))
+                        .flatMap(t -> t.find(p.getPriceDate())))
+                .toList();
+    }
+
+    private Map<PriceKey, PriceTimeline> findTimelines(List<PriceKey> keys, Map<PriceKey, List<PriceDTO>> lookupsByKey) {
+        LocalDateTime from = LocalDateTime.MAX;
+        LocalDateTime to = LocalDateTime.MIN;
+        for (PriceKey key : keys) {
+            for (PriceDTO lookup : lookupsByKey.get(key)) {
+                from = lookup.getPriceDate().isBefore(from) ? lookup.getPriceDate() : from;
+                to = lookup.getPriceDate().isAfter(to) ? lookup.getPriceDate() : to;
+            }
+        }
+        Map<Long, Set<Long>> productsByBrand = keys.stream()
+                .collect(Collectors.groupingBy(PriceKey::brandId, Collectors.mapping(PriceKey::productId, Collectors.toSet())));
+
+        List<PriceView> rows = new ArrayList<>();
+        for (Map.Entry<Long, Set<Long>> brand : productsByBrand.entrySet()) {
+            rows.addAll(priceRepository.findProductPricesOfBrandBetween(brand.getKey(), brand.getValue(), from, to));
+        }
+        return rows.stream()
+                .collect(Collectors.groupingBy(PriceKey::of,
+                        Collectors.collectingAndThen(Collectors.toList(), PriceTimelineCompiler::compile)));
+    }
+}
@@ -0,0 +1,25 @@
+package com.inditex.technicaltest.prices.services;
+
+import com.inditex.technicaltest.prices.services.memory.PriceSnapshot;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+
+@Service
+public interface PriceSnapshotService {
+    // never blocks, the rebuilds prepare the next snapshot aside
+    PriceSnapshot current();
+
+    Optional<PriceSnapshot> previous();
+
+    // swaps in a snapshot with the rows written since the watermark of the current one
+    PriceSnapshot refresh();
+
+    // swaps in a snapshot built from every row, also picking up deletions
+    PriceSnapshot rebuild();
+
+    // swaps the previous snapshot back in and stops the scheduled refreshes until the next refresh or rebuild on demand
+    Optional<PriceSnapshot> rollback();
+
+    boolean isPinned();
+}
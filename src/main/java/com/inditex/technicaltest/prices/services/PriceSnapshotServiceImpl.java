@@ -0,0 +1,158 @@
+package com.inditex.technicaltest.prices.services;
+
+import com.inditex.technicaltest.prices.events.PriceChangedEvent;
+import com.inditex.technicaltest.prices.models.PriceKey;
+import com.inditex.technicaltest.prices.models.PriceView;
+import com.inditex.technicaltest.prices.partition.PricePartition;
+import com.inditex.technicaltest.prices.repositories.PriceRepository;
+import com.inditex.technicaltest.prices.services.memory.PriceIndex;
+import com.inditex.technicaltest.prices.services.memory.PriceSnapshot;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+@Service
+@ConditionalOnProperty(name = "prices.engine", havingValue = "memory")
+public class PriceSnapshotServiceImpl implements PriceSnapshotService {
+    private static final Logger logger = LoggerFactory.getLogger(PriceSnapshotServiceImpl.class);
+    private final PriceRepository priceRepository;
+    private final ApplicationEventPublisher publisher;
+    private final PricePartition pricePartition;
+    // current and previous are swapped together
+    private final AtomicReference<Snapshots> snapshots = new AtomicReference<>(new Snapshots(null, null, false));
+    private long lastVersion;
+    @Value("${prices.snapshot.watermark-overlap:PT1M}")
+    private Duration watermarkOverlap = Duration.ofMinutes(1);
+    @Value("${prices.batch.keys-per-query:500}")
+    private int keysPerQuery = 500;
+
+    @Autowired
+    public PriceSnapshotServiceImpl(PriceRepository priceRepository, ApplicationEventPublisher publisher, PricePartition pricePartition) {
+        this.priceRepository = priceRepository;
+        this.publisher = publisher;
+        this.pricePartition = pricePartition;
+    }
+
+    @PostConstruct
+    public void load() {
+        rebuild();
+    }
+
+    @Override
+    public PriceSnapshot current() {
+        return snapshots.get().current();
+    }
+
+    @Override
+    public Optional<PriceSnapshot> previous() {
+        return Optional.ofNullable(snapshots.get().previous());
+    }
+
+    @Override
+    public boolean isPinned() {
+        return snapshots.get().pinned();
+    }
+
+    @Scheduled(initialDelayString = "${prices.snapshot.refresh-interval:PT1M}", fixedDelayString = "${prices.snapshot.refresh-interval:PT1M}")
+    public void scheduledRefresh() {
+        if (isPinned()) {
+            logger.info("scheduledRefresh. skipped, snapshot {} pinned by a rollback", current().version());
+            return;
+        }
+        refresh();
+    }
+
+    @Override
+    public synchronized PriceSnapshot refresh() {
+        PriceSnapshot current = current();
+        if (current.watermark().equals(LocalDateTime.MIN)) { // built while there were no prices
+            return rebuild();
+        }
+        LocalDateTime watermark = lastChange(current.watermark());
+        // rows written by transactions still open at the last build can carry an older timestamp, so the overlap is read again
+        List<PriceKey> keys = priceRepository.findKeysChangedSince(current.watermark().minus(watermarkOverlap)).stream()
+                .filter(key -> pricePartition.loads(key.brandId()))
+                .toList();
+        Map<PriceKey, List<PriceView>> changes = findRows(keys);
+        PriceSnapshot next = new PriceSnapshot(++lastVersion, LocalDateTime.now(), watermark, current.index().with(changes));
+        swap(next, Set.copyOf(changes.keySet()));
+        logger.info("refresh. snapshot {} swapped in. changed keys: {}, rows: {}", next.version(), changes.size(), next.index().rowCount());
+        return next;
+    }
+
+    @Override
+    public synchronized PriceSnapshot rebuild() {
+        LocalDateTime watermark = lastChange(LocalDateTime.MIN);
+        PriceSnapshot next = new PriceSnapshot(++lastVersion, LocalDateTime.now(), watermark, PriceIndex.of(loadedViews()));
+        PriceSnapshot current = current();
+        swap(next, current == null ? Set.of() : current.index().changedKeys(next.index()));
+        logger.info("rebuild. snapshot {} swapped in. keys: {}, rows: {}", next.version(), next.index().keyCount(), next.index().rowCount());
+        return next;
+    }
+
+    @Override
+    public synchronized Optional<PriceSnapshot> rollback() {
+        Snapshots rolled = snapshots.get();
+        if (rolled.previous() == null) {
+            logger.warn("rollback. there is no previous snapshot");
+            return Optional.empty();
+        }
+        snapshots.set(new Snapshots(rolled.previous(), null, true));
+        publish(rolled.current().index().changedKeys(rolled.previous().index()));
+        logger.info("rollback. snapshot {} swapped back in", rolled.previous().version());
+        return Optional.of(rolled.previous());
+    }
+
+    private void swap(PriceSnapshot next, Set<PriceKey> changedKeys) {
+        snapshots.set(new Snapshots(next, current(), false));
+        publish(changedKeys);
+    }
+
+    // cached answers were taken from the replaced snapshot
+    private void publish(Set<PriceKey> changedKeys) {
+        if (!changedKeys.isEmpty()) {
+            publisher.publishEvent(new PriceChangedEvent(changedKeys));
+        }
+    }
+
+    // the brands of the other nodes are left out when the catalogue is partitioned
+    private List<PriceView> loadedViews() {
+        return priceRepository.findAllViews().stream()
+                .filter(view -> pricePartition.loads(view.brandId()))
+                .toList();
+    }
+
+    private LocalDateTime lastChange(LocalDateTime otherwise) {
+        return priceRepository.findLastChange().orElse(otherwise);
+    }
+
+    // every row of the keys, keys left without rows map to an empty list
+    private Map<PriceKey, List<PriceView>> findRows(List<PriceKey> keys) {
+        Map<PriceKey, List<PriceView>> rows = new HashMap<>();
+        keys.forEach(key -> rows.put(key, new ArrayList<>()));
+        Map<Long, List<Long>> productsByBrand = keys.stream()
+                .collect(Collectors.groupingBy(PriceKey::brandId, Collectors.mapping(PriceKey::productId, Collectors.toList())));
+        productsByBrand.forEach((brandId, productIds) -> {
+            for (int from = 0; from < productIds.size(); from += keysPerQuery) {
+                priceRepository.findProductPricesOfBrandIn(brandId, productIds.subList(from, Math.min(from + keysPerQuery, productIds.size())))
+                        .forEach(price -> rows.get(PriceKey.of(price)).add(price));
+            }
+        });
+        return rows;
+    }
+
+    private record Snapshots(PriceSnapshot current, PriceSnapshot previous, boolean pinned) {
+    }
+}
@@ -0,0 +1,18 @@
+package com.inditex.technicaltest.prices.services;
+
+import com.inditex.technicaltest.prices.dtos.PriceRangeRequest;
+import com.inditex.technicaltest.prices.dtos.PriceTimelineDTO;
+import com.inditex.technicaltest.prices.dtos.PriceTimelineRequest;
+import com.inditex.technicaltest.prices.services.timeline.PriceSegment;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+import java.util.function.Consumer;
+
+@Service
+public interface PriceTimelineService {
+    Optional<PriceTimelineDTO> getProductTimelineOfBrand(PriceTimelineRequest timelineRequest);
+
+    // the segments of the range are handed to the consumer as they are resolved, returns how many there were
+    long streamProductTimelineOfBrandBetween(PriceRangeRequest rangeRequest, Consumer<PriceSegment> consumer);
+}
@@ -0,0 +1,72 @@
+package com.inditex.technicaltest.prices.services;
+
+import com.inditex.technicaltest.prices.dtos.PriceRangeRequest;
+import com.inditex.technicaltest.prices.dtos.PriceTimelineDTO;
+import com.inditex.technicaltest.prices.dtos.PriceTimelineRequest;
+import com.inditex.technicaltest.prices.models.PriceView;
+import com.inditex.technicaltest.prices.models.domain.Price;
+import com.inditex.technicaltest.prices.repositories.PriceRepository;
+import com.inditex.technicaltest.prices.repositories.PriceSpecifications;
+import com.inditex.technicaltest.prices.services.timeline.PriceSegment;
+import com.inditex.technicaltest.prices.services.timeline.PriceTimelineCompiler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+@Service
+public class PriceTimelineServiceImpl implements PriceTimelineService {
+    private static final Logger logger = LoggerFactory.getLogger(PriceTimelineServiceImpl.class);
+    private final PriceRepository priceRepository;
+
+    @Autowired
+    public PriceTimelineServiceImpl(PriceRepository priceRepository) {
+        this.priceRepository = priceRepository;
+    }
+
+    @Override
+    public Optional<PriceTimelineDTO> getProductTimelineOfBrand(PriceTimelineRequest timelineRequest) {
+        logger.info("getProductTimelineOfBrand. called");
+        List<Price> rows = priceRepository.findAll(
+                Specification
+                        .where(PriceSpecifications.brandIs(timelineRequest.getBrandId()))
+                        .and(PriceSpecifications.productIs(timelineRequest.getProductId())),
+                Sort.by(Sort.Direction.ASC, "startDate")
+        );
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(PriceTimelineDTO.builder()
+                .productId(timelineRequest.getProductId())
+                .brandId(timelineRequest.getBrandId())
+                .rows(rows)
+                .timeline(PriceTimelineCompiler.compile(rows.stream().map(PriceView::from).toList()))
+                .build());
+    }
+
+    // the rows are read while the segments are written, so the transaction lasts as long as the response
+    @Override
+    @Transactional(readOnly = true)
+    public long streamProductTimelineOfBrandBetween(PriceRangeRequest rangeRequest, Consumer<PriceSegment> consumer) {
+        logger.info("streamProductTimelineOfBrandBetween. called");
+        try (Stream<PriceSegment> segments = PriceTimelineCompiler.sweep(
+                priceRepository.streamProductPricesOfBrandBetween(rangeRequest.getBrandId(), rangeRequest.getProductId(),
+                        rangeRequest.getFrom(), rangeRequest.getTo()),
+                rangeRequest.getFrom(), rangeRequest.getTo())) {
+            long count = 0;
+            for (Iterator<PriceSegment> iterator = segments.iterator(); iterator.hasNext(); count++) {
+                consumer.accept(iterator.next());
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.inditex.technicaltest.prices.services;
+
+import com.inditex.technicaltest.prices.dtos.PriceWarmupResponse;
+import com.inditex.technicaltest.prices.dtos.PriceWarmupRoundResponse;
+import com.inditex.technicaltest.prices.models.PriceView;
+import com.inditex.technicaltest.prices.partition.PricePartition;
+import com.inditex.technicaltest.prices.repositories.PriceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends lookups to GET /api/prices of this instance before it accepts traffic, so that the first requests do not meet
+ * interpreted code, empty connection pools and query plans yet to be compiled.
+ * <p>
+ * Runners are called before Spring Boot moves the readiness state to ACCEPTING_TRAFFIC, so the warm-up holds it back
+ * until it ends. The lookups are replayed from prices.warmup.recording, one query string per line, or drawn from the
+ * dates of a sample of the prices. They are sent in rounds, and the warm-up ends once the p90 of prices.warmup.stable-rounds
+ * rounds in a row is within prices.warmup.tolerance of the one before, or when prices.warmup.budget runs out.
+ * <p>
+ * The lookups carry {@link #WARMUP_HEADER} with a token of this instance, so they bypass the cache: a lookup left
+ * running on the server when the budget cancels it cannot store its answer. The cache is still emptied afterwards.
+ */
+@Component
+@ConditionalOnProperty(name = "prices.warmup.enabled", havingValue = "true")
+public class PriceWarmupRunner implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(PriceWarmupRunner.class);
+    public static final String WARMUP_HEADER = "X-Prices-Warmup";
+    private static final DateTimeFormatter PRICE_DATE = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+    // known only to this instance, so no client can pass its lookups off as the warm-up
+    private static final String WARMUP_TOKEN = UUID.randomUUID().toString();
+    private final PriceRepository priceRepository;
+    private final PricePartition pricePartition;
+    private final CachingPriceService cachingPriceService;
+    private final Environment environment;
+    private volatile PriceWarmupResponse stats = PriceWarmupResponse.builder().outcome(Outcome.PENDING).rounds(List.of()).build();
+    @Value("${prices.warmup.budget:PT30S}")
+    private Duration budget = Duration.ofSeconds(30);
+    @Value("${prices.warmup.round-size:500}")
+    private int roundSize = 500;
+    @Value("${prices.warmup.concurrency:8}")
+    private int concurrency = 8;
+    @Value("${prices.warmup.tolerance:0.1}")
+    private double tolerance = 0.1;
+    @Value("${prices.warmup.stable-rounds:3}")
+    private int stableRounds = 3;
+    @Value("${prices.warmup.sample-size:1000}")
+    private int sampleSize = 1000;
+    @Value("${prices.warmup.recording:}")
+    private String recording = "";
+
+    public enum Outcome {
+        PENDING, RUNNING, STABLE, BUDGET_EXHAUSTED, NO_LOOKUPS, NO_SERVER
+    }
+
+    @Autowired
+    public PriceWarmupRunner(PriceRepository priceRepository, PricePartition pricePartition,
+                             ObjectProvider<CachingPriceService> cachingPriceService, Environment environment) {
+        this.priceRepository = priceRepository;
+        this.pricePartition = pricePartition;
+        this.cachingPriceService = cachingPriceService.getIfAvailable();
+        this.environment = environment;
+    }
+
+    public static boolean isWarmup(String warmupHeader) {
+        return WARMUP_TOKEN.equals(warmupHeader);
+    }
+
+    public PriceWarmupResponse stats() {
+        return stats;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        String port = environment.getProperty("local.server.port");
+        if (port == null) { // not serving http, e.g. building the mmap index file
+            stats = stats(Outcome.NO_SERVER, "", 0, List.of(), 0);
+            return;
+        }
+        String lookups = recording.isBlank() ? "synthetic" : "recorded";
+        List<String> queries = recording.isBlank() ? syntheticQueries() : Files.readAllLines(Path.of(recording)).stream()
+                .map(String::trim)
+                .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                .toList();
+        if (queries.isEmpty()) {
+            stats = stats(Outcome.NO_LOOKUPS, lookups, 0, List.of(), 0);
+            logger.warn("run. warm-up skipped, there are no {} lookups", lookups);
+            return;
+        }
+        URI endpoint = URI.create("http://localhost:" + port + "/api/prices");
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        long start = System.nanoTime();
+        long deadline = start + budget.toNanos();
+        List<PriceWarmupRoundResponse> rounds = new ArrayList<>();
+        Outcome outcome = Outcome.BUDGET_EXHAUSTED;
+        try {
+            int stable = 0;
+            for (int round = 0; System.nanoTime() < deadline; round++) {
+                List<Callable<Long>> requests = new ArrayList<>(roundSize);
+                for (int i = 0; i < roundSize; i++) {
+                    String query = queries.get((int) (((long) round * roundSize + i) % queries.size()));
+                    requests.add(() -> send(client, endpoint, query));
+                }
+                rounds.add(round(executor.invokeAll(requests, deadline - System.nanoTime(), TimeUnit.NANOSECONDS)));
+                stable = isStable(rounds) ? stable + 1 : 0;
+                stats = stats(Outcome.RUNNING, lookups, queries.size(), rounds, System.nanoTime() - start);
+                if (stable >= stableRounds) {
+                    outcome = Outcome.STABLE;
+                    break;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+            if (cachingPriceService != null) {
+                cachingPriceService.clear();
+            }
+        }
+        stats = stats(outcome, lookups, queries.size(), rounds, System.nanoTime() - start);
+        logger.info("run. warm-up {} in {} ms. requests: {}, errors: {}, rounds: {}", outcome, stats.getDurationMillis(),
+                stats.getRequests(), stats.getErrors(), rounds.size());
+    }
+
+    // the latency of the lookup in nanoseconds, -1 when it failed
+    private static long send(HttpClient client, URI endpoint, String query) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(endpoint + "?" + query))
+                .header(WARMUP_HEADER, WARMUP_TOKEN)
+                .GET()
+                .build();
+        long start = System.nanoTime();
+        try {
+            int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            return status >= 500 ? -1 : System.nanoTime() - start;
+        } catch (IOException ex) {
+            return -1;
+        }
+    }
+
+    // lookups of a sample of the prices served here, on dates in their validity periods
+    private List<String> syntheticQueries() {
+        SplittableRandom random = new SplittableRandom(42);
+        List<String> queries = new ArrayList<>();
+        for (PriceView price : priceRepository.findViews(Limit.of(sampleSize))) {
+            if (!pricePartition.answers(price.brandId())) {
+                continue;
+            }
+            long seconds = Math.max(1, Duration.between(price.startDate(), price.endDate()).toSeconds());
+            LocalDateTime date = price.startDate().plusSeconds(random.nextLong(seconds));
+            queries.add("brandId=" + price.brandId() + "&productId=" + price.productId() + "&priceDate=" + PRICE_DATE.format(date));
+        }
+        return queries;
+    }
+
+    private static PriceWarmupRoundResponse round(List<Future<Long>> requests) throws InterruptedException {
+        long[] latencies = new long[requests.size()];
+        int answered = 0;
+        int errors = 0;
+        for (Future<Long> request : requests) {
+            long latency;
+            try {
+                latency = request.get();
+            } catch (CancellationException | ExecutionException ex) { // left unsent when the budget ran out
+                latency = -1;
+            }
+            if (latency < 0) {
+                errors++;
+            } else {
+                latencies[answered++] = latency;
+            }
+        }
+        Arrays.sort(latencies, 0, answered);
+        return PriceWarmupRoundResponse.builder()
+                .requests(requests.size())
+                .errors(errors)
+                .p50Micros(percentile(latencies, answered, 0.5))
+                .p90Micros(percentile(latencies, answered, 0.9))
+                .p99Micros(percentile(latencies, answered, 0.99))
+                .build();
+    }
+
+    private static long percentile(long[] sorted, int count, double quantile) {
+        return count == 0 ? 0 : sorted[Math.min(count - 1, (int) Math.ceil(quantile * count) - 1)] / 1000;
+    }
+
+    private boolean isStable(List<PriceWarmupRoundResponse> rounds) {
+        if (rounds.size() < 2) {
+            return false;
+        }
+        long previous = rounds.get(rounds.size() - 2).getP90Micros();
+        long last = rounds.get(rounds.size() - 1).getP90Micros();
+        return previous > 0 && Math.abs(last - previous) <= tolerance * previous;
+    }
+
+    private static PriceWarmupResponse stats(Outcome outcome, String lookups, int distinctLookups,
+                                             List<PriceWarmupRoundResponse> rounds, long nanos) {
+        return PriceWarmupResponse.builder()
+                .outcome(outcome)
+                .lookups(lookups)
+                .distinctLookups(distinctLookups)
+                .requests(rounds.stream().mapToLong(PriceWarmupRoundResponse::getRequests).sum())
+                .errors(rounds.stream().mapToLong(PriceWarmupRoundResponse::getErrors).sum())
+                .durationMillis(nanos / 1_000_000)
+                .rounds(List.copyOf(rounds))
+                .build();
+    }
+}
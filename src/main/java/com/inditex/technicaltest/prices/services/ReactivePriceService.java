@@ -0,0 +1,16 @@
+package com.inditex.technicaltest.prices.services;
+
+import com.inditex.technicaltest.prices.dtos.PriceDTO;
+import com.inditex.technicaltest.prices.models.PriceView;
+import com.inditex.technicaltest.prices.services.timeline.PriceResolution;
+import reactor.core.publisher.Mono;
+
+// lookups of the reactive stack, with the same answers as PriceService
+public interface ReactivePriceService {
+
+    // empty when no price applies
+    Mono<PriceView> getProductPriceOfBrandOnDate(PriceDTO priceDTO);
+
+    // the price together with the period in which every other date gets the same answer, as PriceService.resolve
+    Mono<PriceResolution> resolve(PriceDTO priceDTO);
+}
@@ -0,0 +1,64 @@
+package com.inditex.technicaltest.prices.services;
+
+import com.inditex.technicaltest.prices.dtos.PriceDTO;
+import com.inditex.technicaltest.prices.models.PriceView;
+import com.inditex.technicaltest.prices.repositories.ReactivePriceRepository;
+import com.inditex.technicaltest.prices.services.timeline.PriceResolution;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactivePriceServiceImpl implements ReactivePriceService {
+    private static final Logger logger = LoggerFactory.getLogger(ReactivePriceServiceImpl.class);
+    private final ReactivePriceRepository reactivePriceRepository;
+
+    @Autowired
+    public ReactivePriceServiceImpl(ReactivePriceRepository reactivePriceRepository) {
+        this.reactivePriceRepository = reactivePriceRepository;
+    }
+
+    @Override
+    public Mono<PriceView> getProductPriceOfBrandOnDate(PriceDTO priceDTO) {
+        logger.info("getProductPriceOfBrandOnDate. called");
+        return reactivePriceRepository.findEffectivePrice(priceDTO.getBrandId(), priceDTO.getProductId(), priceDTO.getPriceDate());
+    }
+
+    // the bounds of PriceServiceImpl.resolve, with the same statements: one for a date with a price
+    @Override
+    public Mono<PriceResolution> resolve(PriceDTO priceDTO) {
+        logger.info("resolve. called");
+        Long brandId = priceDTO.getBrandId();
+        Long productId = priceDTO.getProductId();
+        LocalDateTime date = priceDTO.getPriceDate();
+        return reactivePriceRepository.findEffectivePriceRun(brandId, productId, date)
+                .map(effective -> {
+                    // a later start of the same priority outranks the winner too
+                    PriceView winner = effective.price();
+                    LocalDateTime validFrom = Optional.ofNullable(effective.lastEndRankedAbove())
+                            .map(end -> end.plusNanos(1))
+                            .filter(end -> end.isAfter(winner.startDate()))
+                            .orElse(winner.startDate());
+                    LocalDateTime validTo = Optional.ofNullable(effective.nextStart())
+                            .map(next -> next.minusNanos(1))
+                            .filter(next -> next.isBefore(winner.endDate()))
+                            .orElse(winner.endDate());
+                    return new PriceResolution(validFrom, validTo, winner);
+                })
+                .switchIfEmpty(Mono.defer(() -> Mono.zip(
+                        reactivePriceRepository.findLastEnd(brandId, productId, date)
+                                .map(end -> end.plusNanos(1))
+                                .defaultIfEmpty(LocalDateTime.MIN),
+                        reactivePriceRepository.findNextStart(brandId, productId, date)
+                                .map(next -> next.minusNanos(1))
+                                .defaultIfEmpty(LocalDateTime.MAX),
+                        (validFrom, validTo) -> new PriceResolution(validFrom, validTo, null))));
+    }
+}
@@ -0,0 +1,92 @@
+package com.inditex.technicaltest.prices.services.memory;
+
+import com.inditex.technicaltest.prices.models.PriceKey;
+import com.inditex.technicaltest.prices.models.PriceView;
+import com.inditex.technicaltest.prices.services.timeline.PriceResolution;
+import com.inditex.technicaltest.prices.services.timeline.PriceTimeline;
+import com.inditex.technicaltest.prices.services.timeline.PriceTimelineCompiler;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable in-memory index of compiled price timelines keyed by brand and product.
+ * <p>
+ * The rows of every key are kept next to its timeline, so that a new index can be derived from an existing one
+ * recompiling only the keys that changed.
+ */
+public class PriceIndex {
+    private final Map<PriceKey, List<PriceView>> rows;
+    private final Map<PriceKey, PriceTimeline> timelines;
+    private final int rowCount;
+    private final int segmentCount;
+
+    private PriceIndex(Map<PriceKey, List<PriceView>> rows, Map<PriceKey, PriceTimeline> timelines) {
+        this.rows = Collections.unmodifiableMap(rows);
+        this.timelines = Collections.unmodifiableMap(timelines);
+        this.rowCount = rows.values().stream().mapToInt(List::size).sum();
+        this.segmentCount = timelines.values().stream().mapToInt(PriceTimeline::size).sum();
+    }
+
+    public static PriceIndex of(Collection<PriceView> prices) {
+        Map<PriceKey, List<PriceView>> rows = prices.stream()
+                .collect(Collectors.groupingBy(PriceKey::of, HashMap::new, Collectors.toUnmodifiableList()));
+        Map<PriceKey, PriceTimeline> timelines = new HashMap<>(rows.size() * 4 / 3 + 1);
+        rows.forEach((key, keyRows) -> timelines.put(key, PriceTimelineCompiler.compile(keyRows)));
+        return new PriceIndex(rows, timelines);
+    }
+
+    // copy on write: the timelines of the keys not in the changes are shared with this index
+    public PriceIndex with(Map<PriceKey, List<PriceView>> changes) {
+        Map<PriceKey, List<PriceView>> newRows = new HashMap<>(rows);
+        Map<PriceKey, PriceTimeline> newTimelines = new HashMap<>(timelines);
+        changes.forEach((key, keyRows) -> {
+            if (keyRows.isEmpty()) { // every price of the key was deleted
+                newRows.remove(key);
+                newTimelines.remove(key);
+            } else {
+                newRows.put(key, List.copyOf(keyRows));
+                newTimelines.put(key, PriceTimelineCompiler.compile(keyRows));
+            }
+        });
+        return new PriceIndex(newRows, newTimelines);
+    }
+
+    // keys whose rows differ between both indexes
+    public Set<PriceKey> changedKeys(PriceIndex other) {
+        Set<PriceKey> keys = new HashSet<>(rows.keySet());
+        keys.addAll(other.rows.keySet());
+        keys.removeIf(key -> Objects.equals(rows.get(key), other.rows.get(key)));
+        return keys;
+    }
+
+    public Optional<PriceView> find(long brandId, long productId, LocalDateTime date) {
+        PriceTimeline timeline = timelines.get(new PriceKey(brandId, productId));
+        return timeline == null ? Optional.empty() : timeline.find(date);
+    }
+
+    public PriceResolution resolve(long brandId, long productId, LocalDateTime date) {
+        return timelines.getOrDefault(new PriceKey(brandId, productId), PriceTimeline.EMPTY).resolve(date);
+    }
+
+    public int keyCount() {
+        return timelines.size();
+    }
+
+    public int rowCount() {
+        return rowCount;
+    }
+
+    public int segmentCount() {
+        return segmentCount;
+    }
+}
@@ -0,0 +1,24 @@
+package com.inditex.technicaltest.prices.services.memory;
+
+import java.time.LocalDateTime;
+
+/**
+ * Immutable version of the served prices. A new snapshot is built aside and swapped in whole, so readers see
+ * either the previous or the next one, never a mix.
+ *
+ * @param watermark latest created_at/updated_at seen when the snapshot was built, where the next incremental
+ *                  build starts from
+ */
+public record PriceSnapshot(long version, LocalDateTime builtAt, LocalDateTime watermark, PriceIndex index) {
+
+    // rough sizes on a 64-bit JVM with compressed oops: a PriceView row with its boxed ids, dates, BigDecimal and
+    // currency string; a segment with its bounds, most of them new LocalDateTime instances; a key with its map
+    // entries, row list and timeline
+    static final long BYTES_PER_ROW = 330;
+    static final long BYTES_PER_SEGMENT = 180;
+    static final long BYTES_PER_KEY = 200;
+
+    public long estimatedBytes() {
+        return index.rowCount() * BYTES_PER_ROW + index.segmentCount() * BYTES_PER_SEGMENT + index.keyCount() * BYTES_PER_KEY;
+    }
+}
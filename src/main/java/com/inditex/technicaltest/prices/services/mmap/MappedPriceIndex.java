@@ -0,0 +1,304 @@
+package com.inditex.technicaltest.prices.services.mmap;
+
+import com.inditex.technicaltest.prices.models.PriceView;
+import com.inditex.technicaltest.prices.services.timeline.PriceColumns;
+import com.inditex.technicaltest.prices.services.timeline.PriceResolution;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.zip.CRC32C;
+
+/**
+ * Read-only view of a {@link PriceIndexFile}, answering lookups from a memory mapping of the file, in regions of
+ * 1 GB since a single mapping holds at most 2 GB.
+ * <p>
+ * Opening the index reads its header and currency codes only, the columns are paged in by the lookups that touch
+ * them and their pages are shared with every other process mapping the same file. A lookup is a binary search of
+ * the key and the {@link PriceColumns} search of its segments, reading the columns in place.
+ */
+public class MappedPriceIndex {
+    // log2 of the bytes of a region
+    static final int REGION_SHIFT = 30;
+    private final Path path;
+    private final ByteBuffer[] regions;
+    private final int regionShift;
+    private final long regionMask;
+    private final int keyCount;
+    private final int segmentCount;
+    private final int rowCount;
+    private final Instant builtAt;
+    private final LocalDateTime watermark;
+    private final String[] currencies;
+    // byte offsets of the columns
+    private final long brandIds;
+    private final long productIds;
+    private final long fromSeconds;
+    private final long toSeconds;
+    private final long priceLists;
+    private final long startSeconds;
+    private final long endSeconds;
+    private final long unscaledValues;
+    private final long firstSegments;
+    private final long fromNanos;
+    private final long toNanos;
+    private final long segmentRows;
+    private final long startNanos;
+    private final long endNanos;
+    private final long priorities;
+    private final long scales;
+    private final long currencyIndexes;
+    private final PriceColumns columns = new Columns();
+
+    private MappedPriceIndex(Path path, ByteBuffer[] regions, int regionShift, long size) {
+        this.path = path;
+        this.regions = regions;
+        this.regionShift = regionShift;
+        this.regionMask = (1L << regionShift) - 1;
+        if (size < PriceIndexFile.HEADER_BYTES || getInt(0) != PriceIndexFile.MAGIC) {
+            throw new IllegalStateException(path + " is not a price index file");
+        }
+        int version = getInt(4);
+        if (version != PriceIndexFile.VERSION) {
+            throw new IllegalStateException(path + " has format version " + version + ", this build reads version " + PriceIndexFile.VERSION);
+        }
+        keyCount = getInt(8);
+        segmentCount = getInt(12);
+        rowCount = getInt(16);
+        int currencyCount = getInt(20);
+        builtAt = Instant.ofEpochMilli(getLong(24));
+        long watermarkSecond = getLong(32);
+        watermark = watermarkSecond == Long.MIN_VALUE ? null : LocalDateTime.ofEpochSecond(watermarkSecond, 0, ZoneOffset.UTC);
+        if (getLong(40) != size - PriceIndexFile.HEADER_BYTES) {
+            throw new IllegalStateException(path + " is truncated, its body should be " + getLong(40) + " bytes");
+        }
+
+        long offset = PriceIndexFile.HEADER_BYTES;
+        brandIds = offset;
+        productIds = offset += (long) Long.BYTES * keyCount;
+        fromSeconds = offset += (long) Long.BYTES * keyCount;
+        toSeconds = offset += (long) Long.BYTES * segmentCount;
+        priceLists = offset += (long) Long.BYTES * segmentCount;
+        startSeconds = offset += (long) Long.BYTES * rowCount;
+        endSeconds = offset += (long) Long.BYTES * rowCount;
+        unscaledValues = offset += (long) Long.BYTES * rowCount;
+        firstSegments = offset += (long) Long.BYTES * rowCount;
+        fromNanos = offset += (long) Integer.BYTES * (keyCount + 1);
+        toNanos = offset += (long) Integer.BYTES * segmentCount;
+        segmentRows = offset += (long) Integer.BYTES * segmentCount;
+        startNanos = offset += (long) Integer.BYTES * segmentCount;
+        endNanos = offset += (long) Integer.BYTES * rowCount;
+        priorities = offset += (long) Integer.BYTES * rowCount;
+        scales = offset += (long) Integer.BYTES * rowCount;
+        currencyIndexes = offset += (long) Integer.BYTES * rowCount;
+        offset += (long) Integer.BYTES * rowCount;
+        currencies = new String[currencyCount];
+        for (int i = 0; i < currencyCount; i++) {
+            // the codes are not aligned and may straddle two regions, so they are read a byte at a time
+            byte[] bytes = new byte[(getByte(offset) & 0xff) << 8 | getByte(offset + 1) & 0xff];
+            for (int b = 0; b < bytes.length; b++) {
+                bytes[b] = getByte(offset + Short.BYTES + b);
+            }
+            currencies[i] = new String(bytes, StandardCharsets.UTF_8);
+            offset += Short.BYTES + bytes.length;
+        }
+    }
+
+    /**
+     * Maps the file read-only. Verifying the checksum reads the whole file once, which is the only part of the
+     * opening whose cost grows with the catalogue, so it can be left out here and run later with verifyChecksum().
+     */
+    public static MappedPriceIndex open(Path path, boolean verifyChecksum) throws IOException {
+        return open(path, verifyChecksum, REGION_SHIFT);
+    }
+
+    // every column is aligned to the width of its values, so none of them straddles two regions of a power of two
+    static MappedPriceIndex open(Path path, boolean verifyChecksum, int regionShift) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long regionBytes = 1L << regionShift;
+            ByteBuffer[] regions = new ByteBuffer[(int) Math.max(1, (size + regionBytes - 1) >>> regionShift)];
+            for (int i = 0; i < regions.length; i++) {
+                long position = i * regionBytes;
+                // the mappings stay valid once the channel is closed
+                regions[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(regionBytes, size - position));
+            }
+            MappedPriceIndex index = new MappedPriceIndex(path, regions, regionShift, size);
+            if (verifyChecksum) {
+                index.verifyChecksum();
+            }
+            return index;
+        }
+    }
+
+    // reads every page of the file, throws when its CRC32C differs from the one of the header
+    public void verifyChecksum() {
+        CRC32C checksum = new CRC32C();
+        checksum.update(regions[0].slice(PriceIndexFile.HEADER_BYTES, regions[0].capacity() - PriceIndexFile.HEADER_BYTES));
+        for (int i = 1; i < regions.length; i++) {
+            checksum.update(regions[i].duplicate());
+        }
+        if (checksum.getValue() != getLong(48)) {
+            throw new IllegalStateException(path + " is corrupt, its checksum does not match");
+        }
+    }
+
+    public Optional<PriceView> find(long brandId, long productId, LocalDateTime date) {
+        int key = key(brandId, productId);
+        return key == PriceColumns.NONE ? Optional.empty() : columns.find(key, date);
+    }
+
+    public PriceResolution resolve(long brandId, long productId, LocalDateTime date) {
+        int key = key(brandId, productId);
+        return key == PriceColumns.NONE ? new PriceResolution(LocalDateTime.MIN, LocalDateTime.MAX, null) : columns.resolve(key, date);
+    }
+
+    public int keyCount() {
+        return keyCount;
+    }
+
+    public int segmentCount() {
+        return segmentCount;
+    }
+
+    public int rowCount() {
+        return rowCount;
+    }
+
+    public Instant builtAt() {
+        return builtAt;
+    }
+
+    // latest change of the prices the file was built from, empty when there were none
+    public Optional<LocalDateTime> watermark() {
+        return Optional.ofNullable(watermark);
+    }
+
+    private int key(long brandId, long productId) {
+        int low = 0;
+        int high = keyCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midBrand = columns.brandId(mid);
+            int cmp = midBrand != brandId ? Long.compare(midBrand, brandId)
+                    : Long.compare(columns.productId(mid), productId);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return PriceColumns.NONE;
+    }
+
+    private long getLong(long offset) {
+        return regions[(int) (offset >>> regionShift)].getLong((int) (offset & regionMask));
+    }
+
+    private int getInt(long offset) {
+        return regions[(int) (offset >>> regionShift)].getInt((int) (offset & regionMask));
+    }
+
+    private byte getByte(long offset) {
+        return regions[(int) (offset >>> regionShift)].get((int) (offset & regionMask));
+    }
+
+    // the columns as read by the segment search, in place in the mapping
+    private final class Columns implements PriceColumns {
+
+        @Override
+        public long brandId(int key) {
+            return getLong(brandIds + (long) key * Long.BYTES);
+        }
+
+        @Override
+        public long productId(int key) {
+            return getLong(productIds + (long) key * Long.BYTES);
+        }
+
+        @Override
+        public int firstSegment(int key) {
+            return getInt(firstSegments + (long) key * Integer.BYTES);
+        }
+
+        @Override
+        public long fromSecond(int segment) {
+            return getLong(fromSeconds + (long) segment * Long.BYTES);
+        }
+
+        @Override
+        public int fromNano(int segment) {
+            return getInt(fromNanos + (long) segment * Integer.BYTES);
+        }
+
+        @Override
+        public long toSecond(int segment) {
+            return getLong(toSeconds + (long) segment * Long.BYTES);
+        }
+
+        @Override
+        public int toNano(int segment) {
+            return getInt(toNanos + (long) segment * Integer.BYTES);
+        }
+
+        @Override
+        public int segmentRow(int segment) {
+            return getInt(segmentRows + (long) segment * Integer.BYTES);
+        }
+
+        @Override
+        public long priceList(int row) {
+            return getLong(priceLists + (long) row * Long.BYTES);
+        }
+
+        @Override
+        public long startSecond(int row) {
+            return getLong(startSeconds + (long) row * Long.BYTES);
+        }
+
+        @Override
+        public int startNano(int row) {
+            return getInt(startNanos + (long) row * Integer.BYTES);
+        }
+
+        @Override
+        public long endSecond(int row) {
+            return getLong(endSeconds + (long) row * Long.BYTES);
+        }
+
+        @Override
+        public int endNano(int row) {
+            return getInt(endNanos + (long) row * Integer.BYTES);
+        }
+
+        @Override
+        public int priority(int row) {
+            return getInt(priorities + (long) row * Integer.BYTES);
+        }
+
+        @Override
+        public long unscaledValue(int row) {
+            return getLong(unscaledValues + (long) row * Long.BYTES);
+        }
+
+        @Override
+        public int scale(int row) {
+            return getInt(scales + (long) row * Integer.BYTES);
+        }
+
+        @Override
+        public String currency(int row) {
+            int currency = getInt(currencyIndexes + (long) row * Integer.BYTES);
+            return currency < 0 ? null : currencies[currency];
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.inditex.technicaltest.prices.services.mmap;
+
+import com.inditex.technicaltest.prices.models.PriceKey;
+import com.inditex.technicaltest.prices.models.PriceView;
+import com.inditex.technicaltest.prices.services.timeline.PriceSegment;
+import com.inditex.technicaltest.prices.services.timeline.PriceTimeline;
+import com.inditex.technicaltest.prices.services.timeline.PriceTimelineCompiler;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Binary file of compiled price timelines, served by {@link MappedPriceIndex} straight from a memory mapping.
+ * <p>
+ * A 64 byte header is followed by the body, made of primitive columns: first every long column and then every int
+ * column, so that all of them stay aligned, and last the currency codes. Keys are sorted by brand and product, and
+ * the segments of key k are the ones from firstSegment[k] to firstSegment[k + 1]. Each segment points to the row of
+ * its winning price. Dates are stored as the epoch second and nano of the date-time taken as UTC.
+ * <pre>
+ * header   magic int, version int, keyCount int, segmentCount int, rowCount int, currencyCount int,
+ *          builtAt long (epoch millis), watermark long (epoch second, Long.MIN_VALUE without prices),
+ *          bodyLength long, CRC32C of the body long, 8 reserved bytes
+ * longs    brandId[keys], productId[keys], segmentFromSecond[segments], segmentToSecond[segments],
+ *          priceList[rows], startSecond[rows], endSecond[rows], valueUnscaled[rows]
+ * ints     firstSegment[keys + 1], segmentFromNano[segments], segmentToNano[segments], segmentRow[segments],
+ *          startNano[rows], endNano[rows], priority[rows], valueScale[rows], currency[rows] (-1 when null)
+ * codes    per currency, its UTF-8 length as a short followed by its bytes
+ * </pre>
+ * The format version is bumped on any change to this layout.
+ */
+public final class PriceIndexFile {
+    static final int MAGIC = 0x50524958; // PRIX
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 64;
+
+    private PriceIndexFile() {
+    }
+
+    /**
+     * Compiles the prices and writes them to the path. The file is written aside and moved in place, so the instances
+     * that mapped the previous one keep reading it until they open the new one.
+     */
+    public static void write(Path path, Collection<PriceView> prices, LocalDateTime watermark) throws IOException {
+        Map<PriceKey, List<PriceView>> byKey = prices.stream().collect(Collectors.groupingBy(PriceKey::of,
+                () -> new TreeMap<>(Comparator.comparingLong(PriceKey::brandId).thenComparingLong(PriceKey::productId)),
+                Collectors.toList()));
+        List<PriceKey> keys = new ArrayList<>(byKey.keySet());
+        List<PriceSegment> segments = new ArrayList<>();
+        int[] firstSegment = new int[keys.size() + 1];
+        for (int k = 0; k < keys.size(); k++) {
+            PriceTimeline timeline = PriceTimelineCompiler.compile(byKey.get(keys.get(k)));
+            segments.addAll(timeline.segments());
+            firstSegment[k + 1] = segments.size();
+        }
+        // a price winning several segments is stored once
+        Map<PriceView, Integer> rows = new IdentityHashMap<>();
+        segments.forEach(segment -> rows.putIfAbsent(segment.price(), rows.size()));
+        PriceView[] rowPrices = new PriceView[rows.size()];
+        rows.forEach((price, row) -> rowPrices[row] = price);
+        Map<String, Integer> currencies = new LinkedHashMap<>();
+        for (PriceView price : rowPrices) {
+            if (price.curr() != null) {
+                currencies.putIfAbsent(price.curr(), currencies.size());
+            }
+        }
+
+        Path tmp = Files.createTempFile(path.toAbsolutePath().getParent(), path.getFileName().toString(), ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            channel.position(HEADER_BYTES);
+            CRC32C checksum = new CRC32C();
+            DataOutputStream body = new DataOutputStream(new BufferedOutputStream(
+                    new CheckedOutputStream(Channels.newOutputStream(channel), checksum), 1 << 16));
+            for (PriceKey key : keys) {
+                body.writeLong(key.brandId());
+            }
+            for (PriceKey key : keys) {
+                body.writeLong(key.productId());
+            }
+            for (PriceSegment segment : segments) {
+                body.writeLong(epochSecond(segment.from()));
+            }
+            for (PriceSegment segment : segments) {
+                body.writeLong(epochSecond(segment.to()));
+            }
+            for (PriceView price : rowPrices) {
+                body.writeLong(price.priceList());
+            }
+            for (PriceView price : rowPrices) {
+                body.writeLong(epochSecond(price.startDate()));
+            }
+            for (PriceView price : rowPrices) {
+                body.writeLong(epochSecond(price.endDate()));
+            }
+            for (PriceView price : rowPrices) {
+                body.writeLong(price.value().unscaledValue().longValueExact());
+            }
+            for (int first : firstSegment) {
+                body.writeInt(first);
+            }
+            for (PriceSegment segment : segments) {
+                body.writeInt(segment.from().getNano());
+            }
+            for (PriceSegment segment : segments) {
+                body.writeInt(segment.to().getNano());
+            }
+            for (PriceSegment segment : segments) {
+                body.writeInt(rows.get(segment.price()));
+            }
+            for (PriceView price : rowPrices) {
+                body.writeInt(price.startDate().getNano());
+            }
+            for (PriceView price : rowPrices) {
+                body.writeInt(price.endDate().getNano());
+            }
+            for (PriceView price : rowPrices) {
+                body.writeInt(price.priority());
+            }
+            for (PriceView price : rowPrices) {
+                body.writeInt(price.value().scale());
+            }
+            for (PriceView price : rowPrices) {
+                body.writeInt(price.curr() == null ? -1 : currencies.get(price.curr()));
+            }
+            for (String currency : currencies.keySet()) {
+                byte[] bytes = currency.getBytes(StandardCharsets.UTF_8);
+                body.writeShort(bytes.length);
+                body.write(bytes);
+            }
+            body.flush();
+            // DataOutputStream.size stops counting at 2 GB, the channel does not
+            long bodyLength = channel.position() - HEADER_BYTES;
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                    .putInt(MAGIC)
+                    .putInt(VERSION)
+                    .putInt(keys.size())
+                    .putInt(segments.size())
+                    .putInt(rowPrices.length)
+                    .putInt(currencies.size())
+                    .putLong(System.currentTimeMillis())
+                    .putLong(watermark == null ? Long.MIN_VALUE : epochSecond(watermark))
+                    .putLong(bodyLength)
+                    .putLong(checksum.getValue())
+                    .putLong(0L)
+                    .flip();
+            channel.write(header, 0);
+            channel.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static long epochSecond(LocalDateTime date) {
+        return date.toEpochSecond(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,83 @@
+package com.inditex.technicaltest.prices.services.offheap;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Column of fixed-width primitives in a direct buffer, out of the heap and out of reach of the garbage collector.
+ * It grows while the store is built by doubling into a new buffer, and is read only afterwards.
+ */
+final class OffHeapColumn {
+    private final int width;
+    private ByteBuffer buffer;
+
+    OffHeapColumn(int width, int capacity) {
+        this.width = width;
+        this.buffer = ByteBuffer.allocateDirect(Math.multiplyExact(width, Math.max(1, capacity)));
+    }
+
+    static OffHeapColumn ofLongs(int capacity) {
+        return new OffHeapColumn(Long.BYTES, capacity);
+    }
+
+    static OffHeapColumn ofInts(int capacity) {
+        return new OffHeapColumn(Integer.BYTES, capacity);
+    }
+
+    static OffHeapColumn ofShorts(int capacity) {
+        return new OffHeapColumn(Short.BYTES, capacity);
+    }
+
+    static OffHeapColumn ofBytes(int capacity) {
+        return new OffHeapColumn(Byte.BYTES, capacity);
+    }
+
+    long getLong(int index) {
+        return buffer.getLong(index * Long.BYTES);
+    }
+
+    int getInt(int index) {
+        return buffer.getInt(index * Integer.BYTES);
+    }
+
+    short getShort(int index) {
+        return buffer.getShort(index * Short.BYTES);
+    }
+
+    byte getByte(int index) {
+        return buffer.get(index);
+    }
+
+    void putLong(int index, long value) {
+        ensureCapacity(index).putLong(index * Long.BYTES, value);
+    }
+
+    void putInt(int index, int value) {
+        ensureCapacity(index).putInt(index * Integer.BYTES, value);
+    }
+
+    void putShort(int index, short value) {
+        ensureCapacity(index).putShort(index * Short.BYTES, value);
+    }
+
+    void putByte(int index, byte value) {
+        ensureCapacity(index).put(index, value);
+    }
+
+    long bytes() {
+        return buffer.capacity();
+    }
+
+    private ByteBuffer ensureCapacity(int index) {
+        long needed = (long) (index + 1) * width;
+        if (needed > buffer.capacity()) {
+            long limit = Integer.MAX_VALUE / width * width;
+            if (needed > limit) {
+                throw new IllegalStateException("an off-heap column holds at most " + limit / width + " values");
+            }
+            ByteBuffer grown = ByteBuffer.allocateDirect((int) Math.min(limit, Math.max(needed, 2L * buffer.capacity())));
+            grown.put(0, buffer, 0, buffer.capacity());
+            buffer = grown;
+        }
+        return buffer;
+    }
+}
@@ -0,0 +1,345 @@
+package com.inditex.technicaltest.prices.services.offheap;
+
+import com.inditex.technicaltest.prices.models.PriceView;
+import com.inditex.technicaltest.prices.services.timeline.PriceColumns;
+import com.inditex.technicaltest.prices.services.timeline.PriceResolution;
+import com.inditex.technicaltest.prices.services.timeline.PriceSegment;
+import com.inditex.technicaltest.prices.services.timeline.PriceTimeline;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Compiled price timelines kept as primitive columns in direct buffers, so that the heap holds a few dozen objects
+ * whatever the size of the catalogue and the garbage collector never traces the prices.
+ * <p>
+ * A brand/product is found through an open-addressing directory of int slots, probed linearly, pointing to the key
+ * columns; its segments are the ones from firstSegment[key] to firstSegment[key + 1], and every segment points to the
+ * row of its winning price. Dates are stored as the epoch second and nano of the date-time taken as UTC. The segment of
+ * a lookup is found by the {@link PriceColumns} search, which reads the columns in place.
+ * <p>
+ * A row takes 47 bytes of price columns, a segment 28 and a key 20 plus its directory slots: about 100 bytes per row
+ * of a catalogue with two overlapping rows per brand/product, against some 370 bytes of heap as Price entities
+ * (see PriceStoreFootprintBenchmark). The columns are direct buffers, bounded by -XX:MaxDirectMemorySize.
+ */
+public class OffHeapPriceStore {
+    private static final int NONE = PriceColumns.NONE;
+    private final String[] currencies;
+    // directory: key + 1 per slot, 0 when empty
+    private final OffHeapColumn slots;
+    private final int mask;
+    // keys
+    private final int keyCount;
+    private final OffHeapColumn brandIds;
+    private final OffHeapColumn productIds;
+    private final OffHeapColumn firstSegments;
+    // segments
+    private final int segmentCount;
+    private final OffHeapColumn fromSeconds;
+    private final OffHeapColumn fromNanos;
+    private final OffHeapColumn toSeconds;
+    private final OffHeapColumn toNanos;
+    private final OffHeapColumn segmentRows;
+    // rows
+    private final int rowCount;
+    private final OffHeapColumn priceLists;
+    private final OffHeapColumn startSeconds;
+    private final OffHeapColumn startNanos;
+    private final OffHeapColumn endSeconds;
+    private final OffHeapColumn endNanos;
+    private final OffHeapColumn priorities;
+    private final OffHeapColumn unscaledValues;
+    private final OffHeapColumn scales;
+    private final OffHeapColumn currencyCodes;
+    private final PriceColumns columns = new Columns();
+
+    private OffHeapPriceStore(Builder builder) {
+        this.currencies = builder.currencies.toArray(String[]::new);
+        this.keyCount = builder.keyCount;
+        this.brandIds = builder.brandIds;
+        this.productIds = builder.productIds;
+        this.firstSegments = builder.firstSegments;
+        this.segmentCount = builder.segmentCount;
+        this.fromSeconds = builder.fromSeconds;
+        this.fromNanos = builder.fromNanos;
+        this.toSeconds = builder.toSeconds;
+        this.toNanos = builder.toNanos;
+        this.segmentRows = builder.segmentRows;
+        this.rowCount = builder.rowCount;
+        this.priceLists = builder.priceLists;
+        this.startSeconds = builder.startSeconds;
+        this.startNanos = builder.startNanos;
+        this.endSeconds = builder.endSeconds;
+        this.endNanos = builder.endNanos;
+        this.priorities = builder.priorities;
+        this.unscaledValues = builder.unscaledValues;
+        this.scales = builder.scales;
+        this.currencyCodes = builder.currencyCodes;
+
+        // at most three quarters of the slots are taken
+        int capacity = Integer.highestOneBit(Math.max(1, keyCount + keyCount / 3)) << 1;
+        this.slots = OffHeapColumn.ofInts(capacity);
+        this.mask = capacity - 1;
+        for (int key = 0; key < keyCount; key++) {
+            int slot = hash(brandIds.getLong(key), productIds.getLong(key)) & mask;
+            while (slots.getInt(slot) != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots.putInt(slot, key + 1);
+        }
+    }
+
+    public static Builder builder(int expectedRows) {
+        return new Builder(expectedRows);
+    }
+
+    // index of the segment holding the date, -1 when no price applies
+    public int segmentAt(long brandId, long productId, LocalDateTime date) {
+        int key = key(brandId, productId);
+        return key == NONE ? NONE : columns.segmentAt(key, date);
+    }
+
+    public Optional<PriceView> find(long brandId, long productId, LocalDateTime date) {
+        int key = key(brandId, productId);
+        return key == NONE ? Optional.empty() : columns.find(key, date);
+    }
+
+    public PriceResolution resolve(long brandId, long productId, LocalDateTime date) {
+        int key = key(brandId, productId);
+        return key == NONE ? new PriceResolution(LocalDateTime.MIN, LocalDateTime.MAX, null) : columns.resolve(key, date);
+    }
+
+    public int keyCount() {
+        return keyCount;
+    }
+
+    public int segmentCount() {
+        return segmentCount;
+    }
+
+    public int rowCount() {
+        return rowCount;
+    }
+
+    // direct memory taken by the columns and the directory
+    public long offHeapBytes() {
+        long bytes = 0;
+        for (OffHeapColumn column : new OffHeapColumn[]{slots, brandIds, productIds, firstSegments, fromSeconds, fromNanos,
+                toSeconds, toNanos, segmentRows, priceLists, startSeconds, startNanos, endSeconds, endNanos, priorities,
+                unscaledValues, scales, currencyCodes}) {
+            bytes += column.bytes();
+        }
+        return bytes;
+    }
+
+    private int key(long brandId, long productId) {
+        int slot = hash(brandId, productId) & mask;
+        for (int key = slots.getInt(slot) - 1; key != NONE; key = slots.getInt(slot) - 1) {
+            if (brandIds.getLong(key) == brandId && productIds.getLong(key) == productId) {
+                return key;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return NONE;
+    }
+
+    private static int hash(long brandId, long productId) {
+        long hash = brandId * 0x9E3779B97F4A7C15L + productId;
+        hash = (hash ^ (hash >>> 33)) * 0xFF51AFD7ED558CCDL;
+        return (int) (hash ^ (hash >>> 33));
+    }
+
+    // the columns as read by the segment search
+    private final class Columns implements PriceColumns {
+
+        @Override
+        public long brandId(int key) {
+            return brandIds.getLong(key);
+        }
+
+        @Override
+        public long productId(int key) {
+            return productIds.getLong(key);
+        }
+
+        @Override
+        public int firstSegment(int key) {
+            return firstSegments.getInt(key);
+        }
+
+        @Override
+        public long fromSecond(int segment) {
+            return fromSeconds.getLong(segment);
+        }
+
+        @Override
+        public int fromNano(int segment) {
+            return fromNanos.getInt(segment);
+        }
+
+        @Override
+        public long toSecond(int segment) {
+            return toSeconds.getLong(segment);
+        }
+
+        @Override
+        public int toNano(int segment) {
+            return toNanos.getInt(segment);
+        }
+
+        @Override
+        public int segmentRow(int segment) {
+            return segmentRows.getInt(segment);
+        }
+
+        @Override
+        public long priceList(int row) {
+            return priceLists.getLong(row);
+        }
+
+        @Override
+        public long startSecond(int row) {
+            return startSeconds.getLong(row);
+        }
+
+        @Override
+        public int startNano(int row) {
+            return startNanos.getInt(row);
+        }
+
+        @Override
+        public long endSecond(int row) {
+            return endSeconds.getLong(row);
+        }
+
+        @Override
+        public int endNano(int row) {
+            return endNanos.getInt(row);
+        }
+
+        @Override
+        public int priority(int row) {
+            return priorities.getInt(row);
+        }
+
+        @Override
+        public long unscaledValue(int row) {
+            return unscaledValues.getLong(row);
+        }
+
+        @Override
+        public int scale(int row) {
+            return scales.getByte(row);
+        }
+
+        @Override
+        public String currency(int row) {
+            short currency = currencyCodes.getShort(row);
+            return currency < 0 ? null : currencies[currency];
+        }
+    }
+
+    /**
+     * Appends the compiled timelines key by key, so that only the rows of one key need to be on the heap at a time.
+     */
+    public static class Builder {
+        private final List<String> currencies = new ArrayList<>();
+        private final Map<String, Short> currencyIndexes = new HashMap<>();
+        private int keyCount;
+        private final OffHeapColumn brandIds;
+        private final OffHeapColumn productIds;
+        private final OffHeapColumn firstSegments;
+        private int segmentCount;
+        private final OffHeapColumn fromSeconds;
+        private final OffHeapColumn fromNanos;
+        private final OffHeapColumn toSeconds;
+        private final OffHeapColumn toNanos;
+        private final OffHeapColumn segmentRows;
+        private int rowCount;
+        private final OffHeapColumn priceLists;
+        private final OffHeapColumn startSeconds;
+        private final OffHeapColumn startNanos;
+        private final OffHeapColumn endSeconds;
+        private final OffHeapColumn endNanos;
+        private final OffHeapColumn priorities;
+        private final OffHeapColumn unscaledValues;
+        private final OffHeapColumn scales;
+        private final OffHeapColumn currencyCodes;
+
+        private Builder(int expectedRows) {
+            int keys = Math.max(1, expectedRows / 2);
+            int segments = Math.max(1, expectedRows + expectedRows / 2);
+            brandIds = OffHeapColumn.ofLongs(keys);
+            productIds = OffHeapColumn.ofLongs(keys);
+            firstSegments = OffHeapColumn.ofInts(keys + 1);
+            fromSeconds = OffHeapColumn.ofLongs(segments);
+            fromNanos = OffHeapColumn.ofInts(segments);
+            toSeconds = OffHeapColumn.ofLongs(segments);
+            toNanos = OffHeapColumn.ofInts(segments);
+            segmentRows = OffHeapColumn.ofInts(segments);
+            priceLists = OffHeapColumn.ofLongs(expectedRows);
+            startSeconds = OffHeapColumn.ofLongs(expectedRows);
+            startNanos = OffHeapColumn.ofInts(expectedRows);
+            endSeconds = OffHeapColumn.ofLongs(expectedRows);
+            endNanos = OffHeapColumn.ofInts(expectedRows);
+            priorities = OffHeapColumn.ofInts(expectedRows);
+            unscaledValues = OffHeapColumn.ofLongs(expectedRows);
+            scales = OffHeapColumn.ofBytes(expectedRows);
+            currencyCodes = OffHeapColumn.ofShorts(expectedRows);
+        }
+
+        // each brand/product once, its timeline compiled from all of its rows
+        public Builder add(long brandId, long productId, PriceTimeline timeline) {
+            brandIds.putLong(keyCount, brandId);
+            productIds.putLong(keyCount, productId);
+            firstSegments.putInt(keyCount, segmentCount);
+            Map<PriceView, Integer> rows = new IdentityHashMap<>(); // a price winning several segments is stored once
+            for (PriceSegment segment : timeline.segments()) {
+                Integer row = rows.get(segment.price());
+                if (row == null) {
+                    row = addRow(segment.price());
+                    rows.put(segment.price(), row);
+                }
+                fromSeconds.putLong(segmentCount, segment.from().toEpochSecond(ZoneOffset.UTC));
+                fromNanos.putInt(segmentCount, segment.from().getNano());
+                toSeconds.putLong(segmentCount, segment.to().toEpochSecond(ZoneOffset.UTC));
+                toNanos.putInt(segmentCount, segment.to().getNano());
+                segmentRows.putInt(segmentCount, row);
+                segmentCount++;
+            }
+            keyCount++;
+            firstSegments.putInt(keyCount, segmentCount);
+            return this;
+        }
+
+        public OffHeapPriceStore build() {
+            return new OffHeapPriceStore(this);
+        }
+
+        private int addRow(PriceView price) {
+            int scale = price.value().scale();
+            if (scale != (byte) scale) {
+                throw new IllegalArgumentException("price " + price.priceList() + " has a scale of " + scale);
+            }
+            priceLists.putLong(rowCount, price.priceList());
+            startSeconds.putLong(rowCount, price.startDate().toEpochSecond(ZoneOffset.UTC));
+            startNanos.putInt(rowCount, price.startDate().getNano());
+            endSeconds.putLong(rowCount, price.endDate().toEpochSecond(ZoneOffset.UTC));
+            endNanos.putInt(rowCount, price.endDate().getNano());
+            priorities.putInt(rowCount, price.priority());
+            unscaledValues.putLong(rowCount, price.value().unscaledValue().longValueExact());
+            scales.putByte(rowCount, (byte) scale);
+            currencyCodes.putShort(rowCount, price.curr() == null ? -1 : currencyIndexes.computeIfAbsent(price.curr(), curr -> {
+                currencies.add(curr);
+                return (short) (currencies.size() - 1);
+            }));
+            return rowCount++;
+        }
+    }
+}
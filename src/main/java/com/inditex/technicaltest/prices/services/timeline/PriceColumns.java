@@ -0,0 +1,125 @@
+package com.inditex.technicaltest.prices.services.timeline;
+
+import com.inditex.technicaltest.prices.models.PriceView;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+/**
+ * Compiled price timelines laid out as primitive columns, whatever holds them, and the search of the segment of a date
+ * over those columns. The segments of key k are the ones from firstSegment(k) to firstSegment(k + 1), sorted by date,
+ * and every segment points to the row of its winning price. Dates are the epoch second and nano of the date-time taken
+ * as UTC.
+ * <p>
+ * Finding the key of a brand/product is left to each store; the search reads the columns in place and allocates
+ * nothing but the PriceView of the answer.
+ */
+public interface PriceColumns {
+    int NONE = -1;
+
+    long brandId(int key);
+
+    long productId(int key);
+
+    int firstSegment(int key);
+
+    long fromSecond(int segment);
+
+    int fromNano(int segment);
+
+    long toSecond(int segment);
+
+    int toNano(int segment);
+
+    int segmentRow(int segment);
+
+    long priceList(int row);
+
+    long startSecond(int row);
+
+    int startNano(int row);
+
+    long endSecond(int row);
+
+    int endNano(int row);
+
+    int priority(int row);
+
+    long unscaledValue(int row);
+
+    int scale(int row);
+
+    // null when the row has no currency
+    String currency(int row);
+
+    // index of the segment of the key holding the date, -1 when no price applies
+    default int segmentAt(int key, LocalDateTime date) {
+        int floor = floor(key, date);
+        return floor >= firstSegment(key) && contains(floor, date) ? floor : NONE;
+    }
+
+    default Optional<PriceView> find(int key, LocalDateTime date) {
+        int segment = segmentAt(key, date);
+        return segment == NONE ? Optional.empty() : Optional.of(price(key, segment));
+    }
+
+    // same answers as PriceTimeline.resolve
+    default PriceResolution resolve(int key, LocalDateTime date) {
+        int first = firstSegment(key);
+        int end = firstSegment(key + 1);
+        int floor = floor(key, date);
+        if (floor >= first && contains(floor, date)) {
+            return new PriceResolution(from(floor), to(floor), price(key, floor));
+        }
+        LocalDateTime from = floor >= first ? to(floor).plusNanos(1) : LocalDateTime.MIN;
+        LocalDateTime to = floor + 1 < end ? from(floor + 1).minusNanos(1) : LocalDateTime.MAX;
+        return new PriceResolution(from, to, null);
+    }
+
+    // last segment of the key starting at or before the date, the one before its first segment when there is none
+    private int floor(int key, LocalDateTime date) {
+        long second = date.toEpochSecond(ZoneOffset.UTC);
+        int nano = date.getNano();
+        int low = firstSegment(key);
+        int high = firstSegment(key + 1) - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midSecond = fromSecond(mid);
+            if (midSecond > second || midSecond == second && fromNano(mid) > nano) {
+                high = mid - 1;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return high;
+    }
+
+    private boolean contains(int segment, LocalDateTime date) {
+        long second = date.toEpochSecond(ZoneOffset.UTC);
+        long toSecond = toSecond(segment);
+        return second < toSecond || second == toSecond && date.getNano() <= toNano(segment);
+    }
+
+    private LocalDateTime from(int segment) {
+        return LocalDateTime.ofEpochSecond(fromSecond(segment), fromNano(segment), ZoneOffset.UTC);
+    }
+
+    private LocalDateTime to(int segment) {
+        return LocalDateTime.ofEpochSecond(toSecond(segment), toNano(segment), ZoneOffset.UTC);
+    }
+
+    private PriceView price(int key, int segment) {
+        int row = segmentRow(segment);
+        return new PriceView(
+                priceList(row),
+                brandId(key),
+                productId(key),
+                LocalDateTime.ofEpochSecond(startSecond(row), startNano(row), ZoneOffset.UTC),
+                LocalDateTime.ofEpochSecond(endSecond(row), endNano(row), ZoneOffset.UTC),
+                priority(row),
+                BigDecimal.valueOf(unscaledValue(row), scale(row)),
+                currency(row));
+    }
+}
@@ -0,0 +1,31 @@
+package com.inditex.technicaltest.prices.services.timeline;
+
+import com.inditex.technicaltest.prices.models.PriceView;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Answer of a lookup together with the period, bounds inclusive, in which any other date gets the same answer.
+ * The price is null when no price applies in the period.
+ */
+public record PriceResolution(LocalDateTime validFrom, LocalDateTime validTo, PriceView price) {
+
+    public boolean contains(LocalDateTime date) {
+        return !date.isBefore(validFrom) && !date.isAfter(validTo);
+    }
+
+    public Optional<PriceView> find() {
+        return Optional.ofNullable(price);
+    }
+
+    // how long the answer can be kept from now: answers of past periods never change, while an answer for a period
+    // still ahead is not kept beyond its end. Writes to the prices can change any of them, hence the upper bound
+    public Duration lifetime(LocalDateTime now, Duration max) {
+        if (validTo.isAfter(now) && validTo.isBefore(now.plus(max))) {
+            return Duration.between(now, validTo);
+        }
+        return max;
+    }
+}
@@ -0,0 +1,15 @@
+package com.inditex.technicaltest.prices.services.timeline;
+
+import com.inditex.technicaltest.prices.models.PriceView;
+
+import java.time.LocalDateTime;
+
+/**
+ * Period in which a single price applies. Both bounds are inclusive, like BETWEEN in the query.
+ */
+public record PriceSegment(LocalDateTime from, LocalDateTime to, PriceView price) {
+
+    public boolean contains(LocalDateTime date) {
+        return !date.isBefore(from) && !date.isAfter(to);
+    }
+}
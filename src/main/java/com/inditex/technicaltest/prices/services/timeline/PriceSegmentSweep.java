@@ -0,0 +1,114 @@
+package com.inditex.technicaltest.prices.services.timeline;
+
+import com.inditex.technicaltest.prices.models.PriceView;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Segments of {@link PriceTimelineCompiler#sweep}, resolved one at a time from prices read in start date order.
+ * <p>
+ * Only the prices active at the current date are held, in one heap by {@link PriceTimelineCompiler#RANKING} to find
+ * the winner and another by end date to find where the next one ends. The next change of winner is then the nearest
+ * of that end and the start of the next price read, so each price is read once and nothing past the range is read.
+ */
+final class PriceSegmentSweep implements Iterator<PriceSegment> {
+    private final Iterator<PriceView> byStart;
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+    private final PriorityQueue<PriceView> ranked = new PriorityQueue<>(PriceTimelineCompiler.RANKING.reversed());
+    private final PriorityQueue<PriceView> byEnd = new PriorityQueue<>(Comparator.comparing(PriceView::endDate));
+    private PriceView upcoming;
+    private LocalDateTime cursor;
+    private PriceSegment open; // extended while the same price keeps winning
+    private PriceSegment next;
+
+    PriceSegmentSweep(Iterator<PriceView> byStart, LocalDateTime from, LocalDateTime to) {
+        this.byStart = byStart;
+        this.from = from;
+        this.to = to;
+        this.upcoming = byStart.hasNext() ? byStart.next() : null;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (next == null) {
+            PriceSegment segment = nextRaw();
+            if (segment != null && open != null && segment.price() == open.price() && open.to().plusNanos(1).equals(segment.from())) {
+                open = new PriceSegment(open.from(), segment.to(), segment.price());
+                continue;
+            }
+            if (open == null && segment == null) {
+                return false;
+            }
+            if (open != null) {
+                next = clip(open);
+            }
+            open = segment;
+        }
+        return true;
+    }
+
+    @Override
+    public PriceSegment next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        PriceSegment segment = next;
+        next = null;
+        return segment;
+    }
+
+    // the segment in [cursor, next change), or null once the prices or the range are exhausted
+    private PriceSegment nextRaw() {
+        while (true) {
+            if (cursor == null || byEnd.isEmpty() && (upcoming == null || upcoming.startDate().isAfter(cursor))) {
+                if (upcoming == null) {
+                    return null;
+                }
+                cursor = upcoming.startDate();
+            }
+            if (cursor.isAfter(to)) {
+                return null;
+            }
+            while (upcoming != null && !upcoming.startDate().isAfter(cursor)) {
+                ranked.add(upcoming);
+                byEnd.add(upcoming);
+                upcoming = byStart.hasNext() ? byStart.next() : null;
+            }
+            while (!byEnd.isEmpty() && byEnd.peek().endDate().isBefore(cursor)) {
+                byEnd.poll();
+            }
+            if (byEnd.isEmpty()) {
+                ranked.clear();
+                continue;
+            }
+            // expired prices leave the ranking once they reach its head, or all at once when they outnumber the active ones
+            if (ranked.size() > 2 * byEnd.size()) {
+                ranked.clear();
+                ranked.addAll(byEnd);
+            }
+            while (ranked.peek().endDate().isBefore(cursor)) {
+                ranked.poll();
+            }
+            LocalDateTime change = byEnd.peek().endDate().plusNanos(1);
+            if (upcoming != null && upcoming.startDate().isBefore(change)) {
+                change = upcoming.startDate();
+            }
+            PriceSegment segment = new PriceSegment(cursor, change.minusNanos(1), ranked.peek());
+            cursor = change;
+            return segment;
+        }
+    }
+
+    private PriceSegment clip(PriceSegment segment) {
+        if (segment.to().isBefore(from)) {
+            return null;
+        }
+        return new PriceSegment(segment.from().isBefore(from) ? from : segment.from(),
+                segment.to().isAfter(to) ? to : segment.to(), segment.price());
+    }
+}
@@ -0,0 +1,63 @@
+package com.inditex.technicaltest.prices.services.timeline;
+
+import com.inditex.technicaltest.prices.models.PriceView;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Non-overlapping segments of one brand/product sorted by start, with the winning price already chosen.
+ */
+public class PriceTimeline {
+    public static final PriceTimeline EMPTY = new PriceTimeline(List.of());
+
+    private final PriceSegment[] segments;
+
+    PriceTimeline(List<PriceSegment> segments) {
+        this.segments = segments.toArray(PriceSegment[]::new);
+    }
+
+    public Optional<PriceView> find(LocalDateTime date) {
+        return segmentAt(date).map(PriceSegment::price);
+    }
+
+    public Optional<PriceSegment> segmentAt(LocalDateTime date) {
+        int floor = floor(date);
+        return floor >= 0 && segments[floor].contains(date) ? Optional.of(segments[floor]) : Optional.empty();
+    }
+
+    // the segment holding the date, or the gap around it when no price applies
+    public PriceResolution resolve(LocalDateTime date) {
+        int floor = floor(date);
+        if (floor >= 0 && segments[floor].contains(date)) {
+            PriceSegment segment = segments[floor];
+            return new PriceResolution(segment.from(), segment.to(), segment.price());
+        }
+        LocalDateTime from = floor >= 0 ? segments[floor].to().plusNanos(1) : LocalDateTime.MIN;
+        LocalDateTime to = floor + 1 < segments.length ? segments[floor + 1].from().minusNanos(1) : LocalDateTime.MAX;
+        return new PriceResolution(from, to, null);
+    }
+
+    public List<PriceSegment> segments() {
+        return List.of(segments);
+    }
+
+    public int size() {
+        return segments.length;
+    }
+
+    private int floor(LocalDateTime date) {
+        int low = 0;
+        int high = segments.length - 1;
+        while (low <= high) { // last segment starting at or before the date
+            int mid = (low + high) >>> 1;
+            if (segments[mid].from().isAfter(date)) {
+                high = mid - 1;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return high;
+    }
+}
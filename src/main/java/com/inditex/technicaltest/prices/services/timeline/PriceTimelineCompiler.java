@@ -0,0 +1,78 @@
+package com.inditex.technicaltest.prices.services.timeline;
+
+import com.inditex.technicaltest.prices.models.PriceView;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Flattens the overlapping prices of one brand/product into a {@link PriceTimeline}.
+ * <p>
+ * Overlaps are resolved with {@link #RANKING}: the highest priority wins; on equal priority the
+ * price that started last wins; if both also start at the same instant, the highest price list wins.
+ */
+public final class PriceTimelineCompiler {
+
+    public static final Comparator<PriceView> RANKING = Comparator.comparingInt(PriceView::priority)
+            .thenComparing(PriceView::startDate)
+            .thenComparing(PriceView::priceList, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private PriceTimelineCompiler() {
+    }
+
+    public static PriceTimeline compile(Collection<PriceView> prices) {
+        List<PriceView> byStart = prices.stream()
+                .sorted(Comparator.comparing(PriceView::startDate))
+                .toList();
+        // the winner can only change where a price starts or right after one ends
+        TreeSet<LocalDateTime> changes = new TreeSet<>();
+        for (PriceView price : byStart) {
+            changes.add(price.startDate());
+            changes.add(price.endDate().plusNanos(1));
+        }
+
+        List<PriceSegment> segments = new ArrayList<>();
+        PriorityQueue<PriceView> active = new PriorityQueue<>(RANKING.reversed());
+        int next = 0;
+        for (LocalDateTime change : changes) {
+            while (next < byStart.size() && !byStart.get(next).startDate().isAfter(change)) {
+                active.add(byStart.get(next++));
+            }
+            while (!active.isEmpty() && active.peek().endDate().isBefore(change)) {
+                active.poll(); // expired prices are discarded once they reach the head
+            }
+            if (active.isEmpty()) {
+                continue;
+            }
+            PriceView winner = active.peek();
+            LocalDateTime to = changes.higher(change).minusNanos(1);
+            PriceSegment last = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+            if (last != null && last.price() == winner && last.to().plusNanos(1).equals(change)) {
+                segments.set(segments.size() - 1, new PriceSegment(last.from(), to, winner));
+            } else {
+                segments.add(new PriceSegment(change, to, winner));
+            }
+        }
+        return new PriceTimeline(segments);
+    }
+
+    /**
+     * The segments of the given prices between from and to, clipped to that range, resolved while the prices are read.
+     * The prices must come in start date order; closing the returned stream closes theirs.
+     */
+    public static Stream<PriceSegment> sweep(Stream<PriceView> byStart, LocalDateTime from, LocalDateTime to) {
+        Iterator<PriceSegment> segments = new PriceSegmentSweep(byStart.iterator(), from, to);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(segments, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(byStart::close);
+    }
+}
@@ -0,0 +1,25 @@
+package com.inditex.technicaltest.prices.utils;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+
+/**
+ * Drops the INFO and lower events logged while serving a request left out of the sample by {@link RequestIdFilter},
+ * before their message is formatted. Warnings and errors are always logged.
+ */
+public class HotPathSamplingFilter extends TurboFilter {
+    // MDC key present while serving a request whose INFO and DEBUG logs are dropped
+    public static final String SAMPLED_OUT = "sampledOut";
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (level == null || level.isGreaterOrEqual(Level.WARN) || MDC.get(SAMPLED_OUT) == null) {
+            return FilterReply.NEUTRAL;
+        }
+        return FilterReply.DENY;
+    }
+}
@@ -1,15 +1,27 @@
 package com.inditex.technicaltest.prices.utils;
 
 import jakarta.servlet.*;
-import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
-import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
 
 @Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class RequestIdFilter implements Filter {
+    private final RequestIdGenerator requestIdGenerator;
+    private final double sampleRate;
+
+    @Autowired
+    public RequestIdFilter(RequestIdGenerator requestIdGenerator,
+                           @Value("${prices.logging.hot-path.sample-rate:1.0}") double sampleRate) {
+        this.requestIdGenerator = requestIdGenerator;
+        this.sampleRate = sampleRate;
+    }
 
     @Override
     public void init(FilterConfig filterConfig) throws ServletException {
@@ -18,11 +30,12 @@ public class RequestIdFilter implements Filter {
     @Override
     public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
             throws IOException, ServletException {
-        HttpServletRequest httpServletRequest = (HttpServletRequest) request;
-
         // Generate a unique identifier for the http request
-        String requestId = UUID.randomUUID().toString();
-        MDC.put("requestId", requestId);// add to Mapped Diagnostic Context
+        MDC.put("requestId", requestIdGenerator.next());// add to Mapped Diagnostic Context
+        // the whole request is kept in or left out of the sample, so its log lines are never split
+        if (!sampled()) {
+            MDC.put(HotPathSamplingFilter.SAMPLED_OUT, "true");
+        }
         try {
             chain.doFilter(request, response);
         } finally {
@@ -30,6 +43,10 @@ public class RequestIdFilter implements Filter {
         }
     }
 
+    private boolean sampled() {
+        return sampleRate >= 1 || sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
     @Override
     public void destroy() {
     }
@@ -0,0 +1,37 @@
+package com.inditex.technicaltest.prices.utils;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.util.HexFormat;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Request ids made of a prefix drawn once per instance and a counter, e.g. 3f9c0a1b7e42-1a.
+ * <p>
+ * Only the prefix comes from SecureRandom, so a request costs an atomic increment instead of a UUID.randomUUID(),
+ * and ids of the same instance sort in arrival order. 48 random bits keep the prefixes of different instances apart,
+ * unless prices.logging.instance-id names the instance.
+ */
+@Component
+public class RequestIdGenerator {
+    private final String prefix;
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Autowired
+    public RequestIdGenerator(@Value("${prices.logging.instance-id:}") String instanceId) {
+        this.prefix = (instanceId.isBlank() ? randomPrefix() : instanceId) + "-";
+    }
+
+    public String next() {
+        return prefix + Long.toHexString(sequence.incrementAndGet());
+    }
+
+    private static String randomPrefix() {
+        byte[] bytes = new byte[6];
+        new SecureRandom().nextBytes(bytes);
+        return HexFormat.of().formatHex(bytes);
+    }
+}
@@ -0,0 +1,2 @@
+-- same precision as Price.value, which is what ingested rows are validated against
+ALTER TABLE PRICES ALTER COLUMN price SET DATA TYPE DECIMAL(15, 2);
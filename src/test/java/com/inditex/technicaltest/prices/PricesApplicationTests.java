@@ -1,16 +1,30 @@
 package com.inditex.technicaltest.prices;
 
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.WireFormat;
 import io.restassured.RestAssured;
 import io.restassured.http.ContentType;
+import io.restassured.response.ExtractableResponse;
+import io.restassured.response.Response;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.isEmptyOrNullString;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT) //Spring context
@@ -152,4 +166,162 @@ class PricesApplicationTests {
                 .statusCode(404)
                 .body(isEmptyOrNullString());
     }
+
+    @Test
+    public void testGetProductPriceIsKeptByClientsAndRevalidated() {
+        String eTag = given()
+                .param("productId", 35455)
+                .param("brandId", 1)
+                .param("priceDate", "2020-06-14T10:00:00")
+                .when()
+                .get("/prices")
+                .then()
+                .statusCode(200)
+                .header("Cache-Control", "max-age=600, public")
+                .header("Vary", containsString("Accept"))
+                .header("Expires", not(isEmptyOrNullString()))
+                .extract().header("ETag");
+
+        given()
+                .header("If-None-Match", eTag)
+                .param("productId", 35455)
+                .param("brandId", 1)
+                .param("priceDate", "2020-06-14T10:00:00")
+                .when()
+                .get("/prices")
+                .then()
+                .statusCode(304)
+                .header("ETag", eTag);
+
+        given()
+                .param("productId", 35455)
+                .param("brandId", 1)
+                .param("priceDate", "2021-08-16T21:00:00")
+                .when()
+                .get("/prices")
+                .then()
+                .statusCode(404)
+                .header("Cache-Control", "max-age=600, public");
+    }
+
+    @Test
+    public void testGetProductPriceAsProtobuf() throws IOException {
+        String jsonETag = given()
+                .param("productId", 35455)
+                .param("brandId", 1)
+                .param("priceDate", "2020-06-14T10:00:00")
+                .when()
+                .get("/prices")
+                .then()
+                .statusCode(200)
+                .extract().header("ETag");
+
+        ExtractableResponse<Response> protobuf = given()
+                .accept("application/x-protobuf")
+                .param("productId", 35455)
+                .param("brandId", 1)
+                .param("priceDate", "2020-06-14T10:00:00")
+                .when()
+                .get("/prices")
+                .then()
+                .statusCode(200)
+                .contentType("application/x-protobuf")
+                .header("Vary", containsString("Accept"))
+                .extract();
+        byte[] body = protobuf.asByteArray();
+        // each representation has an ETag of its own
+        assertEquals(jsonETag.substring(0, jsonETag.length() - 1) + "-pb\"", protobuf.header("ETag"));
+
+        // Price: price_list 1, value_unscaled 6 and value_scale 7
+        CodedInputStream input = CodedInputStream.newInstance(body);
+        Map<Integer, Long> fields = new HashMap<>();
+        for (int tag = input.readTag(); tag != 0; tag = input.readTag()) {
+            fields.put(WireFormat.getTagFieldNumber(tag), input.readInt64());
+        }
+        assertEquals(1L, fields.get(1));
+        assertEquals(3550L, fields.get(6));
+        assertEquals(2L, fields.get(7));
+
+        given()
+                .when()
+                .get("http://localhost:" + port + "/prices.proto")
+                .then()
+                .statusCode(200)
+                .body(containsString("message Price {"));
+    }
+
+    @Test
+    public void testGetProductPricesOfBrandOnDatesInBatch() {
+        given()
+                .contentType(ContentType.JSON)
+                .body("{\"items\":[" +
+                        "{\"productId\":35455,\"brandId\":1,\"priceDate\":\"2020-06-14T10:00:00\"}," +
+                        "{\"productId\":35455,\"brandId\":1,\"priceDate\":\"2020-06-14T16:00:00\"}," +
+                        "{\"productId\":35455,\"brandId\":1,\"priceDate\":\"2020-06-14T21:00:00\"}," +
+                        "{\"productId\":35455,\"brandId\":1,\"priceDate\":\"2020-06-15T10:00:00\"}," +
+                        "{\"productId\":35455,\"brandId\":1,\"priceDate\":\"2020-06-16T21:00:00\"}," +
+                        "{\"productId\":35455,\"brandId\":1,\"priceDate\":\"2021-08-16T21:00:00\"}," +
+                        "{\"productId\":35455,\"brandId\":0,\"priceDate\":\"2020-06-14T10:00:00\"}]}")
+                .when()
+                .post("/prices/batch")
+                .then()
+                .statusCode(200)
+                .contentType(ContentType.JSON)
+                .body("items.status", contains("FOUND", "FOUND", "FOUND", "FOUND", "FOUND", "NOT_FOUND", "INVALID"))
+                .body("items.findAll { it.status == 'FOUND' }.price.priceList", contains(1, 2, 1, 3, 4));
+    }
+
+    @Test
+    public void testExportBrandPricesOnDate() {
+        String body = given()
+                .param("brandId", 1)
+                .param("priceDate", "2020-06-14T16:00:00")
+                .when()
+                .get("/prices/export")
+                .then()
+                .statusCode(200)
+                .contentType("application/x-ndjson")
+                .extract().asString();
+
+        List<String> lines = body.lines().toList();
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).startsWith("{\"price\":{\"priceList\":2,\"productId\":35455,\"brandId\":1,"));
+        assertTrue(lines.get(1).matches("\\{\"progress\":\\{\"exported\":1,\"lastProductId\":35455,.*\"complete\":true}}"));
+    }
+
+    @Test
+    public void testGetProductTimelineOfBrandBetween() {
+        given()
+                .param("productId", 35455)
+                .param("brandId", 1)
+                .param("from", "2020-06-14T10:00:00")
+                .param("to", "2020-06-15T18:00:00")
+                .when()
+                .get("/prices/timeline")
+                .then()
+                .statusCode(200)
+                .contentType(ContentType.JSON)
+                .body("priceList", contains(1, 2, 1, 3, 1, 4))
+                .body("from[0]", equalTo("2020-06-14T10:00:00"))
+                .body("to[1]", equalTo("2020-06-14T18:30:01"))
+                .body("from[2]", equalTo("2020-06-14T18:30:01"))
+                .body("to[5]", equalTo("2020-06-15T18:00:01"))
+                .body("value", contains(35.50f, 25.45f, 35.50f, 30.50f, 35.50f, 38.95f));
+    }
+
+    @Test
+    public void testEndpointsChangingTheInstanceAreNotExposedOnTheApiPort() {
+        given()
+                .contentType(ContentType.JSON)
+                .body("{\"action\": \"commit\"}")
+                .when()
+                .post("http://localhost:" + port + "/actuator/pricepartition")
+                .then()
+                .statusCode(404); // no such route on the api port
+        given()
+                .when()
+                .get("http://localhost:" + port + "/actuator/pricehotkeys")
+                .then()
+                .statusCode(200);
+    }
 }
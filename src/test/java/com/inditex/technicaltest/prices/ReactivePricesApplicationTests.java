@@ -0,0 +1,39 @@
+package com.inditex.technicaltest.prices;
+
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * The lookups of PricesApplicationTests against the reactive stack.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.datasource.url=jdbc:h2:mem:inditexdbreactive")
+@ActiveProfiles({"test", "reactive"})
+class ReactivePricesApplicationTests extends PricesApplicationTests {
+
+    @Test
+    @Disabled("the reactive stack answers JSON only")
+    @Override
+    public void testGetProductPriceAsProtobuf() {
+    }
+
+    @Test
+    @Disabled("the reactive stack serves single lookups only")
+    @Override
+    public void testGetProductPricesOfBrandOnDatesInBatch() {
+    }
+
+    @Test
+    @Disabled("the reactive stack serves single lookups only")
+    @Override
+    public void testGetProductTimelineOfBrandBetween() {
+    }
+
+    @Test
+    @Disabled("the reactive stack serves single lookups only")
+    @Override
+    public void testExportBrandPricesOnDate() {
+    }
+}
@@ -0,0 +1,49 @@
+package com.inditex.technicaltest.prices.actuator;
+
+import io.restassured.http.ContentType;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.equalTo;
+
+// the admin profile with the management port picked at random instead of 9090
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "management.server.port=0",
+        "spring.datasource.url=jdbc:h2:mem:inditexdbadmin"
+})
+@ActiveProfiles({"test", "admin"})
+class PriceAdminEndpointsTest {
+
+    @LocalServerPort
+    private int port;
+
+    @LocalManagementPort
+    private int managementPort;
+
+    @Test
+    public void testEndpointsChangingTheInstanceAreOnlyServedOnTheManagementPort() {
+        given()
+                .when()
+                .get("http://127.0.0.1:" + managementPort + "/actuator/pricepartition")
+                .then()
+                .statusCode(200)
+                .contentType(ContentType.JSON)
+                .body("engine", equalTo("jpa"));
+        given()
+                .contentType(ContentType.JSON)
+                .body("{\"action\": \"commit\"}")
+                .when()
+                .post("http://localhost:" + port + "/actuator/pricepartition")
+                .then()
+                .statusCode(404);
+        given()
+                .when()
+                .get("http://localhost:" + port + "/actuator/health") // the whole actuator moves to the management port
+                .then()
+                .statusCode(404);
+    }
+}
@@ -0,0 +1,73 @@
+package com.inditex.technicaltest.prices.actuator;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.nullValue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "prices.engine=memory",
+        "management.endpoints.web.exposure.include=pricesnapshot,pricepartition",
+        "spring.datasource.url=jdbc:h2:mem:inditexdbsnapshot"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class PriceSnapshotEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void testWritesAreServedAfterARefreshAndRolledBack() throws Exception {
+        mockMvc.perform(get("/actuator/pricesnapshot"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(1))
+                .andExpect(jsonPath("$.rows").value(4))
+                .andExpect(jsonPath("$.previousVersion").value(nullValue()))
+                .andExpect(jsonPath("$.pinned").value(false));
+        expectPriceList(1);
+
+        jdbcTemplate.update("INSERT INTO PRICES (brand_id, product_id, start_date, end_date, priority, price, curr, created_at) "
+                + "VALUES (1, 35455, '2020-06-14 09:00:00', '2020-06-14 11:00:00', 5, 19.99, 'EUR', LOCALTIMESTAMP)");
+        expectPriceList(1); // not in the snapshot yet
+
+        mockMvc.perform(post("/actuator/pricesnapshot")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"action\": \"refresh\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(2))
+                .andExpect(jsonPath("$.rows").value(5))
+                .andExpect(jsonPath("$.previousVersion").value(1));
+        expectPriceList(5);
+
+        mockMvc.perform(post("/actuator/pricesnapshot")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"action\": \"rollback\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(1))
+                .andExpect(jsonPath("$.pinned").value(true));
+        expectPriceList(1);
+    }
+
+    private void expectPriceList(int priceList) throws Exception {
+        mockMvc.perform(get("/api/prices")
+                        .param("productId", "35455")
+                        .param("brandId", "1")
+                        .param("priceDate", "2020-06-14T10:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.priceList").value(priceList));
+    }
+}
@@ -0,0 +1,54 @@
+package com.inditex.technicaltest.prices.actuator;
+
+import com.inditex.technicaltest.prices.dtos.VirtualThreadsResponse;
+import com.inditex.technicaltest.prices.metrics.VirtualThreadPinningMonitor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class VirtualThreadsEndpointTest {
+
+    @Test
+    public void testPlatformThreadsAreNotMonitored() {
+        VirtualThreadsEndpoint endpoint = new VirtualThreadsEndpoint(new StaticListableBeanFactory().getBeanProvider(VirtualThreadPinningMonitor.class));
+
+        VirtualThreadsResponse response = endpoint.virtualThreads();
+
+        assertEquals("platform", response.getThreads());
+        assertFalse(response.isPinningMonitored());
+        assertNull(response.getPinningThresholdMillis());
+        assertEquals(0, response.getPinnedEvents());
+        assertEquals(List.of(), response.getStacks());
+    }
+
+    @Test
+    public void testPinningsOfVirtualThreadsAreReported() {
+        VirtualThreadPinningMonitor monitor = mock(VirtualThreadPinningMonitor.class);
+        when(monitor.threshold()).thenReturn(Duration.ofMillis(20));
+        when(monitor.events()).thenReturn(1L);
+        when(monitor.pinnedTime()).thenReturn(Duration.ofMillis(40));
+        when(monitor.maxPinnedTime()).thenReturn(Duration.ofMillis(40));
+        when(monitor.stacks()).thenReturn(List.of(new VirtualThreadPinningMonitor.PinnedStack(
+                List.of("org.h2.engine.SessionLocal.lock:100"), 1, Duration.ofMillis(40))));
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("virtualThreadPinningMonitor", monitor);
+
+        VirtualThreadsResponse response = new VirtualThreadsEndpoint(beanFactory.getBeanProvider(VirtualThreadPinningMonitor.class)).virtualThreads();
+
+        assertEquals("virtual", response.getThreads());
+        assertTrue(response.isPinningMonitored());
+        assertEquals(20, response.getPinningThresholdMillis());
+        assertEquals(1, response.getPinnedEvents());
+        assertEquals(40, response.getMaxPinnedMillis());
+        assertEquals(List.of("org.h2.engine.SessionLocal.lock:100"), response.getStacks().get(0).getFrames());
+    }
+}
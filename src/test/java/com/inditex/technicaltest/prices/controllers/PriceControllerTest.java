@@ -2,30 +2,43 @@ package com.inditex.technicaltest.prices.controllers;
 
 import com.inditex.technicaltest.prices.dtos.PriceDTO;
 import com.inditex.technicaltest.prices.dtos.PriceRequest;
-import com.inditex.technicaltest.prices.models.domain.Audit;
-import com.inditex.technicaltest.prices.models.domain.Brand;
-import com.inditex.technicaltest.prices.models.domain.Price;
-import com.inditex.technicaltest.prices.models.domain.Product;
+import com.inditex.technicaltest.prices.metrics.PriceHotKeys;
+import com.inditex.technicaltest.prices.metrics.PriceLookupMetrics;
+import com.inditex.technicaltest.prices.models.PriceView;
+import com.inditex.technicaltest.prices.partition.PricePartition;
 import com.inditex.technicaltest.prices.services.PriceService;
+import com.inditex.technicaltest.prices.services.timeline.PriceResolution;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
-import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
 
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.hamcrest.Matchers.startsWith;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 public class PriceControllerTest {
@@ -35,6 +48,18 @@ public class PriceControllerTest {
     @Mock
     private PriceService priceService;
 
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Spy
+    private PriceLookupMetrics priceLookupMetrics = new PriceLookupMetrics(new SimpleMeterRegistry(), 100);
+
+    @Spy
+    private PriceHotKeys priceHotKeys = new PriceHotKeys(4, 1024, 10, Duration.ofMinutes(1));
+
+    @Spy
+    private PricePartition pricePartition = PricePartition.unpartitioned();
+
     @InjectMocks
     private PriceController priceController;
 
@@ -48,21 +73,18 @@ public class PriceControllerTest {
     public void testGetProductPriceOfBrandOnDated_Success() throws Exception {
         // Arrange
         PriceRequest priceRequest = new PriceRequest(1L, 1L, LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS));
-        Audit audit = new Audit();
-        Brand brand = new Brand(1L, "BrandName", new HashSet<>(), audit);
-        Product product = new Product(1L, "ProductName", new HashSet<>(), audit);
-        Price price = new Price(1L, LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS), LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS), "EUR", 1, brand, product, BigDecimal.valueOf(100), audit);
+        PriceView price = new PriceView(1L, 1L, 1L, LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS), LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS), 1, BigDecimal.valueOf(100), "EUR");
 
         // Simulation of service behavior
-        when(priceService.getProductPriceOfBrandOnDate(any(PriceDTO.class))).thenReturn(Optional.of(price));
+        when(priceService.resolve(any(PriceDTO.class))).thenReturn(new PriceResolution(price.startDate(), price.endDate(), price));
 
 
-        System.out.println("{\"priceList\":" + price.getId() + "," +
-                "\"productId\":" + price.getProduct().getId() + "," +
-                "\"brandId\":" + price.getBrand().getId() + "," +
-                "\"startDate\":\"" + price.getStartDate() + "\"," +
-                "\"endDate\":\"" + price.getEndDate() + "\"," +
-                "\"value\":" + price.getValue() + "}");
+        System.out.println("{\"priceList\":" + price.priceList() + "," +
+                "\"productId\":" + price.productId() + "," +
+                "\"brandId\":" + price.brandId() + "," +
+                "\"startDate\":\"" + price.startDate() + "\"," +
+                "\"endDate\":\"" + price.endDate() + "\"," +
+                "\"value\":" + price.value() + "}");
         // Act & Assert
         mockMvc.perform(get("/api/prices")
                         .param("productId", String.valueOf(priceRequest.getProductId()))
@@ -75,12 +97,12 @@ public class PriceControllerTest {
 
                     System.out.println(result.getResponse().getContentAsString());
                 })
-                .andExpect(content().json("{\"priceList\":" + price.getId() + "," +
-                        "\"productId\":" + price.getProduct().getId() + "," +
-                        "\"brandId\":" + price.getBrand().getId() + "," +
-                        "\"startDate\":\"" + price.getStartDate() + "\"," +
-                        "\"endDate\":\"" + price.getEndDate() + "\"," +
-                        "\"value\":" + price.getValue() + "}"));
+                .andExpect(content().json("{\"priceList\":" + price.priceList() + "," +
+                        "\"productId\":" + price.productId() + "," +
+                        "\"brandId\":" + price.brandId() + "," +
+                        "\"startDate\":\"" + price.startDate() + "\"," +
+                        "\"endDate\":\"" + price.endDate() + "\"," +
+                        "\"value\":" + price.value() + "}"));
     }
 
     @Test
@@ -88,7 +110,7 @@ public class PriceControllerTest {
         // Arrange
         PriceRequest priceRequest = new PriceRequest(1L, 1L, LocalDateTime.now());
 
-        when(priceService.getProductPriceOfBrandOnDate(any(PriceDTO.class))).thenReturn(Optional.empty());
+        when(priceService.resolve(any(PriceDTO.class))).thenReturn(new PriceResolution(LocalDateTime.MIN, LocalDateTime.MAX, null));
 
         // Act & Assert
         mockMvc.perform(get("/api/prices")
@@ -96,6 +118,91 @@ public class PriceControllerTest {
                         .param("brandId", String.valueOf(priceRequest.getBrandId()))
                         .param("priceDate", priceRequest.getPriceDate().toString())
                         .contentType(MediaType.APPLICATION_JSON))
-                .andExpect(status().isNotFound());
+                .andExpect(status().isNotFound())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=600, public"));
+    }
+
+    @Test
+    public void testGetProductPriceOfBrandOnDated_CachedUntilThePriceChanges() throws Exception {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        PriceView price = new PriceView(4L, 1L, 35455L, now.minusDays(1), now.plusDays(1), 1, new BigDecimal("38.95"), "EUR");
+        when(priceService.resolve(any(PriceDTO.class))).thenReturn(new PriceResolution(now.minusHours(1), now.plusMinutes(5), price));
+
+        String eTag = mockMvc.perform(get("/api/prices")
+                        .param("productId", "35455")
+                        .param("brandId", "1")
+                        .param("priceDate", now.toString()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, startsWith("\"4-38.95-")))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, matchesPattern("max-age=(299|300), public")))
+                .andExpect(header().exists(HttpHeaders.EXPIRES))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/prices")
+                        .param("productId", "35455")
+                        .param("brandId", "1")
+                        .param("priceDate", now.toString())
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(content().string(""));
+
+        mockMvc.perform(get("/api/prices")
+                        .param("productId", "35455")
+                        .param("brandId", "1")
+                        .param("priceDate", now.toString())
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"3-38.95-0\""))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void testGetProductPriceOfBrandOnDated_CachedUpToTheMaxAge() throws Exception {
+        PriceView price = new PriceView(1L, 1L, 35455L, LocalDateTime.parse("2020-06-14T00:00:00"), LocalDateTime.parse("2020-12-31T23:59:59"), 0, new BigDecimal("35.50"), "EUR");
+        when(priceService.resolve(any(PriceDTO.class))).thenReturn(new PriceResolution(LocalDateTime.parse("2020-06-14T00:00:00"), LocalDateTime.parse("2020-06-14T14:59:59"), price));
+
+        mockMvc.perform(get("/api/prices")
+                        .param("productId", "35455")
+                        .param("brandId", "1")
+                        .param("priceDate", "2020-06-14T10:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=600, public"));
+    }
+
+    @Test
+    public void testGetProductPricesOfBrandOnDates_MixedResults() throws Exception {
+        // Arrange
+        PriceView price = new PriceView(1L, 1L, 1L, LocalDateTime.parse("2020-06-14T00:00:00"), LocalDateTime.parse("2020-12-31T23:59:59"), 0, BigDecimal.valueOf(100), "EUR");
+
+        // only the two valid items reach the service, in request order
+        when(priceService.getProductPricesOfBrandOnDates(anyList())).thenReturn(List.of(Optional.of(price), Optional.empty()));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/prices/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"items\":[" +
+                                "{\"productId\":1,\"brandId\":1,\"priceDate\":\"2020-06-14T10:00:00\"}," +
+                                "{\"productId\":-1,\"brandId\":1}," +
+                                "{\"productId\":2,\"brandId\":1,\"priceDate\":\"2020-06-14T10:00:00\"}]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(3))
+                .andExpect(jsonPath("$.items[0].status").value("FOUND"))
+                .andExpect(jsonPath("$.items[0].price.priceList").value(1))
+                .andExpect(jsonPath("$.items[1].status").value("INVALID"))
+                .andExpect(jsonPath("$.items[1].errors.length()").value(2))
+                .andExpect(jsonPath("$.items[2].index").value(2))
+                .andExpect(jsonPath("$.items[2].status").value("NOT_FOUND"));
+    }
+
+    @Test
+    public void testGetProductPricesOfBrandOnDates_TooManyItems() throws Exception {
+        StringBuilder items = new StringBuilder();
+        for (int i = 0; i <= 5000; i++) {
+            items.append(i == 0 ? "" : ",").append("{\"productId\":1,\"brandId\":1,\"priceDate\":\"2020-06-14T10:00:00\"}");
+        }
+
+        mockMvc.perform(post("/api/prices/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"items\":[" + items + "]}"))
+                .andExpect(status().isBadRequest());
     }
 }
@@ -0,0 +1,81 @@
+package com.inditex.technicaltest.prices.controllers;
+
+import com.inditex.technicaltest.prices.dtos.PriceTimelineDTO;
+import com.inditex.technicaltest.prices.dtos.PriceTimelineRequest;
+import com.inditex.technicaltest.prices.models.PriceView;
+import com.inditex.technicaltest.prices.models.domain.Audit;
+import com.inditex.technicaltest.prices.models.domain.Brand;
+import com.inditex.technicaltest.prices.models.domain.Price;
+import com.inditex.technicaltest.prices.models.domain.Product;
+import com.inditex.technicaltest.prices.services.PriceTimelineService;
+import com.inditex.technicaltest.prices.services.timeline.PriceTimelineCompiler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class PriceDiagnosticsControllerTest {
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private PriceTimelineService priceTimelineService;
+
+    @InjectMocks
+    private PriceDiagnosticsController priceDiagnosticsController;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        mockMvc = MockMvcBuilders.standaloneSetup(priceDiagnosticsController).build();
+    }
+
+    @Test
+    public void testGetProductTimelineOfBrand_Success() throws Exception {
+        // Arrange
+        Brand brand = new Brand(1L, "ZARA", new HashSet<>(), new Audit());
+        Product product = new Product(35455L, "Product A", new HashSet<>(), new Audit());
+        List<Price> rows = List.of(
+                new Price(1L, LocalDateTime.parse("2020-06-14T00:00:00"), LocalDateTime.parse("2020-12-31T23:59:59"), "EUR", 0, brand, product, new BigDecimal("35.50"), null),
+                new Price(2L, LocalDateTime.parse("2020-06-14T15:00:00"), LocalDateTime.parse("2020-06-14T18:30:00"), "EUR", 1, brand, product, new BigDecimal("25.45"), null));
+        when(priceTimelineService.getProductTimelineOfBrand(any(PriceTimelineRequest.class)))
+                .thenReturn(Optional.of(new PriceTimelineDTO(35455L, 1L, rows, PriceTimelineCompiler.compile(rows.stream().map(PriceView::from).toList()))));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/prices/diagnostics/timeline")
+                        .param("productId", "35455")
+                        .param("brandId", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rows.length()").value(2))
+                .andExpect(jsonPath("$.segments.length()").value(3))
+                .andExpect(jsonPath("$.segments[1].priceList").value(2))
+                .andExpect(jsonPath("$.segments[1].from").value("2020-06-14T15:00:00"))
+                .andExpect(jsonPath("$.segments[1].to").value("2020-06-14T18:30:01"))
+                .andExpect(jsonPath("$.segments[2].from").value("2020-06-14T18:30:01"));
+    }
+
+    @Test
+    public void testGetProductTimelineOfBrand_NotFound() throws Exception {
+        when(priceTimelineService.getProductTimelineOfBrand(any(PriceTimelineRequest.class))).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/prices/diagnostics/timeline")
+                        .param("productId", "1")
+                        .param("brandId", "1"))
+                .andExpect(status().isNotFound());
+    }
+}
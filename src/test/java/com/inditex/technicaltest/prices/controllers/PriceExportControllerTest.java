@@ -0,0 +1,101 @@
+package com.inditex.technicaltest.prices.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.inditex.technicaltest.prices.dtos.PriceExportRequest;
+import com.inditex.technicaltest.prices.models.PriceView;
+import com.inditex.technicaltest.prices.services.PriceExportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class PriceExportControllerTest {
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private PriceExportService priceExportService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        PriceExportController priceExportController = new PriceExportController(priceExportService,
+                new ObjectMapper().registerModule(new JavaTimeModule()));
+        ReflectionTestUtils.setField(priceExportController, "progressInterval", 2);
+        mockMvc = MockMvcBuilders.standaloneSetup(priceExportController).build();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testExportBrandPricesOnDate_OneLinePerProductWithProgress() throws Exception {
+        when(priceExportService.exportBrandPricesOnDate(any(PriceExportRequest.class), any())).thenAnswer(invocation -> {
+            Consumer<PriceView> consumer = invocation.getArgument(1);
+            for (long productId = 11; productId <= 13; productId++) {
+                consumer.accept(new PriceView(productId, 1L, productId, LocalDateTime.parse("2020-06-14T00:00:00"),
+                        LocalDateTime.parse("2020-12-31T23:59:59"), 0, new BigDecimal("35.50"), "EUR"));
+            }
+            return 3L;
+        });
+
+        MvcResult result = mockMvc.perform(get("/api/prices/export")
+                        .param("brandId", "1")
+                        .param("priceDate", "2020-06-14T10:00:00")
+                        .param("afterProductId", "10"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        List<String> lines = body.lines().toList();
+        assertEquals(5, lines.size());
+        assertEquals("{\"price\":{\"priceList\":11,\"productId\":11,\"brandId\":1,\"startDate\":\"2020-06-14T00:00:00\","
+                + "\"endDate\":\"2020-12-31T23:59:59\",\"value\":35.50}}", lines.get(0));
+        assertEquals(true, lines.get(2).matches("\\{\"progress\":\\{\"exported\":2,\"lastProductId\":12,\"elapsedMillis\":\\d+,\"complete\":false}}"));
+        assertEquals(true, lines.get(4).matches("\\{\"progress\":\\{\"exported\":3,\"lastProductId\":13,\"elapsedMillis\":\\d+,\"complete\":true}}"));
+        assertEquals(true, body.endsWith("\n"));
+
+        ArgumentCaptor<PriceExportRequest> exportRequest = ArgumentCaptor.forClass(PriceExportRequest.class);
+        verify(priceExportService).exportBrandPricesOnDate(exportRequest.capture(), any());
+        assertEquals(new PriceExportRequest(1L, LocalDateTime.parse("2020-06-14T10:00:00"), 10L), exportRequest.getValue());
+    }
+
+    @Test
+    public void testExportBrandPricesOnDate_EmptyExportIsCompleteProgressOnly() throws Exception {
+        when(priceExportService.exportBrandPricesOnDate(any(PriceExportRequest.class), any())).thenReturn(0L);
+
+        MvcResult result = mockMvc.perform(get("/api/prices/export")
+                        .param("brandId", "1")
+                        .param("priceDate", "2020-06-14T10:00:00"))
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals(true, body.matches("\\{\"progress\":\\{\"exported\":0,\"lastProductId\":null,\"elapsedMillis\":\\d+,\"complete\":true}}\n"));
+    }
+}
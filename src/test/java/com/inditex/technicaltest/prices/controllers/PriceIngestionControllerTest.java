@@ -0,0 +1,90 @@
+package com.inditex.technicaltest.prices.controllers;
+
+import com.inditex.technicaltest.prices.dtos.PriceIngestionDTO;
+import com.inditex.technicaltest.prices.dtos.PriceIngestionRejection;
+import com.inditex.technicaltest.prices.services.PriceIngestionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class PriceIngestionControllerTest {
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private PriceIngestionService priceIngestionService;
+
+    @InjectMocks
+    private PriceIngestionController priceIngestionController;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        mockMvc = MockMvcBuilders.standaloneSetup(priceIngestionController).build();
+    }
+
+    @Test
+    public void testIngestPrices_ReportsTheIngestion() throws Exception {
+        when(priceIngestionService.ingest(any(), eq(PriceIngestionService.Format.CSV), eq(PriceIngestionService.Mode.INSERT)))
+                .thenReturn(new PriceIngestionDTO(4, 3, 1, List.of(new PriceIngestionRejection(3, "currency must have 3 characters")), Duration.ofMillis(500)));
+
+        mockMvc.perform(post("/api/prices/ingestion")
+                        .param("mode", "INSERT")
+                        .contentType("text/csv")
+                        .content("brandId,productId,startDate,endDate,priority,price,curr\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rows").value(4))
+                .andExpect(jsonPath("$.written").value(3))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.rejections[0].line").value(3))
+                .andExpect(jsonPath("$.rejections[0].reason").value("currency must have 3 characters"))
+                .andExpect(jsonPath("$.elapsedMillis").value(500))
+                .andExpect(jsonPath("$.rowsPerSecond").value(8));
+    }
+
+    @Test
+    public void testIngestPrices_NdjsonIsUpsertedByDefault() throws Exception {
+        when(priceIngestionService.ingest(any(), eq(PriceIngestionService.Format.NDJSON), eq(PriceIngestionService.Mode.UPSERT)))
+                .thenReturn(new PriceIngestionDTO(0, 0, 0, List.of(), Duration.ofMillis(1)));
+
+        mockMvc.perform(post("/api/prices/ingestion")
+                        .contentType("application/x-ndjson")
+                        .content(""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rows").value(0));
+    }
+
+    @Test
+    public void testIngestPrices_BadHeader() throws Exception {
+        when(priceIngestionService.ingest(any(), any(), any()))
+                .thenThrow(new IllegalArgumentException("csv header lacks the columns [curr]"));
+
+        mockMvc.perform(post("/api/prices/ingestion")
+                        .contentType("text/csv")
+                        .content("brandId,productId,startDate,endDate,priority,price\n"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("csv header lacks the columns [curr]"));
+    }
+
+    @Test
+    public void testIngestPrices_UnsupportedMediaType() throws Exception {
+        mockMvc.perform(post("/api/prices/ingestion")
+                        .contentType("application/json")
+                        .content("[]"))
+                .andExpect(status().isUnsupportedMediaType());
+    }
+}
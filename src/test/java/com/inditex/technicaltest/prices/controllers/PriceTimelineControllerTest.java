@@ -0,0 +1,110 @@
+package com.inditex.technicaltest.prices.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.inditex.technicaltest.prices.dtos.PriceRangeRequest;
+import com.inditex.technicaltest.prices.models.PriceView;
+import com.inditex.technicaltest.prices.services.PriceTimelineService;
+import com.inditex.technicaltest.prices.services.timeline.PriceSegment;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class PriceTimelineControllerTest {
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private PriceTimelineService priceTimelineService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        PriceTimelineController priceTimelineController = new PriceTimelineController(priceTimelineService,
+                new ObjectMapper().registerModule(new JavaTimeModule()));
+        mockMvc = MockMvcBuilders.standaloneSetup(priceTimelineController).build();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testGetProductTimelineOfBrandBetween_SegmentsAreStreamed() throws Exception {
+        PriceView base = new PriceView(1L, 1L, 35455L, LocalDateTime.parse("2020-06-14T00:00:00"), LocalDateTime.parse("2020-12-31T23:59:59"), 0, new BigDecimal("35.50"), "EUR");
+        PriceView promotion = new PriceView(2L, 1L, 35455L, LocalDateTime.parse("2020-06-14T15:00:00"), LocalDateTime.parse("2020-06-14T18:30:00"), 1, new BigDecimal("25.45"), "EUR");
+        when(priceTimelineService.streamProductTimelineOfBrandBetween(any(PriceRangeRequest.class), any())).thenAnswer(invocation -> {
+            Consumer<PriceSegment> consumer = invocation.getArgument(1);
+            consumer.accept(new PriceSegment(LocalDateTime.parse("2020-06-14T10:00:00"), LocalDateTime.parse("2020-06-14T14:59:59.999999999"), base));
+            consumer.accept(new PriceSegment(LocalDateTime.parse("2020-06-14T15:00:00"), LocalDateTime.parse("2020-06-14T18:30:00"), promotion));
+            return 2L;
+        });
+
+        MvcResult result = mockMvc.perform(get("/api/prices/timeline")
+                        .param("productId", "35455")
+                        .param("brandId", "1")
+                        .param("from", "2020-06-14T10:00:00")
+                        .param("to", "2020-06-14T17:00:00"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].from").value("2020-06-14T10:00:00"))
+                .andExpect(jsonPath("$[0].to").value("2020-06-14T15:00:00")) // exclusive, the from of the next one
+                .andExpect(jsonPath("$[0].priceList").value(1))
+                .andExpect(jsonPath("$[0].value").value(35.50))
+                .andExpect(jsonPath("$[0].curr").value("EUR"))
+                .andExpect(jsonPath("$[1].priceList").value(2))
+                .andExpect(jsonPath("$[1].priority").value(1))
+                .andExpect(jsonPath("$[1].from").value("2020-06-14T15:00:00"))
+                .andExpect(jsonPath("$[1].to").value("2020-06-14T18:30:01"));
+    }
+
+    @Test
+    public void testGetProductTimelineOfBrandBetween_EmptyRangeIsAnEmptyArray() throws Exception {
+        when(priceTimelineService.streamProductTimelineOfBrandBetween(any(PriceRangeRequest.class), any())).thenReturn(0L);
+
+        MvcResult result = mockMvc.perform(get("/api/prices/timeline")
+                        .param("productId", "35455")
+                        .param("brandId", "1")
+                        .param("from", "2019-01-01T00:00:00")
+                        .param("to", "2019-12-31T23:59:59"))
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[]"));
+    }
+
+    @Test
+    public void testGetProductTimelineOfBrandBetween_RangeMustBeOrdered() throws Exception {
+        mockMvc.perform(get("/api/prices/timeline")
+                        .param("productId", "35455")
+                        .param("brandId", "1")
+                        .param("from", "2020-06-15T00:00:00")
+                        .param("to", "2020-06-14T00:00:00"))
+                .andExpect(request().asyncNotStarted());
+
+        verify(priceTimelineService, never()).streamProductTimelineOfBrandBetween(any(), any());
+    }
+}
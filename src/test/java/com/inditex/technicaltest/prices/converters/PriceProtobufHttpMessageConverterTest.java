@@ -0,0 +1,129 @@
+package com.inditex.technicaltest.prices.converters;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.WireFormat;
+import com.inditex.technicaltest.prices.dtos.PriceBatchItemResponse;
+import com.inditex.technicaltest.prices.dtos.PriceBatchResponse;
+import com.inditex.technicaltest.prices.dtos.PriceResponse;
+import com.inditex.technicaltest.prices.metrics.PriceLookupMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PriceProtobufHttpMessageConverterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private PriceProtobufHttpMessageConverter converter;
+
+    private final PriceResponse price = new PriceResponse(2L, 35455L, 1L, LocalDateTime.parse("2020-06-14T15:00:00"),
+            LocalDateTime.parse("2020-06-14T18:30:00"), new BigDecimal("25.45"));
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        converter = new PriceProtobufHttpMessageConverter(new PriceLookupMetrics(meterRegistry, 100));
+    }
+
+    @Test
+    public void testPriceIsWrittenAsThePriceMessage() throws IOException {
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(price, PriceProtobufHttpMessageConverter.APPLICATION_PROTOBUF, output);
+
+        byte[] body = output.getBodyAsBytes();
+        assertEquals(PriceProtobufHttpMessageConverter.APPLICATION_PROTOBUF, output.getHeaders().getContentType());
+        assertEquals(body.length, output.getHeaders().getContentLength());
+        Map<Integer, List<Object>> fields = decode(ByteString.copyFrom(body));
+        assertEquals(List.of(2L), fields.get(1));
+        assertEquals(List.of(35455L), fields.get(2));
+        assertEquals(List.of(1L), fields.get(3));
+        assertEquals(List.of(LocalDateTime.parse("2020-06-14T15:00:00").toEpochSecond(ZoneOffset.UTC)), fields.get(4));
+        assertEquals(List.of(1592159400L), fields.get(5));
+        assertEquals(List.of(2545L), fields.get(6));
+        assertEquals(List.of(2L), fields.get(7));
+        assertEquals(1, meterRegistry.get("prices.lookup.stage").tags("stage", "serialization", "brand", "1").timer().count());
+    }
+
+    @Test
+    public void testBatchItemsKeepTheirStatusPriceAndErrors() throws IOException {
+        PriceBatchResponse batch = new PriceBatchResponse(List.of(
+                PriceBatchItemResponse.builder().index(0).status(PriceBatchItemResponse.Status.FOUND).price(price).build(),
+                PriceBatchItemResponse.builder().index(1).status(PriceBatchItemResponse.Status.NOT_FOUND).build(),
+                PriceBatchItemResponse.builder().index(2).status(PriceBatchItemResponse.Status.INVALID)
+                        .errors(List.of("brandId must be positive", "priceDate is mandatory")).build()));
+
+        List<Object> items = decode(ByteString.copyFrom(PriceProtobufHttpMessageConverter.encode(batch))).get(1);
+
+        assertEquals(3, items.size());
+        Map<Integer, List<Object>> found = decode((ByteString) items.get(0));
+        assertFalse(found.containsKey(1)); // index 0 is the default value
+        assertEquals(List.of(1L), found.get(2));
+        assertArrayEquals(PriceProtobufHttpMessageConverter.encode(price), ((ByteString) found.get(3).get(0)).toByteArray());
+        Map<Integer, List<Object>> notFound = decode((ByteString) items.get(1));
+        assertEquals(List.of(1L), notFound.get(1));
+        assertEquals(List.of(2L), notFound.get(2));
+        assertFalse(notFound.containsKey(3));
+        Map<Integer, List<Object>> invalid = decode((ByteString) items.get(2));
+        assertEquals(List.of(3L), invalid.get(2));
+        assertEquals(List.of("brandId must be positive", "priceDate is mandatory"),
+                invalid.get(4).stream().map(error -> ((ByteString) error).toStringUtf8()).toList());
+    }
+
+    @Test
+    public void testMisdirectedItemsKeepTheirOwner() throws IOException {
+        PriceBatchResponse batch = new PriceBatchResponse(List.of(
+                PriceBatchItemResponse.builder().index(0).status(PriceBatchItemResponse.Status.FOUND).price(price).build(),
+                PriceBatchItemResponse.builder().index(1).status(PriceBatchItemResponse.Status.MISDIRECTED)
+                        .owner("http://prices-b:8080").build()));
+
+        List<Object> items = decode(ByteString.copyFrom(PriceProtobufHttpMessageConverter.encode(batch))).get(1);
+
+        Map<Integer, List<Object>> found = decode((ByteString) items.get(0));
+        assertFalse(found.containsKey(5));
+        Map<Integer, List<Object>> misdirected = decode((ByteString) items.get(1));
+        assertEquals(List.of(4L), misdirected.get(2)); // MISDIRECTED in prices.proto
+        assertEquals("http://prices-b:8080", ((ByteString) misdirected.get(5).get(0)).toStringUtf8());
+        assertFalse(misdirected.containsKey(3));
+    }
+
+    @Test
+    public void testOnlyLookupAnswersAreWrittenAndNothingIsRead() {
+        assertTrue(converter.canWrite(PriceResponse.class, PriceProtobufHttpMessageConverter.APPLICATION_PROTOBUF));
+        assertTrue(converter.canWrite(PriceBatchResponse.class, PriceProtobufHttpMessageConverter.APPLICATION_PROTOBUF));
+        assertFalse(converter.canWrite(PriceResponse.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canWrite(String.class, PriceProtobufHttpMessageConverter.APPLICATION_PROTOBUF));
+        assertFalse(converter.canRead(PriceResponse.class, PriceProtobufHttpMessageConverter.APPLICATION_PROTOBUF));
+    }
+
+    // the fields of a message by number, varints as Long and length-delimited ones as ByteString
+    private static Map<Integer, List<Object>> decode(ByteString message) throws IOException {
+        CodedInputStream input = message.newCodedInput();
+        Map<Integer, List<Object>> fields = new HashMap<>();
+        for (int tag = input.readTag(); tag != 0; tag = input.readTag()) {
+            Object value = switch (WireFormat.getTagWireType(tag)) {
+                case WireFormat.WIRETYPE_VARINT -> input.readInt64();
+                case WireFormat.WIRETYPE_LENGTH_DELIMITED -> input.readBytes();
+                default -> throw new IllegalStateException("unexpected wire type in tag " + tag);
+            };
+            fields.computeIfAbsent(WireFormat.getTagFieldNumber(tag), number -> new ArrayList<>()).add(value);
+        }
+        return fields;
+    }
+}
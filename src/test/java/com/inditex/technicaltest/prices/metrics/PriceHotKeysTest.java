@@ -0,0 +1,104 @@
+package com.inditex.technicaltest.prices.metrics;
+
+import com.inditex.technicaltest.prices.models.PriceKey;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PriceHotKeysTest {
+
+    @Test
+    public void testTheMostAskedKeysComeFirst() {
+        PriceHotKeys hotKeys = new PriceHotKeys(4, 1024, 10, Duration.ofMinutes(1));
+        Random random = new Random(42);
+        // products 1 to 5 are asked 1000, 900... 600 times, among 20000 lookups of other products
+        for (int product = 1; product <= 5; product++) {
+            for (int i = 0; i < 1100 - 100 * product; i++) {
+                hotKeys.lookup(1L, (long) product);
+            }
+        }
+        for (int i = 0; i < 20_000; i++) {
+            hotKeys.lookup(1L + random.nextInt(3), 100L + random.nextInt(10_000));
+            if (i % 1000 == 0) {
+                hotKeys.trim();
+            }
+        }
+        hotKeys.trim();
+
+        List<PriceHotKeys.HotKey> top = hotKeys.top(5);
+        assertEquals(List.of(new PriceKey(1, 1), new PriceKey(1, 2), new PriceKey(1, 3), new PriceKey(1, 4), new PriceKey(1, 5)),
+                top.stream().map(PriceHotKeys.HotKey::key).toList());
+        // never below the true count, above it by a few of the other lookups at most
+        assertTrue(top.get(0).lookups() >= 1000 && top.get(0).lookups() < 1100, "estimate " + top.get(0).lookups());
+        assertEquals(24_000, hotKeys.totalLookups());
+        assertTrue(hotKeys.top(Integer.MAX_VALUE).size() <= 10);
+    }
+
+    @Test
+    public void testCountsAreHalvedEveryHalfLife() {
+        PriceHotKeys hotKeys = new PriceHotKeys(4, 1024, 10, Duration.ofSeconds(10));
+        for (int i = 0; i < 100; i++) {
+            hotKeys.lookup(1L, 35455L);
+        }
+        hotKeys.decay();
+        for (int i = 0; i < 10; i++) {
+            hotKeys.lookup(1L, 1L);
+        }
+        hotKeys.decay();
+
+        assertEquals(25, hotKeys.top(1).get(0).lookups());
+        assertEquals(30, hotKeys.totalLookups());
+        assertEquals(25 * Math.log(2) / 10, hotKeys.rate(25), 1e-9);
+    }
+
+    @Test
+    public void testMissesAreCountedPerKey() {
+        PriceHotKeys hotKeys = new PriceHotKeys(4, 1024, 10, Duration.ofMinutes(1));
+        for (int i = 0; i < 10; i++) {
+            hotKeys.lookup(1L, 35455L);
+        }
+        hotKeys.miss(1L, 35455L);
+        hotKeys.lookup(null, 35455L); // not bound, left out
+
+        PriceHotKeys.HotKey hotKey = hotKeys.top(1).get(0);
+        assertEquals(10, hotKey.lookups());
+        assertEquals(1, hotKey.misses());
+        assertEquals(10, hotKeys.totalLookups());
+        assertEquals(1, hotKeys.totalMisses());
+    }
+
+    @Test
+    public void testConcurrentLookupsOfAKeyAreAllCounted() throws Exception {
+        PriceHotKeys hotKeys = new PriceHotKeys(4, 1024, 10, Duration.ofMinutes(1));
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> threads = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                threads.add(executor.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        hotKeys.lookup(1L, 35455L);
+                    }
+                }));
+            }
+            for (Future<?> thread : threads) {
+                thread.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // counted on the stripes of the threads, estimated from all of them
+        assertEquals(80_000, hotKeys.top(1).get(0).lookups());
+        assertEquals(80_000, hotKeys.totalLookups());
+    }
+}
@@ -0,0 +1,56 @@
+package com.inditex.technicaltest.prices.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:inditexdbmetrics")
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@ActiveProfiles("test")
+class PriceLookupMetricsEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void testLookupStagesAndResultsArePublished() throws Exception {
+        mockMvc.perform(get("/api/prices")
+                        .param("productId", "35455")
+                        .param("brandId", "1")
+                        .param("priceDate", "2020-06-14T10:00:00"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/prices")
+                        .param("productId", "1")
+                        .param("brandId", "1")
+                        .param("priceDate", "2020-06-14T10:00:00"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/prices")
+                        .param("productId", "35455")
+                        .param("brandId", "1")
+                        .param("priceDate", "yesterday"))
+                .andExpect(status().is5xxServerError());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("prices_lookup_stage_seconds_bucket{brand=\"1\",stage=\"binding\"")))
+                .andExpect(content().string(containsString("prices_lookup_stage_seconds_bucket{brand=\"1\",stage=\"service\"")))
+                .andExpect(content().string(containsString("prices_lookup_stage_seconds_bucket{brand=\"1\",stage=\"repository\"")))
+                .andExpect(content().string(containsString("prices_lookup_stage_seconds_bucket{brand=\"1\",stage=\"mapping\"")))
+                .andExpect(content().string(containsString("prices_lookup_stage_seconds_count{brand=\"1\",stage=\"serialization\"} 1")))
+                .andExpect(content().string(containsString("prices_lookup_results_total{brand=\"1\",result=\"found\"} 1.0")))
+                .andExpect(content().string(containsString("prices_lookup_results_total{brand=\"1\",result=\"not_found\"} 1.0")))
+                .andExpect(content().string(containsString("prices_lookup_errors_total{exception=\"MethodArgumentNotValidException\"} 1.0")))
+                .andExpect(content().string(not(containsString("35455"))));
+    }
+}
@@ -0,0 +1,60 @@
+package com.inditex.technicaltest.prices.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PriceLookupMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private PriceLookupMetrics priceLookupMetrics;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        priceLookupMetrics = new PriceLookupMetrics(meterRegistry, 2);
+    }
+
+    @Test
+    public void testStagesAreTimedByBrand() {
+        long start = System.nanoTime() - 1_000_000;
+        priceLookupMetrics.record(PriceLookupMetrics.Stage.SERVICE, 1L, start);
+        priceLookupMetrics.record(PriceLookupMetrics.Stage.SERVICE, 1L, start);
+        priceLookupMetrics.record(PriceLookupMetrics.Stage.SERIALIZATION, 1L, start);
+
+        assertEquals(2, meterRegistry.get("prices.lookup.stage").tags("stage", "service", "brand", "1").timer().count());
+        assertEquals(1, meterRegistry.get("prices.lookup.stage").tags("stage", "serialization", "brand", "1").timer().count());
+        assertTrue(meterRegistry.get("prices.lookup.stage").tags("stage", "service", "brand", "1").timer()
+                .totalTime(TimeUnit.NANOSECONDS) >= 2_000_000);
+    }
+
+    @Test
+    public void testBrandsBeyondTheLimitShareTheOtherTag() {
+        priceLookupMetrics.result(1L, true);
+        priceLookupMetrics.result(2L, false);
+        priceLookupMetrics.result(3L, true);
+        priceLookupMetrics.result(4L, true);
+        priceLookupMetrics.result(null, false);
+
+        assertEquals(1, meterRegistry.get("prices.lookup.results").tags("result", "found", "brand", "1").counter().count());
+        assertEquals(1, meterRegistry.get("prices.lookup.results").tags("result", "not_found", "brand", "2").counter().count());
+        assertEquals(2, meterRegistry.get("prices.lookup.results").tags("result", "found", "brand", PriceLookupMetrics.OTHER_BRAND).counter().count());
+        assertEquals(1, meterRegistry.get("prices.lookup.results").tags("result", "not_found", "brand", PriceLookupMetrics.OTHER_BRAND).counter().count());
+        assertNull(meterRegistry.find("prices.lookup.results").tags("brand", "3").counter());
+    }
+
+    @Test
+    public void testErrorsAreCountedByExceptionType() {
+        priceLookupMetrics.error(new IllegalStateException("boom 1"));
+        priceLookupMetrics.error(new IllegalStateException("boom 2"));
+
+        assertEquals(2, meterRegistry.get("prices.lookup.errors").tags("exception", "IllegalStateException").counter().count());
+    }
+}
@@ -0,0 +1,53 @@
+package com.inditex.technicaltest.prices.metrics;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class VirtualThreadPinningMonitorTest {
+
+    private static final List<String> H2_SESSION = List.of("org.h2.engine.SessionLocal.lock:100", "org.h2.jdbc.JdbcPreparedStatement.executeQuery:120");
+    private static final List<String> HIKARI = List.of("com.zaxxer.hikari.pool.HikariPool.getConnection:200");
+    private static final List<String> CAFFEINE = List.of("com.github.benmanes.caffeine.cache.BoundedLocalCache.compute:300");
+
+    private VirtualThreadPinningMonitor monitor;
+
+    @BeforeEach
+    public void setUp() {
+        monitor = new VirtualThreadPinningMonitor(Duration.ofMillis(20), 2, 8);
+    }
+
+    @Test
+    public void testPinningsAreAddedUpByStack() {
+        monitor.record(Duration.ofMillis(30), H2_SESSION);
+        monitor.record(Duration.ofMillis(50), H2_SESSION);
+        monitor.record(Duration.ofMillis(25), HIKARI);
+
+        assertEquals(3, monitor.events());
+        assertEquals(Duration.ofMillis(105), monitor.pinnedTime());
+        assertEquals(Duration.ofMillis(50), monitor.maxPinnedTime());
+        assertEquals(List.of(
+                new VirtualThreadPinningMonitor.PinnedStack(H2_SESSION, 2, Duration.ofMillis(80)),
+                new VirtualThreadPinningMonitor.PinnedStack(HIKARI, 1, Duration.ofMillis(25))), monitor.stacks());
+    }
+
+    @Test
+    public void testStacksBeyondTheLimitAreAddedUpAsOther() {
+        monitor.record(Duration.ofMillis(30), H2_SESSION);
+        monitor.record(Duration.ofMillis(30), HIKARI);
+        monitor.record(Duration.ofMillis(30), CAFFEINE);
+        monitor.record(Duration.ofMillis(30), List.of("org.example.Other.run:1"));
+        monitor.record(Duration.ofMillis(30), HIKARI);
+        monitor.record(Duration.ofMillis(30), HIKARI);
+
+        assertEquals(6, monitor.events());
+        assertEquals(List.of(
+                new VirtualThreadPinningMonitor.PinnedStack(HIKARI, 3, Duration.ofMillis(90)),
+                new VirtualThreadPinningMonitor.PinnedStack(List.of(VirtualThreadPinningMonitor.OTHER_STACKS), 2, Duration.ofMillis(60)),
+                new VirtualThreadPinningMonitor.PinnedStack(H2_SESSION, 1, Duration.ofMillis(30))), monitor.stacks());
+    }
+}
@@ -0,0 +1,62 @@
+package com.inditex.technicaltest.prices.partition;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConsistentHashRingTest {
+    private static final List<String> NODES = List.of("http://localhost:8081", "http://localhost:8082", "http://localhost:8083");
+    private static final int BRANDS = 100_000;
+
+    @Test
+    public void testSharesAreEven() {
+        ConsistentHashRing ring = ConsistentHashRing.of(NODES, 128);
+        Map<String, Integer> shares = new HashMap<>();
+        for (long brandId = 1; brandId <= BRANDS; brandId++) {
+            shares.merge(ring.owner(brandId), 1, Integer::sum);
+        }
+        assertEquals(NODES.size(), shares.size());
+        shares.forEach((node, brands) -> assertTrue(Math.abs(brands - BRANDS / 3) < BRANDS / 3 / 5, node + " owns " + brands));
+    }
+
+    @Test
+    public void testAddingANodeOnlyMovesBrandsToIt() {
+        ConsistentHashRing before = ConsistentHashRing.of(NODES, 128);
+        ConsistentHashRing after = ConsistentHashRing.of(List.of(NODES.get(0), NODES.get(1), NODES.get(2), "http://localhost:8084"), 128);
+        int moved = 0;
+        for (long brandId = 1; brandId <= BRANDS; brandId++) {
+            String owner = after.owner(brandId);
+            if (!owner.equals(before.owner(brandId))) {
+                assertEquals("http://localhost:8084", owner);
+                moved++;
+            }
+        }
+        assertTrue(Math.abs(moved - BRANDS / 4) < BRANDS / 4 / 5, moved + " brands moved");
+    }
+
+    @Test
+    public void testOwnersDoNotDependOnTheOrderOfTheNodes() {
+        ConsistentHashRing ring = ConsistentHashRing.of(NODES, 16);
+        ConsistentHashRing reversed = ConsistentHashRing.of(List.of(NODES.get(2), NODES.get(1), NODES.get(0)), 16);
+        for (long brandId = 1; brandId <= 1000; brandId++) {
+            assertEquals(ring.owner(brandId), reversed.owner(brandId));
+        }
+    }
+
+    @Test
+    public void testSuccessorsGoToTheOwnerOnceItLeaves() {
+        ConsistentHashRing ring = ConsistentHashRing.of(NODES, 128);
+        for (long brandId = 1; brandId <= 1000; brandId++) {
+            List<String> successors = ring.successors(brandId);
+            assertEquals(NODES.size(), successors.size());
+            assertEquals(ring.owner(brandId), successors.get(0));
+            List<String> remaining = NODES.stream().filter(node -> !node.equals(successors.get(0))).toList();
+            assertEquals(successors.get(1), ConsistentHashRing.of(remaining, 128).owner(brandId));
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.inditex.technicaltest.prices.partition;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// brand 1 is owned by http://localhost:8082 on this ring
+@SpringBootTest(properties = {
+        "prices.engine=memory",
+        "management.endpoints.web.exposure.include=pricesnapshot,pricepartition",
+        "prices.partition.nodes=http://localhost:8081,http://localhost:8082",
+        "prices.partition.self=http://localhost:8081",
+        "prices.partition.virtual-nodes=128",
+        "spring.datasource.url=jdbc:h2:mem:inditexdbpartition"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class PricePartitionFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void testBrandsOfOtherNodesAreMisdirectedUntilRebalanced() throws Exception {
+        mockMvc.perform(get("/actuator/pricesnapshot"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rows").value(0));
+        lookup().andExpect(status().is(PricePartitionFilter.MISDIRECTED_REQUEST))
+                .andExpect(header().string(PricePartitionFilter.OWNER_HEADER, "http://localhost:8082"));
+        mockMvc.perform(get("/api/prices/timeline")
+                        .param("productId", "35455")
+                        .param("brandId", "1")
+                        .param("from", "2020-06-14T00:00:00")
+                        .param("to", "2020-06-15T00:00:00"))
+                .andExpect(status().is(PricePartitionFilter.MISDIRECTED_REQUEST));
+        mockMvc.perform(post("/api/prices/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"items\": [{\"productId\": 35455, \"brandId\": 1, \"priceDate\": \"2020-06-14T10:00:00\"}]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].status").value("MISDIRECTED"))
+                .andExpect(jsonPath("$.items[0].owner").value("http://localhost:8082"));
+
+        mockMvc.perform(post("/actuator/pricepartition")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"action\": \"prepare\", \"nodes\": \"http://localhost:8081\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.preparedNodes[0]").value("http://localhost:8081"));
+        lookup().andExpect(status().is(PricePartitionFilter.MISDIRECTED_REQUEST)); // loaded, answered once committed
+
+        mockMvc.perform(post("/actuator/pricepartition")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"action\": \"commit\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nodes.length()").value(1))
+                .andExpect(jsonPath("$.releasing").value(true));
+        lookup().andExpect(status().isOk())
+                .andExpect(jsonPath("$.priceList").value(1));
+    }
+
+    private ResultActions lookup() throws Exception {
+        return mockMvc.perform(get("/api/prices")
+                .param("productId", "35455")
+                .param("brandId", "1")
+                .param("priceDate", "2020-06-14T10:00:00"));
+    }
+}
@@ -0,0 +1,72 @@
+package com.inditex.technicaltest.prices.partition;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PricePartitionTest {
+    private static final String NODE_1 = "http://localhost:8081";
+    private static final String NODE_2 = "http://localhost:8082";
+    private static final String NODE_3 = "http://localhost:8083";
+
+    @Test
+    public void testEveryBrandIsOwnedWhenNotPartitioned() {
+        PricePartition partition = PricePartition.unpartitioned();
+        assertTrue(LongStream.rangeClosed(1, 100).allMatch(partition::answers));
+        assertTrue(partition.owner(1).isEmpty());
+    }
+
+    @Test
+    public void testEachBrandIsAnsweredByOneNode() {
+        PricePartition node1 = new PricePartition(List.of(NODE_1, NODE_2 + "/"), NODE_1, 64);
+        PricePartition node2 = new PricePartition(List.of(NODE_1, NODE_2), NODE_2 + "/", 64);
+        for (long brandId = 1; brandId <= 1000; brandId++) {
+            assertTrue(node1.answers(brandId) != node2.answers(brandId), "brand " + brandId);
+            assertEquals(node1.owner(brandId), node2.owner(brandId));
+        }
+        assertThrows(IllegalArgumentException.class, () -> new PricePartition(List.of(NODE_1, NODE_2), NODE_3, 64));
+    }
+
+    @Test
+    public void testBrandsMovedToANewNodeAreHeldAtEveryStep() {
+        PricePartition node1 = new PricePartition(List.of(NODE_1, NODE_2), NODE_1, 64);
+        List<Long> given = LongStream.rangeClosed(1, 1000).filter(node1::answers).boxed().toList();
+        AtomicInteger reloads = new AtomicInteger();
+
+        node1.prepare(List.of(NODE_1, NODE_2, NODE_3), reloads::incrementAndGet);
+        assertEquals(1, reloads.get());
+        assertTrue(given.stream().allMatch(node1::answers)); // still answered by the old ring
+        assertEquals(List.of(NODE_1, NODE_2), node1.nodes());
+
+        node1.commit();
+        assertEquals(List.of(NODE_1, NODE_2, NODE_3), node1.nodes());
+        assertTrue(node1.isReleasing());
+        assertTrue(given.stream().allMatch(node1::answers)); // until released
+        List<Long> moved = given.stream().filter(brandId -> node1.owner(brandId).orElseThrow().equals(NODE_3)).toList();
+        assertFalse(moved.isEmpty());
+
+        node1.release(reloads::incrementAndGet);
+        assertEquals(2, reloads.get());
+        assertFalse(node1.isReleasing());
+        assertTrue(moved.stream().noneMatch(node1::loads));
+        assertTrue(given.stream().filter(brandId -> !moved.contains(brandId)).allMatch(node1::answers));
+    }
+
+    @Test
+    public void testAFailedPrepareLeavesThePartitionAsItWas() {
+        PricePartition node1 = new PricePartition(List.of(NODE_1, NODE_2), NODE_1, 64);
+        assertThrows(IllegalStateException.class, () -> node1.prepare(List.of(NODE_1), () -> {
+            throw new IllegalStateException("reload failed");
+        }));
+        assertTrue(node1.preparedNodes().isEmpty());
+        assertThrows(IllegalStateException.class, node1::commit);
+        assertEquals(List.of(NODE_1, NODE_2), node1.nodes());
+    }
+}
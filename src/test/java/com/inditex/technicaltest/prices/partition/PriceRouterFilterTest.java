@@ -0,0 +1,191 @@
+package com.inditex.technicaltest.prices.partition;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inditex.technicaltest.prices.converters.PriceProtobufHttpMessageConverter;
+import com.inditex.technicaltest.prices.dtos.PriceBatchItemResponse;
+import com.inditex.technicaltest.prices.dtos.PriceBatchRequest;
+import com.inditex.technicaltest.prices.dtos.PriceBatchResponse;
+import com.inditex.technicaltest.prices.dtos.PriceRequest;
+import com.inditex.technicaltest.prices.metrics.PriceLookupMetrics;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// the router only knows node a, which already shares the brands with node b and sends it those of b
+public class PriceRouterFilterTest {
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final List<HttpServer> servers = new ArrayList<>();
+    private PricePartition nodesPartition;
+    private PriceRouterFilter router;
+    private String a;
+    private String b;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        HttpServer serverA = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        HttpServer serverB = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        a = "http://localhost:" + serverA.getAddress().getPort();
+        b = "http://localhost:" + serverB.getAddress().getPort();
+        nodesPartition = new PricePartition(List.of(a, b), "", 128);
+        node(serverA, a);
+        node(serverB, b);
+        PricePartition routerPartition = new PricePartition(List.of(a), "", 128);
+        router = router(routerPartition);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        servers.forEach(server -> server.stop(0));
+    }
+
+    @Test
+    public void testLookupsFollowTheOwnerNamedByTheNode() throws Exception {
+        long brandOfB = LongStream.rangeClosed(1, 100).filter(brand -> nodesPartition.owner(brand).orElseThrow().equals(b)).findFirst().orElseThrow();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/prices/export");
+        request.setQueryString("brandId=" + brandOfB + "&priceDate=2020-06-14T10:00:00");
+        request.setParameter("brandId", String.valueOf(brandOfB));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        router.doFilter(request, response, new MockFilterChain());
+
+        assertEquals(200, response.getStatus());
+        assertEquals(b + " /api/prices/export?brandId=" + brandOfB + "&priceDate=2020-06-14T10:00:00", response.getContentAsString());
+    }
+
+    @Test
+    public void testBatchItemsAreAnsweredByTheOwnersOfTheirBrandsInOrder() throws Exception {
+        List<PriceRequest> items = LongStream.rangeClosed(1, 20)
+                .mapToObj(brand -> new PriceRequest(35455L, brand, LocalDateTime.of(2020, 6, 14, 10, 0)))
+                .toList();
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", PricePartitionFilter.BATCH_PATH);
+        request.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        request.setContent(objectMapper.writeValueAsBytes(new PriceBatchRequest(items)));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        router.doFilter(request, response, new MockFilterChain());
+
+        assertEquals(200, response.getStatus());
+        List<PriceBatchItemResponse> answered = objectMapper.readValue(response.getContentAsByteArray(), PriceBatchResponse.class).getItems();
+        assertEquals(items.size(), answered.size());
+        for (int i = 0; i < items.size(); i++) {
+            assertEquals(i, answered.get(i).getIndex());
+            assertEquals(PriceBatchItemResponse.Status.NOT_FOUND, answered.get(i).getStatus());
+            // the answering node is written in the errors of the fake nodes
+            assertEquals(List.of(nodesPartition.owner(items.get(i).getBrandId()).orElseThrow()), answered.get(i).getErrors());
+        }
+        assertTrue(answered.stream().anyMatch(item -> item.getErrors().equals(List.of(b))));
+    }
+
+    @Test
+    public void testBatchItemsOfANodeAnsweringAnErrorGoToTheNextNode() throws Exception {
+        HttpServer down = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        String downUrl = "http://localhost:" + down.getAddress().getPort();
+        down.createContext("/api/prices", exchange -> respond(exchange, 503, new byte[0])); // warming up
+        down.start();
+        servers.add(down);
+        PricePartition partition = new PricePartition(List.of(a, downUrl), "", 128);
+        List<PriceRequest> items = LongStream.rangeClosed(1, 20)
+                .mapToObj(brand -> new PriceRequest(35455L, brand, LocalDateTime.of(2020, 6, 14, 10, 0)))
+                .toList();
+        assertTrue(items.stream().anyMatch(item -> partition.owner(item.getBrandId()).orElseThrow().equals(downUrl)));
+        // the items of down go on to a, which answers them or names b as their owner
+        MockHttpServletResponse response = batch(router(partition), items, null);
+
+        assertEquals(200, response.getStatus());
+        List<PriceBatchItemResponse> answered = objectMapper.readValue(response.getContentAsByteArray(), PriceBatchResponse.class).getItems();
+        assertEquals(items.size(), answered.size());
+        assertTrue(answered.stream().noneMatch(item -> item.getErrors().contains(downUrl)));
+    }
+
+    @Test
+    public void testBatchIsAnsweredInTheRepresentationTheClientAccepts() throws Exception {
+        List<PriceRequest> items = LongStream.rangeClosed(1, 20)
+                .mapToObj(brand -> new PriceRequest(35455L, brand, LocalDateTime.of(2020, 6, 14, 10, 0)))
+                .toList();
+
+        MockHttpServletResponse json = batch(router, items, null);
+        MockHttpServletResponse protobuf = batch(router, items, "application/x-protobuf");
+
+        assertEquals(MediaType.APPLICATION_JSON_VALUE, json.getContentType());
+        assertEquals("application/x-protobuf", protobuf.getContentType());
+        assertArrayEquals(PriceProtobufHttpMessageConverter.encode(objectMapper.readValue(json.getContentAsByteArray(), PriceBatchResponse.class)),
+                protobuf.getContentAsByteArray());
+        assertEquals(406, batch(router, items, "text/csv").getStatus());
+    }
+
+    private PriceRouterFilter router(PricePartition partition) {
+        return new PriceRouterFilter(partition, new PricePartitionFilter(partition, objectMapper), objectMapper,
+                Duration.ofSeconds(1), Duration.ofSeconds(5), 100,
+                List.of(new MappingJackson2HttpMessageConverter(objectMapper),
+                        new PriceProtobufHttpMessageConverter(new PriceLookupMetrics(new SimpleMeterRegistry(), 100))));
+    }
+
+    private MockHttpServletResponse batch(PriceRouterFilter router, List<PriceRequest> items, String accept) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", PricePartitionFilter.BATCH_PATH);
+        request.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        request.setContent(objectMapper.writeValueAsBytes(new PriceBatchRequest(items)));
+        if (accept != null) {
+            request.addHeader(HttpHeaders.ACCEPT, accept);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        router.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    // answers the brands it owns on the ring of both nodes, and names the owner of the rest
+    private void node(HttpServer server, String self) {
+        PricePartition partition = new PricePartition(List.of(a, b), self, 128);
+        server.createContext("/api/prices", exchange -> {
+            if ("POST".equals(exchange.getRequestMethod())) {
+                PriceBatchRequest batch = objectMapper.readValue(exchange.getRequestBody(), PriceBatchRequest.class);
+                List<PriceBatchItemResponse> answered = new ArrayList<>();
+                for (int i = 0; i < batch.getItems().size(); i++) {
+                    long brandId = batch.getItems().get(i).getBrandId();
+                    answered.add(partition.answers(brandId)
+                            ? PriceBatchItemResponse.builder().index(i).status(PriceBatchItemResponse.Status.NOT_FOUND).errors(List.of(self)).build()
+                            : PriceBatchItemResponse.builder().index(i).status(PriceBatchItemResponse.Status.MISDIRECTED).owner(partition.owner(brandId).orElseThrow()).build());
+                }
+                respond(exchange, 200, objectMapper.writeValueAsBytes(PriceBatchResponse.builder().items(answered).build()));
+                return;
+            }
+            String query = exchange.getRequestURI().getQuery();
+            long brandId = Long.parseLong(query.replaceAll(".*brandId=(\\d+).*", "$1"));
+            if (!partition.answers(brandId)) {
+                exchange.getResponseHeaders().add(PricePartitionFilter.OWNER_HEADER, partition.owner(brandId).orElseThrow());
+                respond(exchange, PricePartitionFilter.MISDIRECTED_REQUEST, new byte[0]);
+                return;
+            }
+            respond(exchange, 200, (self + " " + exchange.getRequestURI()).getBytes(StandardCharsets.UTF_8));
+        });
+        server.start();
+        servers.add(server);
+    }
+
+    private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        exchange.getResponseBody().write(body);
+        exchange.close();
+    }
+}
@@ -0,0 +1,94 @@
+package com.inditex.technicaltest.prices.repositories;
+
+import com.inditex.technicaltest.prices.support.SyntheticCatalogue;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Migrates an H2 database without the seed data, loads a synthetic catalogue and checks that the statement Hibernate
+ * issues for PriceRepository.findEffectivePrices is planned on the composite index. The catalogue is small by default,
+ * -Dprices.lookup-index-test.rows=200000 checks the plan on a larger one.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:inditexdbindex",
+        "spring.flyway.locations=classpath:db/migration,classpath:db/vendor/{vendor}"})
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class PriceLookupIndexTest {
+    private static final int PRICES = Integer.getInteger("prices.lookup-index-test.rows", 10_000);
+    private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+    @Autowired
+    private PriceRepository priceRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @BeforeAll
+    public void setUp() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            SyntheticCatalogue.ofRows(PRICES).load(connection); // 10 brands, 20 rows per product
+        }
+    }
+
+    @Test
+    public void testLookupUsesCompositeIndex() throws SQLException {
+        LocalDateTime date = LocalDateTime.parse("2020-06-14T10:00:00");
+        STATEMENTS.clear();
+        priceRepository.findEffectivePrices(3L, 42L, date, Limit.of(1));
+        String lookup = STATEMENTS.stream()
+                .filter(sql -> sql.contains("order by"))
+                .reduce((first, last) -> last)
+                .orElseThrow();
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement explain = connection.prepareStatement("EXPLAIN " + lookup)) {
+            explain.setLong(1, 3);
+            explain.setLong(2, 42);
+            explain.setObject(3, date);
+            // the limit, when the dialect binds it rather than writing it in the statement
+            for (int parameter = 4; parameter <= explain.getParameterMetaData().getParameterCount(); parameter++) {
+                explain.setInt(parameter, 1);
+            }
+            try (ResultSet plan = explain.executeQuery()) {
+                assertTrue(plan.next());
+                String text = plan.getString(1);
+                assertTrue(text.toUpperCase().contains("IDX_PRICES_LOOKUP"), "lookup is not using the index: " + text);
+            }
+        }
+    }
+
+    @TestConfiguration
+    static class StatementRecorder {
+
+        // the statements as Hibernate sends them to the driver
+        @Bean
+        public HibernatePropertiesCustomizer statementRecorder() {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, (StatementInspector) sql -> {
+                STATEMENTS.add(sql);
+                return sql;
+            });
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.inditex.technicaltest.prices.repositories;
+
+import com.inditex.technicaltest.prices.models.PriceView;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.datasource.url=jdbc:h2:mem:inditexdbrepository"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class PriceRepositoryTest {
+
+    @Autowired
+    private PriceRepository priceRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    public void testFindEffectivePrices_ReturnsFlatProjectionOfHighestPriority() {
+        List<PriceView> prices = priceRepository.findEffectivePrices(1L, 35455L, LocalDateTime.parse("2020-06-14T16:00:00"), Limit.of(1));
+
+        assertEquals(List.of(new PriceView(2L, 1L, 35455L, LocalDateTime.parse("2020-06-14T15:00:00"),
+                LocalDateTime.parse("2020-06-14T18:30:00"), 1, new BigDecimal("25.45"), "EUR")), prices);
+        assertEquals(0, statistics.getEntityLoadCount()); // nor Price nor Brand nor Product are hydrated
+    }
+
+    @Test
+    public void testGetRequestRunsExactlyOneStatement() throws Exception {
+        mockMvc.perform(get("/api/prices")
+                        .param("productId", "35455")
+                        .param("brandId", "1")
+                        .param("priceDate", "2020-06-14T16:00:00"))
+                .andExpect(status().isOk());
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+}
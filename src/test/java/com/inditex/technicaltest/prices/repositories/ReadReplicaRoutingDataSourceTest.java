@@ -0,0 +1,191 @@
+package com.inditex.technicaltest.prices.repositories;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ReadReplicaRoutingDataSourceTest {
+    private static final LocalDateTime LAST_CHANGE = LocalDateTime.of(2024, 10, 1, 12, 0);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private HikariDataSource primary;
+    private HikariDataSource replica1;
+    private HikariDataSource replica2;
+    private ReadReplicaRoutingDataSource routing;
+
+    @BeforeEach
+    public void setUp() {
+        primary = pool("primary", "jdbc:h2:mem:routing-primary");
+        replica1 = pool("replica-1", "jdbc:h2:mem:routing-replica1");
+        replica2 = pool("replica-2", "jdbc:h2:mem:routing-replica2");
+        List.of(primary, replica1, replica2).forEach(pool -> {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(pool);
+            jdbcTemplate.execute("CREATE TABLE PRICES (price_list BIGINT PRIMARY KEY, created_at TIMESTAMP NOT NULL, updated_at TIMESTAMP)");
+            jdbcTemplate.update("INSERT INTO PRICES VALUES (1, ?, NULL)", LAST_CHANGE);
+        });
+        routing = new ReadReplicaRoutingDataSource(primary, List.of(replica1, replica2), Duration.ofSeconds(30),
+                Duration.ofMinutes(1), meterRegistry);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        routing.close();
+        List.of(primary, replica1, replica2).forEach(HikariDataSource::close);
+    }
+
+    @Test
+    public void testReadsAreServedByTheReplicasInTurn() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertEquals(List.of("ROUTING-REPLICA1", "ROUTING-REPLICA2", "ROUTING-REPLICA1", "ROUTING-REPLICA2"),
+                List.of(database(), database(), database(), database()));
+        assertEquals(2, connections("read", "replica-1"));
+        assertEquals(0, connections("read", "primary"));
+    }
+
+    @Test
+    public void testWritesAreServedByThePrimary() throws SQLException {
+        assertEquals("ROUTING-PRIMARY", database());
+        assertEquals(1, connections("write", "primary"));
+    }
+
+    @Test
+    public void testLaggingReplicasAreLeftOutUntilTheyCatchUp() throws SQLException {
+        new JdbcTemplate(primary).update("UPDATE PRICES SET updated_at = ?", LAST_CHANGE.plusMinutes(1));
+        new JdbcTemplate(replica2).update("UPDATE PRICES SET updated_at = ?", LAST_CHANGE.plusMinutes(1));
+        routing.checkReplicas();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertFalse(routing.replicas().get(0).isServing());
+        assertEquals(Duration.ofMinutes(1), routing.replicas().get(0).lag());
+        assertEquals(List.of("ROUTING-REPLICA2", "ROUTING-REPLICA2"), List.of(database(), database()));
+        assertEquals(1.0, meterRegistry.get("prices.datasource.replica.serving").tag("pool", "replica-2").gauge().value());
+
+        new JdbcTemplate(primary).update("UPDATE PRICES SET updated_at = ?", LAST_CHANGE.plusMinutes(3));
+        routing.checkReplicas();
+
+        assertEquals("ROUTING-PRIMARY", database());
+        assertEquals(120.0, meterRegistry.get("prices.datasource.replica.lag").tag("pool", "replica-2").gauge().value());
+
+        new JdbcTemplate(replica1).update("UPDATE PRICES SET updated_at = ?", LAST_CHANGE.plusMinutes(3));
+        routing.checkReplicas();
+
+        assertTrue(routing.replicas().get(0).isServing());
+        assertEquals(List.of("ROUTING-REPLICA1", "ROUTING-REPLICA1"), List.of(database(), database()));
+    }
+
+    @Test
+    public void testAReplicaFailingToGiveAConnectionIsEjected() throws SQLException {
+        replica1.close();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertEquals(List.of("ROUTING-REPLICA2", "ROUTING-REPLICA2"), List.of(database(), database()));
+        assertFalse(routing.replicas().get(0).isServing());
+
+        replica2.close();
+
+        assertEquals("ROUTING-PRIMARY", database());
+        assertEquals(1, connections("read", "primary"));
+    }
+
+    @Test
+    public void testAnEjectedReplicaAnsweringAHealthCheckStaysOutUntilTheEjectionEnds() throws SQLException {
+        HikariDataSource single = pool("replica-single", "jdbc:h2:mem:routing-replica1");
+        single.setMaximumPoolSize(1);
+        single.setConnectionTimeout(250);
+        routing = new ReadReplicaRoutingDataSource(primary, List.of(single, replica2), Duration.ofSeconds(30),
+                Duration.ofMinutes(1), meterRegistry);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        try (Connection busy = single.getConnection()) {
+            assertEquals("ROUTING-REPLICA2", database()); // replica-1 has no connection left to give
+        }
+        assertFalse(routing.replicas().get(0).isServing());
+
+        routing.checkReplicas();
+
+        assertFalse(routing.replicas().get(0).isServing());
+        assertEquals(List.of("ROUTING-REPLICA2", "ROUTING-REPLICA2"), List.of(database(), database()));
+    }
+
+    @Test
+    public void testConnectionsWithOtherCredentialsAreRoutedToo() throws SQLException {
+        JdbcDataSource unpooled = new JdbcDataSource();
+        unpooled.setURL("jdbc:h2:mem:routing-primary");
+        routing = new ReadReplicaRoutingDataSource(unpooled, List.of(replica1, replica2), Duration.ofSeconds(30),
+                Duration.ofMinutes(1), meterRegistry);
+
+        assertEquals("ROUTING-PRIMARY", database("sa", ""));
+
+        // the Hikari pools of the replicas only give connections with their own credentials
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertEquals("ROUTING-PRIMARY", database("sa", ""));
+        assertTrue(routing.replicas().get(0).isServing());
+        assertTrue(routing.replicas().get(1).isServing());
+    }
+
+    @Test
+    public void testReplicaPoolsTakeTheSizesOfThePrimaryOrHikariDefaults() throws SQLException {
+        DataSourceProperties properties = new DataSourceProperties();
+        properties.setUrl("jdbc:h2:mem:routing-primary");
+        properties.setUsername("sa");
+        primary.setMinimumIdle(2);
+        routing.close();
+        routing = new ReadReplicaDataSourceConfiguration().readReplicaRoutingDataSource(primary, properties, meterRegistry,
+                List.of("jdbc:h2:mem:routing-replica1"), Duration.ofSeconds(30), Duration.ofMinutes(1));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertEquals("ROUTING-REPLICA1", database());
+        assertEquals(10, routing.replicaPools().get(0).getMaximumPoolSize()); // left unset on the primary
+        assertEquals(2, routing.replicaPools().get(0).getMinimumIdle());
+    }
+
+    private String database() throws SQLException {
+        return database(routing.getConnection());
+    }
+
+    private String database(String username, String password) throws SQLException {
+        return database(routing.getConnection(username, password));
+    }
+
+    private static String database(Connection opened) throws SQLException {
+        try (Connection connection = opened;
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT DATABASE()")) {
+            resultSet.next();
+            return resultSet.getString(1).toUpperCase(Locale.ROOT);
+        }
+    }
+
+    private double connections(String access, String pool) {
+        return meterRegistry.get("prices.datasource.connections").tags("access", access, "pool", pool).counter().count();
+    }
+
+    private static HikariDataSource pool(String name, String url) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName(name);
+        pool.setJdbcUrl(url);
+        pool.setUsername("sa");
+        pool.setPassword("");
+        return pool;
+    }
+}
@@ -0,0 +1,180 @@
+package com.inditex.technicaltest.prices.services;
+
+import com.inditex.technicaltest.prices.dtos.PriceDTO;
+import com.inditex.technicaltest.prices.events.PriceChangedEvent;
+import com.inditex.technicaltest.prices.metrics.PriceHotKeys;
+import com.inditex.technicaltest.prices.models.PriceView;
+import com.inditex.technicaltest.prices.services.timeline.PriceResolution;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CachingPriceServiceTest {
+
+    @Mock
+    private PriceService engine;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private CachingPriceService priceService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        priceService = cachingPriceService(Duration.ZERO);
+        // price 2 from 15:00 to 18:30, price 1 before and after it
+        when(engine.resolve(any())).thenAnswer(invocation -> {
+            LocalDateTime date = invocation.<PriceDTO>getArgument(0).getPriceDate();
+            if (date.isBefore(LocalDateTime.parse("2020-06-14T15:00:00"))) {
+                return new PriceResolution(LocalDateTime.parse("2020-06-14T00:00:00"), LocalDateTime.parse("2020-06-14T14:59:59.999999999"), price(1L));
+            }
+            return new PriceResolution(LocalDateTime.parse("2020-06-14T15:00:00"), LocalDateTime.parse("2020-06-14T18:30:00"), price(2L));
+        });
+    }
+
+    @Test
+    public void testGetProductPriceOfBrandOnDate_LookupsOfTheSameBucketShareAnEntry() {
+        assertEquals(2L, priceListOn(35455L, "2020-06-14T16:00:00"));
+        assertEquals(2L, priceListOn(35455L, "2020-06-14T16:00:01"));
+        assertEquals(2L, priceListOn(35455L, "2020-06-14T16:00:59"));
+
+        verify(engine, times(1)).resolve(any());
+        assertEquals(2.0, meterRegistry.get("cache.gets").tag("cache", "prices").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "prices").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    public void testGetProductPriceOfBrandOnDate_EntryIsNotUsedOutsideItsPeriod() {
+        assertEquals(1L, priceListOn(35455L, "2020-06-14T14:59:30"));
+        assertEquals(2L, priceListOn(35455L, "2020-06-14T15:00:00")); // same bucket, next period
+
+        verify(engine, times(2)).resolve(any());
+    }
+
+    @Test
+    public void testGetProductPriceOfBrandOnDate_BothSidesOfAChangeInsideABucketAreCached() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(1L, priceListOn(35455L, "2020-06-14T14:59:30"));
+            assertEquals(2L, priceListOn(35455L, "2020-06-14T15:00:00"));
+        }
+
+        verify(engine, times(2)).resolve(any());
+    }
+
+    @Test
+    public void testGetProductPriceOfBrandOnDate_NotFoundIsCached() {
+        doReturn(new PriceResolution(LocalDateTime.MIN, LocalDateTime.MAX, null)).when(engine).resolve(any());
+
+        assertEquals(null, priceListOn(1L, "2020-06-14T16:00:00"));
+        assertEquals(null, priceListOn(1L, "2020-06-14T16:00:30"));
+
+        verify(engine, times(1)).resolve(any());
+    }
+
+    @Test
+    public void testOnPriceChanged_InvalidatesTheChangedBrandProductOnly() {
+        priceListOn(35455L, "2020-06-14T16:00:00");
+        priceListOn(1L, "2020-06-14T16:00:00");
+
+        priceService.onPriceChanged(PriceChangedEvent.of(1L, 35455L));
+        priceListOn(35455L, "2020-06-14T16:00:00");
+        priceListOn(1L, "2020-06-14T16:00:00");
+
+        verify(engine, times(3)).resolve(any());
+    }
+
+    @Test
+    public void testOnPriceChanged_EntriesLoadedWhileReplicasMayLagExpireWithTheLag() throws InterruptedException {
+        priceService = cachingPriceService(Duration.ofMillis(300));
+        priceListOn(35455L, "2020-06-14T16:00:00");
+        priceListOn(35455L, "2020-06-14T16:00:00");
+        verify(engine, times(1)).resolve(any());
+
+        priceService.onPriceChanged(PriceChangedEvent.of(1L, 35455L));
+        priceListOn(35455L, "2020-06-14T16:00:00"); // maybe read from a replica without the write
+        priceListOn(35455L, "2020-06-14T16:00:00");
+        verify(engine, times(2)).resolve(any());
+
+        Thread.sleep(400);
+        priceListOn(35455L, "2020-06-14T16:00:00"); // every replica serving has the write by now
+        priceListOn(35455L, "2020-06-14T16:00:00");
+        verify(engine, times(3)).resolve(any());
+    }
+
+    @Test
+    public void testOnPriceChanged_GenerationsBeyondTheCacheSizeInvalidateEverything() {
+        priceService = cachingPriceService(2, Duration.ZERO);
+        priceListOn(35455L, "2020-06-14T16:00:00");
+
+        priceService.onPriceChanged(PriceChangedEvent.of(1L, 1L));
+        priceService.onPriceChanged(PriceChangedEvent.of(1L, 2L));
+        priceListOn(35455L, "2020-06-14T16:00:00");
+        verify(engine, times(1)).resolve(any());
+        assertEquals(2, priceService.generationCount());
+
+        priceService.onPriceChanged(PriceChangedEvent.of(1L, 3L));
+        priceListOn(35455L, "2020-06-14T16:00:00");
+        priceListOn(35455L, "2020-06-14T16:00:00");
+        verify(engine, times(2)).resolve(any());
+        assertEquals(0, priceService.generationCount());
+    }
+
+    @Test
+    public void testResolveUncached_NeitherReadsNorStoresTheCache() {
+        PriceDTO lookup = new PriceDTO(35455L, 1L, LocalDateTime.parse("2020-06-14T16:00:00"));
+        priceService.resolveUncached(lookup);
+        assertEquals(0, priceService.estimatedSize());
+
+        priceService.resolve(lookup);
+        priceService.resolveUncached(lookup);
+
+        verify(engine, times(3)).resolve(any());
+    }
+
+    @Test
+    public void testLifetime_NeverBeyondTheEndOfAPeriodStillAhead() {
+        LocalDateTime now = LocalDateTime.parse("2020-06-14T18:25:00");
+        Duration maxTtl = Duration.ofMinutes(10);
+
+        assertEquals(Duration.ofMinutes(5),
+                new PriceResolution(LocalDateTime.parse("2020-06-14T15:00:00"), LocalDateTime.parse("2020-06-14T18:30:00"), price(2L)).lifetime(now, maxTtl));
+        assertEquals(maxTtl,
+                new PriceResolution(LocalDateTime.parse("2020-06-14T00:00:00"), LocalDateTime.parse("2020-12-31T23:59:59"), price(1L)).lifetime(now, maxTtl));
+        assertEquals(maxTtl,
+                new PriceResolution(LocalDateTime.parse("2020-06-14T00:00:00"), LocalDateTime.parse("2020-06-14T14:59:59"), price(1L)).lifetime(now, maxTtl));
+    }
+
+    private CachingPriceService cachingPriceService(Duration replicaMaxLag) {
+        return cachingPriceService(1000, replicaMaxLag);
+    }
+
+    private CachingPriceService cachingPriceService(long maximumSize, Duration replicaMaxLag) {
+        return new CachingPriceService(engine, maximumSize, Duration.ofMinutes(1), Duration.ofMinutes(10), replicaMaxLag, meterRegistry,
+                new PriceLookupCoalescer(true, meterRegistry), new PriceHotKeys(4, 1024, 10, Duration.ofMinutes(1)));
+    }
+
+    private Long priceListOn(long productId, String date) {
+        Optional<PriceView> price = priceService.getProductPriceOfBrandOnDate(new PriceDTO(productId, 1L, LocalDateTime.parse(date)));
+        return price.map(PriceView::priceList).orElse(null);
+    }
+
+    private static PriceView price(Long id) {
+        return new PriceView(id, 1L, 35455L, LocalDateTime.parse("2020-06-14T00:00:00"),
+                LocalDateTime.parse("2020-12-31T23:59:59"), 0, BigDecimal.TEN, "EUR");
+    }
+}
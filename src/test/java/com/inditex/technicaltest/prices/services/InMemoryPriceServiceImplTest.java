@@ -0,0 +1,77 @@
+package com.inditex.technicaltest.prices.services;
+
+import com.inditex.technicaltest.prices.dtos.PriceDTO;
+import com.inditex.technicaltest.prices.models.PriceView;
+import com.inditex.technicaltest.prices.partition.PricePartition;
+import com.inditex.technicaltest.prices.repositories.PriceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+public class InMemoryPriceServiceImplTest {
+
+    @Mock
+    private PriceRepository priceRepository;
+
+    @Mock
+    private ApplicationEventPublisher publisher;
+
+    private InMemoryPriceServiceImpl priceService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(priceRepository.findAllViews()).thenReturn(List.of(
+                price(1L, "2020-06-14T00:00:00", "2020-12-31T23:59:59", 0, "35.50"),
+                price(2L, "2020-06-14T15:00:00", "2020-06-14T18:30:00", 1, "25.45"),
+                price(3L, "2020-06-15T00:00:00", "2020-06-15T11:00:00", 1, "30.50"),
+                price(4L, "2020-06-15T16:00:00", "2020-12-31T23:59:59", 1, "38.95")
+        ));
+        PriceSnapshotServiceImpl priceSnapshotService = new PriceSnapshotServiceImpl(priceRepository, publisher, PricePartition.unpartitioned());
+        priceSnapshotService.load();
+        priceService = new InMemoryPriceServiceImpl(priceSnapshotService);
+    }
+
+    @Test
+    public void testGetProductPriceOfBrandOnDate_HighestPriorityWins() {
+        assertEquals(1L, priceListOn("2020-06-14T10:00:00"));
+        assertEquals(2L, priceListOn("2020-06-14T16:00:00"));
+        assertEquals(1L, priceListOn("2020-06-14T21:00:00"));
+        assertEquals(3L, priceListOn("2020-06-15T10:00:00"));
+        assertEquals(4L, priceListOn("2020-06-16T21:00:00"));
+    }
+
+    @Test
+    public void testGetProductPriceOfBrandOnDate_BoundariesAreInclusive() {
+        assertEquals(2L, priceListOn("2020-06-14T18:30:00"));
+        assertEquals(1L, priceListOn("2020-06-14T18:30:01"));
+        assertEquals(4L, priceListOn("2020-12-31T23:59:59"));
+    }
+
+    @Test
+    public void testGetProductPriceOfBrandOnDate_NotFound() {
+        assertEquals(null, priceListOn("2021-08-16T21:00:00"));
+        assertEquals(Optional.empty(), priceService.getProductPriceOfBrandOnDate(
+                new PriceDTO(1L, 1L, LocalDateTime.parse("2020-06-14T10:00:00"))));
+    }
+
+    private Long priceListOn(String date) {
+        return priceService.getProductPriceOfBrandOnDate(new PriceDTO(35455L, 1L, LocalDateTime.parse(date)))
+                .map(PriceView::priceList)
+                .orElse(null);
+    }
+
+    private static PriceView price(Long id, String start, String end, int priority, String value) {
+        return new PriceView(id, 1L, 35455L, LocalDateTime.parse(start), LocalDateTime.parse(end), priority, new BigDecimal(value), "EUR");
+    }
+}
@@ -0,0 +1,50 @@
+package com.inditex.technicaltest.prices.services;
+
+import com.inditex.technicaltest.prices.dtos.PriceDTO;
+import com.inditex.technicaltest.prices.metrics.PriceLookupMetrics;
+import com.inditex.technicaltest.prices.repositories.PriceRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+@SpringBootTest(properties = {
+        "prices.engine=offheap",
+        "spring.datasource.url=jdbc:h2:mem:inditexdboffheap"
+})
+@ActiveProfiles("test")
+class OffHeapPriceServiceImplTest {
+
+    @Autowired
+    @Qualifier(PriceService.ENGINE)
+    private PriceService priceService;
+
+    @Autowired
+    private PriceRepository priceRepository;
+
+    @Autowired
+    private PriceLookupMetrics priceLookupMetrics;
+
+    @Test
+    public void testOffHeapEngineMatchesJpaEngineOnSeedData() {
+        assertInstanceOf(OffHeapPriceServiceImpl.class, priceService);
+        PriceService jpaService = new PriceServiceImpl(priceRepository, priceLookupMetrics);
+
+        for (LocalDateTime date = LocalDateTime.parse("2020-06-13T00:00:00");
+             date.isBefore(LocalDateTime.parse("2021-01-02T00:00:00"));
+             date = date.plusMinutes(30)) {
+            for (long productId : new long[]{35455L, 1L}) {
+                PriceDTO priceDTO = new PriceDTO(productId, 1L, date);
+                assertEquals(jpaService.getProductPriceOfBrandOnDate(priceDTO), priceService.getProductPriceOfBrandOnDate(priceDTO),
+                        "different price for " + priceDTO);
+                assertEquals(jpaService.resolve(priceDTO), priceService.resolve(priceDTO), "different resolution for " + priceDTO);
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.inditex.technicaltest.prices.services;
+
+import com.inditex.technicaltest.prices.dtos.PriceDTO;
+import com.inditex.technicaltest.prices.models.PriceView;
+import com.inditex.technicaltest.prices.models.domain.Brand;
+import com.inditex.technicaltest.prices.models.domain.Price;
+import com.inditex.technicaltest.prices.models.domain.Product;
+import com.inditex.technicaltest.prices.repositories.PriceRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:inditexdbcache")
+@ActiveProfiles("test")
+class PriceCacheInvalidationTest {
+
+    @Autowired
+    private PriceService priceService;
+
+    @Autowired
+    private PriceRepository priceRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    public void testCommittedWriteInvalidatesTheCachedLookup() {
+        assertInstanceOf(CachingPriceService.class, priceService);
+        PriceDTO lookup = new PriceDTO(35455L, 1L, LocalDateTime.parse("2020-06-14T10:00:00"));
+        assertEquals(1L, priceService.getProductPriceOfBrandOnDate(lookup).map(PriceView::priceList).orElse(null));
+
+        Long id = transactionTemplate.execute(status -> {
+            Price price = new Price();
+            price.setBrand(entityManager.getReference(Brand.class, 1L));
+            price.setProduct(entityManager.getReference(Product.class, 35455L));
+            price.setStartDate(LocalDateTime.parse("2020-06-14T09:00:00"));
+            price.setEndDate(LocalDateTime.parse("2020-06-14T11:00:00"));
+            price.setPriority(5);
+            price.setValue(new BigDecimal("19.99"));
+            price.setCurr("EUR");
+            return priceRepository.save(price).getId();
+        });
+        assertEquals(id, priceService.getProductPriceOfBrandOnDate(lookup).map(PriceView::priceList).orElse(null));
+
+        priceRepository.deleteById(id);
+        assertEquals(1L, priceService.getProductPriceOfBrandOnDate(lookup).map(PriceView::priceList).orElse(null));
+    }
+}
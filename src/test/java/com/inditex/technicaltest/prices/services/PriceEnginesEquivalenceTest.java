@@ -0,0 +1,72 @@
+package com.inditex.technicaltest.prices.services;
+
+import com.inditex.technicaltest.prices.dtos.PriceDTO;
+import com.inditex.technicaltest.prices.metrics.PriceLookupMetrics;
+import com.inditex.technicaltest.prices.models.PriceView;
+import com.inditex.technicaltest.prices.repositories.PriceRepository;
+import com.inditex.technicaltest.prices.services.timeline.PriceResolution;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+@SpringBootTest(properties = {
+        "prices.engine=memory",
+        "spring.datasource.url=jdbc:h2:mem:inditexdbmemory"
+})
+@ActiveProfiles("test")
+class PriceEnginesEquivalenceTest {
+
+    @Autowired
+    @Qualifier(PriceService.ENGINE)
+    private PriceService priceService;
+
+    @Autowired
+    private PriceRepository priceRepository;
+
+    @Autowired
+    private PriceLookupMetrics priceLookupMetrics;
+
+    @Test
+    public void testMemoryEngineMatchesJpaEngineOnSeedData() {
+        assertInstanceOf(InMemoryPriceServiceImpl.class, priceService);
+        PriceService jpaService = new PriceServiceImpl(priceRepository, priceLookupMetrics);
+
+        List<LocalDateTime> dates = new ArrayList<>(List.of(
+                LocalDateTime.parse("2020-06-14T18:30:00"),
+                LocalDateTime.parse("2020-06-14T18:30:01"),
+                LocalDateTime.parse("2020-12-31T23:59:59"),
+                LocalDateTime.parse("2021-01-01T00:00:00")));
+        // every half hour around the overlapping prices of the seed data
+        for (LocalDateTime date = LocalDateTime.parse("2020-06-13T00:00:00");
+             date.isBefore(LocalDateTime.parse("2020-06-17T00:00:00"));
+             date = date.plusMinutes(30)) {
+            dates.add(date);
+        }
+
+        for (LocalDateTime date : dates) {
+            for (long productId : new long[]{35455L, 1L}) {
+                PriceDTO priceDTO = new PriceDTO(productId, 1L, date);
+                assertEquals(
+                        jpaService.getProductPriceOfBrandOnDate(priceDTO).map(PriceView::priceList),
+                        priceService.getProductPriceOfBrandOnDate(priceDTO).map(PriceView::priceList),
+                        "different price for " + priceDTO);
+                // the jpa engine bounds the period with its own queries, the memory engine from the compiled timeline
+                PriceResolution jpaResolution = jpaService.resolve(priceDTO);
+                PriceResolution resolution = priceService.resolve(priceDTO);
+                assertEquals(resolution.validFrom(), jpaResolution.validFrom(), "different period for " + priceDTO);
+                assertEquals(resolution.validTo(), jpaResolution.validTo(), "different period for " + priceDTO);
+                assertEquals(resolution.find().map(PriceView::priceList), jpaResolution.find().map(PriceView::priceList),
+                        "different price for " + priceDTO);
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.inditex.technicaltest.prices.services;
+
+import com.inditex.technicaltest.prices.dtos.PriceDTO;
+import com.inditex.technicaltest.prices.dtos.PriceExportRequest;
+import com.inditex.technicaltest.prices.models.PriceView;
+import com.inditex.technicaltest.prices.support.SyntheticCatalogue;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:inditexdbexport",
+        "spring.flyway.locations=classpath:db/migration,classpath:db/vendor/{vendor}",
+        "prices.export.fetch-size=7"})
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class PriceExportServiceImplTest {
+    private static final SyntheticCatalogue CATALOGUE = new SyntheticCatalogue(3000, 3, 200);
+
+    @Autowired
+    private PriceExportService priceExportService;
+
+    @Autowired
+    @Qualifier(PriceService.ENGINE)
+    private PriceService priceService;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @BeforeAll
+    public void setUp() throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            CATALOGUE.load(connection);
+        }
+    }
+
+    @Test
+    public void testExportMatchesTheLookupOfEveryProduct() {
+        for (String date : new String[]{"2020-01-15T00:00:00", "2020-02-01T00:00:00", "2020-03-20T12:00:00", "2030-01-01T00:00:00"}) {
+            LocalDateTime priceDate = LocalDateTime.parse(date);
+            List<PriceView> exported = export(new PriceExportRequest(2L, priceDate, null));
+
+            List<PriceView> expected = new ArrayList<>();
+            for (long productId = 1; productId <= CATALOGUE.products(); productId++) {
+                priceService.getProductPriceOfBrandOnDate(new PriceDTO(productId, 2L, priceDate)).ifPresent(expected::add);
+            }
+            assertEquals(expected, exported, "different export on " + date);
+        }
+    }
+
+    @Test
+    public void testExportResumesAfterTheGivenProduct() {
+        LocalDateTime priceDate = LocalDateTime.parse("2020-02-01T00:00:00");
+        List<PriceView> all = export(new PriceExportRequest(1L, priceDate, null));
+        Long resumeAfter = all.get(all.size() / 2).productId();
+
+        List<PriceView> resumed = export(new PriceExportRequest(1L, priceDate, resumeAfter));
+
+        assertEquals(all.subList(all.size() / 2 + 1, all.size()), resumed);
+        assertEquals(Optional.of(resumeAfter + 1), resumed.stream().findFirst().map(PriceView::productId));
+    }
+
+    private List<PriceView> export(PriceExportRequest exportRequest) {
+        List<PriceView> exported = new ArrayList<>();
+        long count = priceExportService.exportBrandPricesOnDate(exportRequest, exported::add);
+        assertEquals(exported.size(), count);
+        return exported;
+    }
+}
@@ -0,0 +1,75 @@
+package com.inditex.technicaltest.prices.services;
+
+import com.inditex.technicaltest.prices.dtos.PriceDTO;
+import com.inditex.technicaltest.prices.metrics.PriceLookupMetrics;
+import com.inditex.technicaltest.prices.repositories.PriceRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:inditexdbmmap")
+@ActiveProfiles("test")
+class PriceIndexFileBuilderTest {
+
+    @TempDir
+    static Path dir;
+
+    @Autowired
+    private PriceRepository priceRepository;
+
+    @Autowired
+    private PriceLookupMetrics priceLookupMetrics;
+
+    @DynamicPropertySource
+    static void indexFile(DynamicPropertyRegistry registry) {
+        registry.add("prices.mmap.build.output", () -> dir.resolve("prices.idx").toString());
+    }
+
+    @Test
+    public void testMappedEngineMatchesJpaEngineOnSeedData() {
+        Path path = dir.resolve("prices.idx");
+        assertTrue(Files.exists(path));
+        PriceService mappedService = new MappedPriceServiceImpl(path, true);
+        PriceService jpaService = new PriceServiceImpl(priceRepository, priceLookupMetrics);
+
+        for (LocalDateTime date = LocalDateTime.parse("2020-06-13T00:00:00");
+             date.isBefore(LocalDateTime.parse("2021-01-02T00:00:00"));
+             date = date.plusMinutes(30)) {
+            for (long productId : new long[]{35455L, 1L}) {
+                PriceDTO priceDTO = new PriceDTO(productId, 1L, date);
+                assertEquals(jpaService.getProductPriceOfBrandOnDate(priceDTO), mappedService.getProductPriceOfBrandOnDate(priceDTO),
+                        "different price for " + priceDTO);
+                assertEquals(jpaService.resolve(priceDTO), mappedService.resolve(priceDTO), "different resolution for " + priceDTO);
+            }
+        }
+    }
+
+    @Test
+    public void testChecksumIsVerifiedBeforeReadinessUnlessSkipped() throws IOException {
+        Path corrupt = Files.copy(dir.resolve("prices.idx"), dir.resolve("corrupt.idx"));
+        try (FileChannel channel = FileChannel.open(corrupt, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0x7f}), Files.size(corrupt) - 1); // last byte of the currency codes
+        }
+
+        MappedPriceServiceImpl verified = new MappedPriceServiceImpl(corrupt, true); // mapped without reading the file
+        IllegalStateException failure = assertThrows(IllegalStateException.class, () -> verified.run(null));
+        assertTrue(failure.getMessage().contains("checksum"));
+        new MappedPriceServiceImpl(corrupt, false).run(null);
+    }
+}
@@ -0,0 +1,120 @@
+package com.inditex.technicaltest.prices.services;
+
+import com.inditex.technicaltest.prices.dtos.PriceDTO;
+import com.inditex.technicaltest.prices.dtos.PriceIngestionDTO;
+import com.inditex.technicaltest.prices.dtos.PriceIngestionRejection;
+import com.inditex.technicaltest.prices.models.PriceView;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = {
+        "prices.ingestion.batch-size=2",
+        "prices.ingestion.chunk-size=3",
+        "spring.datasource.url=jdbc:h2:mem:inditexdbingestion"
+})
+@ActiveProfiles("test")
+class PriceIngestionServiceImplTest {
+
+    @Autowired
+    private PriceIngestionService priceIngestionService;
+
+    @Autowired
+    private PriceService priceService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    public void tearDown() {
+        jdbcTemplate.update("DELETE FROM PRICES WHERE price_list > 4");
+    }
+
+    @Test
+    public void testIngest_CsvRowsAreValidatedAndWritten() throws IOException {
+        PriceIngestionDTO ingestion = priceIngestionService.ingest(new StringReader("""
+                BRAND_ID,PRODUCT_ID,START_DATE,END_DATE,PRIORITY,PRICE,CURR
+                1,35455,2020-07-01 00:00:00,2020-07-31 23:59:59,2,19.99,EUR
+                1,35455,2020-08-01T00:00:00,2020-08-31T23:59:59,2,17.5,EUR
+                1,35455,2020-09-01T00:00:00,2020-09-30T23:59:59,2,17.5,EURO
+
+                1,35455,2020-10-01T00:00:00,2020-09-30T23:59:59,2,17.5,EUR
+                1,35455,2020-10-01T00:00:00,2020-10-31T23:59:59,2,1.999,EUR
+                7,35455,2020-10-01T00:00:00,2020-10-31T23:59:59,2,17.5,EUR
+                1,1,2020-10-01T00:00:00,2020-10-31T23:59:59,2,17.5,EUR
+                1,35455,yesterday,2020-10-31T23:59:59,2,17.5,EUR
+                1,35455,2020-11-01T00:00:00,2020-11-30T23:59:59,2,15,EUR
+                """), PriceIngestionService.Format.CSV, PriceIngestionService.Mode.INSERT);
+
+        assertEquals(9, ingestion.getRows());
+        assertEquals(3, ingestion.getWritten());
+        assertEquals(6, ingestion.getRejected());
+        assertEquals(List.of(
+                new PriceIngestionRejection(4, "currency must have 3 characters"),
+                new PriceIngestionRejection(6, "start date cannot be after end date"),
+                new PriceIngestionRejection(7, "price must fit a precision of 15 with 2 decimals"),
+                new PriceIngestionRejection(8, "brand 7 does not exist"),
+                new PriceIngestionRejection(9, "product 1 does not exist"),
+                new PriceIngestionRejection(10, "unreadable row: Text 'yesterday' could not be parsed at index 0")
+        ), ingestion.getRejections());
+        assertEquals(new BigDecimal("17.50"), priceOn("2020-08-15T00:00:00"));
+        assertEquals(new BigDecimal("15.00"), priceOn("2020-11-15T00:00:00"));
+    }
+
+    @Test
+    public void testIngest_NdjsonUpsertReplacesPricesWithTheSameKey() throws IOException {
+        String body = """
+                {"brandId":1,"productId":35455,"startDate":"2021-01-01T00:00:00","endDate":"2021-01-31T23:59:59","priority":0,"price":10.00,"curr":"EUR"}
+                {"brandId":1,"productId":35455,"startDate":"2021-02-01T00:00:00","endDate":"2021-02-28T23:59:59","priority":0,"price":11.00,"curr":"EUR"}
+                """;
+        priceIngestionService.ingest(new StringReader(body), PriceIngestionService.Format.NDJSON, PriceIngestionService.Mode.UPSERT);
+        assertEquals(new BigDecimal("10.00"), priceOn("2021-01-15T00:00:00")); // cached before the next write
+
+        PriceIngestionDTO ingestion = priceIngestionService.ingest(new StringReader(body.replace("10.00", "12.00") + "{\"brandId\":1}\n"),
+                PriceIngestionService.Format.NDJSON, PriceIngestionService.Mode.UPSERT);
+
+        assertEquals(3, ingestion.getRows());
+        assertEquals(2, ingestion.getWritten());
+        assertEquals(1, ingestion.getRejected());
+        assertEquals(6, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM PRICES", Integer.class));
+        assertEquals(new BigDecimal("12.00"), priceOn("2021-01-15T00:00:00"));
+    }
+
+    @Test
+    public void testIngest_InsertOfAnExistingKeyRollsBackItsChunk() throws IOException {
+        PriceIngestionDTO ingestion = priceIngestionService.ingest(new StringReader("""
+                BRAND_ID,PRODUCT_ID,START_DATE,END_DATE,PRIORITY,PRICE,CURR
+                1,35455,2021-03-01T00:00:00,2021-03-31T23:59:59,0,9.99,EUR
+                1,35455,2020-06-14T00:00:00,2020-12-31T23:59:59,0,99.99,EUR
+                """), PriceIngestionService.Format.CSV, PriceIngestionService.Mode.INSERT);
+
+        assertEquals(0, ingestion.getWritten());
+        assertEquals(2, ingestion.getRejected());
+        assertEquals(4, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM PRICES", Integer.class));
+        assertEquals(new BigDecimal("35.50"), priceOn("2020-06-14T10:00:00"));
+    }
+
+    @Test
+    public void testIngest_CsvWithoutRequiredColumns() {
+        assertThrows(IllegalArgumentException.class, () -> priceIngestionService.ingest(
+                new StringReader("brandId,productId\n1,35455\n"), PriceIngestionService.Format.CSV, PriceIngestionService.Mode.INSERT));
+    }
+
+    private BigDecimal priceOn(String date) {
+        return priceService.getProductPriceOfBrandOnDate(new PriceDTO(35455L, 1L, LocalDateTime.parse(date)))
+                .map(PriceView::value)
+                .orElse(null);
+    }
+}
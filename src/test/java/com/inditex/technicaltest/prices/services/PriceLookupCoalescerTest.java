@@ -0,0 +1,166 @@
+package com.inditex.technicaltest.prices.services;
+
+import com.inditex.technicaltest.prices.dtos.PriceDTO;
+import com.inditex.technicaltest.prices.models.PriceView;
+import com.inditex.technicaltest.prices.services.timeline.PriceResolution;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PriceLookupCoalescerTest {
+    private static final int CALLERS = 8;
+    private static final PriceDTO LOOKUP = new PriceDTO(35455L, 1L, LocalDateTime.parse("2020-06-14T10:00:00"));
+    private static final PriceResolution RESOLUTION = new PriceResolution(LocalDateTime.MIN, LocalDateTime.MAX, null);
+
+    private SimpleMeterRegistry meterRegistry;
+    private PriceLookupCoalescer coalescer;
+    private ExecutorService executor;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        coalescer = new PriceLookupCoalescer(true, meterRegistry);
+        executor = Executors.newFixedThreadPool(CALLERS + 1);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testConcurrentIdenticalLookupsShareOneRun() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+        List<Future<PriceResolution>> callers = startCallers(() -> {
+            runs.incrementAndGet();
+            await(release);
+            return RESOLUTION;
+        });
+        waitForCoalesced(CALLERS - 1);
+        release.countDown();
+
+        for (Future<PriceResolution> caller : callers) {
+            assertSame(RESOLUTION, caller.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, runs.get());
+        assertEquals(CALLERS - 1, meterRegistry.get("prices.lookup.coalesced").counter().count());
+        assertEquals(0, coalescer.inFlight());
+    }
+
+    @Test
+    public void testAFailedLookupIsThrownToEveryWaiterAndLeavesNothingInFlight() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalStateException failure = new IllegalStateException("database down");
+        List<Future<PriceResolution>> callers = startCallers(() -> {
+            await(release);
+            throw failure;
+        });
+        waitForCoalesced(CALLERS - 1);
+        release.countDown();
+
+        for (Future<PriceResolution> caller : callers) {
+            ExecutionException ex = assertThrows(ExecutionException.class, () -> caller.get(5, TimeUnit.SECONDS));
+            assertSame(failure, ex.getCause());
+        }
+        assertEquals(0, coalescer.inFlight());
+        // the next lookup runs again
+        assertSame(RESOLUTION, coalescer.resolve(LOOKUP, dto -> RESOLUTION));
+    }
+
+    @Test
+    public void testOtherLookupsDoNotWaitForASlowOne() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Future<PriceResolution> slow = executor.submit(() -> coalescer.resolve(LOOKUP, dto -> {
+            await(release);
+            return RESOLUTION;
+        }));
+        PriceDTO other = new PriceDTO(35455L, 1L, LocalDateTime.parse("2020-06-14T10:00:01"));
+        Future<PriceResolution> fast = executor.submit(() -> coalescer.resolve(other, dto -> RESOLUTION));
+
+        assertSame(RESOLUTION, fast.get(5, TimeUnit.SECONDS));
+        assertTrue(!slow.isDone(), "the slow lookup was released before the other one");
+        release.countDown();
+        assertSame(RESOLUTION, slow.get(5, TimeUnit.SECONDS));
+        assertEquals(0.0, meterRegistry.get("prices.lookup.coalesced").counter().count());
+    }
+
+    @Test
+    public void testSingleRowLookupsDoNotWaitForTheResolveOfTheSameKey() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Future<PriceResolution> slow = executor.submit(() -> coalescer.resolve(LOOKUP, dto -> {
+            await(release);
+            return RESOLUTION;
+        }));
+        Future<Optional<PriceView>> find = executor.submit(() -> coalescer.find(LOOKUP, dto -> Optional.empty()));
+
+        assertEquals(Optional.empty(), find.get(5, TimeUnit.SECONDS));
+        assertTrue(!slow.isDone(), "the resolve was released before the single-row lookup");
+        release.countDown();
+        assertSame(RESOLUTION, slow.get(5, TimeUnit.SECONDS));
+        assertEquals(0.0, meterRegistry.get("prices.lookup.coalesced").counter().count());
+    }
+
+    @Test
+    public void testDisabledCoalescerRunsEveryLookup() throws Exception {
+        PriceLookupCoalescer disabled = new PriceLookupCoalescer(false, meterRegistry);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(CALLERS);
+        List<Future<PriceResolution>> callers = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            callers.add(executor.submit(() -> disabled.resolve(LOOKUP, dto -> {
+                started.countDown();
+                await(release);
+                return RESOLUTION;
+            })));
+        }
+        assertTrue(started.await(5, TimeUnit.SECONDS)); // every caller runs its own lookup
+        release.countDown();
+        for (Future<PriceResolution> caller : callers) {
+            assertSame(RESOLUTION, caller.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(0.0, meterRegistry.get("prices.lookup.coalesced").counter().count());
+    }
+
+    private List<Future<PriceResolution>> startCallers(Supplier<PriceResolution> lookup) {
+        List<Future<PriceResolution>> callers = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            callers.add(executor.submit(() -> coalescer.resolve(LOOKUP, dto -> lookup.get())));
+        }
+        return callers;
+    }
+
+    private void waitForCoalesced(int waiters) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("prices.lookup.coalesced").counter().count() < waiters && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
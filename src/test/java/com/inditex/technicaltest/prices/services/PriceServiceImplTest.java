@@ -1,24 +1,31 @@
 package com.inditex.technicaltest.prices.services;
 
 import com.inditex.technicaltest.prices.dtos.PriceDTO;
-import com.inditex.technicaltest.prices.models.domain.Price;
+import com.inditex.technicaltest.prices.metrics.PriceLookupMetrics;
+import com.inditex.technicaltest.prices.models.PriceView;
 import com.inditex.technicaltest.prices.repositories.PriceRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.jpa.domain.Specification;
+import org.mockito.Spy;
+import org.springframework.data.domain.Limit;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class PriceServiceImplTest {
@@ -26,6 +33,9 @@ public class PriceServiceImplTest {
     @Mock
     private PriceRepository priceRepository;
 
+    @Spy
+    private PriceLookupMetrics priceLookupMetrics = new PriceLookupMetrics(new SimpleMeterRegistry(), 100);
+
     @InjectMocks
     private PriceServiceImpl priceService;
 
@@ -38,13 +48,12 @@ public class PriceServiceImplTest {
     public void testGetProductPriceOfBrandOnDate_Found() {
         // Arrange
         PriceDTO priceDTO = new PriceDTO(1L, 1L, LocalDateTime.now());
-        Price expectedPrice = new Price(1L, LocalDateTime.now().minusDays(1), LocalDateTime.now().plusDays(1), "EUR", 1, null, null, BigDecimal.valueOf(100), null);
-        PageImpl<Price> pricePage = new PageImpl<>(Collections.singletonList(expectedPrice), PageRequest.of(0, 1), 1);
+        PriceView expectedPrice = new PriceView(1L, 1L, 1L, LocalDateTime.now().minusDays(1), LocalDateTime.now().plusDays(1), 1, BigDecimal.valueOf(100), "EUR");
 
-        when(priceRepository.findAll(any(Specification.class), any(PageRequest.class))).thenReturn(pricePage);
+        when(priceRepository.findEffectivePrices(eq(1L), eq(1L), any(LocalDateTime.class), eq(Limit.of(1)))).thenReturn(Collections.singletonList(expectedPrice));
 
         // Act
-        Optional<Price> result = priceService.getProductPriceOfBrandOnDate(priceDTO);
+        Optional<PriceView> result = priceService.getProductPriceOfBrandOnDate(priceDTO);
 
         // Assert
         assertEquals(expectedPrice, result.orElse(null));
@@ -55,12 +64,33 @@ public class PriceServiceImplTest {
         // Arrange
         PriceDTO priceDTO = new PriceDTO(1L, 1L, LocalDateTime.now());
 
-        when(priceRepository.findAll(any(Specification.class), any(PageRequest.class))).thenReturn(new PageImpl<>(Collections.emptyList()));
+        when(priceRepository.findEffectivePrices(any(), any(), any(), any())).thenReturn(Collections.emptyList());
 
         // Act
-        Optional<Price> result = priceService.getProductPriceOfBrandOnDate(priceDTO);
+        Optional<PriceView> result = priceService.getProductPriceOfBrandOnDate(priceDTO);
 
         // Assert
         assertEquals(Optional.empty(), result);
     }
+
+    @Test
+    public void testGetProductPricesOfBrandOnDates_SingleQueryKeepsOrder() {
+        // Arrange
+        PriceView base = new PriceView(1L, 1L, 35455L, LocalDateTime.parse("2020-06-14T00:00:00"), LocalDateTime.parse("2020-12-31T23:59:59"), 0, BigDecimal.valueOf(35.50), "EUR");
+        PriceView promo = new PriceView(2L, 1L, 35455L, LocalDateTime.parse("2020-06-14T15:00:00"), LocalDateTime.parse("2020-06-14T18:30:00"), 1, BigDecimal.valueOf(25.45), "EUR");
+        PriceView other = new PriceView(3L, 1L, 35456L, LocalDateTime.parse("2020-06-14T00:00:00"), LocalDateTime.parse("2020-06-15T00:00:00"), 0, BigDecimal.valueOf(10), "EUR");
+
+        when(priceRepository.findProductPricesOfBrandBetween(anyLong(), anyCollection(), any(), any())).thenReturn(List.of(base, promo, other));
+
+        // Act
+        List<Optional<PriceView>> result = priceService.getProductPricesOfBrandOnDates(List.of(
+                new PriceDTO(35455L, 1L, LocalDateTime.parse("2020-06-14T16:00:00")),
+                new PriceDTO(35456L, 1L, LocalDateTime.parse("2020-06-14T16:00:00")),
+                new PriceDTO(35455L, 1L, LocalDateTime.parse("2020-06-14T10:00:00")),
+                new PriceDTO(99999L, 1L, LocalDateTime.parse("2020-06-14T10:00:00"))));
+
+        // Assert
+        assertEquals(List.of(Optional.of(promo), Optional.of(other), Optional.of(base), Optional.empty()), result);
+        verify(priceRepository, times(1)).findProductPricesOfBrandBetween(anyLong(), anyCollection(), any(), any());
+    }
 }
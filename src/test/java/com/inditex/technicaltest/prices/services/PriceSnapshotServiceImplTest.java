@@ -0,0 +1,125 @@
+package com.inditex.technicaltest.prices.services;
+
+import com.inditex.technicaltest.prices.events.PriceChangedEvent;
+import com.inditex.technicaltest.prices.models.PriceKey;
+import com.inditex.technicaltest.prices.models.PriceView;
+import com.inditex.technicaltest.prices.partition.PricePartition;
+import com.inditex.technicaltest.prices.repositories.PriceRepository;
+import com.inditex.technicaltest.prices.services.memory.PriceSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PriceSnapshotServiceImplTest {
+    private static final LocalDateTime LOADED = LocalDateTime.parse("2024-10-01T10:00:00");
+    private static final LocalDateTime WRITTEN = LocalDateTime.parse("2024-10-01T11:00:00");
+
+    @Mock
+    private PriceRepository priceRepository;
+
+    @Mock
+    private ApplicationEventPublisher publisher;
+
+    private PriceSnapshotServiceImpl priceSnapshotService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(priceRepository.findLastChange()).thenReturn(Optional.of(LOADED));
+        when(priceRepository.findAllViews()).thenReturn(List.of(
+                price(1L, 35455L, "2020-06-14T00:00:00", "2020-12-31T23:59:59", 0),
+                price(2L, 35455L, "2020-06-14T15:00:00", "2020-06-14T18:30:00", 1),
+                price(3L, 1L, "2020-06-14T00:00:00", "2020-12-31T23:59:59", 0)
+        ));
+        priceSnapshotService = new PriceSnapshotServiceImpl(priceRepository, publisher, PricePartition.unpartitioned());
+        priceSnapshotService.load();
+    }
+
+    @Test
+    public void testLoad_BuildsTheFirstSnapshot() {
+        PriceSnapshot snapshot = priceSnapshotService.current();
+
+        assertEquals(1, snapshot.version());
+        assertEquals(LOADED, snapshot.watermark());
+        assertEquals(2, snapshot.index().keyCount());
+        assertEquals(3, snapshot.index().rowCount());
+        assertEquals(4, snapshot.index().segmentCount());
+        assertTrue(snapshot.estimatedBytes() > 0);
+        assertEquals(Optional.empty(), priceSnapshotService.previous());
+        verify(publisher, never()).publishEvent(any());
+    }
+
+    @Test
+    public void testRefresh_RecompilesTheKeysWrittenSinceTheWatermark() {
+        PriceSnapshot loaded = priceSnapshotService.current();
+        when(priceRepository.findLastChange()).thenReturn(Optional.of(WRITTEN));
+        when(priceRepository.findKeysChangedSince(LOADED.minusMinutes(1))).thenReturn(List.of(new PriceKey(1L, 35455L), new PriceKey(1L, 1L)));
+        // price 2 deleted and price 4 added on product 35455, product 1 left without prices
+        when(priceRepository.findProductPricesOfBrandIn(eq(1L), anyCollection())).thenReturn(List.of(
+                price(1L, 35455L, "2020-06-14T00:00:00", "2020-12-31T23:59:59", 0),
+                price(4L, 35455L, "2020-06-14T16:00:00", "2020-06-14T17:00:00", 2)
+        ));
+
+        PriceSnapshot refreshed = priceSnapshotService.refresh();
+
+        assertEquals(2, refreshed.version());
+        assertEquals(WRITTEN, refreshed.watermark());
+        assertEquals(1, refreshed.index().keyCount());
+        assertEquals(4L, priceListOn(refreshed, 35455L, "2020-06-14T16:30:00"));
+        assertEquals(null, priceListOn(refreshed, 1L, "2020-06-14T16:30:00"));
+        // readers still holding the previous snapshot see it unchanged
+        assertEquals(2L, priceListOn(loaded, 35455L, "2020-06-14T16:30:00"));
+        assertEquals(Optional.of(loaded), priceSnapshotService.previous());
+        verify(publisher).publishEvent(new PriceChangedEvent(Set.of(new PriceKey(1L, 35455L), new PriceKey(1L, 1L))));
+    }
+
+    @Test
+    public void testRollback_SwapsThePreviousSnapshotBackAndPinsIt() {
+        when(priceRepository.findAllViews()).thenReturn(List.of(
+                price(1L, 35455L, "2020-06-14T00:00:00", "2020-12-31T23:59:59", 0),
+                price(3L, 1L, "2020-06-14T00:00:00", "2020-12-31T23:59:59", 0)
+        ));
+        priceSnapshotService.rebuild();
+        verify(publisher).publishEvent(new PriceChangedEvent(Set.of(new PriceKey(1L, 35455L))));
+
+        Optional<PriceSnapshot> rolledBack = priceSnapshotService.rollback();
+
+        assertEquals(1, rolledBack.orElseThrow().version());
+        assertEquals(2L, priceListOn(priceSnapshotService.current(), 35455L, "2020-06-14T16:30:00"));
+        assertTrue(priceSnapshotService.isPinned());
+        assertEquals(Optional.empty(), priceSnapshotService.rollback()); // only one step back
+
+        priceSnapshotService.scheduledRefresh();
+        verify(priceRepository, never()).findKeysChangedSince(any());
+
+        priceSnapshotService.rebuild();
+        assertFalse(priceSnapshotService.isPinned());
+        assertEquals(3, priceSnapshotService.current().version());
+    }
+
+    private static Long priceListOn(PriceSnapshot snapshot, long productId, String date) {
+        return snapshot.index().find(1L, productId, LocalDateTime.parse(date)).map(PriceView::priceList).orElse(null);
+    }
+
+    private static PriceView price(Long id, long productId, String start, String end, int priority) {
+        return new PriceView(id, 1L, productId, LocalDateTime.parse(start), LocalDateTime.parse(end), priority, BigDecimal.TEN, "EUR");
+    }
+}
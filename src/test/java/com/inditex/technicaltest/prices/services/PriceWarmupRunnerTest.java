@@ -0,0 +1,71 @@
+package com.inditex.technicaltest.prices.services;
+
+import com.inditex.technicaltest.prices.dtos.PriceWarmupResponse;
+import com.inditex.technicaltest.prices.metrics.PriceHotKeys;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.event.EventListener;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "prices.warmup.enabled=true",
+        "prices.warmup.budget=PT30S",
+        "prices.warmup.round-size=50",
+        "prices.warmup.concurrency=4",
+        "spring.datasource.url=jdbc:h2:mem:inditexdbwarmup"
+})
+@ActiveProfiles("test")
+class PriceWarmupRunnerTest {
+
+    @Autowired
+    private PriceWarmupRunner priceWarmupRunner;
+
+    @Autowired
+    private CachingPriceService cachingPriceService;
+
+    @Autowired
+    private PriceHotKeys priceHotKeys;
+
+    @Autowired
+    private ReadinessRecorder readinessRecorder;
+
+    @Test
+    public void testWarmupEndsBeforeAcceptingTrafficAndLeavesTheCacheEmpty() {
+        PriceWarmupResponse stats = priceWarmupRunner.stats();
+        assertTrue(stats.getOutcome() == PriceWarmupRunner.Outcome.STABLE || stats.getOutcome() == PriceWarmupRunner.Outcome.BUDGET_EXHAUSTED,
+                "outcome " + stats.getOutcome());
+        assertEquals("synthetic", stats.getLookups());
+        assertEquals(4, stats.getDistinctLookups());
+        assertTrue(stats.getRequests() >= 50);
+        assertEquals(0, stats.getErrors());
+        assertEquals(0, cachingPriceService.estimatedSize());
+        assertEquals(0, priceHotKeys.totalLookups()); // nor counted as traffic
+        // the warm-up had ended when the readiness state moved to ACCEPTING_TRAFFIC
+        assertEquals(List.of(stats.getOutcome()), readinessRecorder.outcomes);
+    }
+
+    @TestConfiguration
+    static class ReadinessRecorder {
+        private final List<PriceWarmupRunner.Outcome> outcomes = new CopyOnWriteArrayList<>();
+
+        @Autowired
+        private PriceWarmupRunner priceWarmupRunner;
+
+        @EventListener
+        public void onReadiness(AvailabilityChangeEvent<ReadinessState> event) {
+            if (event.getState() == ReadinessState.ACCEPTING_TRAFFIC) {
+                outcomes.add(priceWarmupRunner.stats().getOutcome());
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.inditex.technicaltest.prices.services;
+
+import com.inditex.technicaltest.prices.dtos.PriceDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:inditexdbreactiveservice")
+@ActiveProfiles({"test", "reactive"})
+class ReactivePriceServiceImplTest {
+    private static final AtomicInteger STATEMENTS = new AtomicInteger();
+
+    @Autowired
+    private ReactivePriceService reactivePriceService;
+
+    @Autowired
+    @Qualifier(PriceService.ENGINE)
+    private PriceService priceService;
+
+    @Test
+    public void testReactiveLookupsMatchTheEngineOnSeedData() {
+        List<LocalDateTime> dates = new ArrayList<>(List.of(
+                LocalDateTime.parse("2020-06-14T18:30:00"),
+                LocalDateTime.parse("2020-06-14T18:30:01"),
+                LocalDateTime.parse("2020-12-31T23:59:59"),
+                LocalDateTime.parse("2021-01-01T00:00:00")));
+        // every half hour around the overlapping prices of the seed data
+        for (LocalDateTime date = LocalDateTime.parse("2020-06-13T00:00:00");
+             date.isBefore(LocalDateTime.parse("2020-06-17T00:00:00"));
+             date = date.plusMinutes(30)) {
+            dates.add(date);
+        }
+
+        for (LocalDateTime date : dates) {
+            for (long productId : new long[]{35455L, 1L}) {
+                PriceDTO priceDTO = new PriceDTO(productId, 1L, date);
+                assertEquals(
+                        priceService.getProductPriceOfBrandOnDate(priceDTO),
+                        reactivePriceService.getProductPriceOfBrandOnDate(priceDTO).blockOptional(),
+                        "different price for " + priceDTO);
+                assertEquals(priceService.resolve(priceDTO), reactivePriceService.resolve(priceDTO).block(),
+                        "different resolution for " + priceDTO);
+            }
+        }
+    }
+
+    @Test
+    public void testResolveRunsOneStatementForAFoundPrice() {
+        PriceDTO found = new PriceDTO(35455L, 1L, LocalDateTime.parse("2020-06-14T16:00:00"));
+        PriceDTO notFound = new PriceDTO(35455L, 1L, LocalDateTime.parse("2019-06-14T16:00:00"));
+
+        STATEMENTS.set(0);
+        reactivePriceService.resolve(found).block();
+        assertEquals(1, STATEMENTS.get());
+
+        // the bounds of a gap take one statement each
+        STATEMENTS.set(0);
+        reactivePriceService.resolve(notFound).block();
+        assertEquals(3, STATEMENTS.get());
+    }
+
+    @Test
+    public void testQueriesRunOffTheCallingThread() {
+        PriceDTO priceDTO = new PriceDTO(35455L, 1L, LocalDateTime.parse("2020-06-14T10:00:00"));
+
+        String thread = reactivePriceService.getProductPriceOfBrandOnDate(priceDTO)
+                .map(price -> Thread.currentThread().getName())
+                .block();
+
+        // r2dbc-h2 blocks, so its queries run on the scheduler of the pool rather than on an event loop
+        assertTrue(thread.startsWith("prices-r2dbc"), "query run on " + thread);
+    }
+
+    @TestConfiguration
+    static class StatementCounter {
+
+        // the statements as the DatabaseClient sends them to the driver
+        @Bean
+        public static BeanPostProcessor statementCounter() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!(bean instanceof DatabaseClient databaseClient)) {
+                        return bean;
+                    }
+                    return DatabaseClient.builder()
+                            .connectionFactory(databaseClient.getConnectionFactory())
+                            .executeFunction(statement -> {
+                                STATEMENTS.incrementAndGet();
+                                return statement.execute();
+                            })
+                            .build();
+                }
+            };
+        }
+    }
+}
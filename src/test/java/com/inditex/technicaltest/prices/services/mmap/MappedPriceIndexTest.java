@@ -0,0 +1,131 @@
+package com.inditex.technicaltest.prices.services.mmap;
+
+import com.inditex.technicaltest.prices.models.PriceView;
+import com.inditex.technicaltest.prices.services.memory.PriceIndex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MappedPriceIndexTest {
+
+    @TempDir
+    private Path dir;
+
+    @Test
+    public void testLookupsMatchTheInMemoryIndex() throws IOException {
+        Random random = new Random(42);
+        LocalDateTime origin = LocalDateTime.parse("2020-01-01T00:00:00");
+        List<PriceView> prices = new ArrayList<>();
+        for (long id = 1; id <= 2000; id++) {
+            LocalDateTime start = origin.plusHours(random.nextInt(3 * 365 * 24));
+            LocalDateTime end = start.plusHours(1 + random.nextInt(random.nextBoolean() ? 24 : 365 * 24)).minusSeconds(1);
+            BigDecimal value = BigDecimal.valueOf(random.nextInt(100_000), random.nextInt(4));
+            prices.add(new PriceView(id, 1L + random.nextInt(3), 1L + random.nextInt(20), start, end, random.nextInt(4),
+                    value, random.nextInt(10) == 0 ? null : random.nextBoolean() ? "EUR" : "USD"));
+        }
+        Path path = dir.resolve("prices.idx");
+        PriceIndexFile.write(path, prices, LocalDateTime.parse("2024-01-01T10:00:00"));
+
+        MappedPriceIndex mapped = MappedPriceIndex.open(path, true);
+        PriceIndex memory = PriceIndex.of(prices);
+
+        assertEquals(memory.keyCount(), mapped.keyCount());
+        assertEquals(memory.segmentCount(), mapped.segmentCount());
+        assertEquals(Optional.of(LocalDateTime.parse("2024-01-01T10:00:00")), mapped.watermark());
+        for (int i = 0; i < 5000; i++) {
+            long brandId = 1L + random.nextInt(4); // brand 4 has no prices
+            long productId = 1L + random.nextInt(21);
+            LocalDateTime date = origin.minusDays(30).plusSeconds(random.nextLong(4L * 365 * 86_400));
+            assertEquals(memory.find(brandId, productId, date), mapped.find(brandId, productId, date),
+                    "different price for " + brandId + "/" + productId + " on " + date);
+            assertEquals(memory.resolve(brandId, productId, date), mapped.resolve(brandId, productId, date),
+                    "different resolution for " + brandId + "/" + productId + " on " + date);
+        }
+    }
+
+    @Test
+    public void testFilesMappedInSeveralRegionsGiveTheSameAnswers() throws IOException {
+        Random random = new Random(7);
+        LocalDateTime origin = LocalDateTime.parse("2020-01-01T00:00:00");
+        List<PriceView> prices = new ArrayList<>();
+        for (long id = 1; id <= 2000; id++) {
+            LocalDateTime start = origin.plusHours(random.nextInt(3 * 365 * 24));
+            prices.add(new PriceView(id, 1L + random.nextInt(3), 1L + random.nextInt(20), start, start.plusDays(1 + random.nextInt(60)),
+                    random.nextInt(4), BigDecimal.valueOf(random.nextInt(100_000), 2), random.nextBoolean() ? "EUR" : "USD"));
+        }
+        Path path = dir.resolve("prices.idx");
+        PriceIndexFile.write(path, prices, null);
+        assertTrue(Files.size(path) > 16 * 4096);
+
+        MappedPriceIndex whole = MappedPriceIndex.open(path, true);
+        MappedPriceIndex regions = MappedPriceIndex.open(path, true, 12); // 4 KB regions, the checksum spans them all
+
+        for (int i = 0; i < 5000; i++) {
+            long brandId = 1L + random.nextInt(3);
+            long productId = 1L + random.nextInt(20);
+            LocalDateTime date = origin.plusSeconds(random.nextLong(3L * 365 * 86_400));
+            assertEquals(whole.resolve(brandId, productId, date), regions.resolve(brandId, productId, date),
+                    "different resolution for " + brandId + "/" + productId + " on " + date);
+        }
+    }
+
+    @Test
+    public void testSegmentBoundsKeepTheirNanos() throws IOException {
+        PriceView low = new PriceView(1L, 1L, 1L, LocalDateTime.parse("2020-06-14T00:00:00"),
+                LocalDateTime.parse("2020-12-31T23:59:59"), 0, new BigDecimal("35.50"), "EUR");
+        PriceView high = new PriceView(2L, 1L, 1L, LocalDateTime.parse("2020-06-14T15:00:00"),
+                LocalDateTime.parse("2020-06-14T18:30:00"), 1, new BigDecimal("25.45"), "EUR");
+        Path path = dir.resolve("prices.idx");
+        PriceIndexFile.write(path, List.of(low, high), null);
+
+        MappedPriceIndex mapped = MappedPriceIndex.open(path, true);
+
+        assertEquals(Optional.of(high), mapped.find(1L, 1L, LocalDateTime.parse("2020-06-14T18:30:00.000000000")));
+        assertEquals(Optional.of(low), mapped.find(1L, 1L, LocalDateTime.parse("2020-06-14T18:30:00.000000001")));
+        assertEquals(LocalDateTime.parse("2020-06-14T14:59:59.999999999"),
+                mapped.resolve(1L, 1L, LocalDateTime.parse("2020-06-14T10:00:00")).validTo());
+        assertEquals(Optional.empty(), mapped.watermark());
+    }
+
+    @Test
+    public void testCorruptFilesAreRefused() throws IOException {
+        Path path = dir.resolve("prices.idx");
+        PriceIndexFile.write(path, List.of(new PriceView(1L, 1L, 1L, LocalDateTime.parse("2020-06-14T00:00:00"),
+                LocalDateTime.parse("2020-12-31T23:59:59"), 0, new BigDecimal("35.50"), "EUR")), null);
+        long size = Files.size(path);
+
+        overwrite(path, size - 1, (byte) 0x7f); // last byte of the currency codes
+        IllegalStateException corrupt = assertThrows(IllegalStateException.class, () -> MappedPriceIndex.open(path, true));
+        assertTrue(corrupt.getMessage().contains("checksum"));
+        MappedPriceIndex.open(path, false); // opened as is when the checksum is not verified
+
+        overwrite(path, 7, (byte) 2); // format version 2
+        IllegalStateException version = assertThrows(IllegalStateException.class, () -> MappedPriceIndex.open(path, false));
+        assertTrue(version.getMessage().contains("format version 2"));
+
+        Files.writeString(path, "not an index");
+        assertThrows(IllegalStateException.class, () -> MappedPriceIndex.open(path, false));
+    }
+
+    private static void overwrite(Path path, long position, byte value) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{value}), position);
+        }
+    }
+}
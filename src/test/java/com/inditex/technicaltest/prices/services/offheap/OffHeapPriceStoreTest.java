@@ -0,0 +1,92 @@
+package com.inditex.technicaltest.prices.services.offheap;
+
+import com.inditex.technicaltest.prices.models.PriceKey;
+import com.inditex.technicaltest.prices.models.PriceView;
+import com.inditex.technicaltest.prices.services.memory.PriceIndex;
+import com.inditex.technicaltest.prices.services.timeline.PriceTimelineCompiler;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class OffHeapPriceStoreTest {
+    private static final LocalDateTime ORIGIN = LocalDateTime.parse("2020-01-01T00:00:00");
+
+    @Test
+    public void testLookupsMatchTheInMemoryIndex() {
+        Random random = new Random(42);
+        List<PriceView> prices = randomPrices(random, 2000);
+        OffHeapPriceStore store = store(prices, 1); // sized for one row, every column grows while it is built
+        PriceIndex memory = PriceIndex.of(prices);
+
+        assertEquals(memory.keyCount(), store.keyCount());
+        assertEquals(memory.segmentCount(), store.segmentCount());
+        for (int i = 0; i < 5000; i++) {
+            long brandId = 1L + random.nextInt(4); // brand 4 has no prices
+            long productId = 1L + random.nextInt(21);
+            LocalDateTime date = ORIGIN.minusDays(30).plusSeconds(random.nextLong(4L * 365 * 86_400));
+            assertEquals(memory.find(brandId, productId, date), store.find(brandId, productId, date),
+                    "different price for " + brandId + "/" + productId + " on " + date);
+            assertEquals(memory.resolve(brandId, productId, date), store.resolve(brandId, productId, date),
+                    "different resolution for " + brandId + "/" + productId + " on " + date);
+        }
+    }
+
+    @Test
+    public void testLookupsAllocateNothing() {
+        Random random = new Random(7);
+        List<PriceView> prices = randomPrices(random, 2000);
+        OffHeapPriceStore store = store(prices, prices.size());
+        LocalDateTime[] dates = new LocalDateTime[1000];
+        for (int i = 0; i < dates.length; i++) {
+            dates[i] = ORIGIN.plusSeconds(random.nextLong(3L * 365 * 86_400));
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        int found = lookups(store, dates); // loads and links what the lookups use before measuring
+        long before = threads.getCurrentThreadAllocatedBytes();
+        found += lookups(store, dates);
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+        assertTrue(found > 0);
+        assertEquals(0, allocated);
+    }
+
+    private static int lookups(OffHeapPriceStore store, LocalDateTime[] dates) {
+        int found = 0;
+        for (int i = 0; i < dates.length; i++) {
+            if (store.segmentAt(1L + i % 4, 1L + i % 21, dates[i]) >= 0) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    private static OffHeapPriceStore store(List<PriceView> prices, int expectedRows) {
+        Map<PriceKey, List<PriceView>> byKey = prices.stream().collect(Collectors.groupingBy(PriceKey::of));
+        OffHeapPriceStore.Builder builder = OffHeapPriceStore.builder(expectedRows);
+        byKey.forEach((key, rows) -> builder.add(key.brandId(), key.productId(), PriceTimelineCompiler.compile(rows)));
+        return builder.build();
+    }
+
+    private static List<PriceView> randomPrices(Random random, int count) {
+        List<PriceView> prices = new ArrayList<>();
+        for (long id = 1; id <= count; id++) {
+            LocalDateTime start = ORIGIN.plusHours(random.nextInt(3 * 365 * 24));
+            LocalDateTime end = start.plusHours(1 + random.nextInt(random.nextBoolean() ? 24 : 365 * 24)).minusSeconds(1);
+            BigDecimal value = BigDecimal.valueOf(random.nextInt(100_000), random.nextInt(4));
+            prices.add(new PriceView(id, 1L + random.nextInt(3), 1L + random.nextInt(20), start, end, random.nextInt(4),
+                    value, random.nextInt(10) == 0 ? null : random.nextBoolean() ? "EUR" : "USD"));
+        }
+        return prices;
+    }
+}
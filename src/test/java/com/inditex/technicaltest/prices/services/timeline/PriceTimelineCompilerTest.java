@@ -0,0 +1,156 @@
+package com.inditex.technicaltest.prices.services.timeline;
+
+import com.inditex.technicaltest.prices.models.PriceView;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PriceTimelineCompilerTest {
+
+    @Test
+    public void testCompile_SeedDataIsFlattenedIntoSegments() {
+        PriceTimeline timeline = PriceTimelineCompiler.compile(List.of(
+                price(1L, "2020-06-14T00:00:00", "2020-12-31T23:59:59", 0),
+                price(2L, "2020-06-14T15:00:00", "2020-06-14T18:30:00", 1),
+                price(3L, "2020-06-15T00:00:00", "2020-06-15T11:00:00", 1),
+                price(4L, "2020-06-15T16:00:00", "2020-12-31T23:59:59", 1)
+        ));
+
+        List<PriceSegment> segments = timeline.segments();
+        assertEquals(List.of(1L, 2L, 1L, 3L, 1L, 4L), segments.stream().map(s -> s.price().priceList()).toList());
+        assertEquals(LocalDateTime.parse("2020-06-14T00:00:00"), segments.get(0).from());
+        assertEquals(LocalDateTime.parse("2020-06-14T14:59:59.999999999"), segments.get(0).to());
+        assertEquals(LocalDateTime.parse("2020-06-14T18:30:00"), segments.get(1).to());
+        assertEquals(LocalDateTime.parse("2020-06-14T18:30:00.000000001"), segments.get(2).from());
+        assertEquals(LocalDateTime.parse("2020-12-31T23:59:59"), segments.get(5).to());
+        for (int i = 1; i < segments.size(); i++) {
+            assertTrue(segments.get(i - 1).to().isBefore(segments.get(i).from()), "segments overlap");
+        }
+    }
+
+    @Test
+    public void testCompile_EqualPriorityLatestStartWins() {
+        PriceTimeline timeline = PriceTimelineCompiler.compile(List.of(
+                price(7L, "2020-01-01T00:00:00", "2020-01-31T00:00:00", 1),
+                price(5L, "2020-01-10T00:00:00", "2020-01-20T00:00:00", 1),
+                price(6L, "2020-01-10T00:00:00", "2020-01-15T00:00:00", 1)
+        ));
+
+        assertEquals(7L, priceListOn(timeline, "2020-01-05T00:00:00"));
+        assertEquals(6L, priceListOn(timeline, "2020-01-12T00:00:00")); // same start, highest price list
+        assertEquals(5L, priceListOn(timeline, "2020-01-17T00:00:00"));
+        assertEquals(7L, priceListOn(timeline, "2020-01-25T00:00:00"));
+    }
+
+    @Test
+    public void testCompile_GapsHaveNoSegment() {
+        PriceTimeline timeline = PriceTimelineCompiler.compile(List.of(
+                price(1L, "2020-01-01T00:00:00", "2020-01-10T00:00:00", 0),
+                price(2L, "2020-02-01T00:00:00", "2020-02-10T00:00:00", 0)
+        ));
+
+        assertEquals(2, timeline.size());
+        assertEquals(null, priceListOn(timeline, "2020-01-20T00:00:00"));
+        assertEquals(null, priceListOn(timeline, "2019-12-31T23:59:59"));
+        assertEquals(2L, priceListOn(timeline, "2020-02-10T00:00:00"));
+    }
+
+    @Test
+    public void testResolve_ReturnsThePeriodOfTheAnswer() {
+        PriceTimeline timeline = PriceTimelineCompiler.compile(List.of(
+                price(1L, "2020-01-01T00:00:00", "2020-01-10T00:00:00", 0),
+                price(2L, "2020-02-01T00:00:00", "2020-02-10T00:00:00", 0)
+        ));
+
+        assertEquals(new PriceResolution(LocalDateTime.parse("2020-01-01T00:00:00"), LocalDateTime.parse("2020-01-10T00:00:00"),
+                timeline.segments().get(0).price()), timeline.resolve(LocalDateTime.parse("2020-01-05T00:00:00")));
+        assertEquals(new PriceResolution(LocalDateTime.parse("2020-01-10T00:00:00.000000001"), LocalDateTime.parse("2020-01-31T23:59:59.999999999"), null),
+                timeline.resolve(LocalDateTime.parse("2020-01-20T00:00:00")));
+        assertEquals(new PriceResolution(LocalDateTime.MIN, LocalDateTime.parse("2019-12-31T23:59:59.999999999"), null),
+                timeline.resolve(LocalDateTime.parse("2019-06-01T00:00:00")));
+        assertEquals(new PriceResolution(LocalDateTime.parse("2020-02-10T00:00:00.000000001"), LocalDateTime.MAX, null),
+                timeline.resolve(LocalDateTime.parse("2021-01-01T00:00:00")));
+        assertEquals(new PriceResolution(LocalDateTime.MIN, LocalDateTime.MAX, null),
+                PriceTimeline.EMPTY.resolve(LocalDateTime.parse("2021-01-01T00:00:00")));
+    }
+
+    @Test
+    public void testSweep_SeedDataGivesTheCompiledSegmentsWithinTheRange() {
+        List<PriceView> prices = List.of(
+                price(1L, "2020-06-14T00:00:00", "2020-12-31T23:59:59", 0),
+                price(2L, "2020-06-14T15:00:00", "2020-06-14T18:30:00", 1),
+                price(3L, "2020-06-15T00:00:00", "2020-06-15T11:00:00", 1),
+                price(4L, "2020-06-15T16:00:00", "2020-12-31T23:59:59", 1));
+
+        List<PriceSegment> segments = sweep(prices, "2020-06-14T16:00:00", "2020-06-15T12:00:00");
+
+        assertEquals(List.of(2L, 1L, 3L, 1L), segments.stream().map(s -> s.price().priceList()).toList());
+        assertEquals(LocalDateTime.parse("2020-06-14T16:00:00"), segments.get(0).from());
+        assertEquals(LocalDateTime.parse("2020-06-15T11:00:00.000000001"), segments.get(3).from());
+        assertEquals(LocalDateTime.parse("2020-06-15T12:00:00"), segments.get(3).to());
+        assertEquals(PriceTimelineCompiler.compile(prices).segments(), sweep(prices, "2020-01-01T00:00:00", "2021-01-01T00:00:00"));
+    }
+
+    @Test
+    public void testSweep_ManyOverlappingPricesGiveTheCompiledSegments() {
+        Random random = new Random(42);
+        LocalDateTime origin = LocalDateTime.parse("2020-01-01T00:00:00");
+        List<PriceView> prices = new ArrayList<>();
+        for (long id = 1; id <= 500; id++) {
+            LocalDateTime start = origin.plusHours(random.nextInt(3 * 365 * 24));
+            LocalDateTime end = start.plusHours(1 + random.nextInt(random.nextBoolean() ? 24 : 365 * 24)).minusSeconds(1);
+            prices.add(new PriceView(id, 1L, 1L, start, end, random.nextInt(4), BigDecimal.valueOf(id), "EUR"));
+        }
+
+        for (String[] range : new String[][]{{"2019-01-01T00:00:00", "2024-01-01T00:00:00"}, {"2021-03-01T10:30:00", "2021-09-01T00:00:00"}}) {
+            LocalDateTime from = LocalDateTime.parse(range[0]);
+            LocalDateTime to = LocalDateTime.parse(range[1]);
+            List<PriceSegment> expected = PriceTimelineCompiler.compile(prices).segments().stream()
+                    .filter(segment -> !segment.to().isBefore(from) && !segment.from().isAfter(to))
+                    .map(segment -> new PriceSegment(segment.from().isBefore(from) ? from : segment.from(),
+                            segment.to().isAfter(to) ? to : segment.to(), segment.price()))
+                    .toList();
+
+            assertEquals(expected, sweep(prices, range[0], range[1]));
+        }
+    }
+
+    @Test
+    public void testSweep_StopsReadingAtTheEndOfTheRange() {
+        List<PriceView> read = new ArrayList<>();
+        Stream<PriceView> byStart = Stream.of(
+                price(1L, "2020-01-01T00:00:00", "2020-01-10T00:00:00", 0),
+                price(2L, "2020-02-01T00:00:00", "2020-02-10T00:00:00", 0),
+                price(3L, "2020-03-01T00:00:00", "2020-03-10T00:00:00", 0),
+                price(4L, "2020-04-01T00:00:00", "2020-04-10T00:00:00", 0)).peek(read::add);
+
+        try (Stream<PriceSegment> segments = PriceTimelineCompiler.sweep(byStart, LocalDateTime.parse("2020-01-05T00:00:00"), LocalDateTime.parse("2020-02-05T00:00:00"))) {
+            assertEquals(List.of(1L, 2L), segments.map(s -> s.price().priceList()).toList());
+        }
+        assertEquals(List.of(1L, 2L, 3L), read.stream().map(PriceView::priceList).toList());
+    }
+
+    private static List<PriceSegment> sweep(List<PriceView> prices, String from, String to) {
+        try (Stream<PriceSegment> segments = PriceTimelineCompiler.sweep(
+                prices.stream().sorted(Comparator.comparing(PriceView::startDate)), LocalDateTime.parse(from), LocalDateTime.parse(to))) {
+            return segments.toList();
+        }
+    }
+
+    private static Long priceListOn(PriceTimeline timeline, String date) {
+        return timeline.find(LocalDateTime.parse(date)).map(PriceView::priceList).orElse(null);
+    }
+
+    private static PriceView price(Long id, String start, String end, int priority) {
+        return new PriceView(id, 1L, 1L, LocalDateTime.parse(start), LocalDateTime.parse(end), priority, BigDecimal.TEN, "EUR");
+    }
+}
@@ -0,0 +1,73 @@
+package com.inditex.technicaltest.prices.support;
+
+import com.inditex.technicaltest.prices.dtos.PriceDTO;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.random.RandomGenerator;
+
+/**
+ * Synthetic catalogue for tests, benchmarks and load tests, inserted set-based into an already migrated H2 schema.
+ * <p>
+ * Every product is sold by every brand, each brand/product with monthly prices that overlap each other: row X belongs
+ * to brand X / products % brands + 1 and product X % products + 1, and starts X / (products * brands) months after
+ * {@link #FIRST_DATE}.
+ */
+public class SyntheticCatalogue {
+    public static final LocalDateTime FIRST_DATE = LocalDateTime.parse("2020-01-01T00:00:00");
+    private final int rows;
+    private final int brands;
+    private final int products;
+
+    public SyntheticCatalogue(int rows, int brands, int products) {
+        this.rows = rows;
+        this.brands = brands;
+        this.products = products;
+    }
+
+    // 10 brands and 20 rows per product, 2 per brand/product
+    public static SyntheticCatalogue ofRows(int rows) {
+        return new SyntheticCatalogue(rows, 10, Math.max(1, rows / 20));
+    }
+
+    public void load(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO BRANDS (brand_id, name, created_at) "
+                    + "SELECT X, 'BRAND ' || X, NOW() FROM SYSTEM_RANGE(1, " + brands + ")");
+            statement.execute("INSERT INTO PRODUCTS (product_id, name, created_at) "
+                    + "SELECT X, 'PRODUCT ' || X, NOW() FROM SYSTEM_RANGE(1, " + products + ")");
+            statement.execute("INSERT INTO PRICES (brand_id, product_id, start_date, end_date, priority, price, curr, created_at) "
+                    + "SELECT MOD(X / " + products + ", " + brands + ") + 1, MOD(X, " + products + ") + 1, "
+                    + "DATEADD(MONTH, X / " + ((long) products * brands) + ", TIMESTAMP '2020-01-01 00:00:00'), "
+                    + "DATEADD(MONTH, X / " + ((long) products * brands) + " + MOD(X, 3) + 1, TIMESTAMP '2020-01-01 00:00:00'), "
+                    + "MOD(X, 3), 10 + MOD(X, 90), 'EUR', NOW() "
+                    + "FROM SYSTEM_RANGE(0, " + (rows - 1) + ")");
+            statement.execute("ANALYZE");
+        }
+    }
+
+    // a lookup of an existing brand/product on a date covered by the catalogue
+    public PriceDTO randomLookup(RandomGenerator random) {
+        return new PriceDTO(1L + random.nextInt(products), 1L + random.nextInt(brands), randomDate(random));
+    }
+
+    // a date covered by the prices of every brand/product
+    public LocalDateTime randomDate(RandomGenerator random) {
+        long months = Math.max(1, (long) rows / ((long) products * brands));
+        return FIRST_DATE.plusDays(random.nextLong(months * 28)).plusSeconds(random.nextInt(86_400));
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public int brands() {
+        return brands;
+    }
+
+    public int products() {
+        return products;
+    }
+}
@@ -0,0 +1,80 @@
+package com.inditex.technicaltest.prices.utils;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RequestIdFilterTest {
+
+    private final ch.qos.logback.classic.Logger logger = new LoggerContext().getLogger(RequestIdFilterTest.class);
+
+    private final HotPathSamplingFilter hotPathSamplingFilter = new HotPathSamplingFilter();
+
+    @Test
+    public void testRequestIdsAreUniqueWithinAnInstance() {
+        RequestIdGenerator requestIdGenerator = new RequestIdGenerator("");
+        List<String> ids = List.of(requestIdGenerator.next(), requestIdGenerator.next(), requestIdGenerator.next());
+
+        assertEquals(3, new HashSet<>(ids).size());
+        String prefix = ids.get(0).substring(0, ids.get(0).indexOf('-') + 1);
+        assertEquals(13, prefix.length());
+        assertTrue(ids.stream().allMatch(id -> id.startsWith(prefix)));
+        assertNotEquals(prefix, new RequestIdGenerator("").next().substring(0, 13));
+        assertEquals("prices-1-1", new RequestIdGenerator("prices-1").next());
+    }
+
+    @Test
+    public void testRequestIdIsInTheMdcWhileTheRequestIsServed() throws Exception {
+        List<Map<String, String>> contexts = new ArrayList<>();
+        RequestIdFilter requestIdFilter = new RequestIdFilter(new RequestIdGenerator("prices-1"), 1.0);
+
+        requestIdFilter.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(),
+                (request, response) -> contexts.add(MDC.getCopyOfContextMap()));
+
+        assertEquals(Map.of("requestId", "prices-1-1"), contexts.get(0));
+        assertNull(MDC.get("requestId"));
+    }
+
+    @Test
+    public void testRequestsLeftOutOfTheSampleOnlyLogWarnings() throws Exception {
+        List<FilterReply> replies = new ArrayList<>();
+        RequestIdFilter requestIdFilter = new RequestIdFilter(new RequestIdGenerator("prices-1"), 0.0);
+
+        requestIdFilter.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(), (request, response) -> {
+            assertNotNull(MDC.get("requestId"));
+            replies.add(decide(Level.DEBUG));
+            replies.add(decide(Level.INFO));
+            replies.add(decide(Level.WARN));
+            replies.add(decide(Level.ERROR));
+        });
+        replies.add(decide(Level.INFO));
+
+        assertEquals(List.of(FilterReply.DENY, FilterReply.DENY, FilterReply.NEUTRAL, FilterReply.NEUTRAL, FilterReply.NEUTRAL), replies);
+    }
+
+    @Test
+    public void testSampledRequestsLogEverything() throws Exception {
+        List<FilterReply> replies = new ArrayList<>();
+        RequestIdFilter requestIdFilter = new RequestIdFilter(new RequestIdGenerator("prices-1"), 1.0);
+
+        requestIdFilter.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(),
+                (request, response) -> replies.add(decide(Level.INFO)));
+
+        assertEquals(List.of(FilterReply.NEUTRAL), replies);
+    }
+
+    private FilterReply decide(Level level) {
+        return hotPathSamplingFilter.decide(null, logger, level, "message", null, null);
+    }
+}